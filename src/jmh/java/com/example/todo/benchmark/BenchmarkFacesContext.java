@@ -0,0 +1,131 @@
+package com.example.todo.benchmark;
+
+import javax.faces.application.Application;
+import javax.faces.application.FacesMessage;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.faces.context.ResponseStream;
+import javax.faces.context.ResponseWriter;
+import javax.faces.render.RenderKit;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * ベンチマーク用の最小限の {@link FacesContext}。
+ *
+ * <p>JSF 実装を起動せずに Bean のアクションメソッドを呼び出すため、
+ * {@code addMessage} などをすべて何もせずに受け流します。
+ * Mockito のモックと違い呼び出し履歴を記録しないので、
+ * 計測結果 (特に gc プロファイラの割り当て量) に影響しません。</p>
+ */
+final class BenchmarkFacesContext extends FacesContext {
+
+    private BenchmarkFacesContext() {
+    }
+
+    /** 現在のスレッドにベンチマーク用コンテキストを設定する。 */
+    static void install() {
+        setCurrentInstance(new BenchmarkFacesContext());
+    }
+
+    /** 現在のスレッドのコンテキストを解除する。 */
+    static void uninstall() {
+        setCurrentInstance(null);
+    }
+
+    @Override
+    public void addMessage(String clientId, FacesMessage message) {
+        // 計測対象外のため破棄する
+    }
+
+    @Override
+    public Application getApplication() {
+        return null;
+    }
+
+    @Override
+    public Iterator<String> getClientIdsWithMessages() {
+        return Collections.emptyIterator();
+    }
+
+    @Override
+    public ExternalContext getExternalContext() {
+        return null;
+    }
+
+    @Override
+    public FacesMessage.Severity getMaximumSeverity() {
+        return null;
+    }
+
+    @Override
+    public Iterator<FacesMessage> getMessages() {
+        return Collections.emptyIterator();
+    }
+
+    @Override
+    public Iterator<FacesMessage> getMessages(String clientId) {
+        return Collections.emptyIterator();
+    }
+
+    @Override
+    public RenderKit getRenderKit() {
+        return null;
+    }
+
+    @Override
+    public boolean getRenderResponse() {
+        return false;
+    }
+
+    @Override
+    public boolean getResponseComplete() {
+        return false;
+    }
+
+    @Override
+    public ResponseStream getResponseStream() {
+        return null;
+    }
+
+    @Override
+    public void setResponseStream(ResponseStream responseStream) {
+        // 使用しない
+    }
+
+    @Override
+    public ResponseWriter getResponseWriter() {
+        return null;
+    }
+
+    @Override
+    public void setResponseWriter(ResponseWriter responseWriter) {
+        // 使用しない
+    }
+
+    @Override
+    public UIViewRoot getViewRoot() {
+        return null;
+    }
+
+    @Override
+    public void setViewRoot(UIViewRoot root) {
+        // 使用しない
+    }
+
+    @Override
+    public void release() {
+        // 使用しない
+    }
+
+    @Override
+    public void renderResponse() {
+        // 使用しない
+    }
+
+    @Override
+    public void responseComplete() {
+        // 使用しない
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.web.CompressionFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一覧ページの応答の圧縮 ({@link CompressionFilter}) のベンチマーク。
+ *
+ * <p>{@code todos.xhtml} が描画する行と同じ形のマークアップを、Facelets と同じように応答の Writer へ行ごとに書き出し、
+ * フィルターを通して送り出すまでの CPU 時間を圧縮レベルごとに計測します ({@code level=0} は圧縮なし)。
+ * 送り出したバイト数 (ペイロードのサイズ) と送り出した回数 (flush の回数) はトライアルの開始時に標準出力へ出力します。</p>
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.include=CompressionBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    private int rows;
+
+    @Param({"0", "1", "4", "6", "9"})
+    private int level;
+
+    private String[] markup;
+    private CompressionFilter filter;
+    private HttpServletRequest request;
+    private CountingStream sink;
+    private HttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        markup = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            markup[i] = row(i);
+        }
+        filter = new CompressionFilter();
+        filter.init(filterConfig(Map.of(CompressionFilter.PARAM_LEVEL, String.valueOf(level))));
+        request = proxy(HttpServletRequest.class, Map.of("getHeader", "gzip, deflate, br"));
+        sink = new CountingStream();
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8));
+        response = proxy(HttpServletResponse.class, Map.of(
+                "getOutputStream", sink,
+                "getWriter", writer,
+                "getCharacterEncoding", "UTF-8",
+                "getContentType", "text/html;charset=UTF-8",
+                "getStatus", HttpServletResponse.SC_OK));
+        chain = (req, res) -> {
+            Writer out = res.getWriter();
+            for (String row : markup) {
+                out.write(row);
+            }
+        };
+
+        long uncompressed = 0;
+        for (String row : markup) {
+            uncompressed += row.getBytes(StandardCharsets.UTF_8).length;
+        }
+        render();
+        System.out.printf("%nrows=%d level=%d uncompressed=%d bytes sent=%d bytes (%.1f%%) flushes=%d%n",
+                rows, level, uncompressed, sink.bytes, 100.0 * sink.bytes / uncompressed, sink.flushes);
+    }
+
+    @Benchmark
+    public long render() throws IOException, ServletException {
+        sink.bytes = 0;
+        sink.flushes = 0;
+        filter.doFilter(request, response, chain);
+        // 圧縮しない場合 (level=0) はコンテナの Writer に残っている分を送り出す
+        response.getWriter().flush();
+        return sink.bytes;
+    }
+
+    /** todos.xhtml の 1 行分と同じ形の HTML (Mojarra の出力に合わせたクライアント ID・f:ajax のスクリプト) */
+    private static String row(int index) {
+        long id = index + 1L;
+        boolean completed = index % 2 == 0;
+        String prefix = "listForm:items:" + index + ":";
+        StringBuilder html = new StringBuilder(1024)
+                .append("<div id=\"").append(prefix).append("row\" class=\"todo-item ")
+                .append(completed ? "item-completed" : "item-pending").append("\" data-todo-id=\"").append(id)
+                .append("\"><div class=\"todo-row\"><input id=\"").append(prefix).append("j_idt25\" type=\"checkbox\" name=\"")
+                .append(prefix).append("j_idt25\" class=\"todo-select\" title=\"一括操作の対象に選択\" />")
+                .append("<input id=\"").append(prefix).append("j_idt27\" type=\"submit\" name=\"").append(prefix)
+                .append("j_idt27\" value=\"").append(completed ? "&#10003;" : "&#9675;").append("\" class=\"btn-toggle ")
+                .append(completed ? "toggle-done" : "toggle-open")
+                .append("\" title=\"完了/未完了を切り替え\" onclick=\"mojarra.ab(this,event,'action',0,'")
+                .append(prefix).append("row stats');return false\" />")
+                .append("<span class=\"todo-title ").append(completed ? "strikethrough" : "").append("\">タスク ")
+                .append(index).append("</span><div class=\"todo-actions\">")
+                .append("<input type=\"button\" onclick=\"window.location.href='/jsf-todo-app/detail.xhtml?id=")
+                .append(id).append("'; return false;\" value=\"詳細・編集\" class=\"btn btn-secondary\" />")
+                .append("<input id=\"").append(prefix).append("j_idt31\" type=\"submit\" name=\"").append(prefix)
+                .append("j_idt31\" value=\"削除\" class=\"btn btn-danger\" onclick=\"jsf.util.chain(this,event,")
+                .append("'return confirm(\\'このTodo を削除しますか？\\')','mojarra.ab(this,event,\\'action\\',0,")
+                .append("\\'listForm stats messagesPanel pagerPanel\\')');")
+                .append("return false\" /></div></div>");
+        if (index % 3 == 0) {
+            html.append("<p class=\"todo-desc\">説明 ").append(index).append("</p>");
+        }
+        return html.append("</div>\n").toString();
+    }
+
+    private static FilterConfig filterConfig(Map<String, String> parameters) {
+        ServletContext context = (ServletContext) Proxy.newProxyInstance(
+                ServletContext.class.getClassLoader(), new Class<?>[]{ServletContext.class},
+                (proxy, method, args) -> method.getName().equals("getInitParameter") ? parameters.get(args[0]) : null);
+        return proxy(FilterConfig.class, Map.of("getServletContext", context));
+    }
+
+    /**
+     * メソッド名ごとに決まった値を返すだけのプロキシ (Mockito と違い呼び出し履歴を記録しない)。
+     * 登録していないメソッドは {@code null} (プリミティブ型は 0・false) を返す。
+     */
+    private static <T> T proxy(Class<T> type, Map<String, Object> values) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object value = values.get(method.getName());
+            if (value != null) {
+                return value;
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == int.class) {
+                return 0;
+            }
+            if (returnType == long.class) {
+                return 0L;
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * 送り出したバイト数と flush の回数を数える出力先 (ソケットの代わり)。
+     */
+    private static final class CountingStream extends ServletOutputStream {
+
+        long bytes;
+        int flushes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.model.TodoItem;
+import com.example.todo.web.CachedFragment;
+import com.example.todo.web.FragmentCache;
+import com.sun.faces.config.WebConfiguration;
+import com.sun.faces.renderkit.html_basic.HtmlResponseWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.faces.application.Application;
+import javax.faces.application.ApplicationWrapper;
+import javax.faces.application.FacesMessage;
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIComponentBase;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.faces.context.ResponseStream;
+import javax.faces.context.ResponseWriter;
+import javax.faces.event.SystemEvent;
+import javax.faces.render.RenderKit;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一覧の行キャッシュ ({@link CachedFragment}) による描画時間のベンチマーク。
+ *
+ * <p>1 ページ分 ({@code rows} 行) の行を Mojarra の {@link HtmlResponseWriter} で描画します。
+ * 各行の子コンポーネントは {@code todos.xhtml} の行と同じ要素・属性 (チェックボックス・f:ajax のボタン・タイトル・説明) を
+ * ResponseWriter の API で書き出します (属性値・テキストのエスケープを含む)。
+ * 呼び出しごとに {@code changed} 行の Todo の完了状態を切り替えてから描画するため、
+ * {@code cached} では切り替えた行だけが描き直され、ほかの行は保存した HTML がそのまま出力されます。
+ * {@code uncached} は行キャッシュがない場合 (すべての行を毎回描画する) の比較です。</p>
+ *
+ * <p>1 回の描画で描き直した行数 (キャッシュのミス数) はトライアルの終了時に標準出力へ出力します。</p>
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.include=RowCacheBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowCacheBenchmark {
+
+    /** 1 ページの行数 (既定のページサイズと最大のページサイズ) */
+    @Param({"20", "100"})
+    private int rows;
+
+    /** 描画ごとに変更する行数 */
+    @Param({"0", "1", "5"})
+    private int changed;
+
+    private TodoItem[] todos;
+    private CachedFragment[] cachedRows;
+    private UIComponent[] plainRows;
+    private FragmentCache cache;
+    private RenderContext context;
+    private StringWriter out;
+    private int next;
+    private long renders;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        todos = new TodoItem[rows];
+        cachedRows = new CachedFragment[rows];
+        plainRows = new UIComponent[rows];
+        cache = new FragmentCache();
+        for (int i = 0; i < rows; i++) {
+            long id = i + 1L;
+            todos[i] = new TodoItem(id, "タスク " + id, i % 3 == 0 ? "説明 " + id : "");
+            todos[i].setCompleted(i % 2 == 0);
+            cachedRows[i] = new CachedFragment();
+            cachedRows[i].setId("row" + i);
+            cachedRows[i].setCache(cache);
+            cachedRows[i].getChildren().add(new RowContent(todos[i]));
+            plainRows[i] = new RowContent(todos[i]);
+            plainRows[i].setId("plain" + i);
+        }
+        out = new StringWriter(64 * 1024);
+        context = new RenderContext(new HtmlResponseWriter(out, "text/html", "UTF-8", false, false,
+                WebConfiguration.DisableUnicodeEscaping.False, false));
+        context.install();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.uninstall();
+        System.out.printf("%nrows=%d changed=%d cache misses per render=%.2f (rendered rows)%n",
+                rows, changed, renders == 0 ? 0.0 : (double) cache.getMissCount() / renders);
+    }
+
+    @Benchmark
+    public int cached() throws IOException {
+        touch();
+        out.getBuffer().setLength(0);
+        for (int i = 0; i < rows; i++) {
+            TodoItem todo = todos[i];
+            cachedRows[i].setKey(todo.getId() + ":" + todo.getVersion() + ":");
+            cachedRows[i].encodeAll(context);
+        }
+        renders++;
+        return out.getBuffer().length();
+    }
+
+    @Benchmark
+    public int uncached() throws IOException {
+        touch();
+        out.getBuffer().setLength(0);
+        for (int i = 0; i < rows; i++) {
+            plainRows[i].encodeAll(context);
+        }
+        return out.getBuffer().length();
+    }
+
+    /** 前回の描画の後に {@code changed} 行の Todo が変更された状態にする (完了切り替え 1 回分)。 */
+    private void touch() {
+        for (int i = 0; i < changed; i++) {
+            TodoItem todo = todos[next];
+            todo.setCompleted(!todo.isCompleted());
+            next = (next + 1) % rows;
+        }
+    }
+
+    /**
+     * {@code todos.xhtml} の行の内容と同じ要素・属性を書き出すコンポーネント。
+     */
+    private static final class RowContent extends UIComponentBase {
+
+        private final TodoItem todo;
+
+        RowContent(TodoItem todo) {
+            this.todo = todo;
+        }
+
+        @Override
+        public String getFamily() {
+            return "benchmark";
+        }
+
+        @Override
+        public void encodeAll(FacesContext context) throws IOException {
+            ResponseWriter writer = context.getResponseWriter();
+            String prefix = "listForm:items:" + (todo.getId() - 1) + ":";
+            boolean completed = todo.isCompleted();
+
+            writer.startElement("div", this);
+            writer.writeAttribute("class", "todo-row", null);
+
+            writer.startElement("input", this);
+            writer.writeAttribute("id", prefix + "j_idt25", null);
+            writer.writeAttribute("type", "checkbox", null);
+            writer.writeAttribute("name", prefix + "j_idt25", null);
+            writer.writeAttribute("class", "todo-select", null);
+            writer.writeAttribute("title", "一括操作の対象に選択", null);
+            writer.endElement("input");
+
+            writer.startElement("input", this);
+            writer.writeAttribute("id", prefix + "j_idt27", null);
+            writer.writeAttribute("type", "submit", null);
+            writer.writeAttribute("name", prefix + "j_idt27", null);
+            writer.writeAttribute("value", completed ? "✓" : "○", null);
+            writer.writeAttribute("class", "btn-toggle " + (completed ? "toggle-done" : "toggle-open"), null);
+            writer.writeAttribute("title", "完了/未完了を切り替え", null);
+            writer.writeAttribute("onclick", "mojarra.ab(this,event,'action',0,'" + prefix + "row stats',"
+                    + "{'todoId':'" + todo.getId() + "'});return false", null);
+            writer.endElement("input");
+
+            writer.startElement("span", this);
+            writer.writeAttribute("class", "todo-title " + (completed ? "strikethrough" : ""), null);
+            writer.writeText(todo.getTitle(), null);
+            writer.endElement("span");
+
+            writer.startElement("div", this);
+            writer.writeAttribute("class", "todo-actions", null);
+            writer.startElement("input", this);
+            writer.writeAttribute("type", "button", null);
+            writer.writeAttribute("onclick", "window.location.href='/jsf-todo-app/detail.xhtml?id="
+                    + todo.getId() + "'; return false;", null);
+            writer.writeAttribute("value", "詳細・編集", null);
+            writer.writeAttribute("class", "btn btn-secondary", null);
+            writer.endElement("input");
+            writer.startElement("input", this);
+            writer.writeAttribute("id", prefix + "j_idt31", null);
+            writer.writeAttribute("type", "submit", null);
+            writer.writeAttribute("name", prefix + "j_idt31", null);
+            writer.writeAttribute("value", "削除", null);
+            writer.writeAttribute("class", "btn btn-danger", null);
+            writer.writeAttribute("onclick", "jsf.util.chain(this,event,'return confirm(\\'このTodo を削除しますか？\\')',"
+                    + "'mojarra.ab(this,event,\\'action\\',0,\\'listForm stats messagesPanel pagerPanel\\',"
+                    + "{\\'todoId\\':\\'" + todo.getId() + "\\'})');return false", null);
+            writer.endElement("input");
+            writer.endElement("div");
+            writer.endElement("div");
+
+            String description = todo.getDescription();
+            if (description != null && !description.isEmpty()) {
+                writer.startElement("p", this);
+                writer.writeAttribute("class", "todo-desc", null);
+                writer.writeText(description, null);
+                writer.endElement("p");
+            }
+        }
+    }
+
+    /**
+     * 描画に必要な分だけを実装した {@link FacesContext}。
+     *
+     * <p>JSF 実装を起動せずにコンポーネントを描画するため、レスポンスの ResponseWriter と
+     * 描画中のコンポーネントのスタックを保持する属性だけを持ち、システムイベントは破棄します。</p>
+     */
+    private static final class RenderContext extends FacesContext {
+
+        private final Map<Object, Object> attributes = new HashMap<>();
+        private final Application application = new ApplicationWrapper(null) {
+            @Override
+            public void publishEvent(FacesContext context, Class<? extends SystemEvent> systemEventClass,
+                                     Object source) {
+                // 計測対象外のため破棄する
+            }
+
+            @Override
+            public void publishEvent(FacesContext context, Class<? extends SystemEvent> systemEventClass,
+                                     Class<?> sourceBaseType, Object source) {
+                // 計測対象外のため破棄する
+            }
+        };
+        private ResponseWriter responseWriter;
+
+        RenderContext(ResponseWriter responseWriter) {
+            this.responseWriter = responseWriter;
+            // ExternalContext の初期化パラメータを参照しないよう、既定値を設定しておく
+            attributes.put(UIComponent.HONOR_CURRENT_COMPONENT_ATTRIBUTES_PARAM_NAME, Boolean.FALSE);
+        }
+
+        void install() {
+            setCurrentInstance(this);
+        }
+
+        void uninstall() {
+            setCurrentInstance(null);
+        }
+
+        @Override
+        public Map<Object, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public ResponseWriter getResponseWriter() {
+            return responseWriter;
+        }
+
+        @Override
+        public void setResponseWriter(ResponseWriter responseWriter) {
+            this.responseWriter = responseWriter;
+        }
+
+        @Override
+        public Application getApplication() {
+            return application;
+        }
+
+        @Override
+        public void addMessage(String clientId, FacesMessage message) {
+            // 使用しない
+        }
+
+        @Override
+        public Iterator<String> getClientIdsWithMessages() {
+            return Collections.emptyIterator();
+        }
+
+        @Override
+        public ExternalContext getExternalContext() {
+            return null;
+        }
+
+        @Override
+        public FacesMessage.Severity getMaximumSeverity() {
+            return null;
+        }
+
+        @Override
+        public Iterator<FacesMessage> getMessages() {
+            return Collections.emptyIterator();
+        }
+
+        @Override
+        public Iterator<FacesMessage> getMessages(String clientId) {
+            return Collections.emptyIterator();
+        }
+
+        @Override
+        public RenderKit getRenderKit() {
+            return null;
+        }
+
+        @Override
+        public boolean getRenderResponse() {
+            return true;
+        }
+
+        @Override
+        public boolean getResponseComplete() {
+            return false;
+        }
+
+        @Override
+        public ResponseStream getResponseStream() {
+            return null;
+        }
+
+        @Override
+        public void setResponseStream(ResponseStream responseStream) {
+            // 使用しない
+        }
+
+        @Override
+        public UIViewRoot getViewRoot() {
+            return null;
+        }
+
+        @Override
+        public void setViewRoot(UIViewRoot root) {
+            // 使用しない
+        }
+
+        @Override
+        public void release() {
+            // 使用しない
+        }
+
+        @Override
+        public void renderResponse() {
+            // 使用しない
+        }
+
+        @Override
+        public void responseComplete() {
+            // 使用しない
+        }
+    }
+}
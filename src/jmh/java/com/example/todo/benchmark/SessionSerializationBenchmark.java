@@ -0,0 +1,154 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * セッションに保持する Todo ストアのシリアライズ・デシリアライズのベンチマーク。
+ *
+ * <p>セッションの永続化 (パッシベーション) やレプリケーション 1 回分に相当する処理を、
+ * 現在の独自形式 ({@code compact}) と、以前の標準シリアライズと同じオブジェクトグラフ
+ * ({@code legacy}: {@code LinkedHashMap<Long, TodoItem>}, {@code Long} の ID,
+ * {@code LocalDateTime} の作成日時) で比較します。
+ * シリアライズ後のバイト数はトライアルの開始時に標準出力へ出力します。</p>
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.include=SessionSerializationBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SessionSerializationBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int size;
+
+    private TodoStore store;
+    private LegacyStore legacyStore;
+    private byte[] compactBytes;
+    private byte[] legacyBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 0, 0, 123456789);
+        store = new TodoStore();
+        legacyStore = new LegacyStore();
+        for (int i = 0; i < size; i++) {
+            TodoItem item = new TodoItem(store.nextId(), "タスク " + i, i % 3 == 0 ? "説明 " + i : "");
+            item.setCreatedAt(base.plusSeconds(i * 37L));
+            item.setCompleted(i % 2 == 0);
+            store.add(item);
+            legacyStore.add(new LegacyTodoItem(item));
+        }
+        compactBytes = serialize(store);
+        legacyBytes = serialize(legacyStore);
+        System.out.printf("%nsize=%d compact=%d bytes (%.1f/item) legacy=%d bytes (%.1f/item)%n",
+                size, compactBytes.length, (double) compactBytes.length / size,
+                legacyBytes.length, (double) legacyBytes.length / size);
+    }
+
+    @Benchmark
+    public byte[] serializeCompact() throws IOException {
+        return serialize(store);
+    }
+
+    @Benchmark
+    public byte[] serializeLegacy() throws IOException {
+        return serialize(legacyStore);
+    }
+
+    @Benchmark
+    public Object deserializeCompact() throws IOException, ClassNotFoundException {
+        return deserialize(compactBytes);
+    }
+
+    @Benchmark
+    public Object deserializeLegacy() throws IOException, ClassNotFoundException {
+        return deserialize(legacyBytes);
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    /**
+     * 以前の {@code TodoStore} と同じフィールド構成 (標準シリアライズ)。
+     */
+    static final class LegacyStore implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Map<Long, LegacyTodoItem> index = new LinkedHashMap<>();
+        private Long lastAddedId;
+        private boolean ascending = true;
+        private long idSequence;
+
+        void add(LegacyTodoItem item) {
+            if (lastAddedId != null && item.id <= lastAddedId) {
+                ascending = false;
+            }
+            index.put(item.id, item);
+            lastAddedId = item.id;
+            idSequence = Math.max(idSequence, item.id);
+        }
+    }
+
+    /**
+     * 以前の {@code TodoItem} と同じフィールド構成 (標準シリアライズ)。
+     */
+    static final class LegacyTodoItem implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Long id;
+        private final String title;
+        private final String description;
+        private final boolean completed;
+        private final LocalDateTime createdAt;
+
+        LegacyTodoItem(TodoItem item) {
+            this.id = item.getId();
+            this.title = item.getTitle();
+            this.description = item.getDescription();
+            this.completed = item.isCompleted();
+            this.createdAt = item.getCreatedAt();
+        }
+    }
+}
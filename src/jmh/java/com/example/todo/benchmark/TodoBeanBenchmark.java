@@ -0,0 +1,128 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.bean.TodoBean;
+import com.example.todo.model.TodoItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TodoBean} のアクション・集計メソッドのベンチマーク。
+ *
+ * <p>件数 {@code size} の Todo を保持した状態で各操作のスループットを計測します。
+ * 追加・削除は対になる操作を同じ呼び出しで行い、計測中も件数を一定に保ちます。
+ * 削除・切り替えの対象は全体に散らばるよう疑似乱数で選びます。</p>
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.include=TodoBeanBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TodoBeanBenchmark {
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private TodoBean bean;
+
+    /** 現在ストアに存在する Todo の ID (削除・切り替え対象の選択用) */
+    private long[] liveIds;
+
+    /** 次に addTodo で採番される ID */
+    private long nextId;
+
+    private long seed = 0x9E3779B97F4A7C15L;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFacesContext.install();
+        bean = new TodoBean();
+        for (TodoItem sample : bean.getTodoList()) {
+            bean.deleteTodo(sample.getId());
+        }
+        for (int i = 0; i < size; i++) {
+            bean.setNewTitle("タスク " + i);
+            bean.setNewDescription("ベンチマーク用の説明 " + i);
+            bean.addTodo();
+        }
+        List<TodoItem> list = bean.getTodoList();
+        liveIds = new long[list.size()];
+        for (int i = 0; i < liveIds.length; i++) {
+            liveIds[i] = list.get(i).getId();
+        }
+        nextId = liveIds[liveIds.length - 1] + 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkFacesContext.uninstall();
+    }
+
+    /**
+     * Todo を 1 件追加する。件数を一定に保つため、追加した Todo をすぐに削除する。
+     */
+    @Benchmark
+    public String addTodo() {
+        bean.setNewTitle("追加タスク");
+        bean.setNewDescription("説明");
+        bean.addTodo();
+        return bean.deleteTodo(nextId++);
+    }
+
+    /**
+     * ランダムな位置の Todo を 1 件削除する。件数を一定に保つため、代わりに 1 件追加する。
+     */
+    @Benchmark
+    public String deleteTodo() {
+        int slot = nextSlot();
+        String outcome = bean.deleteTodo(liveIds[slot]);
+        bean.setNewTitle("追加タスク");
+        bean.addTodo();
+        liveIds[slot] = nextId++;
+        return outcome;
+    }
+
+    /**
+     * ランダムな位置の Todo の完了/未完了を切り替える。
+     */
+    @Benchmark
+    public String toggleComplete() {
+        return bean.toggleComplete(bean.findTodo(liveIds[nextSlot()]));
+    }
+
+    @Benchmark
+    public long getCompletedCount() {
+        return bean.getCompletedCount();
+    }
+
+    @Benchmark
+    public long getPendingCount() {
+        return bean.getPendingCount();
+    }
+
+    /** xorshift で 0 〜 liveIds.length - 1 の位置を選ぶ。 */
+    private int nextSlot() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) ((seed >>> 1) % liveIds.length);
+    }
+}
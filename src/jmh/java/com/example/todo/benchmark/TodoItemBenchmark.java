@@ -0,0 +1,78 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.model.TodoItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TodoItem#getFormattedCreatedAt()} のベンチマーク。
+ *
+ * <p>一覧の描画では全行で作成日時がフォーマットされるため、
+ * 件数 {@code size} の Todo すべてをフォーマットする処理を 1 操作として計測します。
+ * {@code formatEveryCall} は呼び出しごとにフォーマットする (以前の実装と同じ) 場合の比較対象です。
+ * 割り当て量の差は gc プロファイラの {@code gc.alloc.rate.norm} (1 操作 = 全件描画 1 回分) で確認できます。</p>
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.include=TodoItemBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TodoItemBenchmark {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private TodoItem[] items;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 9, 0);
+        items = new TodoItem[size];
+        for (int i = 0; i < size; i++) {
+            items[i] = new TodoItem((long) i + 1, "タスク " + i, "");
+            items[i].setCreatedAt(base.plusSeconds(i * 37L));
+        }
+    }
+
+    /**
+     * 全件の作成日時をフォーマットする (一覧全体の描画 1 回分に相当)。
+     */
+    @Benchmark
+    public void getFormattedCreatedAt(Blackhole blackhole) {
+        for (TodoItem item : items) {
+            blackhole.consume(item.getFormattedCreatedAt());
+        }
+    }
+
+    /**
+     * 全件の作成日時を呼び出しごとにフォーマットする (キャッシュなしの比較対象)。
+     */
+    @Benchmark
+    public void formatEveryCall(Blackhole blackhole) {
+        for (TodoItem item : items) {
+            blackhole.consume(item.getCreatedAt().format(FORMATTER));
+        }
+    }
+}
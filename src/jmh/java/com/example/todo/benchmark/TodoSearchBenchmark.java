@@ -0,0 +1,110 @@
+package com.example.todo.benchmark;
+
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TodoStore#search(String)} のベンチマーク。
+ *
+ * <p>N-gram インデックスによる検索 ({@code searchIndexed}) と、
+ * 全件のタイトル・説明に対する {@code contains} 走査 ({@code searchLinear}) を比較します。
+ * 検索語は呼び出しごとに切り替えるため、直前の検索結果のキャッシュは効きません。
+ * {@code editIndexed} は Todo 1 件の編集に伴うインデックスの差分更新を計測します。</p>
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.include=TodoSearchBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TodoSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "買い物", "レポート", "請求書", "会議", "資料", "確認", "送付", "予約", "掃除", "運動",
+            "打ち合わせ", "見積もり", "提出", "修正", "連絡", "準備", "整理", "更新", "申請", "支払い"
+    };
+
+    /** 一致件数の少ない検索語と多い検索語を交互に使う */
+    private static final String[] QUERIES = {"請求書 送付", "会議", "見積もり提出", "確認"};
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private TodoStore store;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        store = new TodoStore();
+        for (int i = 0; i < size; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            String description = WORDS[random.nextInt(WORDS.length)] + "を" + WORDS[random.nextInt(WORDS.length)]
+                    + "する (" + WORDS[random.nextInt(WORDS.length)] + ")";
+            store.add(new TodoItem(store.nextId(), title, description));
+        }
+        // インデックスの作成はトライアルの開始時に済ませる
+        store.search(QUERIES[0]);
+    }
+
+    @Benchmark
+    public List<TodoItem> searchIndexed() {
+        return store.search(nextQuery());
+    }
+
+    @Benchmark
+    public List<TodoItem> searchLinear() {
+        String[] terms = nextQuery().toLowerCase(Locale.ROOT).split("\\s+");
+        List<TodoItem> result = new ArrayList<>();
+        for (TodoItem item : store.asList()) {
+            if (matches(item, terms)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public TodoItem editIndexed() {
+        TodoItem item = store.find((long) (next++ % size) + 1);
+        item.edit(item.getTitle(), WORDS[next % WORDS.length] + "を確認する");
+        return item;
+    }
+
+    private String nextQuery() {
+        return QUERIES[next++ & (QUERIES.length - 1)];
+    }
+
+    private static boolean matches(TodoItem item, String[] terms) {
+        String title = item.getTitle().toLowerCase(Locale.ROOT);
+        String description = item.getDescription().toLowerCase(Locale.ROOT);
+        for (String term : terms) {
+            if (!title.contains(term) && !description.contains(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.todo.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 負荷試験で JSF が出力した HTML からフォームやボタンを取り出すための簡易パーサー。
+ *
+ * <p>Mojarra が出力する整形済みの HTML (属性値は二重引用符で囲まれる) だけを対象とし、
+ * 一般的な HTML の解析は行いません。</p>
+ */
+final class Html {
+
+    private static final Pattern ATTRIBUTE = Pattern.compile("([\\w:.-]+)\\s*=\\s*\"([^\"]*)\"");
+    private static final Pattern INPUT = Pattern.compile("<input\\b([^>]*)>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TEXTAREA =
+            Pattern.compile("<textarea\\b([^>]*)>(.*?)</textarea>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern TODO_ID = Pattern.compile("data-todo-id=\"(\\d+)\"");
+    private static final Pattern NUMERIC_REFERENCE = Pattern.compile("&#(x?)([0-9a-fA-F]+);");
+
+    private Html() {
+    }
+
+    /**
+     * 指定した ID の {@code form} 要素の内容を返す。
+     *
+     * @return 開始タグの属性と内容。見つからない場合は {@code null}
+     */
+    static HtmlForm form(String html, String id) {
+        Matcher matcher = Pattern.compile("<form\\b([^>]*\\bid=\"" + Pattern.quote(id) + "\"[^>]*)>(.*?)</form>",
+                Pattern.CASE_INSENSITIVE | Pattern.DOTALL).matcher(html);
+        if (!matcher.find()) {
+            return null;
+        }
+        Map<String, String> attributes = attributes(matcher.group(1));
+        HtmlForm form = new HtmlForm(attributes.getOrDefault("action", ""));
+        String body = matcher.group(2);
+        for (Map<String, String> input : inputs(body)) {
+            String type = input.getOrDefault("type", "text").toLowerCase();
+            String name = input.get("name");
+            if (name == null) {
+                continue;
+            }
+            if (type.equals("submit")) {
+                form.addButton(input);
+            } else if (type.equals("checkbox") || type.equals("radio")) {
+                if (input.containsKey("checked")) {
+                    form.set(name, input.getOrDefault("value", "on"));
+                }
+            } else {
+                form.set(name, input.getOrDefault("value", ""));
+            }
+        }
+        Matcher textarea = TEXTAREA.matcher(body);
+        while (textarea.find()) {
+            String name = attributes(textarea.group(1)).get("name");
+            if (name != null) {
+                form.set(name, unescape(textarea.group(2)));
+            }
+        }
+        return form;
+    }
+
+    /**
+     * {@code input} 要素の属性を出現順に返す。
+     */
+    static List<Map<String, String>> inputs(String html) {
+        List<Map<String, String>> inputs = new ArrayList<>();
+        Matcher matcher = INPUT.matcher(html);
+        while (matcher.find()) {
+            inputs.add(attributes(matcher.group(1)));
+        }
+        return inputs;
+    }
+
+    /**
+     * 一覧ページの {@code data-todo-id} の行のうち、{@code text} を含む最初の行の Todo ID を返す。
+     *
+     * @return Todo ID。見つからない場合は {@code -1}
+     */
+    static long findTodoId(String html, String text) {
+        int position = html.indexOf(text);
+        if (position < 0) {
+            return -1;
+        }
+        long id = -1;
+        Matcher matcher = TODO_ID.matcher(html);
+        while (matcher.find() && matcher.start() < position) {
+            id = Long.parseLong(matcher.group(1));
+        }
+        return id;
+    }
+
+    /**
+     * 一覧ページの指定した Todo の行 (次の行の開始まで) を返す。
+     *
+     * @return 行の HTML。見つからない場合は {@code null}
+     */
+    static String row(String html, long todoId) {
+        int start = html.indexOf("data-todo-id=\"" + todoId + "\"");
+        if (start < 0) {
+            return null;
+        }
+        int end = html.indexOf("data-todo-id=\"", start + 1);
+        return html.substring(start, end >= 0 ? end : html.length());
+    }
+
+    /**
+     * 属性の並びを名前 → 値 (文字参照を戻したもの) に変換する。値のない属性は名前を値とする。
+     */
+    static Map<String, String> attributes(String tag) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        Matcher matcher = ATTRIBUTE.matcher(tag);
+        while (matcher.find()) {
+            attributes.put(matcher.group(1).toLowerCase(), unescape(matcher.group(2)));
+        }
+        if (tag.matches("(?is).*\\schecked(\\s.*|/?)$") && !attributes.containsKey("checked")) {
+            attributes.put("checked", "checked");
+        }
+        return attributes;
+    }
+
+    /**
+     * 文字参照を文字に戻す。
+     */
+    static String unescape(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        Matcher matcher = NUMERIC_REFERENCE.matcher(text);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            int codePoint = Integer.parseInt(matcher.group(2), matcher.group(1).isEmpty() ? 10 : 16);
+            matcher.appendReplacement(result, Matcher.quoteReplacement(new String(Character.toChars(codePoint))));
+        }
+        matcher.appendTail(result);
+        return result.toString()
+                .replace("&quot;", "\"")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&amp;", "&");
+    }
+}
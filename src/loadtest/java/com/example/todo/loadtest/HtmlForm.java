@@ -0,0 +1,66 @@
+package com.example.todo.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 負荷試験で送信する JSF のフォーム。
+ *
+ * <p>ページから取り出した hidden フィールド (フォーム ID・{@code javax.faces.ViewState}) と入力欄の値を保持し、
+ * 入力欄を書き換えてから {@link JsfClient#submit(HtmlForm, Map)} で送信します。</p>
+ */
+final class HtmlForm {
+
+    /** ビューの状態を保持する hidden フィールドの名前 */
+    static final String VIEW_STATE = "javax.faces.ViewState";
+
+    private final String action;
+    private final Map<String, String> fields = new LinkedHashMap<>();
+    private final List<Map<String, String>> buttons = new ArrayList<>();
+
+    HtmlForm(String action) {
+        this.action = action;
+    }
+
+    /** {@code form} 要素の {@code action} 属性 (コンテキストパスを含むパス) */
+    String getAction() {
+        return action;
+    }
+
+    /** 送信するフィールド (名前 → 値) */
+    Map<String, String> getFields() {
+        return fields;
+    }
+
+    void set(String name, String value) {
+        fields.put(name, value);
+    }
+
+    void addButton(Map<String, String> attributes) {
+        buttons.add(attributes);
+    }
+
+    /**
+     * 条件に一致する最初の送信ボタンの属性を返す。
+     *
+     * @throws ScenarioException 一致するボタンがない場合
+     */
+    Map<String, String> button(Predicate<Map<String, String>> condition) throws ScenarioException {
+        for (Map<String, String> button : buttons) {
+            if (condition.test(button)) {
+                return button;
+            }
+        }
+        throw new ScenarioException("フォーム " + action + " に該当するボタンがありません");
+    }
+
+    /**
+     * ボタンの {@code class} 属性に指定したクラスが含まれるかどうかを判定する条件。
+     */
+    static Predicate<Map<String, String>> hasClass(String styleClass) {
+        return attributes -> (" " + attributes.getOrDefault("class", "") + " ").contains(" " + styleClass + " ");
+    }
+}
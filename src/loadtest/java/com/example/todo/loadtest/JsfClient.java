@@ -0,0 +1,262 @@
+package com.example.todo.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 1 人の仮想ユーザー (1 セッション) としてアプリにアクセスする HTTP クライアント。
+ *
+ * <p>ブラウザと同じように Cookie (セッション ID・Flash の {@code csfcfc}) を保持し、
+ * POST 後のリダイレクト (PRG) を GET で辿ります。{@link HttpClient} は全ユーザーで共有し、
+ * Cookie だけをユーザーごとに管理します。</p>
+ */
+final class JsfClient {
+
+    private static final int MAX_REDIRECTS = 5;
+
+    /** f:ajax のボタンの onclick から execute / render を取り出す (mojarra.ab(this,event,'action',execute,render,...)) */
+    private static final Pattern AJAX_BUTTON =
+            Pattern.compile("mojarra\\.ab\\(this,event,'action',(0|'[^']*'),(0|'[^']*')");
+
+    /** 部分描画の応答に含まれるビューの状態の更新 */
+    private static final Pattern VIEW_STATE_UPDATE = Pattern.compile(
+            "<update id=\"[^\"]*" + Pattern.quote(HtmlForm.VIEW_STATE) + "[^\"]*\"><!\\[CDATA\\[(.*?)]]></update>",
+            Pattern.DOTALL);
+
+    private final HttpClient http;
+    private final URI base;
+    private final Duration timeout;
+    private final Map<String, String> cookies = new LinkedHashMap<>();
+
+    /**
+     * @param http    共有する HTTP クライアント (リダイレクトを辿らない設定にすること)
+     * @param base    アプリの URL (末尾の {@code /} を含む。例: {@code http://localhost:8080/jsf-todo-app/})
+     * @param timeout 1 リクエストのタイムアウト
+     */
+    JsfClient(HttpClient http, URI base, Duration timeout) {
+        this.http = http;
+        this.base = base;
+        this.timeout = timeout;
+    }
+
+    /**
+     * ページを GET する。リダイレクトは辿る。
+     *
+     * @param path アプリの URL からの相対パス (例: {@code todos.xhtml})
+     */
+    Page get(String path) throws IOException, InterruptedException {
+        return follow(send(HttpRequest.newBuilder(base.resolve(path)).GET()));
+    }
+
+    /**
+     * フォームを指定したボタンで送信する (ページ全体の POST)。リダイレクトは GET で辿る。
+     */
+    Page submit(HtmlForm form, Map<String, String> button) throws IOException, InterruptedException {
+        Map<String, String> fields = new LinkedHashMap<>(form.getFields());
+        fields.put(button.get("name"), button.getOrDefault("value", ""));
+        return follow(send(post(form, fields)));
+    }
+
+    /**
+     * f:ajax のボタンを押した場合と同じ部分描画のリクエストを送信する。
+     * 応答に含まれるビューの状態でフォームの {@code javax.faces.ViewState} を更新する。
+     *
+     * @return partial-response の XML
+     */
+    String ajax(HtmlForm form, Map<String, String> button) throws IOException, InterruptedException {
+        String source = button.get("id");
+        Matcher matcher = AJAX_BUTTON.matcher(button.getOrDefault("onclick", "").replace("\\'", "'"));
+        if (source == null || !matcher.find()) {
+            throw new ScenarioException("f:ajax のボタンではありません: " + button);
+        }
+        Map<String, String> fields = new LinkedHashMap<>(form.getFields());
+        fields.put("javax.faces.source", source);
+        fields.put("javax.faces.partial.event", "click");
+        fields.put("javax.faces.partial.execute", ajaxTargets(matcher.group(1), source));
+        fields.put("javax.faces.partial.render", ajaxTargets(matcher.group(2), ""));
+        fields.put("javax.faces.behavior.event", "action");
+        fields.put("javax.faces.partial.ajax", "true");
+
+        HttpResponse<String> response = send(post(form, fields).header("Faces-Request", "partial/ajax"));
+        String body = response.body();
+        if (response.statusCode() != 200 || !body.contains("<partial-response") || body.contains("<error>")) {
+            throw new ScenarioException("部分描画の応答がエラーです (" + response.statusCode() + "): " + abbreviate(body));
+        }
+        Matcher viewState = VIEW_STATE_UPDATE.matcher(body);
+        if (viewState.find()) {
+            form.set(HtmlForm.VIEW_STATE, viewState.group(1));
+        }
+        return body;
+    }
+
+    /** Cookie を破棄して新しいセッションとしてアクセスし直す。 */
+    void reset() {
+        cookies.clear();
+    }
+
+    private HttpRequest.Builder post(HtmlForm form, Map<String, String> fields) {
+        StringBuilder body = new StringBuilder();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (body.length() > 0) {
+                body.append('&');
+            }
+            body.append(URLEncoder.encode(field.getKey(), StandardCharsets.UTF_8))
+                    .append('=')
+                    .append(URLEncoder.encode(field.getValue(), StandardCharsets.UTF_8));
+        }
+        return HttpRequest.newBuilder(base.resolve(form.getAction()))
+                .header("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        request.timeout(timeout);
+        if (!cookies.isEmpty()) {
+            StringBuilder header = new StringBuilder();
+            for (Map.Entry<String, String> cookie : cookies.entrySet()) {
+                if (header.length() > 0) {
+                    header.append("; ");
+                }
+                header.append(cookie.getKey()).append('=').append(cookie.getValue());
+            }
+            request.header("Cookie", header.toString());
+        }
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        for (String setCookie : response.headers().allValues("Set-Cookie")) {
+            storeCookie(setCookie);
+        }
+        return response;
+    }
+
+    private Page follow(HttpResponse<String> response) throws IOException, InterruptedException {
+        for (int redirects = 0; isRedirect(response.statusCode()); redirects++) {
+            if (redirects == MAX_REDIRECTS) {
+                throw new ScenarioException("リダイレクトが多すぎます: " + response.uri());
+            }
+            String location = response.headers().firstValue("Location").orElse(null);
+            if (location == null) {
+                throw new ScenarioException("Location のないリダイレクトです: " + response.uri());
+            }
+            response = send(HttpRequest.newBuilder(response.uri().resolve(location)).GET());
+        }
+        if (response.statusCode() != 200) {
+            throw new ScenarioException(response.uri() + " がエラーを返しました (" + response.statusCode() + ")");
+        }
+        return new Page(response.uri(), response.body());
+    }
+
+    private static boolean isRedirect(int status) {
+        return status == 301 || status == 302 || status == 303;
+    }
+
+    /** Set-Cookie を保持する (属性は Max-Age / Expires による削除だけを扱う)。 */
+    private void storeCookie(String setCookie) {
+        String[] parts = setCookie.split(";");
+        int equals = parts[0].indexOf('=');
+        if (equals <= 0) {
+            return;
+        }
+        String name = parts[0].substring(0, equals).trim();
+        String value = parts[0].substring(equals + 1).trim();
+        boolean expired = false;
+        for (int i = 1; i < parts.length; i++) {
+            String attribute = parts[i].trim();
+            String lower = attribute.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("max-age=")) {
+                try {
+                    expired = Long.parseLong(attribute.substring("max-age=".length()).trim()) <= 0;
+                } catch (NumberFormatException e) {
+                    // 不正な Max-Age は無視する
+                }
+            } else if (lower.startsWith("expires=")) {
+                expired |= isPast(attribute.substring("expires=".length()).trim());
+            }
+        }
+        if (expired) {
+            cookies.remove(name);
+        } else {
+            cookies.put(name, value);
+        }
+    }
+
+    private static boolean isPast(String date) {
+        try {
+            return ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).isBefore(ZonedDateTime.now());
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /** mojarra.ab の execute / render 引数 (0 は既定値) を送信する値に変換する。 */
+    private static String ajaxTargets(String argument, String defaultValue) {
+        return argument.equals("0") ? defaultValue : argument.substring(1, argument.length() - 1);
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() <= 200 ? text : text.substring(0, 200) + "...";
+    }
+
+    /**
+     * 取得したページ (リダイレクト後の URL と HTML)。
+     */
+    static final class Page {
+
+        private final URI uri;
+        private final String html;
+
+        Page(URI uri, String html) {
+            this.uri = uri;
+            this.html = html;
+        }
+
+        URI getUri() {
+            return uri;
+        }
+
+        String getHtml() {
+            return html;
+        }
+
+        /**
+         * 指定した ID のフォームを返す。
+         *
+         * @throws ScenarioException フォームがない場合 (エラーページや想定外のページ)
+         */
+        HtmlForm form(String id) throws ScenarioException {
+            HtmlForm form = Html.form(html, id);
+            if (form == null) {
+                throw new ScenarioException(uri + " にフォーム " + id + " がありません");
+            }
+            return form;
+        }
+
+        /**
+         * 一覧ページの指定した Todo の行にあるボタンのうち、指定したクラスを持つものを返す。
+         */
+        Map<String, String> rowButton(long todoId, String styleClass) throws ScenarioException {
+            String row = Html.row(html, todoId);
+            if (row != null) {
+                for (Map<String, String> input : Html.inputs(row)) {
+                    if ("submit".equalsIgnoreCase(input.get("type")) && HtmlForm.hasClass(styleClass).test(input)) {
+                        return input;
+                    }
+                }
+            }
+            throw new ScenarioException(uri + " に Todo " + todoId + " の行のボタン (" + styleClass + ") がありません");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.todo.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 負荷試験のステップごと・シナリオ全体の応答時間 (HdrHistogram) とエラー数。
+ *
+ * <p>値はマイクロ秒で記録し、最大 1 時間まで有効数字 3 桁で保持します。
+ * {@link #start()} から {@link #stop()} までの間 (ウォームアップ後の計測期間) の値だけを記録し、
+ * スループットはこの期間の長さで割って求めます。</p>
+ */
+final class LatencyStats {
+
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<Step, Histogram> steps = new EnumMap<>(Step.class);
+    private final Map<Step, LongAdder> errors = new EnumMap<>(Step.class);
+    private final Histogram scenarios = newHistogram();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean measuring;
+    private volatile long startNanos;
+    private volatile long stopNanos;
+
+    LatencyStats() {
+        for (Step step : Step.values()) {
+            steps.put(step, newHistogram());
+            errors.put(step, new LongAdder());
+        }
+    }
+
+    /** 計測期間を開始する (ウォームアップ中の値は記録しない)。 */
+    void start() {
+        startNanos = System.nanoTime();
+        measuring = true;
+    }
+
+    /** 計測期間を終了する。 */
+    void stop() {
+        stopNanos = System.nanoTime();
+        measuring = false;
+    }
+
+    void record(Step step, long elapsedNanos) {
+        if (measuring) {
+            steps.get(step).recordValue(toMicros(elapsedNanos));
+        }
+    }
+
+    void recordError(Step step) {
+        if (measuring) {
+            errors.get(step).increment();
+        }
+    }
+
+    /** 完了したシナリオの応答時間 (開放型モデルでは開始予定時刻から) を記録する。 */
+    void recordScenario(long elapsedNanos) {
+        if (measuring) {
+            scenarios.recordValue(toMicros(elapsedNanos));
+        }
+    }
+
+    /** 開放型モデルで同時実行数の上限に達し、開始できなかったシナリオを記録する。 */
+    void recordDropped() {
+        if (measuring) {
+            dropped.increment();
+        }
+    }
+
+    /** 計測期間のエラー数 (開始できなかったシナリオを含む) */
+    long getErrorCount() {
+        long total = dropped.sum();
+        for (LongAdder count : errors.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /** 計測期間の長さ (秒) */
+    double getMeasuredSeconds() {
+        return Math.max(1e-9, (stopNanos - startNanos) / 1e9);
+    }
+
+    /** 計測期間のステップの 1 秒あたりの完了件数 */
+    double getThroughput(Step step) {
+        return steps.get(step).getTotalCount() / getMeasuredSeconds();
+    }
+
+    /** 計測期間のステップの応答時間のパーセンタイル (ミリ秒) */
+    double getPercentileMillis(Step step, double percentile) {
+        return steps.get(step).getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * ステップごとの件数・エラー数・スループット・パーセンタイル (ミリ秒) を表形式で出力する。
+     */
+    void print(PrintStream out) {
+        double seconds = getMeasuredSeconds();
+        out.printf(Locale.ROOT, "%-10s %8s %7s %9s %9s %9s %9s %9s %9s %9s%n",
+                "step", "count", "errors", "req/s", "mean(ms)", "p50", "p90", "p99", "p99.9", "max");
+        for (Step step : Step.values()) {
+            printRow(out, step.getLabel(), steps.get(step), errors.get(step).sum(), seconds);
+        }
+        printRow(out, "scenario", scenarios, dropped.sum(), seconds);
+        out.printf(Locale.ROOT, "計測時間 %.1f 秒, 完了したシナリオ %d 件 (%.2f 件/秒), エラー %d 件%n",
+                seconds, scenarios.getTotalCount(), scenarios.getTotalCount() / seconds, getErrorCount());
+    }
+
+    /**
+     * HdrHistogram のパーセンタイル分布 ({@code .hgrm}, ミリ秒) をステップごとのファイルに出力する。
+     * HdrHistogram の Plotter などでグラフにできる。
+     */
+    void writeHistograms(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Step step : Step.values()) {
+            writeHistogram(directory.resolve(step.getLabel() + ".hgrm"), steps.get(step));
+        }
+        writeHistogram(directory.resolve("scenario.hgrm"), scenarios);
+    }
+
+    private static void writeHistogram(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8.name())) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static void printRow(PrintStream out, String label, Histogram histogram, long errors, double seconds) {
+        out.printf(Locale.ROOT, "%-10s %8d %7d %9.1f %9.2f", label, histogram.getTotalCount(), errors,
+                histogram.getTotalCount() / seconds, histogram.getMean() / 1000.0);
+        for (double percentile : PERCENTILES) {
+            out.printf(Locale.ROOT, " %9.2f", histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        out.printf(Locale.ROOT, " %9.2f%n", histogram.getMaxValue() / 1000.0);
+    }
+
+    private static Histogram newHistogram() {
+        return new ConcurrentHistogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(HIGHEST_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.todo.loadtest;
+
+import com.example.todo.server.TodoServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 実際の JSF の画面遷移 (PRG・ビューの状態・Flash の Cookie を含む) で負荷をかける負荷試験ツール。
+ *
+ * <p>{@link TodoScenario} (一覧 → 追加 → 詳細 → 保存 → 完了切り替え → 削除) を次のどちらかのモデルで繰り返し、
+ * ステップごとのスループットと応答時間のパーセンタイル (HdrHistogram) を出力します。</p>
+ *
+ * <ul>
+ *   <li><strong>closed</strong> (既定): {@code --users} 人の仮想ユーザーがそれぞれ 1 つのセッションで
+ *       シナリオを繰り返す (前のシナリオが終わるまで次を開始しない)。同時実行数が一定の負荷</li>
+ *   <li><strong>open</strong>: {@code --rate} 件/秒の一定の間隔で、新しいセッションのシナリオを開始する。
+ *       サーバーが遅くなっても到着率は変わらず、シナリオ全体の応答時間は開始予定時刻から計測する
+ *       (coordinated omission を避ける)</li>
+ * </ul>
+ *
+ * <pre>
+ * # 組み込み Tomcat でアプリを起動して計測する
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--embedded --users=50 --duration=60"
+ *
+ * # 起動済みのサーバーに開放型モデルで負荷をかける
+ * mvn -Ploadtest test-compile exec:exec \
+ *     -Dloadtest.args="--url=http://localhost:8080/jsf-todo-app/ --model=open --rate=100"
+ * </pre>
+ *
+ * <p>計測期間にエラーがあった場合は終了コード 1 で終了します。</p>
+ */
+public final class LoadTest {
+
+    private final Options options;
+    private final URI base;
+    private final LatencyStats stats = new LatencyStats();
+    private final TodoScenario scenario = new TodoScenario(stats);
+    private final HttpClient http;
+
+    /** 同じ内容のエラーが大量に出力されないよう、エラーの内容は最初の数件だけ出力する */
+    private final AtomicInteger reported = new AtomicInteger();
+
+    private LoadTest(Options options, URI base) {
+        this.options = options;
+        this.base = base;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(options.timeout)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        TodoServer server = null;
+        long errors;
+        try {
+            URI base = URI.create(options.url);
+            if (options.embedded) {
+                server = startEmbedded(options.virtualThreads);
+                base = server.getBaseUri();
+            }
+            errors = measure(options, base).getErrorCount();
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+        System.exit(errors == 0 ? 0 : 1);
+    }
+
+    /**
+     * 空いているポートで {@code src/main/webapp} と {@code target/classes} から組み込み Tomcat を起動し、
+     * 準備完了 (アプリのウォームアップの完了) まで待つ。
+     */
+    static TodoServer startEmbedded(boolean virtualThreads) throws Exception {
+        long start = System.nanoTime();
+        TodoServer server = TodoServer.start(0, new File("src/main/webapp"), new File("target/classes"), virtualThreads);
+        System.out.printf("組み込み Tomcat を起動しました: %s (%d ms, リクエストの処理: %s)%n",
+                server.getBaseUri(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                server.isVirtualThreads() ? "仮想スレッド" : "スレッドプール");
+        // アプリのウォームアップ (レディネス) の完了を待ってから負荷をかける
+        server.awaitReady(Duration.ofMinutes(5));
+        System.out.printf("準備完了 (%d ms)%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return server;
+    }
+
+    /**
+     * 指定した URL のアプリに負荷をかけ、結果を出力する。
+     *
+     * @return 計測期間の結果
+     */
+    static LatencyStats measure(Options options, URI base) throws IOException, InterruptedException {
+        return new LoadTest(options, base).run();
+    }
+
+    /**
+     * ウォームアップと計測を行い、結果を出力する。
+     */
+    private LatencyStats run() throws IOException, InterruptedException {
+        System.out.printf("%s に %s で負荷をかけます (ウォームアップ %d 秒, 計測 %d 秒)%n",
+                base, options.describeModel(), options.warmup.getSeconds(), options.duration.getSeconds());
+
+        long start = System.nanoTime();
+        long measureStart = start + options.warmup.toNanos();
+        long end = measureStart + options.duration.toNanos();
+
+        ExecutorService workers = options.open
+                ? Executors.newCachedThreadPool()
+                : Executors.newFixedThreadPool(options.users);
+        Thread controller = new Thread(() -> {
+            sleepUntil(measureStart);
+            stats.start();
+            sleepUntil(end);
+            stats.stop();
+        }, "loadtest-controller");
+        controller.start();
+
+        if (options.open) {
+            runOpen(workers, start, end);
+        } else {
+            runClosed(workers, end);
+        }
+        controller.join();
+        workers.shutdown();
+        if (!workers.awaitTermination(options.timeout.toMillis() * Step.values().length, TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+
+        System.out.println();
+        stats.print(System.out);
+        if (options.histogramDir != null) {
+            stats.writeHistograms(Paths.get(options.histogramDir));
+            System.out.println("パーセンタイル分布を出力しました: " + options.histogramDir);
+        }
+        return stats;
+    }
+
+    /** 閉鎖型モデル: 仮想ユーザーごとのセッションでシナリオを繰り返す。 */
+    private void runClosed(ExecutorService workers, long end) {
+        for (int i = 0; i < options.users; i++) {
+            workers.execute(() -> {
+                JsfClient client = new JsfClient(http, base, options.timeout);
+                while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                    try {
+                        scenario.run(client, System.nanoTime());
+                    } catch (IOException e) {
+                        report(e);
+                        // 途中で中断したセッションの状態 (ビューの状態など) は引き継がない
+                        client.reset();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (!options.think.isZero()) {
+                        sleepUntil(Math.min(end, System.nanoTime() + options.think.toNanos()));
+                    }
+                }
+            });
+        }
+    }
+
+    /** 開放型モデル: 一定の間隔で新しいセッションのシナリオを開始する。 */
+    private void runOpen(ExecutorService workers, long start, long end) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / options.rate);
+        AtomicInteger inFlight = new AtomicInteger();
+        for (long intendedStart = start; intendedStart < end; intendedStart += interval) {
+            sleepUntil(intendedStart);
+            if (inFlight.get() >= options.maxInFlight) {
+                stats.recordDropped();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            long scheduled = intendedStart;
+            workers.execute(() -> {
+                try {
+                    scenario.run(new JsfClient(http, base, options.timeout), scheduled);
+                } catch (IOException e) {
+                    report(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void report(IOException e) {
+        if (reported.incrementAndGet() <= 10) {
+            System.err.println("シナリオが失敗しました: " + e.getMessage());
+        }
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * コマンドライン引数 ({@code --name=value} または {@code --flag})。
+     */
+    static final class Options {
+
+        static final String USAGE = String.join(System.lineSeparator(),
+                "使い方: LoadTest [オプション]",
+                "  --url=URL            対象のアプリの URL (既定: http://localhost:8080/jsf-todo-app/)",
+                "  --embedded           組み込み Tomcat (TodoServer) でアプリを起動して計測する (--url は無視する)",
+                "  --virtual-threads    --embedded: リクエストを仮想スレッドで処理する (Java 21 以降)",
+                "  --model=closed|open  負荷のモデル (既定: closed)",
+                "  --users=N            closed: 仮想ユーザー数 (既定: 20)",
+                "  --think=MS           closed: シナリオの間の待ち時間 (ミリ秒, 既定: 0)",
+                "  --rate=R             open: 1 秒あたりに開始するシナリオ数 (既定: 10)",
+                "  --max-in-flight=N    open: 同時に実行するシナリオの上限 (既定: 500)",
+                "  --warmup=S           ウォームアップ (計測しない期間, 秒, 既定: 10)",
+                "  --duration=S         計測期間 (秒, 既定: 30)",
+                "  --timeout=S          1 リクエストのタイムアウト (秒, 既定: 30)",
+                "  --hgrm-dir=DIR       パーセンタイル分布 (.hgrm) の出力先");
+
+        String url = "http://localhost:8080/jsf-todo-app/";
+        boolean embedded;
+        boolean virtualThreads;
+        boolean open;
+        int users = 20;
+        Duration think = Duration.ZERO;
+        double rate = 10;
+        int maxInFlight = 500;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(30);
+        Duration timeout = Duration.ofSeconds(30);
+        String histogramDir;
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new LinkedHashMap<>();
+            for (String arg : args) {
+                if (arg.isEmpty()) {
+                    continue;
+                }
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("不明な引数です: " + arg);
+                }
+                int equals = arg.indexOf('=');
+                values.put(equals < 0 ? arg.substring(2) : arg.substring(2, equals),
+                        equals < 0 ? "true" : arg.substring(equals + 1));
+            }
+
+            Options options = new Options();
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                String value = entry.getValue();
+                try {
+                    switch (entry.getKey()) {
+                        case "url":
+                            options.url = value.endsWith("/") ? value : value + "/";
+                            break;
+                        case "embedded":
+                            options.embedded = Boolean.parseBoolean(value);
+                            break;
+                        case "virtual-threads":
+                            options.virtualThreads = Boolean.parseBoolean(value);
+                            break;
+                        case "model":
+                            if (!value.equals("closed") && !value.equals("open")) {
+                                throw new IllegalArgumentException("--model は closed または open です: " + value);
+                            }
+                            options.open = value.equals("open");
+                            break;
+                        case "users":
+                            options.users = positive(entry.getKey(), Integer.parseInt(value));
+                            break;
+                        case "think":
+                            options.think = Duration.ofMillis(Long.parseLong(value));
+                            break;
+                        case "rate":
+                            options.rate = Double.parseDouble(value);
+                            if (!(options.rate > 0)) {
+                                throw new IllegalArgumentException("--rate は正の数です: " + value);
+                            }
+                            break;
+                        case "max-in-flight":
+                            options.maxInFlight = positive(entry.getKey(), Integer.parseInt(value));
+                            break;
+                        case "warmup":
+                            options.warmup = Duration.ofSeconds(Long.parseLong(value));
+                            break;
+                        case "duration":
+                            options.duration = Duration.ofSeconds(positive(entry.getKey(), Integer.parseInt(value)));
+                            break;
+                        case "timeout":
+                            options.timeout = Duration.ofSeconds(positive(entry.getKey(), Integer.parseInt(value)));
+                            break;
+                        case "hgrm-dir":
+                            options.histogramDir = value;
+                            break;
+                        default:
+                            throw new IllegalArgumentException("不明なオプションです: --" + entry.getKey());
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("--" + entry.getKey() + " の値が数値ではありません: " + value);
+                }
+            }
+            return options;
+        }
+
+        String describeModel() {
+            return open
+                    ? String.format("open モデル (%.1f 件/秒, 同時実行の上限 %d)", rate, maxInFlight)
+                    : String.format("closed モデル (仮想ユーザー %d 人, 待ち時間 %d ms)", users, think.toMillis());
+        }
+
+        private static int positive(String name, int value) {
+            if (value <= 0) {
+                throw new IllegalArgumentException("--" + name + " は正の整数です: " + value);
+            }
+            return value;
+        }
+    }
+}
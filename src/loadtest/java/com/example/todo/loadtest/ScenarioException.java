@@ -0,0 +1,15 @@
+package com.example.todo.loadtest;
+
+import java.io.IOException;
+
+/**
+ * シナリオのステップの応答が期待と異なる場合 (エラー応答、フォームや行が見つからないなど) の例外。
+ */
+class ScenarioException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    ScenarioException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.todo.loadtest;
+
+/**
+ * シナリオ ({@link TodoScenario}) のステップ。レポートにはこの順で出力する。
+ */
+enum Step {
+
+    /** 一覧ページの表示 (GET todos.xhtml) */
+    LIST("list"),
+
+    /** Todo の追加 (addForm の POST) */
+    ADD("add"),
+
+    /** 詳細ページの表示 (GET detail.xhtml?id=N) */
+    DETAIL("detail"),
+
+    /** 編集の保存 (editForm の POST → 一覧へのリダイレクトと Flash のメッセージ) */
+    SAVE("save"),
+
+    /** 完了切り替え (f:ajax の部分描画) */
+    TOGGLE("toggle"),
+
+    /** 削除 (f:ajax の部分描画) */
+    DELETE("delete");
+
+    private final String label;
+
+    Step(String label) {
+        this.label = label;
+    }
+
+    String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.todo.loadtest;
+
+import com.example.todo.server.TodoServer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 組み込み Tomcat のリクエスト処理をスレッドプールと仮想スレッドで比較するベンチマーク。
+ *
+ * <p>リクエスト処理の方式 ({@code platform}: Tomcat の既定のスレッドプール (maxThreads 200),
+ * {@code virtual}: リクエストごとの仮想スレッド) ごとに組み込み Tomcat を起動し、スレッドプールの上限を超える
+ * 同時ユーザー数 (既定 400) の閉鎖型モデルで {@link TodoScenario} を実行して、一覧 ({@code todos.xhtml} の表示) と
+ * 保存 ({@code TodoDetailBean.save()} → リダイレクト後の一覧) のスループットと p99 を比較します。</p>
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.todo.loadtest.ThreadModeBenchmark
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.example.todo.loadtest.ThreadModeBenchmark \
+ *     -Dloadtest.args="--users=1000 --duration=60"
+ * </pre>
+ *
+ * <p>同じ JVM で方式を順に計測するため、それぞれウォームアップ期間を設けてから計測します
+ * (JIT の影響を避けたい場合は {@code --modes=virtual} のように方式ごとに別の JVM で実行してください)。
+ * 引数は {@link LoadTest} と同じです ({@code --embedded} は常に有効)。
+ * 仮想スレッドに対応していない実行環境 (Java 20 以前) では {@code virtual} を省略します。</p>
+ */
+public final class ThreadModeBenchmark {
+
+    /** 比較するステップ */
+    private static final Step[] STEPS = {Step.LIST, Step.SAVE};
+
+    private ThreadModeBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> modes = Arrays.asList("platform", "virtual");
+        List<String> loadTestArgs = new ArrayList<>();
+        // スレッドプールの上限 (200) を超える同時実行数を既定にする (引数で上書きできる)
+        loadTestArgs.add("--users=400");
+        for (String arg : args) {
+            if (arg.startsWith("--modes=")) {
+                modes = Arrays.asList(arg.substring("--modes=".length()).split(","));
+            } else if (!arg.equals("--embedded") && !arg.startsWith("--virtual-threads")) {
+                loadTestArgs.add(arg);
+            }
+        }
+        LoadTest.Options options;
+        try {
+            options = LoadTest.Options.parse(loadTestArgs.toArray(new String[0]));
+            for (String mode : modes) {
+                if (!mode.equals("platform") && !mode.equals("virtual")) {
+                    throw new IllegalArgumentException("--modes は platform と virtual のカンマ区切りです: " + mode);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        Map<String, LatencyStats> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            TodoServer server = LoadTest.startEmbedded(mode.equals("virtual"));
+            try {
+                if (mode.equals("virtual") && !server.isVirtualThreads()) {
+                    System.out.println("仮想スレッドに対応していないため virtual を省略します");
+                    continue;
+                }
+                results.put(mode, LoadTest.measure(options, server.getBaseUri()));
+            } finally {
+                server.stop();
+            }
+        }
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-10s", "mode");
+        for (Step step : STEPS) {
+            System.out.printf(Locale.ROOT, " %14s %14s", step.getLabel() + " req/s", step.getLabel() + " p99(ms)");
+        }
+        System.out.printf(Locale.ROOT, " %8s%n", "errors");
+        for (Map.Entry<String, LatencyStats> result : results.entrySet()) {
+            LatencyStats stats = result.getValue();
+            System.out.printf(Locale.ROOT, "%-10s", result.getKey());
+            for (Step step : STEPS) {
+                System.out.printf(Locale.ROOT, " %14.1f %14.2f", stats.getThroughput(step), stats.getPercentileMillis(step, 99));
+            }
+            System.out.printf(Locale.ROOT, " %8d%n", stats.getErrorCount());
+        }
+    }
+}
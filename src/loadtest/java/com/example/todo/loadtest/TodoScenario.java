@@ -0,0 +1,95 @@
+package com.example.todo.loadtest;
+
+import com.example.todo.loadtest.JsfClient.Page;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 負荷試験のシナリオ。ブラウザでの操作と同じ順序で次のステップを実行する。
+ *
+ * <pre>
+ * 一覧 (GET) → 追加 (POST, 末尾ページを描画) → 詳細 (GET detail.xhtml?id=N)
+ *   → 保存 (POST → リダイレクト → 一覧 + Flash のメッセージ) → 完了切り替え (ajax) → 削除 (ajax)
+ * </pre>
+ *
+ * <p>追加した Todo を最後に削除するため、同じセッションで繰り返してもストアの件数は増えません。
+ * 各ステップはリダイレクトを含めた応答時間を {@link LatencyStats} に記録し、
+ * 応答が期待と異なる場合はそのステップのエラーとして記録してシナリオを中断します。</p>
+ */
+final class TodoScenario {
+
+    /** 追加する Todo のタイトルを一意にするための連番 (全ユーザー共通) */
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final LatencyStats stats;
+
+    TodoScenario(LatencyStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * シナリオを 1 回実行する。
+     *
+     * @param client        仮想ユーザーのクライアント
+     * @param intendedStart シナリオを開始する予定だった時刻 ({@link System#nanoTime()})。
+     *                      開放型モデルで開始が遅れた時間もシナリオ全体の応答時間に含めるために使う
+     */
+    void run(JsfClient client, long intendedStart) throws IOException, InterruptedException {
+        String title = "loadtest-" + SEQUENCE.incrementAndGet();
+
+        Page list = step(Step.LIST, () -> client.get("todos.xhtml"));
+
+        Page added = step(Step.ADD, () -> {
+            HtmlForm form = list.form("addForm");
+            form.set("addForm:newTitle", title);
+            form.set("addForm:newDesc", "負荷試験で追加した Todo");
+            return client.submit(form, form.button(HtmlForm.hasClass("btn-primary")));
+        });
+        long id = Html.findTodoId(added.getHtml(), title);
+        if (id < 0) {
+            stats.recordError(Step.ADD);
+            throw new ScenarioException("追加した Todo (" + title + ") が一覧にありません");
+        }
+
+        Page detail = step(Step.DETAIL, () -> client.get("detail.xhtml?id=" + id));
+
+        Page saved = step(Step.SAVE, () -> {
+            HtmlForm form = detail.form("editForm");
+            form.set("editForm:editTitle", title + "-edited");
+            form.set("editForm:editDesc", "負荷試験で編集した Todo");
+            Page page = client.submit(form, form.button(HtmlForm.hasClass("btn-primary")));
+            // PRG のリダイレクト後の一覧に、Flash で引き継いだ完了メッセージが表示されること
+            if (!page.getUri().getPath().endsWith("todos.xhtml") || !page.getHtml().contains("class=\"messages\"")) {
+                throw new ScenarioException("保存後の一覧に完了メッセージがありません: " + page.getUri());
+            }
+            return page;
+        });
+
+        HtmlForm listForm = saved.form("listForm");
+        step(Step.TOGGLE, () -> client.ajax(listForm, saved.rowButton(id, "btn-toggle")));
+        Map<String, String> delete = saved.rowButton(id, "btn-danger");
+        step(Step.DELETE, () -> client.ajax(listForm, delete));
+
+        stats.recordScenario(System.nanoTime() - intendedStart);
+    }
+
+    private <T> T step(Step step, Action<T> action) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            T result = action.run();
+            stats.record(step, System.nanoTime() - start);
+            return result;
+        } catch (IOException e) {
+            stats.recordError(step);
+            throw e;
+        }
+    }
+
+    /** 時間を計測するステップの処理 */
+    @FunctionalInterface
+    private interface Action<T> {
+        T run() throws IOException, InterruptedException;
+    }
+}
@@ -1,29 +1,45 @@
 package com.example.todo.bean;
 
 import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+import com.example.todo.persistence.TodoJournalManager;
+import com.example.todo.web.FragmentCache;
+import com.example.todo.web.Warmup;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.SessionScoped;
 import javax.faces.application.FacesMessage;
 import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
-import javax.faces.context.Flash;
+import javax.faces.event.PhaseId;
+import javax.inject.Inject;
 import javax.inject.Named;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Todo リストを管理するセッションスコープの Bean。
  *
- * <p>「詳細ページへの遷移」時に {@link Flash Flash コンテナ} を使用して
- * 選択した {@link TodoItem} をリダイレクト後のページへ渡します。</p>
+ * <p>詳細ページへは Todo ID をリクエストパラメータで渡して遷移します
+ * ({@code detail.xhtml?id=N})。詳細ページの {@link TodoDetailBean} は
+ * {@link #findTodo(Long)} で ID インデックスから Todo を取得するため、
+ * Todo 自体を Flash やセッションに格納する必要はありません。</p>
  *
- * <pre>
- * Flash flash = externalContext.getFlash();
- * flash.put("selectedTodo", item);          // Flash に格納
- * return "detail?faces-redirect=true";     // リダイレクト
- * </pre>
+ * <p>永続化が有効な場合 ({@link TodoJournalManager})、ブラウザごとのリスト ID を
+ * Cookie ({@value #LIST_COOKIE}) に保持し、そのリストのストアを使用します。
+ * 追加・削除・完了切り替え・編集はジャーナルに記録され、
+ * セッションのタイムアウト後や再起動後も同じ Todo が表示されます。</p>
  */
 @Named
 @SessionScoped
@@ -31,22 +47,139 @@ public class TodoBean implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private final List<TodoItem> todoList = new ArrayList<>();
-    private final AtomicLong idGenerator = new AtomicLong(1);
+    /** 1 ページあたりの既定件数 */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /** 1 ページあたりの最大件数 */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * 行のボタンが送信する Todo ID のリクエストパラメータ名 ({@code f:param})。
+     *
+     * <p>{@code ui:repeat} の行のクライアント ID は行番号で決まるため、別のタブでの削除などで
+     * 表示中のページとサーバーの行の並びがずれると、行番号からは別の Todo が選ばれます。
+     * 行のアクションはこのパラメータの ID を優先して対象を決めます。</p>
+     */
+    public static final String TODO_ID_PARAM = "todoId";
+
+    /** リスト ID を保持する Cookie 名 */
+    public static final String LIST_COOKIE = "todo-list";
+
+    /** リスト ID の Cookie の有効期間 (1 年) */
+    public static final int LIST_COOKIE_MAX_AGE = 365 * 24 * 60 * 60;
+
+    /** リクエスト中の {@link #getPageModel()} の結果を保持する {@link FacesContext#getAttributes()} のキー */
+    private static final String PAGE_MODEL_ATTRIBUTE = TodoBean.class.getName() + ".pageModel";
+
+    /** ID インデックス付きの Todo ストア (挿入順を保持。永続化が有効な場合はリストごとに共有される) */
+    private volatile TodoStore todoStore = new TodoStore();
+
+    /** 永続化の管理 (CDI 管理外で生成された場合は {@code null}) */
+    @Inject
+    private TodoJournalManager journalManager;
+
+    /** このセッションが表示しているリストの ID (永続化が無効な場合は {@code null}) */
+    private String listId;
 
     private String newTitle;
     private String newDescription;
 
+    /** 表示中のページ番号 (1 始まり)。セッションに保持するためリダイレクト後も維持される */
+    private volatile int page = 1;
+    private volatile int pageSize = DEFAULT_PAGE_SIZE;
+
+    /** 一覧の検索語 (空の場合は全件表示)。ページ番号と同様にセッションに保持する */
+    private volatile String searchQuery;
+
+    /** 一括操作の対象として選択された Todo (ID → 選択状態。行のチェックボックスから設定される) */
+    private final Map<Long, Boolean> selected = new ConcurrentHashMap<>();
+
+    /**
+     * 一覧の行の描画結果 (行の位置ごとに、Todo の ID・版数・選択状態をキーとして保持する)。
+     * セッションには保存せず、リストを切り替えたときに破棄する。
+     */
+    private transient volatile FragmentCache rowCache;
+
     public TodoBean() {
         // 初期サンプルデータ
-        todoList.add(new TodoItem(idGenerator.getAndIncrement(),
+        todoStore.add(new TodoItem(todoStore.nextId(),
                 "買い物をする", "スーパーで食材を購入する"));
-        todoList.add(new TodoItem(idGenerator.getAndIncrement(),
+        todoStore.add(new TodoItem(todoStore.nextId(),
                 "レポートを書く", "プロジェクトの進捗レポートを完成させる"));
-        todoList.add(new TodoItem(idGenerator.getAndIncrement(),
+        todoStore.add(new TodoItem(todoStore.nextId(),
                 "運動する", "30分のジョギング"));
     }
 
+    /**
+     * 永続化が有効な場合、Cookie のリスト ID に対応するストアへ切り替える。
+     *
+     * <p>Cookie がない (または不正な) 場合は新しいリスト ID を発行し、
+     * 初期サンプルデータを持つストアをそのリストとして記録します。
+     * JSF 以外のリクエスト ({@link com.example.todo.web.TodoApiServlet}) で生成された場合は、
+     * 呼び出し側が Cookie を処理して {@link #useList(String)} を呼びます。</p>
+     */
+    @PostConstruct
+    public void restore() {
+        FacesContext facesContext = FacesContext.getCurrentInstance();
+        if (!isJournalEnabled() || facesContext == null) {
+            return;
+        }
+        ExternalContext externalContext = facesContext.getExternalContext();
+        Object request = externalContext.getRequest();
+        if (request instanceof HttpServletRequest && Warmup.isWarmupRequest((HttpServletRequest) request)) {
+            // 起動時のウォームアップの使い捨てのセッションはリストを作らず、ジャーナルにも記録しない
+            return;
+        }
+        Object cookie = externalContext.getRequestCookieMap().get(LIST_COOKIE);
+        String id = cookie instanceof Cookie ? ((Cookie) cookie).getValue() : null;
+        if (!TodoJournalManager.isValidListId(id)) {
+            id = UUID.randomUUID().toString();
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("maxAge", LIST_COOKIE_MAX_AGE);
+            properties.put("httpOnly", Boolean.TRUE);
+            properties.put("path", externalContext.getRequestContextPath() + "/");
+            externalContext.addResponseCookie(LIST_COOKIE, id, properties);
+        }
+        useList(id);
+    }
+
+    /**
+     * 永続化が有効かどうか。
+     */
+    public boolean isJournalEnabled() {
+        return journalManager != null && journalManager.isEnabled();
+    }
+
+    /**
+     * 指定したリスト ID のストアを使用する。既に同じリストを使用している場合は何もしない。
+     *
+     * @param id リスト ID ({@link TodoJournalManager#isValidListId(String)} で検証済みのもの)
+     */
+    public synchronized void useList(String id) {
+        if (!isJournalEnabled() || id.equals(listId)) {
+            return;
+        }
+        String previous = listId;
+        listId = id;
+        todoStore = journalManager.open(id, todoStore);
+        journalManager.release(previous);
+        // 別のリストの同じ ID・版数の Todo と取り違えないよう破棄する
+        rowCache = null;
+    }
+
+    /**
+     * セッションの終了時に、使用していたリストを手放す。
+     *
+     * <p>どのセッションからも使われなくなったリストのジャーナルは、
+     * 一定時間後に {@link TodoJournalManager} が閉じてメモリから外します。</p>
+     */
+    @PreDestroy
+    public synchronized void releaseList() {
+        if (journalManager != null && listId != null) {
+            journalManager.release(listId);
+        }
+    }
+
     // ---- アクションメソッド ----
 
     /**
@@ -57,76 +190,355 @@ public class TodoBean implements Serializable {
             addMessage(FacesMessage.SEVERITY_WARN, "警告", "タイトルは必須です");
             return null;
         }
-        TodoItem item = new TodoItem(
-                idGenerator.getAndIncrement(),
-                newTitle.trim(),
-                newDescription != null ? newDescription.trim() : ""
-        );
-        todoList.add(item);
+        createTodo(newTitle, newDescription);
         newTitle = "";
         newDescription = "";
+        // 追加した Todo が表示されるよう検索を解除して末尾ページへ移動する
+        searchQuery = null;
+        setPage((todoStore.size() + pageSize - 1) / pageSize);
         addMessage(FacesMessage.SEVERITY_INFO, "成功", "Todo を追加しました");
         return null;
     }
 
     /**
      * 指定した ID の Todo を削除する。
+     * ストアの ID インデックスを使用するため O(1) で削除できる。
+     *
+     * <p>行のボタンが {@value #TODO_ID_PARAM} を送信した場合は、その ID の Todo を削除します。</p>
      *
      * @param id 削除対象の Todo ID
      */
     public String deleteTodo(Long id) {
-        todoList.removeIf(item -> item.getId().equals(id));
+        if (removeTodo(requestedTodoId(id)) == null) {
+            addMessage(FacesMessage.SEVERITY_WARN, "警告", "Todo は既に削除されています");
+            return null;
+        }
         addMessage(FacesMessage.SEVERITY_INFO, "成功", "Todo を削除しました");
         return null;
     }
 
+    /**
+     * Todo を作成してストアの末尾に追加する (画面のメッセージは設定しない)。
+     *
+     * @param title       タイトル (前後の空白を除く。空でないこと)
+     * @param description 説明 ({@code null} の場合は空文字列)
+     * @return 追加した Todo
+     */
+    public TodoItem createTodo(String title, String description) {
+        TodoItem item = new TodoItem(
+                todoStore.nextId(),
+                title.trim(),
+                description != null ? description.trim() : ""
+        );
+        todoStore.add(item);
+        return item;
+    }
+
+    /**
+     * 指定した ID の Todo を削除する (画面のメッセージは設定しない)。
+     *
+     * @param id 削除対象の Todo ID
+     * @return 削除した Todo。存在しない場合は {@code null}
+     */
+    public TodoItem removeTodo(Long id) {
+        if (id != null) {
+            selected.remove(id);
+        }
+        return todoStore.remove(id);
+    }
+
+    /**
+     * 選択した Todo をまとめて完了にする。
+     * ストアの 1 回のロックで更新するため、件数に関係なく 1 リクエストで完了する。
+     */
+    public String completeSelected() {
+        List<Long> ids = getSelectedIds();
+        if (ids.isEmpty()) {
+            addMessage(FacesMessage.SEVERITY_WARN, "警告", "Todo が選択されていません");
+            return null;
+        }
+        int count = todoStore.setCompleted(ids, true);
+        selected.clear();
+        addMessage(FacesMessage.SEVERITY_INFO, "成功", count + " 件の Todo を完了にしました");
+        return null;
+    }
+
+    /**
+     * 選択した Todo をまとめて削除する。
+     * ストアの 1 回のロックで削除し、一覧のスナップショットの再構築も 1 回で済む。
+     */
+    public String deleteSelected() {
+        List<Long> ids = getSelectedIds();
+        if (ids.isEmpty()) {
+            addMessage(FacesMessage.SEVERITY_WARN, "警告", "Todo が選択されていません");
+            return null;
+        }
+        int count = todoStore.removeAll(ids);
+        selected.clear();
+        addMessage(FacesMessage.SEVERITY_INFO, "成功", count + " 件の Todo を削除しました");
+        return null;
+    }
+
+    /**
+     * 完了済みの Todo をすべて削除する。ストアを 1 回走査して削除する。
+     */
+    public String clearCompleted() {
+        int count = todoStore.removeCompleted();
+        // 削除した Todo の選択状態は不要になる
+        selected.keySet().removeIf(id -> todoStore.find(id) == null);
+        addMessage(FacesMessage.SEVERITY_INFO, "成功", count + " 件の完了済み Todo を削除しました");
+        return null;
+    }
+
     /**
      * Todo の完了/未完了を切り替える。
+     * ストアに登録済みの Todo は ID インデックス経由で切り替える。
+     *
+     * <p>行のボタンが {@value #TODO_ID_PARAM} を送信し、その ID が {@code item} と異なる場合
+     * (表示中のページの行の並びが古い場合) は、送信された ID の Todo を切り替えます。</p>
      *
      * @param item 対象の Todo
      */
     public String toggleComplete(TodoItem item) {
-        item.setCompleted(!item.isCompleted());
+        Long id = requestedTodoId(item.getId());
+        if (todoStore.toggle(id) != null) {
+            return null;
+        }
+        if (id.equals(item.getId())) {
+            item.setCompleted(!item.isCompleted());
+        } else {
+            addMessage(FacesMessage.SEVERITY_WARN, "警告", "Todo は既に削除されています");
+        }
         return null;
     }
 
     /**
      * 詳細ページへ遷移する。
      *
-     * <p><strong>FlashContainer の使用:</strong><br>
-     * JSF の Flash スコープ ({@code ExternalContext#getFlash()}) に選択した
-     * {@link TodoItem} を格納し、リダイレクト後の {@code detail.xhtml} ページで
-     * 同じオブジェクトを参照できるようにします。Flash スコープは 1 リクエストを
-     * 超えて (= POST/Redirect/GET パターンを跨いで) データを保持します。</p>
+     * <p>一覧ページの「詳細・編集」は {@code h:button} による GET 遷移のため通常は使われませんが、
+     * アクションから詳細ページへ遷移する場合のために、Todo ID をクエリに含めた
+     * リダイレクト先を返します。Flash やセッションへの書き込みは行いません。</p>
      *
      * @param item 詳細表示する Todo
-     * @return ナビゲーション結果
+     * @return ナビゲーション結果 ({@code detail?faces-redirect=true&id=N})
      */
     public String viewDetail(TodoItem item) {
-        ExternalContext externalContext =
-                FacesContext.getCurrentInstance().getExternalContext();
-        Flash flash = externalContext.getFlash();
-
-        // Flash に詳細ページで使用するデータを格納
-        flash.setKeepMessages(true);        // メッセージもリダイレクト後に保持
-        flash.put("selectedTodo", item);    // 選択した TodoItem を Flash に格納
-        flash.put("selectedTodoId", item.getId());
-
-        // faces-redirect=true: POST → REDIRECT → GET でFlash スコープを活用
-        return "detail?faces-redirect=true";
+        return "detail?faces-redirect=true&id=" + item.getId();
     }
 
     // ---- ヘルパー ----
 
+    /**
+     * 行のボタンが送信した Todo ID ({@value #TODO_ID_PARAM}) を返す。
+     *
+     * @param rowId 行番号から決まった Todo の ID
+     * @return 送信された ID。送信されていない・数値ではない場合は {@code rowId}
+     */
+    private Long requestedTodoId(Long rowId) {
+        FacesContext facesContext = FacesContext.getCurrentInstance();
+        if (facesContext == null) {
+            return rowId;
+        }
+        Map<String, String> parameters = facesContext.getExternalContext().getRequestParameterMap();
+        String value = parameters != null ? parameters.get(TODO_ID_PARAM) : null;
+        if (value == null) {
+            return rowId;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return rowId;
+        }
+    }
+
     private void addMessage(FacesMessage.Severity severity, String summary, String detail) {
         FacesContext.getCurrentInstance()
                 .addMessage(null, new FacesMessage(severity, summary, detail));
     }
 
+    /**
+     * セッションの復元時 (再起動後のセッション永続化など) は、
+     * 共有ストアに付け替えて以降の変更が再びジャーナルに記録されるようにする。
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (journalManager != null && listId != null) {
+            todoStore = journalManager.open(listId, todoStore);
+        }
+    }
+
     // ---- Getters / Setters ----
 
+    /**
+     * 挿入順の Todo リストを返す。ストアが変更されるまで同一インスタンスが返される。
+     */
     public List<TodoItem> getTodoList() {
-        return todoList;
+        return todoStore.asList();
+    }
+
+    /**
+     * タイトルまたは説明に検索語を含む Todo を挿入順で返す。検索語が空の場合は全件。
+     *
+     * @param query 検索語 ({@code null} 可)
+     * @return 読み取り専用のリスト (呼び出し時点のスナップショット)
+     */
+    public List<TodoItem> searchTodos(String query) {
+        return todoStore.search(query);
+    }
+
+    /**
+     * 現在のリストのストアを返す (変更通知の購読用)。
+     */
+    public TodoStore getStore() {
+        return todoStore;
+    }
+
+    /**
+     * 一覧の行の描画結果のキャッシュを返す ({@code todos.xhtml} の {@code todo:cachedFragment})。
+     */
+    public FragmentCache getRowCache() {
+        FragmentCache cache = rowCache;
+        if (cache == null) {
+            cache = new FragmentCache();
+            rowCache = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * 指定した ID の Todo を取得する。
+     *
+     * @param id Todo ID
+     * @return 該当する Todo。存在しない場合は {@code null}
+     */
+    public TodoItem findTodo(Long id) {
+        return todoStore.find(id);
+    }
+
+    /**
+     * 現在のページに表示する Todo の {@link TodoPageModel} を返す。
+     *
+     * <p>1 回の描画では行の反復とページ送りから何度も参照されるため、モデルはリクエストの
+     * {@link FacesContext#getAttributes()} に保持して再利用します。{@code DataModel} は行位置を状態として持つため、
+     * セッションには保持せず、同じセッションの同時リクエスト間では共有しません。
+     * ページ番号・ページサイズ・検索語・ストア、またはストアの内容 ({@link TodoStore#getModCount()}) が
+     * 変わった場合は作り直すため、アクションで変更した内容は同じリクエストの描画に反映されます。
+     * ただし描画の開始後は、別のリクエストがストアを変更しても作り直さず、行とページ送りが同じモデルから描画されます。</p>
+     *
+     * <p>検索語が設定されている場合は、ストアの全文検索インデックス
+     * ({@link TodoStore#search(String)}) で絞り込んだ結果をページに分割します。</p>
+     */
+    public TodoPageModel getPageModel() {
+        FacesContext facesContext = FacesContext.getCurrentInstance();
+        if (facesContext == null) {
+            return createPageModel();
+        }
+        boolean rendering = facesContext.getCurrentPhaseId() == PhaseId.RENDER_RESPONSE;
+        Map<Object, Object> attributes = facesContext.getAttributes();
+        Object value = attributes.get(PAGE_MODEL_ATTRIBUTE);
+        PageModelEntry entry = value instanceof PageModelEntry ? (PageModelEntry) value : null;
+        if (entry != null && entry.matches(this, rendering)) {
+            entry.frozen |= rendering;
+            return entry.model;
+        }
+        entry = new PageModelEntry(this, createPageModel());
+        entry.frozen = rendering;
+        attributes.put(PAGE_MODEL_ATTRIBUTE, entry);
+        return entry.model;
+    }
+
+    private TodoPageModel createPageModel() {
+        if (isSearching()) {
+            return new TodoPageModel(todoStore.search(searchQuery), page, pageSize);
+        }
+        return new TodoPageModel(todoStore, page, pageSize);
+    }
+
+    public Integer getPage() {
+        return page;
+    }
+
+    /**
+     * 表示するページ番号を設定する ({@code f:viewParam} から呼ばれる)。
+     * {@code null} の場合は現在のページを維持する。
+     */
+    public void setPage(Integer page) {
+        if (page != null) {
+            this.page = Math.max(1, page);
+        }
+    }
+
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * 1 ページあたりの件数を設定する ({@code f:viewParam} から呼ばれる)。
+     * 1〜{@value #MAX_PAGE_SIZE} の範囲に丸め、{@code null} の場合は現在の値を維持する。
+     */
+    public void setPageSize(Integer pageSize) {
+        if (pageSize != null) {
+            this.pageSize = Math.min(MAX_PAGE_SIZE, Math.max(1, pageSize));
+        }
+    }
+
+    public String getSearchQuery() {
+        return searchQuery;
+    }
+
+    /**
+     * 検索語を設定する。
+     * 空文字列の場合は検索を解除し、{@code null} の場合は現在の検索語を維持する。
+     */
+    public void setSearchQuery(String searchQuery) {
+        if (searchQuery != null) {
+            String trimmed = searchQuery.trim();
+            this.searchQuery = trimmed.isEmpty() ? null : trimmed;
+        }
+    }
+
+    /**
+     * 一覧ページの表示前 ({@code f:viewAction}) にリクエストパラメータ {@code q} を検索語に反映する。
+     *
+     * <p>web.xml で空文字列の送信値を {@code null} として扱う設定
+     * ({@code INTERPRET_EMPTY_STRING_SUBMITTED_VALUES_AS_NULL}) が有効なため、
+     * {@code f:viewParam} では「{@code q} が空 (検索の解除)」と「{@code q} がない (維持)」を
+     * 区別できません。そのためパラメータの有無をリクエストから直接判定します。</p>
+     */
+    public void applySearchParameter() {
+        Map<String, String> parameters =
+                FacesContext.getCurrentInstance().getExternalContext().getRequestParameterMap();
+        if (parameters.containsKey("q")) {
+            String q = parameters.get("q");
+            setSearchQuery(q != null ? q : "");
+        }
+    }
+
+    /**
+     * 検索語で絞り込んで表示しているか。
+     */
+    public boolean isSearching() {
+        return searchQuery != null;
+    }
+
+    /**
+     * 行のチェックボックスの選択状態 ({@code #{todoBean.selected[todo.id]}})。
+     */
+    public Map<Long, Boolean> getSelected() {
+        return selected;
+    }
+
+    /**
+     * 選択されている Todo の ID を返す。
+     */
+    public List<Long> getSelectedIds() {
+        List<Long> ids = new ArrayList<>();
+        for (Map.Entry<Long, Boolean> entry : selected.entrySet()) {
+            if (Boolean.TRUE.equals(entry.getValue())) {
+                ids.add(entry.getKey());
+            }
+        }
+        return ids;
     }
 
     public String getNewTitle() {
@@ -145,11 +557,64 @@ public class TodoBean implements Serializable {
         this.newDescription = newDescription;
     }
 
+    public int getTotalCount() {
+        return todoStore.size();
+    }
+
+    /**
+     * 完了済みの件数を返す。ストアが差分更新している件数を返すため O(1)。
+     */
     public long getCompletedCount() {
-        return todoList.stream().filter(TodoItem::isCompleted).count();
+        return todoStore.getCompletedCount();
     }
 
+    /**
+     * 未完了の件数を返す。ストアが差分更新している件数を返すため O(1)。
+     */
     public long getPendingCount() {
-        return todoList.stream().filter(item -> !item.isCompleted()).count();
+        return todoStore.getPendingCount();
+    }
+
+    /**
+     * 差分更新している件数が全件走査の結果と一致するかを検証する (テスト・診断用)。
+     */
+    public boolean verifyCounts() {
+        return todoStore.verifyCounts();
+    }
+
+    /**
+     * リクエスト中に再利用する {@link TodoPageModel} と、その生成時の条件。
+     */
+    private static final class PageModelEntry {
+
+        private final TodoBean owner;
+        private final TodoStore store;
+        private final int modCount;
+        private final int page;
+        private final int pageSize;
+        private final String searchQuery;
+        private final TodoPageModel model;
+
+        /** 描画中に参照されたか (以降はストアが変更されても同じモデルを返す) */
+        private boolean frozen;
+
+        PageModelEntry(TodoBean owner, TodoPageModel model) {
+            this.owner = owner;
+            this.store = owner.todoStore;
+            this.modCount = store.getModCount();
+            this.page = owner.page;
+            this.pageSize = owner.pageSize;
+            this.searchQuery = owner.searchQuery;
+            this.model = model;
+        }
+
+        boolean matches(TodoBean bean, boolean rendering) {
+            return owner == bean
+                    && store == bean.todoStore
+                    && page == bean.page
+                    && pageSize == bean.pageSize
+                    && Objects.equals(searchQuery, bean.searchQuery)
+                    && ((frozen && rendering) || modCount == store.getModCount());
+        }
     }
 }
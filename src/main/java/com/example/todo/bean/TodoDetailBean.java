@@ -2,27 +2,36 @@ package com.example.todo.bean;
 
 import com.example.todo.model.TodoItem;
 
-import javax.annotation.PostConstruct;
 import javax.faces.application.FacesMessage;
 import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 import javax.faces.context.Flash;
 import javax.faces.view.ViewScoped;
+import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.Serializable;
 
 /**
  * Todo 詳細・編集ページを管理するビュースコープの Bean。
  *
- * <p><strong>FlashContainer からのデータ取得:</strong><br>
- * {@code @PostConstruct} 初期化メソッド内で {@link Flash Flash コンテナ} の
- * {@code get("selectedTodo")} を呼び出し、前のページ ({@code todos.xhtml}) が
- * Flash に格納した {@link TodoItem} を取得します。</p>
+ * <p><strong>ID による表示:</strong><br>
+ * {@code detail.xhtml?id=N} の {@code f:viewParam} で Todo ID を受け取り、
+ * {@code f:viewAction} の {@link #load()} で {@link TodoBean} の ID インデックス付きストアから
+ * 対象の {@link TodoItem} を取得します。一覧から詳細へは GET で遷移するため、
+ * Flash やセッションへの書き込みは発生せず、ブックマークや再読み込みでも同じ Todo を表示できます。</p>
  *
  * <pre>
- * Flash flash = externalContext.getFlash();
- * selectedTodo = (TodoItem) flash.get("selectedTodo");  // Flash から取得
+ * &lt;f:viewParam name="id" value="#{todoDetailBean.id}"/&gt;
+ * &lt;f:viewAction action="#{todoDetailBean.load}"/&gt;
  * </pre>
+ *
+ * <p>保存後の完了メッセージは、リダイレクト先の一覧ページで表示するため引き続き Flash に保持します。</p>
+ *
+ * <p><strong>同時編集:</strong><br>
+ * 表示時のタイトル・説明の版数 ({@link TodoItem#getTextVersion()}) を保持し、保存時に版数が変わっていない場合だけ変更します
+ * ({@link TodoItem#edit(long, String, String)})。別のタブなどで先にタイトル・説明が変更されていた場合は上書きせず、
+ * 現在の内容と警告を編集フォームに表示します。もう一度保存すると、表示した現在の内容に対する変更として保存されます。
+ * 完了状態の切り替えは編集フォームの項目と重ならないため、競合として扱いません。</p>
  */
 @Named
 @ViewScoped
@@ -30,30 +39,39 @@ public class TodoDetailBean implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    /** Flash コンテナから取得した選択 Todo */
+    /** Todo の検索に使用するセッションスコープの Bean */
+    @Inject
+    private TodoBean todoBean;
+
+    /** リクエストパラメータ {@code id} で指定された Todo ID */
+    private Long id;
+
+    /** ID で取得した選択 Todo */
     private TodoItem selectedTodo;
 
+    /** 表示時 (または競合を表示した時点) の Todo のタイトル・説明の版数 */
+    private long loadedVersion;
+
+    /** 保存時に別の変更と競合した場合 {@code true} (編集フォームに現在の内容を表示する) */
+    private boolean conflict;
+
     private String editTitle;
     private String editDescription;
 
     /**
-     * ビュー初期化時に Flash コンテナから選択された Todo を取得する。
+     * ビューの表示前 ({@code f:viewAction}) に ID で Todo を取得する。
      *
-     * <p>JSF の Flash スコープは POST/Redirect/GET パターン内で
-     * 1 リダイレクトを跨いでデータを保持します。ここでは
-     * {@code TodoBean#viewDetail} が格納した "selectedTodo" キーの
-     * オブジェクトを取得しています。</p>
+     * <p>ポストバックでは呼ばれないため (ビュースコープに保持した Todo を使う)、
+     * 入力途中の編集内容が上書きされることはありません。
+     * ID が指定されていない・該当する Todo がない場合は {@code selectedTodo} が
+     * {@code null} のままとなり、ページに「見つかりません」と表示されます。</p>
      */
-    @PostConstruct
-    public void init() {
-        ExternalContext externalContext =
-                FacesContext.getCurrentInstance().getExternalContext();
-        Flash flash = externalContext.getFlash();
-
-        // FlashContainer から選択された TodoItem を取得
-        selectedTodo = (TodoItem) flash.get("selectedTodo");
+    public void load() {
+        selectedTodo = id != null ? todoBean.findTodo(id) : null;
 
         if (selectedTodo != null) {
+            // 版数を先に読む (この後に変更されても、保存時に競合として検出される)
+            loadedVersion = selectedTodo.getTextVersion();
             // 編集フォームの初期値を設定
             editTitle = selectedTodo.getTitle();
             editDescription = selectedTodo.getDescription();
@@ -75,10 +93,15 @@ public class TodoDetailBean implements Serializable {
             return null;
         }
 
-        // 元の TodoItem を直接更新 (SessionScoped の TodoBean が保持するオブジェクトと同一参照)
-        selectedTodo.setTitle(editTitle.trim());
-        selectedTodo.setDescription(
-                editDescription != null ? editDescription.trim() : "");
+        // ストアに登録されている TodoItem を、表示時から変更されていない場合だけ更新する
+        // タイトルと説明をまとめて変更し、ストアへの変更通知 (ジャーナルへの記録) を 1 回にする
+        TodoItem current = todoBean.findTodo(selectedTodo.getId());
+        if (current == null || !current.edit(loadedVersion, editTitle.trim(),
+                editDescription != null ? editDescription.trim() : "")) {
+            reportConflict();
+            return null;
+        }
+        conflict = false;
 
         // リダイレクト後にメッセージを表示するため Flash に格納
         ExternalContext externalContext =
@@ -99,17 +122,57 @@ public class TodoDetailBean implements Serializable {
 
     // ---- ヘルパー ----
 
+    /**
+     * 保存時の競合を編集フォームに表示する。入力内容は残し、比較用に現在の Todo に差し替える。
+     */
+    private void reportConflict() {
+        TodoItem latest = todoBean.findTodo(selectedTodo.getId());
+        if (latest == null) {
+            addMessage(FacesMessage.SEVERITY_ERROR, "保存できません",
+                    "この Todo は別の画面で削除されています");
+            return;
+        }
+        selectedTodo = latest;
+        loadedVersion = latest.getTextVersion();
+        conflict = true;
+        addMessage(FacesMessage.SEVERITY_WARN, "競合",
+                "別の画面でこの Todo が更新されています。現在の内容を確認し、上書きする場合はもう一度保存してください");
+    }
+
     private void addMessage(FacesMessage.Severity severity, String summary, String detail) {
         FacesContext.getCurrentInstance()
                 .addMessage(null, new FacesMessage(severity, summary, detail));
     }
 
+    /** CDI 管理外 (単体テストなど) で検索先の Bean を設定する。 */
+    void setTodoBean(TodoBean todoBean) {
+        this.todoBean = todoBean;
+    }
+
     // ---- Getters / Setters ----
 
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * 表示する Todo の ID を設定する ({@code f:viewParam} から呼ばれる)。
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public TodoItem getSelectedTodo() {
         return selectedTodo;
     }
 
+    /**
+     * 直前の保存が別の変更と競合したかどうか。
+     */
+    public boolean isConflict() {
+        return conflict;
+    }
+
     public String getEditTitle() {
         return editTitle;
     }
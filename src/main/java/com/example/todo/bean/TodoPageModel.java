@@ -0,0 +1,185 @@
+package com.example.todo.bean;
+
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+
+import javax.faces.model.DataModel;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Todo 一覧の 1 ページ分だけを扱う遅延ロード型の {@link DataModel}。
+ *
+ * <p>{@code ui:repeat} に渡すと表示範囲の行だけが反復されるため、
+ * 件数が増えても 1 リクエストで生成されるコンポーネントと HTML は
+ * ページサイズ分に収まります。表示範囲の取得は最初に行データが
+ * 参照されたときに {@link TodoStore#window(int, int)} で行い、
+ * 範囲外の要素はコピーしません。</p>
+ *
+ * <p>検索結果のように、ストアではなくリストを分割する場合は
+ * {@link #TodoPageModel(List, int, int)} を使用します。</p>
+ */
+public class TodoPageModel extends DataModel<TodoItem> {
+
+    /** 行の取得元のストア (リストを分割する場合は {@code null}) */
+    private final TodoStore store;
+    /** 行の取得元のリスト (ストアから取得する場合は {@code null}) */
+    private final List<TodoItem> items;
+    private final int page;
+    private final int pageSize;
+    private final int totalCount;
+    private final int pageCount;
+
+    /** 表示範囲の行 (最初の参照時に取得) */
+    private List<TodoItem> rows;
+    private int rowIndex = -1;
+    /** {@code setWrappedData(null)} で取得元から切り離されたか */
+    private boolean detached;
+
+    /**
+     * @param store    参照する Todo ストア
+     * @param page     要求されたページ番号 (1 始まり。範囲外の場合は最も近いページに丸める)
+     * @param pageSize 1 ページあたりの件数
+     */
+    public TodoPageModel(TodoStore store, int page, int pageSize) {
+        this(store, null, store.size(), page, pageSize);
+    }
+
+    /**
+     * @param items    分割するリスト (検索結果など)
+     * @param page     要求されたページ番号 (1 始まり。範囲外の場合は最も近いページに丸める)
+     * @param pageSize 1 ページあたりの件数
+     */
+    public TodoPageModel(List<TodoItem> items, int page, int pageSize) {
+        this(null, items, items.size(), page, pageSize);
+    }
+
+    private TodoPageModel(TodoStore store, List<TodoItem> items, int totalCount, int page, int pageSize) {
+        this.store = store;
+        this.items = items;
+        this.pageSize = Math.max(1, pageSize);
+        this.totalCount = totalCount;
+        this.pageCount = Math.max(1, (totalCount + this.pageSize - 1) / this.pageSize);
+        this.page = Math.min(Math.max(1, page), pageCount);
+    }
+
+    // ---- ページ情報 ----
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public boolean isFirstPage() {
+        return page == 1;
+    }
+
+    public boolean isLastPage() {
+        return page == pageCount;
+    }
+
+    public int getPreviousPage() {
+        return Math.max(1, page - 1);
+    }
+
+    public int getNextPage() {
+        return Math.min(pageCount, page + 1);
+    }
+
+    /** 表示範囲の先頭が全体の何件目か (1 始まり。0 件の場合は 0) */
+    public int getFirstRowNumber() {
+        return totalCount == 0 ? 0 : getOffset() + 1;
+    }
+
+    /** 表示範囲の末尾が全体の何件目か */
+    public int getLastRowNumber() {
+        return Math.min(totalCount, getOffset() + pageSize);
+    }
+
+    // ---- DataModel ----
+
+    @Override
+    public boolean isRowAvailable() {
+        return rowIndex >= 0 && rowIndex < getRows().size();
+    }
+
+    @Override
+    public int getRowCount() {
+        return detached ? -1 : getRows().size();
+    }
+
+    @Override
+    public TodoItem getRowData() {
+        if (!isRowAvailable()) {
+            throw new IllegalArgumentException("row is not available: " + rowIndex);
+        }
+        return getRows().get(rowIndex);
+    }
+
+    @Override
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    @Override
+    public void setRowIndex(int rowIndex) {
+        if (rowIndex < -1) {
+            throw new IllegalArgumentException("rowIndex: " + rowIndex);
+        }
+        this.rowIndex = rowIndex;
+    }
+
+    /**
+     * 表示範囲の行を返す (取得元から切り離した後は {@code null})。
+     */
+    @Override
+    public Object getWrappedData() {
+        return detached ? null : getRows();
+    }
+
+    /**
+     * {@code null} を渡すと取得元から切り離す ({@code DataModel} の規約どおり、以降は行数 -1・行なしとして振る舞う)。
+     *
+     * <p>表示範囲はコンストラクタで指定した取得元から取得するため、別のデータへの差し替えはサポートしません。</p>
+     *
+     * @throws UnsupportedOperationException {@code null} 以外を渡した場合
+     */
+    @Override
+    public void setWrappedData(Object data) {
+        if (data != null) {
+            throw new UnsupportedOperationException("TodoPageModel はコンストラクタで指定した取得元から行を取得します");
+        }
+        detached = true;
+        rows = Collections.emptyList();
+        rowIndex = -1;
+    }
+
+    // ---- ヘルパー ----
+
+    private int getOffset() {
+        return (page - 1) * pageSize;
+    }
+
+    private List<TodoItem> getRows() {
+        if (rows == null) {
+            if (store != null) {
+                rows = store.window(getOffset(), pageSize);
+            } else {
+                int from = Math.min(getOffset(), items.size());
+                rows = items.subList(from, (int) Math.min(items.size(), (long) from + pageSize));
+            }
+        }
+        return rows;
+    }
+}
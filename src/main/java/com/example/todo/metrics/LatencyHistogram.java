@@ -0,0 +1,94 @@
+package com.example.todo.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 処理時間のヒストグラム (Prometheus の histogram 型)。
+ *
+ * <p>固定の上限値 ({@link #BUCKETS_SECONDS}) ごとの件数と、合計時間・件数を {@link LongAdder} で数えるため、
+ * 記録はロックを取らずに行えます。p50・p99 などの分位数は Prometheus 側で
+ * {@code histogram_quantile} により求めます。</p>
+ */
+public final class LatencyHistogram {
+
+    /** バケットの上限 (秒)。0.1 ミリ秒 ~ 10 秒 */
+    static final double[] BUCKETS_SECONDS = {
+            0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01,
+            0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+
+    private static final long[] BUCKETS_NANOS = new long[BUCKETS_SECONDS.length];
+
+    /** le ラベルの値 (指数表記にしない) */
+    private static final String[] BUCKET_LABELS = new String[BUCKETS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BUCKETS_SECONDS.length; i++) {
+            BUCKETS_NANOS[i] = Math.round(BUCKETS_SECONDS[i] * 1e9);
+            BUCKET_LABELS[i] = BigDecimal.valueOf(BUCKETS_SECONDS[i]).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    /** バケットごとの件数 (累積ではない。最後の要素は最大の上限を超えた件数) */
+    private final LongAdder[] counts = new LongAdder[BUCKETS_NANOS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 処理時間を 1 件記録する。
+     *
+     * @param nanos 処理時間 (ナノ秒。負の値は 0 として扱う)
+     */
+    public void observe(long nanos) {
+        long value = Math.max(0, nanos);
+        int bucket = 0;
+        while (bucket < BUCKETS_NANOS.length && value > BUCKETS_NANOS[bucket]) {
+            bucket++;
+        }
+        counts[bucket].increment();
+        sumNanos.add(value);
+    }
+
+    /** 記録した件数。 */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder adder : counts) {
+            count += adder.sum();
+        }
+        return count;
+    }
+
+    /** 記録した処理時間の合計 (ナノ秒)。 */
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    /**
+     * Prometheus のテキスト形式で {@code _bucket} / {@code _sum} / {@code _count} の行を書き込む。
+     *
+     * @param out    書き込み先
+     * @param name   メトリクス名 ({@code _bucket} などの接尾辞を除いたもの)
+     * @param labels ラベル ({@code view="/todos.xhtml",phase="render_response"} の形式。ない場合は空文字列)
+     */
+    void writeTo(Writer out, String name, String labels) throws IOException {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS_SECONDS.length; i++) {
+            cumulative += counts[i].sum();
+            out.write(name + "_bucket{" + prefix + "le=\"" + BUCKET_LABELS[i] + "\"} " + cumulative + "\n");
+        }
+        cumulative += counts[BUCKETS_SECONDS.length].sum();
+        out.write(name + "_bucket{" + prefix + "le=\"+Inf\"} " + cumulative + "\n");
+        String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.write(name + "_sum" + braces + " " + getSumNanos() / 1e9 + "\n");
+        out.write(name + "_count" + braces + " " + cumulative + "\n");
+    }
+}
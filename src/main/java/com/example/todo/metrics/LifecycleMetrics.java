@@ -0,0 +1,115 @@
+package com.example.todo.metrics;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.spi.CDI;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * JSF のライフサイクルの処理時間を集計するアプリケーションスコープの Bean。
+ *
+ * <p>次の 3 種類のヒストグラムを、ラベルの組み合わせごとに保持します。</p>
+ * <ul>
+ *   <li>{@value #PHASE_METRIC}: ビュー・フェーズごとの処理時間 ({@link PhaseTimingListener})</li>
+ *   <li>{@value #REQUEST_METRIC}: ビューごとのリクエスト全体 (ビューの復元から描画またはリダイレクトまで)</li>
+ *   <li>{@value #ACTION_METRIC}: ビュー・アクションメソッドごとの処理時間 ({@link TimingActionListener})</li>
+ * </ul>
+ *
+ * <p>存在しないビューへのリクエストなどでラベルの組み合わせが増え続けないよう、
+ * 各メトリクスの組み合わせが {@value #MAX_SERIES} を超えた後の新しいビューは {@value #OTHER} にまとめます。</p>
+ */
+@ApplicationScoped
+public class LifecycleMetrics {
+
+    static final String PHASE_METRIC = "jsf_phase_duration_seconds";
+    static final String REQUEST_METRIC = "jsf_request_duration_seconds";
+    static final String ACTION_METRIC = "jsf_action_duration_seconds";
+
+    /** 1 つのメトリクスで保持するラベルの組み合わせの上限 */
+    static final int MAX_SERIES = 256;
+
+    /** 上限を超えた後のビューのラベル */
+    static final String OTHER = "other";
+
+    /** ラベル (Prometheus の形式の文字列) → ヒストグラム */
+    private final ConcurrentMap<String, LatencyHistogram> phases = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> requests = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> actions = new ConcurrentHashMap<>();
+
+    /**
+     * CDI 管理外で生成されたリスナーから Bean を取得する。
+     */
+    static LifecycleMetrics lookup() {
+        return CDI.current().select(LifecycleMetrics.class).get();
+    }
+
+    /**
+     * 1 つのフェーズの処理時間を記録する。
+     *
+     * @param viewId ビュー ID ({@code /todos.xhtml} など)
+     * @param phase  フェーズ名 ({@code restore_view} など)
+     * @param nanos  処理時間 (ナノ秒)
+     */
+    public void recordPhase(String viewId, String phase, long nanos) {
+        histogram(phases, viewId, ",phase=\"" + escape(phase) + "\"").observe(nanos);
+    }
+
+    /**
+     * 1 リクエスト全体の処理時間を記録する。
+     */
+    public void recordRequest(String viewId, long nanos) {
+        histogram(requests, viewId, "").observe(nanos);
+    }
+
+    /**
+     * 1 回のアクションメソッドの処理時間 (ナビゲーションを含む) を記録する。
+     *
+     * @param action アクションの名前 ({@code todoBean.addTodo} など)
+     */
+    public void recordAction(String viewId, String action, long nanos) {
+        histogram(actions, viewId, ",action=\"" + escape(action) + "\"").observe(nanos);
+    }
+
+    private static LatencyHistogram histogram(ConcurrentMap<String, LatencyHistogram> series,
+                                              String viewId, String otherLabels) {
+        String labels = "view=\"" + escape(viewId) + "\"" + otherLabels;
+        LatencyHistogram histogram = series.get(labels);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (series.size() >= MAX_SERIES) {
+            labels = "view=\"" + OTHER + "\"" + otherLabels;
+        }
+        return series.computeIfAbsent(labels, key -> new LatencyHistogram());
+    }
+
+    /**
+     * すべてのメトリクスを Prometheus のテキスト形式 (version 0.0.4) で書き込む。
+     */
+    public void writeTo(Writer out) throws IOException {
+        write(out, PHASE_METRIC, "JSF lifecycle phase duration per view.", phases);
+        write(out, REQUEST_METRIC, "JSF request duration per view (restore view to render response or redirect).", requests);
+        write(out, ACTION_METRIC, "JSF action method duration per view and action, including navigation.", actions);
+    }
+
+    private static void write(Writer out, String name, String help,
+                              Map<String, LatencyHistogram> series) throws IOException {
+        out.write("# HELP " + name + " " + help + "\n");
+        out.write("# TYPE " + name + " histogram\n");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(series).entrySet()) {
+            entry.getValue().writeTo(out, name, entry.getKey());
+        }
+    }
+
+    /** ラベルの値のエスケープ (バックスラッシュ・ダブルクォート・改行)。 */
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.todo.metrics;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * {@link LifecycleMetrics} を Prometheus のテキスト形式で返すエンドポイント ({@code /metrics})。
+ *
+ * <p>Prometheus の {@code scrape_configs} に {@code metrics_path: /jsf-todo-app/metrics} を設定して収集し、
+ * 例えば次の式でページごとの p99 を表示できます。</p>
+ *
+ * <pre>
+ * histogram_quantile(0.99, sum by (view, le) (rate(jsf_request_duration_seconds_bucket[5m])))
+ * </pre>
+ */
+public class MetricsServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    @Inject
+    private transient LifecycleMetrics metrics;
+
+    @Override
+    public void init() {
+        if (metrics == null) {
+            // コンテナがサーブレットへのインジェクションに対応していない場合
+            metrics = LifecycleMetrics.lookup();
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-store");
+        PrintWriter out = response.getWriter();
+        metrics.writeTo(out);
+        out.flush();
+    }
+
+    /** CDI 管理外 (単体テストなど) で出力するメトリクスを設定する。 */
+    void setMetrics(LifecycleMetrics metrics) {
+        this.metrics = metrics;
+    }
+}
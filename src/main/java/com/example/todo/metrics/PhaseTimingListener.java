@@ -0,0 +1,86 @@
+package com.example.todo.metrics;
+
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.event.PhaseListener;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * JSF の各フェーズの処理時間を {@link LifecycleMetrics} に記録するフェーズリスナー (faces-config.xml で登録)。
+ *
+ * <p>フェーズの開始時刻をリクエストの {@link FacesContext#getAttributes()} に保持し、
+ * 終了時にビュー ID・フェーズ名ごとに記録します。描画の終了時、またはレスポンスが完了した時点
+ * (PRG のリダイレクトなど) で、ビューの復元からのリクエスト全体の処理時間も記録します。</p>
+ */
+public class PhaseTimingListener implements PhaseListener {
+
+    private static final long serialVersionUID = 1L;
+
+    /** フェーズの開始時刻 (フェーズの序数 → System.nanoTime) を保持する属性名 */
+    static final String STARTS = PhaseTimingListener.class.getName() + ".starts";
+
+    /** ビューがない場合 (ビューの復元に失敗した場合など) のラベル */
+    static final String UNKNOWN_VIEW = "unknown";
+
+    private transient volatile LifecycleMetrics metrics;
+
+    public PhaseTimingListener() {
+    }
+
+    /** CDI 管理外 (単体テストなど) で記録先を指定する。 */
+    PhaseTimingListener(LifecycleMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public PhaseId getPhaseId() {
+        return PhaseId.ANY_PHASE;
+    }
+
+    @Override
+    public void beforePhase(PhaseEvent event) {
+        Map<Object, Object> attributes = event.getFacesContext().getAttributes();
+        long[] starts = (long[]) attributes.get(STARTS);
+        if (starts == null) {
+            starts = new long[PhaseId.VALUES.size()];
+            attributes.put(STARTS, starts);
+        }
+        starts[event.getPhaseId().getOrdinal()] = System.nanoTime();
+    }
+
+    @Override
+    public void afterPhase(PhaseEvent event) {
+        long now = System.nanoTime();
+        FacesContext context = event.getFacesContext();
+        long[] starts = (long[]) context.getAttributes().get(STARTS);
+        if (starts == null) {
+            return;
+        }
+        PhaseId phase = event.getPhaseId();
+        String viewId = viewId(context);
+        LifecycleMetrics target = metrics();
+        target.recordPhase(viewId, phase.getName().toLowerCase(Locale.ROOT), now - starts[phase.getOrdinal()]);
+        if (phase == PhaseId.RENDER_RESPONSE || context.getResponseComplete()) {
+            target.recordRequest(viewId, now - starts[PhaseId.RESTORE_VIEW.getOrdinal()]);
+            context.getAttributes().remove(STARTS);
+        }
+    }
+
+    static String viewId(FacesContext context) {
+        UIViewRoot root = context.getViewRoot();
+        String viewId = root != null ? root.getViewId() : null;
+        return viewId != null ? viewId : UNKNOWN_VIEW;
+    }
+
+    private LifecycleMetrics metrics() {
+        LifecycleMetrics current = metrics;
+        if (current == null) {
+            current = LifecycleMetrics.lookup();
+            metrics = current;
+        }
+        return current;
+    }
+}
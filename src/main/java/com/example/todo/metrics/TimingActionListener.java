@@ -0,0 +1,82 @@
+package com.example.todo.metrics;
+
+import javax.el.MethodExpression;
+import javax.faces.component.ActionSource2;
+import javax.faces.component.UIComponent;
+import javax.faces.event.ActionEvent;
+import javax.faces.event.ActionListener;
+import javax.faces.event.ActionListenerWrapper;
+
+/**
+ * アクションメソッドの処理時間を {@link LifecycleMetrics} に記録する ActionListener (faces-config.xml で登録)。
+ *
+ * <p>JSF の既定の ActionListener (アクションメソッドの呼び出しとナビゲーション) を包み、
+ * その処理時間をビュー ID とアクションの名前ごとに記録します。名前はアクションの式から
+ * 引数を除いたものです ({@code #{todoBean.deleteTodo(todo.id)}} → {@code todoBean.deleteTodo})。</p>
+ */
+public class TimingActionListener extends ActionListenerWrapper {
+
+    /** アクションの式がない場合のラベル */
+    static final String UNKNOWN_ACTION = "unknown";
+
+    private final ActionListener wrapped;
+    private volatile LifecycleMetrics metrics;
+
+    /**
+     * @param wrapped JSF の既定の ActionListener
+     */
+    public TimingActionListener(ActionListener wrapped) {
+        this.wrapped = wrapped;
+    }
+
+    /** CDI 管理外 (単体テストなど) で記録先を指定する。 */
+    TimingActionListener(ActionListener wrapped, LifecycleMetrics metrics) {
+        this.wrapped = wrapped;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ActionListener getWrapped() {
+        return wrapped;
+    }
+
+    @Override
+    public void processAction(ActionEvent event) {
+        long start = System.nanoTime();
+        try {
+            getWrapped().processAction(event);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics().recordAction(PhaseTimingListener.viewId(event.getFacesContext()),
+                    actionName(event.getComponent()), elapsed);
+        }
+    }
+
+    /**
+     * コンポーネントのアクションの式から名前を作る。
+     */
+    static String actionName(UIComponent component) {
+        if (!(component instanceof ActionSource2)) {
+            return UNKNOWN_ACTION;
+        }
+        MethodExpression action = ((ActionSource2) component).getActionExpression();
+        if (action == null) {
+            return UNKNOWN_ACTION;
+        }
+        String expression = action.getExpressionString().trim();
+        if ((expression.startsWith("#{") || expression.startsWith("${")) && expression.endsWith("}")) {
+            expression = expression.substring(2, expression.length() - 1).trim();
+        }
+        int arguments = expression.indexOf('(');
+        return arguments >= 0 ? expression.substring(0, arguments).trim() : expression;
+    }
+
+    private LifecycleMetrics metrics() {
+        LifecycleMetrics current = metrics;
+        if (current == null) {
+            current = LifecycleMetrics.lookup();
+            metrics = current;
+        }
+        return current;
+    }
+}
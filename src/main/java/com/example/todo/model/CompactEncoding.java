@@ -0,0 +1,113 @@
+package com.example.todo.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * セッション保存用のコンパクトなエンコーディング。
+ * {@link TodoItem} と {@link TodoStore} の独自シリアライズ形式で使用する。
+ *
+ * <ul>
+ *   <li>整数: 7 bit ずつの可変長 (varint)。符号付きの差分は ZigZag 変換してから書く</li>
+ *   <li>文字列: [UTF-8 のバイト長 + 1 (null は 0)][UTF-8]</li>
+ *   <li>日時: [ナノ秒 + 1 (null は 0)][UTC エポック秒の基準値からの差分]</li>
+ * </ul>
+ */
+final class CompactEncoding {
+
+    private CompactEncoding() {
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("malformed varint");
+    }
+
+    /** 符号付きの値を、絶対値が小さいほど短くなるよう書く。 */
+    static void writeZigZag(DataOutput out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readZigZag(DataInput in) throws IOException {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        long length = readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > Integer.MAX_VALUE) {
+            throw new StreamCorruptedException("string too long: " + (length - 1));
+        }
+        byte[] bytes = new byte[(int) (length - 1)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 日時を基準値からの差分で書く。
+     *
+     * @param out  出力先
+     * @param value 日時 ({@code null} 可)
+     * @param base 基準とする UTC エポック秒 (直前に書いた日時など)
+     * @return 次の基準値 ({@code value} が {@code null} の場合は {@code base})
+     */
+    static long writeDateTime(DataOutput out, LocalDateTime value, long base) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return base;
+        }
+        long epochSecond = value.toEpochSecond(ZoneOffset.UTC);
+        writeVarLong(out, value.getNano() + 1L);
+        writeZigZag(out, epochSecond - base);
+        return epochSecond;
+    }
+
+    /**
+     * {@link #writeDateTime(DataOutput, LocalDateTime, long)} で書いた日時を読む。
+     *
+     * @param in   入力元
+     * @param base 書き込み時と同じ基準値
+     * @return 日時 ({@code null} の場合あり)
+     */
+    static LocalDateTime readDateTime(DataInput in, long base) throws IOException {
+        long nano = readVarLong(in);
+        if (nano == 0) {
+            return null;
+        }
+        long epochSecond = base + readZigZag(in);
+        return LocalDateTime.ofEpochSecond(epochSecond, (int) (nano - 1), ZoneOffset.UTC);
+    }
+}
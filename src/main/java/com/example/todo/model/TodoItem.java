@@ -1,24 +1,55 @@
 package com.example.todo.model;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 /**
  * Todo アイテムのモデルクラス。
- * Flash スコープに格納するため Serializable を実装する。
+ * Flash スコープに格納するため Serializable ({@link Externalizable}) を実装する。
+ *
+ * <p>セッション内の複数リクエストから参照されるため、各フィールドは volatile とし、
+ * 変更が描画中の別スレッドからも見えるようにしています。</p>
+ *
+ * <p>単体でシリアライズする場合は、{@code Long} や {@code LocalDateTime} のオブジェクトグラフを書かず、
+ * [フラグ (完了・ID の有無)][ID (varint)][作成日時 (エポック秒 + ナノ秒)][タイトル][説明 (UTF-8)]
+ * の形式で書き込みます。{@link TodoStore} に登録された Todo はストアがまとめて書き込みます。</p>
  */
-public class TodoItem implements Serializable {
+public class TodoItem implements Externalizable {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
+
+    private static final int FLAG_COMPLETED = 1;
+    private static final int FLAG_HAS_ID = 1 << 1;
     private static final DateTimeFormatter FORMATTER =
             DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
 
     private Long id;
-    private String title;
-    private String description;
-    private boolean completed;
-    private LocalDateTime createdAt;
+    private volatile String title;
+    private volatile String description;
+    private volatile boolean completed;
+    private volatile LocalDateTime createdAt;
+
+    /**
+     * 版数。タイトル・説明・完了状態・作成日時が変わるたびに増える (描画結果のキャッシュのキーに使う)。
+     * ストアに登録中は、ストアのロック内でストア全体の連番 ({@link TodoStore} を参照) から割り当てる。
+     */
+    private transient volatile long version;
+
+    /**
+     * タイトルと説明の版数。タイトル・説明が変わったときだけ {@link #version} と同じ値に更新する
+     * (編集時の楽観的排他制御に使う。完了状態の切り替えでは変わらない)。
+     */
+    private transient volatile long textVersion;
+
+    /** {@link #getFormattedCreatedAt()} の結果 (どの作成日時から作ったかと組で保持する) */
+    private transient volatile FormattedDateTime formattedCreatedAt;
+
+    /** この Todo を保持しているストア (登録中の変更はストアのロック内で行い、ストアから通知される) */
+    private transient volatile TodoStore owner;
 
     public TodoItem() {
         this.createdAt = LocalDateTime.now();
@@ -32,6 +63,15 @@ public class TodoItem implements Serializable {
         this.completed = false;
     }
 
+    /** 復元用。現在時刻を取得せずにすべてのフィールドを設定する。 */
+    TodoItem(Long id, String title, String description, boolean completed, LocalDateTime createdAt) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.completed = completed;
+        this.createdAt = createdAt;
+    }
+
     // ---- Getters / Setters ----
 
     public Long getId() {
@@ -47,7 +87,12 @@ public class TodoItem implements Serializable {
     }
 
     public void setTitle(String title) {
-        this.title = title;
+        TodoStore store = owner;
+        if (store != null) {
+            store.updateTitle(this, title);
+        } else {
+            applyText(title, description, version + 1);
+        }
     }
 
     public String getDescription() {
@@ -55,7 +100,55 @@ public class TodoItem implements Serializable {
     }
 
     public void setDescription(String description) {
-        this.description = description;
+        TodoStore store = owner;
+        if (store != null) {
+            store.updateDescription(this, description);
+        } else {
+            applyText(title, description, version + 1);
+        }
+    }
+
+    /**
+     * タイトルと説明をまとめて変更する。
+     * ストアに登録済みの場合は変更通知が 1 回にまとめられる。
+     *
+     * @param title       変更後のタイトル
+     * @param description 変更後の説明
+     */
+    public void edit(String title, String description) {
+        TodoStore store = owner;
+        if (store != null) {
+            store.updateText(this, title, description);
+        } else {
+            applyText(title, description, version + 1);
+        }
+    }
+
+    /**
+     * タイトルと説明の版数 ({@link #getTextVersion()}) が {@code expectedVersion} のままの場合だけ、
+     * タイトルと説明をまとめて変更する (楽観的排他制御)。
+     *
+     * <p>編集画面を開いたときの版数を渡すことで、その後に別の画面で行われたタイトル・説明の変更を上書きせずに検出できます。
+     * 完了状態の切り替えは編集する項目と重ならないため、競合として扱いません。
+     * ストアに登録済みの場合、版数の確認と変更は通常の変更と同じストアのロック内で 1 回で行われ、
+     * 編集中 (画面を開いてから保存するまで) にロックを保持することはありません。
+     * ストアから削除された Todo は変更せずに {@code false} を返します。</p>
+     *
+     * @param expectedVersion 編集を開始したときの {@link #getTextVersion()}
+     * @param title           変更後のタイトル
+     * @param description     変更後の説明
+     * @return 変更した場合は {@code true}。版数が変わっていた (または削除された) 場合は何もせず {@code false}
+     */
+    public boolean edit(long expectedVersion, String title, String description) {
+        TodoStore store = owner;
+        if (store != null) {
+            return store.updateTextIfVersion(this, expectedVersion, title, description);
+        }
+        if (textVersion != expectedVersion) {
+            return false;
+        }
+        applyText(title, description, version + 1);
+        return true;
     }
 
     public boolean isCompleted() {
@@ -63,7 +156,12 @@ public class TodoItem implements Serializable {
     }
 
     public void setCompleted(boolean completed) {
-        this.completed = completed;
+        TodoStore store = owner;
+        if (store != null) {
+            store.updateCompleted(this, completed);
+        } else {
+            applyCompleted(completed, version + 1);
+        }
     }
 
     public LocalDateTime getCreatedAt() {
@@ -71,10 +169,129 @@ public class TodoItem implements Serializable {
     }
 
     public void setCreatedAt(LocalDateTime createdAt) {
-        this.createdAt = createdAt;
+        TodoStore store = owner;
+        if (store != null) {
+            store.updateCreatedAt(this, createdAt);
+        } else {
+            applyCreatedAt(createdAt, version + 1);
+        }
+    }
+
+    /**
+     * 版数を返す。表示に使う値 (タイトル・説明・完了状態・作成日時) が変わるたびに増えるため、
+     * ID と版数が同じであれば同じ内容として扱える。
+     *
+     * <p>ストアに登録した Todo の版数はストア全体の連番から割り当てるため、ストアの復元後や
+     * ジャーナルからの再生後も、以前に割り当てた値が別の内容に再び使われることはありません。
+     * ストアに登録していない Todo は 0 から数え、単体のシリアライズでは保存しません。</p>
+     */
+    public long getVersion() {
+        return version;
     }
 
+    /**
+     * タイトルと説明の版数を返す。タイトル・説明が変わったときだけ増える
+     * ({@link #edit(long, String, String)} の楽観的排他制御に使う)。
+     */
+    public long getTextVersion() {
+        return textVersion;
+    }
+
+    /**
+     * 作成日時を {@code yyyy/MM/dd HH:mm} 形式で返す。
+     *
+     * <p>一覧の描画では全行で呼ばれるため、最初の呼び出しでフォーマットした文字列を保持し、
+     * 作成日時が変わるまで同じ文字列を返します。保持する値はフォーマット元の日時と組になっており、
+     * 別スレッドの {@link #setCreatedAt} と競合しても古い日時の文字列は返しません。</p>
+     *
+     * @return フォーマットした作成日時。作成日時が {@code null} の場合は空文字列
+     */
     public String getFormattedCreatedAt() {
-        return createdAt != null ? createdAt.format(FORMATTER) : "";
+        LocalDateTime current = getCreatedAt();
+        if (current == null) {
+            return "";
+        }
+        FormattedDateTime cached = formattedCreatedAt;
+        if (cached == null || (cached.source != current && !cached.source.equals(current))) {
+            cached = new FormattedDateTime(current, current.format(FORMATTER));
+            formattedCreatedAt = cached;
+        }
+        return cached.text;
+    }
+
+    // ---- シリアライズ ----
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        Long currentId = id;
+        out.writeByte((completed ? FLAG_COMPLETED : 0) | (currentId != null ? FLAG_HAS_ID : 0));
+        if (currentId != null) {
+            CompactEncoding.writeZigZag(out, currentId);
+        }
+        CompactEncoding.writeDateTime(out, createdAt, 0);
+        CompactEncoding.writeString(out, title);
+        CompactEncoding.writeString(out, description);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int flags = in.readUnsignedByte();
+        id = (flags & FLAG_HAS_ID) != 0 ? CompactEncoding.readZigZag(in) : null;
+        completed = (flags & FLAG_COMPLETED) != 0;
+        createdAt = CompactEncoding.readDateTime(in, 0);
+        formattedCreatedAt = null;
+        title = CompactEncoding.readString(in);
+        description = CompactEncoding.readString(in);
+    }
+
+    // ---- TodoStore 連携 ----
+
+    /** 所有するストアがロック内で完了状態を書き換えるときに使う。 */
+    void applyCompleted(boolean completed, long newVersion) {
+        this.completed = completed;
+        this.version = newVersion;
+    }
+
+    /** 所有するストアがロック内でタイトルと説明を書き換えるときに使う。 */
+    void applyText(String title, String description, long newVersion) {
+        this.title = title;
+        this.description = description;
+        this.version = newVersion;
+        this.textVersion = newVersion;
+    }
+
+    /** 所有するストアがロック内で作成日時を書き換えるときに使う。 */
+    void applyCreatedAt(LocalDateTime createdAt, long newVersion) {
+        this.createdAt = createdAt;
+        this.formattedCreatedAt = null;
+        this.version = newVersion;
+    }
+
+    /** ストアに登録・復元したときに、ストアの連番から版数を割り当てる (ロック内で呼ぶ)。 */
+    void assignVersion(long newVersion) {
+        this.version = newVersion;
+        this.textVersion = newVersion;
+    }
+
+    TodoStore getOwner() {
+        return owner;
+    }
+
+    void setOwner(TodoStore owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * フォーマット済みの日時と、そのフォーマット元の日時。
+     */
+    private static final class FormattedDateTime {
+
+        private final LocalDateTime source;
+        private final String text;
+
+        FormattedDateTime(LocalDateTime source, String text) {
+            this.source = source;
+            this.text = text;
+        }
     }
 }
@@ -0,0 +1,263 @@
+package com.example.todo.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Todo のタイトルと説明に対する文字 N-gram の転置インデックス。
+ *
+ * <p>単語の区切りがない日本語でも部分一致で検索できるよう、正規化したテキストの
+ * 1 文字 (uni-gram) と連続する 2 文字 (bi-gram) ごとに、その N-gram を含む Todo の ID を
+ * 昇順の {@code long} 配列 (ポスティングリスト) で保持します。
+ * 検索語の bi-gram (1 文字の検索語は uni-gram) のリストを短い順にマージして積集合を求め、
+ * 3 文字以上の検索語だけは候補ごとに部分一致を確認します (bi-gram がすべて含まれていても
+ * 連続しているとは限らないため)。全件の {@code contains} 走査は行いません。</p>
+ *
+ * <p>{@link TodoStoreListener} としてストアに登録され、追加・削除・テキストの変更のたびに
+ * 該当する Todo の分だけ差分で更新されます。通知はストアのロック内で呼ばれるため、
+ * ロックの順序は常にストア → インデックスとなります。</p>
+ *
+ * <p>正規化は NFKC と小文字化です (全角英数字と半角英数字、大文字と小文字を区別しない)。</p>
+ */
+final class TodoSearchIndex implements TodoStoreListener {
+
+    /** N-gram → その N-gram を含む Todo の ID (昇順) */
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    /** ID → 索引済みの Todo と正規化したテキスト (削除時の N-gram の再計算と候補の確認に使う) */
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    /**
+     * 登録済みの Todo からインデックスを作成する。
+     *
+     * @param items 登録済みの Todo
+     */
+    TodoSearchIndex(Iterable<TodoItem> items) {
+        for (TodoItem item : items) {
+            put(item);
+        }
+    }
+
+    @Override
+    public synchronized void todoAdded(TodoItem item) {
+        delete(item.getId());
+        put(item);
+    }
+
+    @Override
+    public synchronized void todoRemoved(TodoItem item) {
+        delete(item.getId());
+    }
+
+    @Override
+    public synchronized void textChanged(TodoItem item) {
+        delete(item.getId());
+        put(item);
+    }
+
+    /**
+     * 検索語をすべて (空白区切りの AND) タイトルまたは説明に含む Todo を ID 昇順で返す。
+     *
+     * @param query 検索語 (空白で区切ると AND 検索)
+     * @return 一致した Todo (ID 昇順)。検索語が空の場合は空リスト
+     */
+    synchronized List<TodoItem> search(String query) {
+        String[] terms = normalize(query).trim().split("\\s+");
+        if (terms[0].isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Postings> lists = new ArrayList<>();
+        boolean verify = false;
+        for (String term : terms) {
+            for (String gram : queryGrams(term)) {
+                Postings ids = postings.get(gram);
+                if (ids == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(ids);
+            }
+            verify |= term.length() > 2;
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+        // 最短のリストを基準に、残りのリストを前から順にたどって積集合を求める
+        Postings shortest = lists.get(0);
+        int[] cursors = new int[lists.size()];
+        List<TodoItem> result = new ArrayList<>();
+        outer:
+        for (int i = 0; i < shortest.size; i++) {
+            long id = shortest.ids[i];
+            for (int j = 1; j < lists.size(); j++) {
+                Postings other = lists.get(j);
+                int cursor = other.seek(id, cursors[j]);
+                cursors[j] = cursor;
+                if (cursor == other.size) {
+                    break outer;
+                }
+                if (other.ids[cursor] != id) {
+                    continue outer;
+                }
+            }
+            Document document = documents.get(id);
+            if (!verify || document.containsAll(terms)) {
+                result.add(document.item);
+            }
+        }
+        return result;
+    }
+
+    /** インデックスに登録されている N-gram の種類数 (テスト・診断用)。 */
+    synchronized int gramCount() {
+        return postings.size();
+    }
+
+    /**
+     * 検索や索引に使う形に正規化する (NFKC + 小文字化)。
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    // ---- ヘルパー ----
+
+    private void put(TodoItem item) {
+        Document document = new Document(item);
+        documents.put(item.getId(), document);
+        for (String gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(item.getId());
+        }
+    }
+
+    private void delete(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String gram : document.grams()) {
+            Postings ids = postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /** 検索語の N-gram (2 文字以上は bi-gram、1 文字は uni-gram)。 */
+    private static Set<String> queryGrams(String term) {
+        if (term.length() == 1) {
+            return Collections.singleton(term);
+        }
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 1 < term.length(); i++) {
+            grams.add(term.substring(i, i + 2));
+        }
+        return grams;
+    }
+
+    /**
+     * 索引済みの Todo と、索引した時点の正規化テキスト。
+     */
+    private static final class Document {
+
+        private final TodoItem item;
+        private final String title;
+        private final String description;
+
+        Document(TodoItem item) {
+            this.item = item;
+            this.title = normalize(item.getTitle());
+            this.description = normalize(item.getDescription());
+        }
+
+        /** 索引する N-gram (各フィールドの uni-gram と bi-gram)。フィールドをまたぐ bi-gram は作らない。 */
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            for (String field : new String[]{title, description}) {
+                for (int i = 0; i < field.length(); i++) {
+                    grams.add(field.substring(i, i + 1));
+                    if (i + 1 < field.length()) {
+                        grams.add(field.substring(i, i + 2));
+                    }
+                }
+            }
+            return grams;
+        }
+
+        boolean containsAll(String[] terms) {
+            for (String term : terms) {
+                if (!title.contains(term) && !description.contains(term)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 昇順の ID の可変長配列 (ポスティングリスト)。
+     *
+     * <p>ID は採番順に追加されるため、通常は末尾への追記になります。</p>
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int position = size > 0 && ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0 && position < size) {
+                return;
+            }
+            int insert = position >= 0 ? position : -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+            ids[insert] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            if (size > 0 && size < ids.length / 4) {
+                ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+            }
+            return true;
+        }
+
+        /**
+         * {@code from} 以降で {@code id} 以上の最初の位置を返す (ギャロップ探索)。
+         * 該当がなければ {@link #size}。
+         */
+        int seek(long id, int from) {
+            if (from >= size || ids[from] >= id) {
+                return from;
+            }
+            int step = 1;
+            int low = from;
+            int high = from + 1;
+            while (high < size && ids[high] < id) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            int position = Arrays.binarySearch(ids, low + 1, Math.min(high + 1, size), id);
+            return position >= 0 ? position : -position - 1;
+        }
+    }
+}
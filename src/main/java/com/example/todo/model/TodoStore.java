@@ -0,0 +1,665 @@
+package com.example.todo.model;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * {@link TodoItem} を保持するストア。
+ *
+ * <p>挿入順を保持する {@link LinkedHashMap} を ID インデックスとして使用し、
+ * ID による検索・削除・完了切り替えを O(1) で行います。
+ * 複数件の削除・完了設定 ({@link #removeAll(Collection)} / {@link #removeCompleted()} /
+ * {@link #setCompleted(Collection, boolean)}) は 1 回のロックと 1 回の走査で行います。
+ * 画面表示用のリスト ({@link #asList()}) は変更があるまでキャッシュされ、
+ * 同一リクエスト内で EL から何度参照されても再構築されません。</p>
+ *
+ * <p>完了件数は追加・削除・完了状態の変更のたびに差分で更新されるため、
+ * {@link #getCompletedCount()} / {@link #getPendingCount()} は全件走査せずに O(1) で返ります。
+ * 登録された {@link TodoItem} はストアを所有者として保持し、
+ * {@link TodoItem#setCompleted(boolean)} が直接呼ばれた場合も件数に反映されます。</p>
+ *
+ * <p>ページ表示用に、オフセット指定 ({@link #window(int, int)}) と
+ * キーセット指定 ({@link #after(Long, int)}) の 2 種類の部分取得を提供します。
+ * いずれもキャッシュ済みリストのビューを返すため、表示範囲外の要素はコピーしません。</p>
+ *
+ * <p><strong>スレッドセーフ:</strong><br>
+ * 同一セッションの複数タブや連続した POST から同時に呼ばれても安全なように、
+ * 変更操作はストアのモニタで排他します。{@link #asList()} が返すリストは
+ * 変更のたびに作り直される不変のスナップショット (copy-on-write) のため、
+ * 描画中に別のリクエストが Todo を追加・削除しても
+ * {@link java.util.ConcurrentModificationException} は発生せず、
+ * 描画側がロックを保持したまま走査することもありません。</p>
+ *
+ * <p>追加・削除・完了状態やテキストの変更は、登録された {@link TodoStoreListener} へ
+ * ロック内で変更と同じ順序で通知されます (永続化ジャーナルなどが購読します)。
+ * ID は {@link #nextId()} で採番し、同じストアを共有する複数のセッションでも重複しません。</p>
+ *
+ * <p><strong>版数:</strong><br>
+ * 登録された Todo の版数 ({@link TodoItem#getVersion()} / {@link TodoItem#getTextVersion()}) は、
+ * 追加・変更のたびにストア全体の連番から割り当てます。連番はストアの作成時刻 (ミリ秒 × 1000) から始まり、
+ * シリアライズにも含めるため、セッションの復元やジャーナルからの再生で作り直したストアでも、
+ * 以前に割り当てた版数が別の内容に再び割り当てられることはありません (ABA 問題を起こさない)。
+ * 復元した Todo には新しい版数を割り当てるため、復元をまたいだ編集は一度だけ競合として扱われます。</p>
+ *
+ * <p><strong>シリアライズ形式:</strong><br>
+ * セッションの永続化・レプリケーションで転送量を抑えるため、標準の形式
+ * ({@code LinkedHashMap} と {@code Long} / {@code LocalDateTime} のオブジェクトグラフ) ではなく、
+ * 次の独自形式で書き込みます (整数は varint、文字列は UTF-8)。</p>
+ * <pre>
+ * [採番済みの最大 ID][版数の連番][件数][完了フラグのビットセット (件数 / 8 バイト)]
+ * Todo ごとに [直前の ID との差分][作成日時 (直前の作成日時との秒差 + ナノ秒)][タイトル][説明]
+ * </pre>
+ */
+public class TodoStore implements Serializable {
+
+    private static final long serialVersionUID = 3L;
+
+    /** ID → TodoItem のインデックス (挿入順を保持。ストアのモニタで保護する) */
+    private transient Map<Long, TodoItem> index = new LinkedHashMap<>();
+
+    /** {@link #asList()} が返す不変スナップショットのキャッシュ (変更時に破棄) */
+    private transient volatile Snapshot snapshot;
+
+    /** 完了済み Todo の件数 (変更のたびに差分更新) */
+    private transient volatile int completedCount;
+
+    /** 登録件数 (ロックなしで参照できるよう index とは別に保持) */
+    private transient volatile int size;
+
+    /** 最後に追加した Todo の ID (ID 昇順判定用) */
+    private transient Long lastAddedId;
+
+    /** 挿入順が ID 昇順になっているか (キーセット取得で二分探索を使えるか) */
+    private transient boolean ascending = true;
+
+    /** 採番済みの最大 ID */
+    private transient long idSequence;
+
+    /** 割り当て済みの最大の版数 (ストアのモニタで保護する) */
+    private transient long versionSequence = initialVersion();
+
+    /** 変更通知先 (シリアライズ対象外) */
+    private transient volatile List<TodoStoreListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** 全文検索インデックス (最初の検索時に作成。ストアのモニタで保護する) */
+    private transient TodoSearchIndex searchIndex;
+
+    /** 直前の検索語と結果 (1 回の描画で同じ検索が繰り返されるため) */
+    private transient volatile SearchResult lastSearch;
+
+    /** 追加・削除・テキストの変更ごとに増える値 (検索結果のキャッシュの有効性判定用) */
+    private transient volatile int modCount;
+
+    /**
+     * 新しい Todo の ID を採番する。
+     *
+     * @return これまでに採番・追加されたどの ID よりも大きい ID
+     */
+    public synchronized long nextId() {
+        return ++idSequence;
+    }
+
+    /**
+     * Todo を末尾に追加する。同じ ID の Todo が既にある場合は置き換える。
+     *
+     * @param item 追加する Todo (ID は必須)
+     */
+    public synchronized void add(TodoItem item) {
+        Objects.requireNonNull(item.getId(), "id");
+        TodoItem previous = index.put(item.getId(), item);
+        if (previous != null) {
+            detach(previous);
+        } else {
+            if (lastAddedId != null && item.getId() <= lastAddedId) {
+                ascending = false;
+            }
+            lastAddedId = item.getId();
+        }
+        idSequence = Math.max(idSequence, item.getId());
+        attach(item);
+        changed();
+        for (TodoStoreListener listener : listeners) {
+            listener.todoAdded(item);
+        }
+    }
+
+    /**
+     * 指定した ID の Todo を取得する。
+     *
+     * @param id Todo ID
+     * @return 該当する Todo。存在しない場合は {@code null}
+     */
+    public synchronized TodoItem find(Long id) {
+        return id != null ? index.get(id) : null;
+    }
+
+    /**
+     * 指定した ID の Todo を削除する。
+     *
+     * @param id 削除対象の Todo ID
+     * @return 削除した Todo。存在しない場合は {@code null}
+     */
+    public synchronized TodoItem remove(Long id) {
+        TodoItem removed = id != null ? index.remove(id) : null;
+        if (removed != null) {
+            detach(removed);
+            changed();
+            for (TodoStoreListener listener : listeners) {
+                listener.todoRemoved(removed);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 指定した ID の Todo の完了/未完了を切り替える。
+     * 読み取りと書き込みを同じロック内で行うため、同時に切り替えても更新は失われない。
+     *
+     * @param id 対象の Todo ID
+     * @return 切り替えた Todo。存在しない場合は {@code null}
+     */
+    public synchronized TodoItem toggle(Long id) {
+        TodoItem item = find(id);
+        if (item != null) {
+            updateCompleted(item, !item.isCompleted());
+        }
+        return item;
+    }
+
+    /**
+     * 指定した ID の Todo をまとめて削除する。
+     *
+     * <p>1 回のロックで削除し、スナップショットの破棄と件数の更新も 1 回だけ行います。
+     * 変更通知は削除した Todo ごとに送られます。</p>
+     *
+     * @param ids 削除対象の Todo ID (存在しない ID は無視する)
+     * @return 削除した件数
+     */
+    public synchronized int removeAll(Collection<Long> ids) {
+        List<TodoItem> removed = new ArrayList<>();
+        for (Long id : ids) {
+            TodoItem item = id != null ? index.remove(id) : null;
+            if (item != null) {
+                detach(item);
+                removed.add(item);
+            }
+        }
+        removed(removed);
+        return removed.size();
+    }
+
+    /**
+     * 完了済みの Todo をすべて削除する。
+     *
+     * <p>ストアを 1 回走査して削除し、スナップショットの破棄と件数の更新も 1 回だけ行います。
+     * 完了件数は差分更新しているため、完了済みがない場合は走査しません。</p>
+     *
+     * @return 削除した件数
+     */
+    public synchronized int removeCompleted() {
+        if (completedCount == 0) {
+            return 0;
+        }
+        List<TodoItem> removed = new ArrayList<>(completedCount);
+        for (Iterator<TodoItem> it = index.values().iterator(); it.hasNext(); ) {
+            TodoItem item = it.next();
+            if (item.isCompleted()) {
+                it.remove();
+                detach(item);
+                removed.add(item);
+            }
+        }
+        removed(removed);
+        return removed.size();
+    }
+
+    /**
+     * 指定した ID の Todo の完了状態をまとめて設定する。
+     *
+     * @param ids       対象の Todo ID (存在しない ID は無視する)
+     * @param completed 設定する完了状態
+     * @return 完了状態が変わった件数
+     */
+    public synchronized int setCompleted(Collection<Long> ids, boolean completed) {
+        int changed = 0;
+        for (Long id : ids) {
+            TodoItem item = find(id);
+            if (item != null && item.isCompleted() != completed) {
+                updateCompleted(item, completed);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * タイトルまたは説明に検索語を含む Todo を挿入順で返す。
+     *
+     * <p>最初の呼び出しで登録済みの Todo から文字 N-gram の転置インデックス
+     * ({@link TodoSearchIndex}) を作成し、以降は追加・削除・編集のたびに差分で更新します。
+     * 検索は候補の Todo だけを確認するため、件数に比例した走査は行いません。
+     * 直前と同じ検索語の結果は次の変更までキャッシュされます。</p>
+     *
+     * @param query 検索語 (空白区切りで AND 検索。大文字小文字・全角半角は区別しない)
+     * @return 一致した Todo の読み取り専用リスト。検索語が空の場合は {@link #asList()}
+     */
+    public List<TodoItem> search(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            return asList();
+        }
+        int version = modCount;
+        SearchResult cached = lastSearch;
+        if (cached != null && cached.version == version && cached.query.equals(query)) {
+            return cached.items;
+        }
+        List<TodoItem> result = searchIndex().search(query);
+        Snapshot current = currentSnapshot();
+        if (!current.ascending && !result.isEmpty()) {
+            // インデックスは ID 昇順で返すため、挿入順が ID 昇順でない場合だけ挿入順に並べ直す
+            Set<TodoItem> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+            matches.addAll(result);
+            result = new ArrayList<>(matches.size());
+            for (TodoItem item : current.items) {
+                if (matches.contains(item)) {
+                    result.add(item);
+                }
+            }
+        }
+        List<TodoItem> items = Collections.unmodifiableList(result);
+        // 検索中に変更された場合も、検索開始時の値を記録するため次の呼び出しでは使われない
+        lastSearch = new SearchResult(query, version, items);
+        return items;
+    }
+
+    public void addListener(TodoStoreListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TodoStoreListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 追加・削除・タイトルと説明の変更ごとに増える値を返す。
+     * 値が変わらない間は {@link #window(int, int)} と {@link #search(String)} が同じ結果を返すため、
+     * 呼び出し側が結果を再利用できるかの判定に使用します (完了状態の変更では増えません)。
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    public int getPendingCount() {
+        return size - completedCount;
+    }
+
+    /**
+     * 差分更新している件数が全件走査の結果と一致するかを検証する。
+     * 全件を走査するため、テストや診断用途でのみ使用すること。
+     *
+     * @return 一致する場合は {@code true}
+     */
+    public synchronized boolean verifyCounts() {
+        int actual = 0;
+        for (TodoItem item : index.values()) {
+            if (item.isCompleted()) {
+                actual++;
+            }
+        }
+        return actual == completedCount && index.size() == size;
+    }
+
+    /**
+     * 挿入順に並んだ読み取り専用リストを返す。
+     *
+     * <p>返されるリストは呼び出し時点のスナップショットで、
+     * その後の追加・削除の影響を受けません。</p>
+     *
+     * @return Todo のリスト (次の変更まで同一インスタンス)
+     */
+    public List<TodoItem> asList() {
+        return currentSnapshot().items;
+    }
+
+    /**
+     * オフセット指定で表示範囲の Todo を返す。
+     *
+     * @param offset 先頭からの位置 (0 始まり)
+     * @param limit  最大件数
+     * @return 挿入順リストの部分ビュー (範囲外の場合は空)
+     */
+    public List<TodoItem> window(int offset, int limit) {
+        return window(asList(), offset, limit);
+    }
+
+    /**
+     * キーセット指定で、指定した ID の次から表示範囲の Todo を返す。
+     *
+     * <p>挿入順が ID 昇順の場合は二分探索で位置を求めるため、
+     * 指定した ID が削除済みでもその次の ID から返します。</p>
+     *
+     * @param afterId 直前のページの末尾 ID ({@code null} の場合は先頭から)
+     * @param limit   最大件数
+     * @return 挿入順リストの部分ビュー
+     */
+    public List<TodoItem> after(Long afterId, int limit) {
+        Snapshot current = currentSnapshot();
+        if (afterId == null) {
+            return window(current.items, 0, limit);
+        }
+        return window(current.items, current.positionAfter(afterId), limit);
+    }
+
+    /**
+     * 指定した ID の Todo の挿入順での位置を返す。
+     *
+     * @param id Todo ID
+     * @return 0 始まりの位置。存在しない場合は -1
+     */
+    public int indexOf(Long id) {
+        if (find(id) == null) {
+            return -1;
+        }
+        return currentSnapshot().positionAfter(id) - 1;
+    }
+
+    // ---- TodoItem からの通知 ----
+
+    /**
+     * 所有する Todo の完了状態を変更する。{@link TodoItem#setCompleted(boolean)} から呼ばれる。
+     *
+     * @param item      対象の Todo
+     * @param completed 変更後の完了状態
+     */
+    synchronized void updateCompleted(TodoItem item, boolean completed) {
+        if (item.isCompleted() == completed) {
+            return;
+        }
+        item.applyCompleted(completed, ++versionSequence);
+        if (item.getOwner() == this) {
+            completedCount += completed ? 1 : -1;
+            for (TodoStoreListener listener : listeners) {
+                listener.completedChanged(item);
+            }
+        }
+    }
+
+    /**
+     * 所有する Todo のタイトルと説明を変更する。
+     * {@link TodoItem#setTitle(String)} / {@link TodoItem#setDescription(String)} /
+     * {@link TodoItem#edit(String, String)} から呼ばれる。
+     *
+     * @param item        対象の Todo
+     * @param title       変更後のタイトル
+     * @param description 変更後の説明
+     */
+    synchronized void updateText(TodoItem item, String title, String description) {
+        item.applyText(title, description, ++versionSequence);
+        if (item.getOwner() == this) {
+            modCount++;
+            for (TodoStoreListener listener : listeners) {
+                listener.textChanged(item);
+            }
+        }
+    }
+
+    /**
+     * 所有する Todo のタイトルと説明の版数が {@code expectedVersion} のままの場合だけタイトルと説明を変更する。
+     * {@link TodoItem#edit(long, String, String)} から呼ばれる。
+     *
+     * @return 変更した場合は {@code true}。版数が変わっていた、またはこのストアから削除されていた場合は {@code false}
+     */
+    synchronized boolean updateTextIfVersion(TodoItem item, long expectedVersion, String title, String description) {
+        if (item.getOwner() != this || item.getTextVersion() != expectedVersion) {
+            return false;
+        }
+        updateText(item, title, description);
+        return true;
+    }
+
+    /**
+     * 所有する Todo のタイトルだけを変更する。説明はロック内で現在の値を引き継ぐ。
+     */
+    synchronized void updateTitle(TodoItem item, String title) {
+        updateText(item, title, item.getDescription());
+    }
+
+    /**
+     * 所有する Todo の説明だけを変更する。タイトルはロック内で現在の値を引き継ぐ。
+     */
+    synchronized void updateDescription(TodoItem item, String description) {
+        updateText(item, item.getTitle(), description);
+    }
+
+    /**
+     * 所有する Todo の作成日時を変更する。{@link TodoItem#setCreatedAt(LocalDateTime)} から呼ばれる。
+     */
+    synchronized void updateCreatedAt(TodoItem item, LocalDateTime createdAt) {
+        item.applyCreatedAt(createdAt, ++versionSequence);
+    }
+
+    // ---- ヘルパー ----
+
+    /** 検索インデックスを返す。未作成の場合は登録済みの Todo から作成してリスナーに登録する。 */
+    private synchronized TodoSearchIndex searchIndex() {
+        if (searchIndex == null) {
+            searchIndex = new TodoSearchIndex(index.values());
+            listeners.add(searchIndex);
+        }
+        return searchIndex;
+    }
+
+    private void attach(TodoItem item) {
+        item.setOwner(this);
+        item.assignVersion(++versionSequence);
+        if (item.isCompleted()) {
+            completedCount++;
+        }
+    }
+
+    private void detach(TodoItem item) {
+        if (item.getOwner() == this) {
+            item.setOwner(null);
+        }
+        if (item.isCompleted()) {
+            completedCount--;
+        }
+    }
+
+    /** まとめて削除した後に件数とスナップショットを 1 回だけ更新し、削除を通知する (ロック内で呼ぶ)。 */
+    private void removed(List<TodoItem> removed) {
+        if (removed.isEmpty()) {
+            return;
+        }
+        changed();
+        for (TodoItem item : removed) {
+            for (TodoStoreListener listener : listeners) {
+                listener.todoRemoved(item);
+            }
+        }
+    }
+
+    /** 構成が変わったときに件数を更新し、スナップショットを破棄する (ロック内で呼ぶ)。 */
+    private void changed() {
+        size = index.size();
+        snapshot = null;
+        modCount++;
+    }
+
+    /** スナップショットを返す。破棄されている場合はロック内で作り直す。 */
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = new Snapshot(new ArrayList<>(index.values()), ascending);
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 版数の連番の初期値。作り直したストア (再起動後のジャーナルの再生など) が、以前のストアの割り当てた版数より
+     * 大きい値から始まるよう、現在時刻から決める (以前のストアが 1 ミリ秒あたり平均 1000 回を超えて変更されない限り重ならない)。
+     */
+    private static long initialVersion() {
+        return System.currentTimeMillis() * 1000;
+    }
+
+    private static List<TodoItem> window(List<TodoItem> list, int offset, int limit) {
+        int from = Math.max(0, Math.min(offset, list.size()));
+        // from + limit は limit が大きいと int の範囲を超えるため long で計算する
+        int to = (int) Math.min(list.size(), (long) from + Math.max(0, limit));
+        return list.subList(from, to);
+    }
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        CompactEncoding.writeVarLong(out, idSequence);
+        CompactEncoding.writeVarLong(out, versionSequence);
+        CompactEncoding.writeVarLong(out, index.size());
+
+        byte[] completed = new byte[(index.size() + 7) >>> 3];
+        int position = 0;
+        for (TodoItem item : index.values()) {
+            if (item.isCompleted()) {
+                completed[position >>> 3] |= (byte) (1 << (position & 7));
+            }
+            position++;
+        }
+        out.write(completed);
+
+        long previousId = 0;
+        long previousSecond = 0;
+        for (TodoItem item : index.values()) {
+            CompactEncoding.writeZigZag(out, item.getId() - previousId);
+            previousId = item.getId();
+            previousSecond = CompactEncoding.writeDateTime(out, item.getCreatedAt(), previousSecond);
+            CompactEncoding.writeString(out, item.getTitle());
+            CompactEncoding.writeString(out, item.getDescription());
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        idSequence = CompactEncoding.readVarLong(in);
+        // 復元した Todo には、シリアライズ前に割り当てたどの値よりも大きい版数を割り当てる (attach)
+        versionSequence = Math.max(CompactEncoding.readVarLong(in), initialVersion());
+        long count = CompactEncoding.readVarLong(in);
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new InvalidObjectException("too many items: " + count);
+        }
+        byte[] completed = new byte[((int) count + 7) >>> 3];
+        in.readFully(completed);
+
+        index = new LinkedHashMap<>(Math.max(16, (int) (count / 0.75f) + 1));
+        listeners = new CopyOnWriteArrayList<>();
+        ascending = true;
+        long previousId = 0;
+        long previousSecond = 0;
+        for (int i = 0; i < count; i++) {
+            long id = previousId + CompactEncoding.readZigZag(in);
+            LocalDateTime createdAt = CompactEncoding.readDateTime(in, previousSecond);
+            if (createdAt != null) {
+                previousSecond = createdAt.toEpochSecond(ZoneOffset.UTC);
+            }
+            boolean done = (completed[i >>> 3] & (1 << (i & 7))) != 0;
+            TodoItem item = new TodoItem(id, CompactEncoding.readString(in), CompactEncoding.readString(in),
+                    done, createdAt);
+            if (i > 0 && id <= previousId) {
+                ascending = false;
+            }
+            previousId = id;
+            index.put(id, item);
+            attach(item);
+        }
+        lastAddedId = count > 0 ? previousId : null;
+        size = index.size();
+    }
+
+    /**
+     * 検索語と、その時点の検索結果の組。
+     */
+    private static final class SearchResult {
+
+        private final String query;
+        private final int version;
+        private final List<TodoItem> items;
+
+        SearchResult(String query, int version, List<TodoItem> items) {
+            this.query = query;
+            this.version = version;
+            this.items = items;
+        }
+    }
+
+    /**
+     * ある時点の挿入順リストと、そのリストが ID 昇順かどうかの組。
+     */
+    private static final class Snapshot {
+
+        private final List<TodoItem> items;
+        private final boolean ascending;
+
+        Snapshot(List<TodoItem> items, boolean ascending) {
+            this.items = Collections.unmodifiableList(items);
+            this.ascending = ascending;
+        }
+
+        /**
+         * 指定した ID の次の位置を返す。ID 昇順の場合は二分探索、
+         * そうでない場合は線形探索を行い、該当がなければリスト末尾を返す。
+         */
+        int positionAfter(Long id) {
+            if (ascending) {
+                int low = 0;
+                int high = items.size();
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (items.get(mid).getId() <= id) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                return low;
+            }
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).getId().equals(id)) {
+                    return i + 1;
+                }
+            }
+            return items.size();
+        }
+    }
+}
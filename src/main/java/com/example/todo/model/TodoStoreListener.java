@@ -0,0 +1,35 @@
+package com.example.todo.model;
+
+/**
+ * {@link TodoStore} の変更通知を受け取るリスナー。
+ *
+ * <p>通知はストアのロック内で変更と同じ順序で呼ばれます。
+ * ロックを保持したまま呼ばれるため、実装は短時間で処理を終え、
+ * ディスク I/O などの重い処理は別スレッドへ委ねてください。</p>
+ */
+public interface TodoStoreListener {
+
+    /**
+     * Todo が追加された (同じ ID の Todo が置き換えられた場合を含む)。
+     */
+    default void todoAdded(TodoItem item) {
+    }
+
+    /**
+     * Todo が削除された。
+     */
+    default void todoRemoved(TodoItem item) {
+    }
+
+    /**
+     * Todo の完了状態が変わった。
+     */
+    default void completedChanged(TodoItem item) {
+    }
+
+    /**
+     * Todo のタイトルまたは説明が変わった。
+     */
+    default void textChanged(TodoItem item) {
+    }
+}
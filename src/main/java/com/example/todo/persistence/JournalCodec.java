@@ -0,0 +1,247 @@
+package com.example.todo.persistence;
+
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * ジャーナルとスナップショットで使うレコードのバイナリ形式。
+ *
+ * <p>1 レコードは次のフレームで表します。</p>
+ * <pre>
+ * [本体の長さ int32][本体の CRC32 int32][本体]
+ * 本体 = [種別 1 byte][ID varint][種別ごとの内容]
+ *   ADD       : 作成日時 (UTC エポック秒 varint, ナノ秒 varint), 完了 1 byte, タイトル, 説明
+ *               (作成日時が null の場合はエポック秒 0, ナノ秒 {@value #NULL_NANO})
+ *   DELETE    : なし
+ *   COMPLETED : 完了 1 byte
+ *   TEXT      : タイトル, 説明
+ * 文字列 = [UTF-8 のバイト長 varint][UTF-8] (null は空文字として書き込む)
+ * </pre>
+ *
+ * <p>各レコードは変更後の値をそのまま持つ (差分ではない) ため、
+ * 同じレコードを 2 回適用しても結果は変わりません。
+ * スナップショットとジャーナルの内容が重複しても、順に適用すれば最新の状態に収束します。</p>
+ */
+final class JournalCodec {
+
+    static final byte ADD = 1;
+    static final byte DELETE = 2;
+    static final byte COMPLETED = 3;
+    static final byte TEXT = 4;
+
+    /** 作成日時が null であることを表すナノ秒 (有効なナノ秒は 999,999,999 以下のため既存の記録と区別できる) */
+    static final int NULL_NANO = 1_000_000_000;
+
+    /** フレームのヘッダ長 (本体の長さ + CRC32) */
+    static final int HEADER_BYTES = 8;
+
+    /** 1 レコードの本体の上限 (破損した長さで巨大な領域を確保しないための上限) */
+    static final int MAX_BODY_BYTES = 4 * 1024 * 1024;
+
+    private JournalCodec() {
+    }
+
+    // ---- 書き込み ----
+
+    static void writeAdd(ByteArrayOutputStream out, TodoItem item) {
+        ByteArrayOutputStream body = begin(ADD, item.getId());
+        LocalDateTime createdAt = item.getCreatedAt();
+        writeVarLong(body, createdAt != null ? createdAt.toEpochSecond(ZoneOffset.UTC) : 0);
+        writeVarLong(body, createdAt != null ? createdAt.getNano() : NULL_NANO);
+        body.write(item.isCompleted() ? 1 : 0);
+        writeString(body, item.getTitle());
+        writeString(body, item.getDescription());
+        frame(out, body);
+    }
+
+    static void writeDelete(ByteArrayOutputStream out, Long id) {
+        frame(out, begin(DELETE, id));
+    }
+
+    static void writeCompleted(ByteArrayOutputStream out, TodoItem item) {
+        ByteArrayOutputStream body = begin(COMPLETED, item.getId());
+        body.write(item.isCompleted() ? 1 : 0);
+        frame(out, body);
+    }
+
+    static void writeText(ByteArrayOutputStream out, TodoItem item) {
+        ByteArrayOutputStream body = begin(TEXT, item.getId());
+        writeString(body, item.getTitle());
+        writeString(body, item.getDescription());
+        frame(out, body);
+    }
+
+    // ---- 読み込み ----
+
+    /**
+     * バッファの現在位置から有効なレコードを順にストアへ適用する。
+     *
+     * <p>長さが足りない・CRC が一致しない・内容を解釈できないフレームに達した時点で停止し、
+     * バッファの位置をそのフレームの先頭に戻します。停止した位置以降が書き込み途中の末尾か
+     * 破損かは {@link #isTornTail(ByteBuffer)} で判定します。</p>
+     *
+     * @param buffer 読み込むバッファ
+     * @param store  適用先のストア
+     * @return 適用したレコード数
+     */
+    static int replay(ByteBuffer buffer, TodoStore store) {
+        int applied = 0;
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > MAX_BODY_BYTES || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            ByteBuffer body = buffer.slice();
+            body.limit(length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                buffer.position(start);
+                break;
+            }
+            try {
+                apply(body, store);
+            } catch (RuntimeException e) {
+                // CRC は一致するが種別や長さが不正なレコード (内容はすべて読んでから適用するため、ストアは変更されていない)
+                buffer.position(start);
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * バッファの現在位置以降が、書き込み途中でプロセスが停止した末尾かを判定する (位置は変更しない)。
+     *
+     * <p>残りがヘッダに満たない、フレームがバッファの末尾を越える、または残りがすべて 0 の場合を
+     * 書き込み途中の末尾とみなします。それ以外 (完全な長さを持つフレームの CRC の不一致など) は破損です。</p>
+     *
+     * @param buffer {@link #replay(ByteBuffer, TodoStore)} が停止した位置のバッファ
+     * @return 残りがない場合・書き込み途中の末尾の場合は {@code true}
+     */
+    static boolean isTornTail(ByteBuffer buffer) {
+        ByteBuffer rest = buffer.duplicate();
+        if (rest.remaining() < HEADER_BYTES) {
+            return true;
+        }
+        int length = rest.getInt(rest.position());
+        if (length > 0 && length <= MAX_BODY_BYTES && length > rest.remaining() - HEADER_BYTES) {
+            return true;
+        }
+        while (rest.hasRemaining()) {
+            if (rest.get() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void apply(ByteBuffer body, TodoStore store) {
+        byte type = body.get();
+        long id = readVarLong(body);
+        switch (type) {
+            case ADD: {
+                long epochSecond = readVarLong(body);
+                int nano = (int) readVarLong(body);
+                boolean completed = body.get() != 0;
+                TodoItem item = new TodoItem(id, readString(body), readString(body));
+                item.setCreatedAt(nano == NULL_NANO ? null : LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+                item.setCompleted(completed);
+                store.add(item);
+                break;
+            }
+            case DELETE:
+                store.remove(id);
+                break;
+            case COMPLETED: {
+                TodoItem item = store.find(id);
+                boolean completed = body.get() != 0;
+                if (item != null) {
+                    item.setCompleted(completed);
+                }
+                break;
+            }
+            case TEXT: {
+                TodoItem item = store.find(id);
+                String title = readString(body);
+                String description = readString(body);
+                if (item != null) {
+                    item.edit(title, description);
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("unknown record type: " + type);
+        }
+    }
+
+    // ---- ヘルパー ----
+
+    private static ByteArrayOutputStream begin(byte type, Long id) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(64);
+        body.write(type);
+        writeVarLong(body, id);
+        return body;
+    }
+
+    private static void frame(ByteArrayOutputStream out, ByteArrayOutputStream body) {
+        byte[] bytes = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        writeInt(out, bytes.length);
+        writeInt(out, (int) crc.getValue());
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("malformed varint");
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,364 @@
+package com.example.todo.persistence;
+
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+import com.example.todo.model.TodoStoreListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * 1 つの {@link TodoStore} の変更を追記するログ (write-ahead log)。
+ *
+ * <p>ストアの変更通知 ({@link TodoStoreListener}) を受けてレコードをメモリ上のバッファへ追記し、
+ * {@link #flush()} でまとめて {@link FileChannel} へ書き込んでから {@code force} します
+ * (グループコミット)。クリックごとに同期書き込みは行わず、フラッシュ間隔の間に
+ * 発生した変更を 1 回の書き込みと fsync にまとめます。</p>
+ *
+ * <p>ディレクトリ内のファイル構成:</p>
+ * <pre>
+ * snapshot-&lt;世代&gt;.bin  その世代の開始時点の全 Todo (ADD レコードの並び)
+ * log-&lt;世代&gt;.bin       その世代で発生した変更
+ * </pre>
+ *
+ * <p>{@link #open(Path, TodoStore)} は最新のスナップショットを読み込み、
+ * それ以降の世代のログを順に再生します (読み込みはメモリマップで行います)。
+ * ログの末尾が書き込み途中で壊れている場合は、壊れたレコード以降を読み飛ばします。
+ * 途中のレコードが壊れている場合 (CRC の不一致・解釈できない内容) は直前の有効なレコードで再生を止め、
+ * そのファイルと以降の世代のファイルを {@code .corrupt-<時刻>} を付けた名前で残して警告を記録します。
+ * どちらの場合も再生できた状態から新しい世代を始めます。
+ * ログが閾値を超えたら {@link #compact()} で新しい世代へ切り替えてスナップショットを書き、
+ * 古い世代のファイルを削除するため、再生時間はスナップショット 1 つ分と閾値程度のログに収まります。</p>
+ *
+ * <p><strong>ロック順序:</strong> 変更通知はストアのロック内で呼ばれ、ジャーナルのロックを取ります。
+ * ジャーナル側からストアのロックを取ることはないため、デッドロックしません。</p>
+ */
+public final class TodoJournal implements TodoStoreListener, Closeable {
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String LOG_PREFIX = "log-";
+    private static final String SUFFIX = ".bin";
+
+    private static final Logger LOGGER = Logger.getLogger(TodoJournal.class.getName());
+
+    private final Path directory;
+    private final TodoStore store;
+
+    /** pending / channel / generation / logBytes を保護するロック */
+    private final Object lock = new Object();
+
+    /** ファイルへの書き込みを直列化するロック (I/O 中も追記は止めない) */
+    private final Object flushLock = new Object();
+
+    /** まだファイルへ書き込んでいないレコード */
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private FileChannel channel;
+    private long generation;
+
+    /** 現在の世代のログに追記したバイト数 (未フラッシュ分を含む) */
+    private long logBytes;
+
+    private boolean closed;
+
+    private TodoJournal(Path directory, TodoStore store) {
+        this.directory = directory;
+        this.store = store;
+    }
+
+    /**
+     * ディレクトリのジャーナルを開く。
+     *
+     * <p>既存のスナップショットまたはログがある場合はそれを再生したストアを、
+     * ない場合は {@code seed} をそのまま使います。いずれの場合も新しい世代を始めて
+     * 現在の状態をスナップショットに書き、以降の変更を記録します。</p>
+     *
+     * @param directory ジャーナルを置くディレクトリ (存在しなければ作成する)
+     * @param seed      ジャーナルが空の場合に使う初期状態のストア
+     * @return 開いたジャーナル ({@link #getStore()} で再生済みのストアを取得できる)
+     * @throws IOException 読み書きに失敗した場合
+     */
+    public static TodoJournal open(Path directory, TodoStore seed) throws IOException {
+        Files.createDirectories(directory);
+        TreeMap<Long, Path> snapshots = list(directory, SNAPSHOT_PREFIX);
+        TreeMap<Long, Path> logs = list(directory, LOG_PREFIX);
+
+        TodoStore store = seed;
+        long lastGeneration = 0;
+        if (!snapshots.isEmpty() || !logs.isEmpty()) {
+            store = new TodoStore();
+            List<Path> files = new ArrayList<>();
+            long from = 0;
+            if (!snapshots.isEmpty()) {
+                from = snapshots.lastKey();
+                files.add(snapshots.lastEntry().getValue());
+            }
+            files.addAll(logs.tailMap(from, true).values());
+            for (int i = 0; i < files.size(); i++) {
+                if (!replay(files.get(i), store)) {
+                    setAside(files.subList(i, files.size()));
+                    break;
+                }
+            }
+            lastGeneration = Math.max(
+                    snapshots.isEmpty() ? 0 : snapshots.lastKey(),
+                    logs.isEmpty() ? 0 : logs.lastKey());
+        }
+
+        TodoJournal journal = new TodoJournal(directory, store);
+        journal.generation = lastGeneration + 1;
+        journal.writeSnapshot(journal.generation, store.asList());
+        journal.channel = openLog(directory, journal.generation);
+        journal.deleteBefore(journal.generation);
+        store.addListener(journal);
+        return journal;
+    }
+
+    public TodoStore getStore() {
+        return store;
+    }
+
+    /** 現在の世代のログのバイト数 (未フラッシュ分を含む) */
+    public long getLogBytes() {
+        synchronized (lock) {
+            return logBytes;
+        }
+    }
+
+    // ---- 変更通知 (ストアのロック内で呼ばれる) ----
+
+    @Override
+    public void todoAdded(TodoItem item) {
+        synchronized (lock) {
+            int before = pending.size();
+            JournalCodec.writeAdd(pending, item);
+            logBytes += pending.size() - before;
+        }
+    }
+
+    @Override
+    public void todoRemoved(TodoItem item) {
+        synchronized (lock) {
+            int before = pending.size();
+            JournalCodec.writeDelete(pending, item.getId());
+            logBytes += pending.size() - before;
+        }
+    }
+
+    @Override
+    public void completedChanged(TodoItem item) {
+        synchronized (lock) {
+            int before = pending.size();
+            JournalCodec.writeCompleted(pending, item);
+            logBytes += pending.size() - before;
+        }
+    }
+
+    @Override
+    public void textChanged(TodoItem item) {
+        synchronized (lock) {
+            int before = pending.size();
+            JournalCodec.writeText(pending, item);
+            logBytes += pending.size() - before;
+        }
+    }
+
+    // ---- 書き込み ----
+
+    /**
+     * 溜まっているレコードをログへ書き込み、ディスクへ同期する。
+     *
+     * <p>バッファの差し替えだけをロック内で行い、書き込みと {@code force} はロックの外で行うため、
+     * 同期中も他のリクエストは待たずに変更を追記できます。
+     * 書き込みに失敗した場合、レコードはバッファへ戻され次回のフラッシュで再試行されます。</p>
+     *
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            byte[] batch;
+            FileChannel target;
+            synchronized (lock) {
+                if (closed || pending.size() == 0) {
+                    return;
+                }
+                batch = pending.toByteArray();
+                pending = new ByteArrayOutputStream(Math.max(32, batch.length));
+                target = channel;
+            }
+            try {
+                write(target, batch);
+            } catch (IOException e) {
+                requeue(batch);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 新しい世代へ切り替えてスナップショットを書き、古い世代のファイルを削除する。
+     *
+     * <p>先に世代を切り替えてからストアの一覧を取得するため、切り替え以降の変更は
+     * 必ず新しい世代のログに残ります。一覧の取得後に変更された Todo はスナップショットにも
+     * 新しい値で書かれることがありますが、レコードは変更後の値を持つため再生結果は変わりません。</p>
+     *
+     * @throws IOException 書き込みに失敗した場合
+     */
+    public void compact() throws IOException {
+        synchronized (flushLock) {
+            byte[] batch;
+            FileChannel previous;
+            long next;
+            synchronized (lock) {
+                if (closed) {
+                    return;
+                }
+                batch = pending.toByteArray();
+                pending = new ByteArrayOutputStream();
+                previous = channel;
+                next = generation + 1;
+                channel = openLog(directory, next);
+                generation = next;
+                logBytes = 0;
+            }
+            try {
+                write(previous, batch);
+            } finally {
+                previous.close();
+            }
+            writeSnapshot(next, store.asList());
+            deleteBefore(next);
+        }
+    }
+
+    /**
+     * 溜まっているレコードを書き込んでログを閉じ、ストアの購読を解除する。
+     */
+    @Override
+    public void close() throws IOException {
+        store.removeListener(this);
+        synchronized (flushLock) {
+            try {
+                flush();
+            } finally {
+                synchronized (lock) {
+                    closed = true;
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    // ---- ヘルパー ----
+
+    private void requeue(byte[] batch) {
+        synchronized (lock) {
+            ByteArrayOutputStream merged = new ByteArrayOutputStream(batch.length + pending.size());
+            merged.write(batch, 0, batch.length);
+            merged.write(pending.toByteArray(), 0, pending.size());
+            pending = merged;
+        }
+    }
+
+    private static void write(FileChannel target, byte[] batch) throws IOException {
+        if (batch.length == 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(batch);
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        target.force(false);
+    }
+
+    /** 一時ファイルへ書いて同期してから置き換えるため、書き込み途中のスナップショットは読まれない。 */
+    private void writeSnapshot(long gen, List<TodoItem> items) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(32, items.size() * 64));
+        for (TodoItem item : items) {
+            JournalCodec.writeAdd(out, item);
+        }
+        Path target = directory.resolve(SNAPSHOT_PREFIX + gen + SUFFIX);
+        Path temp = directory.resolve(SNAPSHOT_PREFIX + gen + SUFFIX + ".tmp");
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(file, out.toByteArray());
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteBefore(long gen) throws IOException {
+        for (Path path : list(directory, SNAPSHOT_PREFIX).headMap(gen).values()) {
+            Files.deleteIfExists(path);
+        }
+        for (Path path : list(directory, LOG_PREFIX).headMap(gen).values()) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static FileChannel openLog(Path directory, long gen) throws IOException {
+        return FileChannel.open(directory.resolve(LOG_PREFIX + gen + SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * ファイルのレコードをストアへ適用する。
+     *
+     * @return 最後まで (または書き込み途中の末尾の直前まで) 適用した場合は {@code true}、
+     *         途中の破損したレコードで止まった場合は {@code false}
+     */
+    private static boolean replay(Path file, TodoStore store) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return true;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            JournalCodec.replay(buffer, store);
+            if (JournalCodec.isTornTail(buffer)) {
+                return true;
+            }
+            LOGGER.warning("ジャーナルの " + file + " の " + buffer.position()
+                    + " バイト目以降が破損しています。直前のレコードまでを復元します");
+            return false;
+        }
+    }
+
+    /** 再生しなかったファイルを、世代のファイルとして扱われない名前に変えて残す (調査・手動での復旧用)。 */
+    private static void setAside(List<Path> files) throws IOException {
+        String suffix = ".corrupt-" + System.currentTimeMillis();
+        for (Path file : files) {
+            Path target = file.resolveSibling(file.getFileName() + suffix);
+            Files.move(file, target);
+            LOGGER.warning("再生しなかったジャーナルのファイルを " + target + " に移動しました");
+        }
+    }
+
+    /** 指定した接頭辞のファイルを世代順に列挙する (一時ファイルや名前の合わないファイルは無視する)。 */
+    private static TreeMap<Long, Path> list(Path directory, String prefix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                String number = name.substring(prefix.length(), name.length() - SUFFIX.length());
+                try {
+                    files.put(Long.parseLong(number), path);
+                } catch (NumberFormatException ignored) {
+                    // 世代番号を持たないファイルは対象外
+                }
+            }
+        }
+        return files;
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.todo.persistence;
+
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+import com.example.todo.model.TodoStoreListener;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.servlet.ServletContext;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Todo リストごとの {@link TodoJournal} を管理するアプリケーションスコープの Bean。
+ *
+ * <p>リストは ID (ブラウザごとの Cookie に保持する UUID) で識別し、
+ * ジャーナルディレクトリ配下の同名のサブディレクトリに記録します。
+ * 同じ ID のリストは 1 つの {@link TodoStore} を共有するため、
+ * セッションがタイムアウトしても、アプリケーションを再起動しても同じ Todo が復元されます。</p>
+ *
+ * <p>開いているジャーナルは、{@link #open(String, TodoStore)} したセッションの数を数えます。
+ * 最後のセッションが {@link #release(String)} してから一定時間が経過し、その間に変更もなかった
+ * ジャーナルは閉じてメモリから外し、次に {@link #open(String, TodoStore)} されたときにディスクから再生します。
+ * 定期フラッシュは、前回のフラッシュ以降に変更があったジャーナルだけを対象とします。</p>
+ *
+ * <p>web.xml のコンテキストパラメータで設定します。</p>
+ * <ul>
+ *   <li>{@value #PARAM_DIRECTORY}: ジャーナルディレクトリ (未設定・空の場合は永続化しない)</li>
+ *   <li>{@value #PARAM_FLUSH_INTERVAL}: グループコミットの間隔 (ミリ秒, 既定 {@value #DEFAULT_FLUSH_INTERVAL_MS})</li>
+ *   <li>{@value #PARAM_COMPACT_BYTES}: スナップショットを取るログサイズ (バイト, 既定 {@value #DEFAULT_COMPACT_BYTES})</li>
+ *   <li>{@value #PARAM_IDLE_MINUTES}: 使われなくなったジャーナルを閉じるまでの時間 (分, 既定 {@value #DEFAULT_IDLE_MINUTES})</li>
+ * </ul>
+ *
+ * <p>変更はフラッシュ間隔ごとにまとめてディスクへ同期されるため、
+ * プロセスが異常終了した場合は最大でフラッシュ間隔分の変更が失われます。</p>
+ */
+@ApplicationScoped
+public class TodoJournalManager {
+
+    public static final String PARAM_DIRECTORY = "com.example.todo.JOURNAL_DIR";
+    public static final String PARAM_FLUSH_INTERVAL = "com.example.todo.JOURNAL_FLUSH_INTERVAL_MS";
+    public static final String PARAM_COMPACT_BYTES = "com.example.todo.JOURNAL_COMPACT_BYTES";
+    public static final String PARAM_IDLE_MINUTES = "com.example.todo.JOURNAL_IDLE_MINUTES";
+
+    static final long DEFAULT_FLUSH_INTERVAL_MS = 50;
+    static final long DEFAULT_COMPACT_BYTES = 1024 * 1024;
+    static final long DEFAULT_IDLE_MINUTES = 10;
+
+    /** 使われなくなったジャーナルを探す間隔 (ミリ秒) */
+    static final long EVICTION_INTERVAL_MS = 60 * 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(TodoJournalManager.class.getName());
+
+    /** リスト ID として受け付ける形式 (パスに使うため UUID に限定する) */
+    private static final Pattern LIST_ID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    /** 開いているジャーナル (リスト ID → ジャーナル。追加・削除はキーごとに compute で行う) */
+    private final Map<String, OpenJournal> journals = new ConcurrentHashMap<>();
+
+    /** 前回のフラッシュ以降に変更があったリストの ID */
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    private volatile Path directory;
+    private volatile long compactBytes = DEFAULT_COMPACT_BYTES;
+    private volatile long idleMillis = TimeUnit.MINUTES.toMillis(DEFAULT_IDLE_MINUTES);
+    private ScheduledExecutorService flusher;
+
+    /**
+     * アプリケーション起動時に web.xml の設定を読み込む。
+     */
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        if (event instanceof ServletContext) {
+            ServletContext context = (ServletContext) event;
+            String dir = context.getInitParameter(PARAM_DIRECTORY);
+            configure(dir != null && !dir.trim().isEmpty() ? Paths.get(dir.trim()) : null,
+                    parseLong(context.getInitParameter(PARAM_FLUSH_INTERVAL), DEFAULT_FLUSH_INTERVAL_MS),
+                    parseLong(context.getInitParameter(PARAM_COMPACT_BYTES), DEFAULT_COMPACT_BYTES),
+                    parseLong(context.getInitParameter(PARAM_IDLE_MINUTES), DEFAULT_IDLE_MINUTES));
+        }
+    }
+
+    /**
+     * ジャーナルの保存先と書き込み間隔を設定する。
+     *
+     * @param directory       ジャーナルディレクトリ ({@code null} の場合は永続化しない)
+     * @param flushIntervalMs グループコミットの間隔 (ミリ秒)
+     * @param compactBytes    スナップショットを取るログサイズ (バイト)
+     * @param idleMinutes     使われなくなったジャーナルを閉じるまでの時間 (分)
+     */
+    synchronized void configure(Path directory, long flushIntervalMs, long compactBytes, long idleMinutes) {
+        this.directory = directory;
+        this.compactBytes = Math.max(1, compactBytes);
+        this.idleMillis = TimeUnit.MINUTES.toMillis(Math.max(0, idleMinutes));
+        if (directory != null && flusher == null) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "todo-journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = Math.max(1, flushIntervalMs);
+            flusher.scheduleWithFixedDelay(this::flushAll, interval, interval, TimeUnit.MILLISECONDS);
+            flusher.scheduleWithFixedDelay(() -> evictIdle(System.currentTimeMillis()),
+                    EVICTION_INTERVAL_MS, EVICTION_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 永続化が有効か。
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * リスト ID として使える値か。
+     */
+    public static boolean isValidListId(String listId) {
+        return listId != null && LIST_ID.matcher(listId).matches();
+    }
+
+    /**
+     * 指定したリストのストアを返し、呼び出し元をそのリストの利用者として数える。
+     *
+     * <p>既に開いているリストはそのストアを、ディスクに記録があるリストは再生したストアを返します。
+     * どちらもない場合は {@code seed} を記録対象として登録して返します。
+     * 永続化が無効な場合やリスト ID が不正な場合は {@code seed} をそのまま返します。
+     * ストアを使い終えたら (セッションの終了時やリストの切り替え時) {@link #release(String)} を呼んでください。</p>
+     *
+     * @param listId リスト ID
+     * @param seed   記録がない場合に使う初期状態のストア
+     * @return 変更が記録されるストア
+     */
+    public TodoStore open(String listId, TodoStore seed) {
+        Path base = directory;
+        if (base == null || !isValidListId(listId)) {
+            return seed;
+        }
+        return journals.compute(listId, (id, open) -> {
+            if (open == null) {
+                try {
+                    open = new OpenJournal(id, TodoJournal.open(base.resolve(id), seed));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("ジャーナルを開けません: " + id, e);
+                }
+            }
+            open.sessions++;
+            open.lastUsed = System.currentTimeMillis();
+            return open;
+        }).journal.getStore();
+    }
+
+    /**
+     * {@link #open(String, TodoStore)} で数えた利用者を 1 つ減らす。
+     *
+     * <p>利用者がいなくなったジャーナルは、{@value #PARAM_IDLE_MINUTES} の経過後に閉じられます。</p>
+     *
+     * @param listId リスト ID
+     */
+    public void release(String listId) {
+        if (listId == null) {
+            return;
+        }
+        journals.computeIfPresent(listId, (id, open) -> {
+            open.sessions = Math.max(0, open.sessions - 1);
+            open.lastUsed = System.currentTimeMillis();
+            return open;
+        });
+    }
+
+    /**
+     * 前回のフラッシュ以降に変更があったジャーナルをフラッシュし、閾値を超えたログをスナップショットにまとめる。
+     */
+    void flushAll() {
+        long now = System.currentTimeMillis();
+        List<String> failed = null;
+        for (Iterator<String> it = dirty.iterator(); it.hasNext(); ) {
+            String id = it.next();
+            // フラッシュ中の変更で再び登録されるよう、先に外す
+            it.remove();
+            OpenJournal open = journals.get(id);
+            if (open == null) {
+                continue;
+            }
+            open.lastUsed = now;
+            TodoJournal journal = open.journal;
+            try {
+                if (journal.getLogBytes() >= compactBytes) {
+                    journal.compact();
+                } else {
+                    journal.flush();
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "ジャーナルの書き込みに失敗しました: " + id, e);
+                if (failed == null) {
+                    failed = new ArrayList<>();
+                }
+                failed.add(id);
+            }
+        }
+        if (failed != null) {
+            // バッファへ戻されたレコードを次回のフラッシュで再試行する
+            dirty.addAll(failed);
+        }
+    }
+
+    /**
+     * 利用者がいなくなってから {@value #PARAM_IDLE_MINUTES} が経過し、その間に変更もなかったジャーナルを閉じる。
+     *
+     * <p>閉じる処理はリスト ID ごとに {@code computeIfPresent} の中で行うため、
+     * 同じリストの {@link #open(String, TodoStore)} は閉じ終わるのを待ってからディスクを再生します。
+     * 書き込みに失敗したジャーナルは閉じずに残し、次回に再試行します。</p>
+     *
+     * @param now 現在時刻 (エポックミリ秒)
+     * @return 閉じたジャーナルの数
+     */
+    int evictIdle(long now) {
+        int[] evicted = new int[1];
+        for (String listId : journals.keySet()) {
+            journals.computeIfPresent(listId, (id, open) -> {
+                if (open.sessions > 0 || now - open.lastUsed < idleMillis) {
+                    return open;
+                }
+                try {
+                    open.journal.getStore().removeListener(open);
+                    open.journal.close();
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "ジャーナルを閉じられません: " + id, e);
+                    open.journal.getStore().addListener(open);
+                    dirty.add(id);
+                    return open;
+                }
+                dirty.remove(id);
+                evicted[0]++;
+                return null;
+            });
+        }
+        return evicted[0];
+    }
+
+    /** 開いているジャーナルの数 */
+    int openCount() {
+        return journals.size();
+    }
+
+    /**
+     * 停止時に残りのレコードを書き込んでジャーナルを閉じる。
+     */
+    @PreDestroy
+    synchronized void shutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+        for (Map.Entry<String, OpenJournal> entry : journals.entrySet()) {
+            try {
+                entry.getValue().journal.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "ジャーナルを閉じられません: " + entry.getKey(), e);
+            }
+        }
+        journals.clear();
+        dirty.clear();
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            LOGGER.warning("数値ではない設定値を無視します: " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 開いているジャーナルと、その利用者の数。
+     *
+     * <p>ストアの変更通知を受けて、リストを次回のフラッシュの対象として登録します
+     * (ジャーナルより後に登録するため、通知の時点でレコードは既にバッファにあります)。</p>
+     */
+    private final class OpenJournal implements TodoStoreListener {
+
+        private final String listId;
+        private final TodoJournal journal;
+
+        /** このリストを使っているセッションの数 ({@code journals} の compute の中でのみ変更する) */
+        private int sessions;
+
+        /** 最後に使われた (開かれた・手放された・フラッシュした) 時刻 (エポックミリ秒) */
+        private volatile long lastUsed;
+
+        OpenJournal(String listId, TodoJournal journal) {
+            this.listId = listId;
+            this.journal = journal;
+            journal.getStore().addListener(this);
+        }
+
+        @Override
+        public void todoAdded(TodoItem item) {
+            dirty.add(listId);
+        }
+
+        @Override
+        public void todoRemoved(TodoItem item) {
+            dirty.add(listId);
+        }
+
+        @Override
+        public void completedChanged(TodoItem item) {
+            dirty.add(listId);
+        }
+
+        @Override
+        public void textChanged(TodoItem item) {
+            dirty.add(listId);
+        }
+    }
+}
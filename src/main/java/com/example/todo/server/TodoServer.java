@@ -0,0 +1,334 @@
+package com.example.todo.server;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.webresources.DirResourceSet;
+import org.apache.catalina.webresources.StandardRoot;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.security.CodeSource;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 組み込み Tomcat でアプリを起動するランチャー。
+ *
+ * <p>WAR を作らずに、Web アプリのディレクトリ ({@code WEB-INF/web.xml} の FacesServlet・Weld のリスナー・
+ * 各サーブレットとフィルター) をそのまま起動します。JSF (Mojarra)・Weld・Tomcat はシステムクラスパスから読み込むため、
+ * AppCDS (クラスデータ共有) のアーカイブに含めることができます ({@code server} プロファイル)。</p>
+ *
+ * <pre>
+ * mvn -Pserver package
+ * cd target/server
+ * java -XX:SharedArchiveFile=jsf-todo-app.jsa -jar jsf-todo-app-1.0-SNAPSHOT-server.jar --port=8080
+ * </pre>
+ *
+ * <p>Web アプリのディレクトリは、{@code --webapp} の指定、ランチャーの JAR と同じディレクトリの {@code webapp}
+ * ({@code server} プロファイルの出力)、プロジェクトの {@code src/main/webapp} ({@code target/classes} を
+ * {@code WEB-INF/classes} とする) の順に探します。起動時には JVM の起動から待ち受けを開始するまでの時間を出力し、
+ * {@code --training} では代表的なページに 1 回ずつアクセスして終了します (AppCDS の学習用の実行)。</p>
+ *
+ * <p>起動後はレディネス ({@value #READY_PATH}) にアクセスしてアプリのウォームアップ (両方のビューの描画と
+ * 追加・保存・完了切り替え・削除) を開始し、完了してから準備完了を出力します。</p>
+ *
+ * <p><strong>仮想スレッド:</strong><br>
+ * {@code --virtual-threads} を指定すると、コネクターのリクエスト処理 (FacesServlet を含むすべてのサーブレット) を
+ * リクエストごとの仮想スレッドで実行します。セッションのロックの待ちなどでスレッドプールの上限 (既定 200) が
+ * 同時に処理できるリクエスト数を制限しなくなります。Java 20 以前など仮想スレッドに対応していない実行環境では、
+ * 通常のスレッドプールで処理します。</p>
+ */
+public final class TodoServer {
+
+    /** アプリのコンテキストパス (tomcat7-maven-plugin の設定と同じ) */
+    public static final String CONTEXT_PATH = "/jsf-todo-app";
+
+    /** レディネスのパス (コンテキストパスからの相対パス。最初のアクセスでウォームアップを開始する) */
+    public static final String READY_PATH = "health/ready";
+
+    /** {@code --training} でアクセスするパス (コンテキストパスからの相対パス) */
+    static final String[] TRAINING_PATHS = {
+            "todos.xhtml",
+            "detail.xhtml?id=1",
+            "javax.faces.resource/todo.css.xhtml?ln=css",
+            "javax.faces.resource/todo.js.xhtml?ln=js",
+            "javax.faces.resource/jsf.js.xhtml?ln=javax.faces",
+            "api/todos",
+            "metrics"
+    };
+
+    /** ウォームアップの完了を待つ時間 */
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(5);
+
+    private final Tomcat tomcat;
+    private final URI baseUri;
+
+    /** リクエストを仮想スレッドで処理する場合の Executor (スレッドプールの場合は {@code null}) */
+    private final ExecutorService requestExecutor;
+
+    private TodoServer(Tomcat tomcat, URI baseUri, ExecutorService requestExecutor) {
+        this.tomcat = tomcat;
+        this.baseUri = baseUri;
+        this.requestExecutor = requestExecutor;
+    }
+
+    /**
+     * 組み込み Tomcat を起動する。
+     *
+     * リクエストはスレッドプールで処理する。
+     *
+     * @see #start(int, File, File, boolean)
+     */
+    public static TodoServer start(int port, File webapp, File classes) throws IOException, LifecycleException {
+        return start(port, webapp, classes, false);
+    }
+
+    /**
+     * 組み込み Tomcat を起動する。
+     *
+     * @param port           待ち受けるポート ({@code 0} の場合は空いているポート)
+     * @param webapp         Web アプリのディレクトリ ({@code WEB-INF/web.xml} を含む)
+     * @param classes        {@code WEB-INF/classes} として追加するディレクトリ。Web アプリのディレクトリに含まれる場合は {@code null}
+     * @param virtualThreads リクエストを仮想スレッドで処理する (対応していない実行環境ではスレッドプールで処理する)
+     */
+    public static TodoServer start(int port, File webapp, File classes, boolean virtualThreads)
+            throws IOException, LifecycleException {
+        if (!new File(webapp, "WEB-INF/web.xml").isFile()) {
+            throw new IOException(webapp + " に WEB-INF/web.xml がありません");
+        }
+        if (classes != null && !classes.isDirectory()) {
+            throw new IOException(classes + " がありません (mvn compile を実行してください)");
+        }
+
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("jsf-todo-app").toString());
+        tomcat.setPort(port);
+        // 既定の web.xml (JSP サーブレットを含む) は使わない。JSP は使用せず、ページはすべて FacesServlet が描画する
+        tomcat.setAddDefaultWebXmlToWebapp(false);
+        Connector connector = tomcat.getConnector();
+        ExecutorService requestExecutor = virtualThreads ? VirtualThreads.newPerTaskExecutor("http-virtual-") : null;
+        if (requestExecutor != null) {
+            // コネクターの既定のスレッドプール (maxThreads) の代わりに、リクエストごとに仮想スレッドを作る
+            connector.getProtocolHandler().setExecutor(requestExecutor);
+        } else if (virtualThreads) {
+            System.err.println("この実行環境は仮想スレッドに対応していないため (Java 21 以降が必要)、スレッドプールで処理します");
+        }
+
+        Context context = tomcat.addWebapp(CONTEXT_PATH, webapp.getAbsolutePath());
+        Tomcat.addDefaultMimeTypeMappings(context);
+        Tomcat.addServlet(context, "default", "org.apache.catalina.servlets.DefaultServlet").setLoadOnStartup(1);
+        context.addServletMappingDecoded("/", "default");
+        if (classes != null) {
+            WebResourceRoot resources = new StandardRoot(context);
+            resources.addPreResources(
+                    new DirResourceSet(resources, "/WEB-INF/classes", classes.getAbsolutePath(), "/"));
+            context.setResources(resources);
+        }
+
+        tomcat.start();
+        int localPort = connector.getLocalPort();
+        return new TodoServer(tomcat, URI.create("http://localhost:" + localPort + CONTEXT_PATH + "/"), requestExecutor);
+    }
+
+    /** アプリの URL (末尾の {@code /} を含む) */
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    /** リクエストを仮想スレッドで処理しているかどうか */
+    public boolean isVirtualThreads() {
+        return requestExecutor != null;
+    }
+
+    /**
+     * アプリのウォームアップが完了して、レディネスが {@code 200} を返すまで待つ。
+     *
+     * @throws IOException 指定した時間内に準備完了にならない場合
+     */
+    public void awaitReady(Duration timeout) throws IOException, InterruptedException {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(READY_PATH)).timeout(timeout).build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IOException(timeout.getSeconds() + " 秒以内に準備完了になりませんでした: " + request.uri());
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    /** 停止するまで待つ。 */
+    public void await() {
+        tomcat.getServer().await();
+    }
+
+    public void stop() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+        if (requestExecutor != null) {
+            // コネクターに設定した Executor は Tomcat が終了しないため
+            requestExecutor.shutdown();
+        }
+    }
+
+    /**
+     * {@link #TRAINING_PATHS} に 1 回ずつアクセスする (Facelets のコンパイル・EL・描画のクラスを読み込ませる)。
+     *
+     * @return 失敗したリクエストの数
+     */
+    int train() throws IOException, InterruptedException {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+        int failures = 0;
+        for (String path : TRAINING_PATHS) {
+            HttpResponse<Void> response = http.send(HttpRequest.newBuilder(baseUri.resolve(path)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                System.err.printf("%s が %d を返しました%n", path, response.statusCode());
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = Options.parse(args, launcherDirectory());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(Options.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        TodoServer server = start(options.port, options.webapp, options.classes, options.virtualThreads);
+        System.out.printf("起動しました: %s (JVM の起動から %d ms, リクエストの処理: %s)%n", server.getBaseUri(),
+                uptimeMillis(), server.isVirtualThreads() ? "仮想スレッド" : "スレッドプール");
+        server.awaitReady(READY_TIMEOUT);
+        System.out.printf("準備完了: ウォームアップが完了しました (JVM の起動から %d ms)%n", uptimeMillis());
+
+        if (options.training) {
+            int failures = server.train();
+            System.out.printf("学習用のアクセスが完了しました (JVM の起動から %d ms)%n", uptimeMillis());
+            server.stop();
+            System.exit(failures == 0 ? 0 : 1);
+            return;
+        }
+
+        // ローリング再起動などの SIGTERM で、処理中のリクエストを終えてから停止する
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.stop();
+            } catch (LifecycleException e) {
+                e.printStackTrace();
+            }
+        }, "jsf-todo-app-shutdown"));
+        server.await();
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    /** ランチャーの JAR があるディレクトリ (クラスディレクトリから起動した場合は {@code null}) */
+    private static File launcherDirectory() {
+        CodeSource source = TodoServer.class.getProtectionDomain().getCodeSource();
+        if (source == null) {
+            return null;
+        }
+        try {
+            File location = new File(source.getLocation().toURI());
+            return location.isFile() ? location.getParentFile() : null;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * コマンドライン引数 ({@code --name=value} または {@code --flag})。
+     */
+    static final class Options {
+
+        static final String USAGE = String.join(System.lineSeparator(),
+                "使い方: TodoServer [オプション]",
+                "  --port=N        待ち受けるポート (既定: 8080, 0 は空いているポート)",
+                "  --webapp=DIR    Web アプリのディレクトリ (既定: JAR と同じディレクトリの webapp または src/main/webapp)",
+                "  --classes=DIR   WEB-INF/classes として追加するディレクトリ",
+                "  --training      代表的なページに 1 回ずつアクセスして終了する (AppCDS の学習用)",
+                "  --virtual-threads  リクエストを仮想スレッドで処理する (Java 21 以降。それ以前はスレッドプール)");
+
+        int port = 8080;
+        File webapp;
+        File classes;
+        boolean training;
+        boolean virtualThreads;
+
+        /**
+         * @param launcherDirectory ランチャーの JAR があるディレクトリ ({@code null} 可)
+         */
+        static Options parse(String[] args, File launcherDirectory) {
+            Options options = new Options();
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                String name = equals < 0 ? arg : arg.substring(0, equals);
+                String value = equals < 0 ? null : arg.substring(equals + 1);
+                switch (name) {
+                    case "--port":
+                        try {
+                            options.port = Integer.parseInt(required(name, value));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("--port の値が数値ではありません: " + value);
+                        }
+                        if (options.port < 0 || options.port > 65535) {
+                            throw new IllegalArgumentException("--port の値が範囲外です: " + value);
+                        }
+                        break;
+                    case "--webapp":
+                        options.webapp = new File(required(name, value));
+                        break;
+                    case "--classes":
+                        options.classes = new File(required(name, value));
+                        break;
+                    case "--training":
+                        options.training = true;
+                        break;
+                    case "--virtual-threads":
+                        options.virtualThreads = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("不明な引数です: " + arg);
+                }
+            }
+            if (options.webapp == null) {
+                File packaged = launcherDirectory != null ? new File(launcherDirectory, "webapp") : null;
+                if (packaged != null && packaged.isDirectory()) {
+                    options.webapp = packaged;
+                } else {
+                    // プロジェクトのディレクトリからの起動 (IDE など)
+                    options.webapp = new File("src/main/webapp");
+                    if (options.classes == null) {
+                        options.classes = new File("target/classes");
+                    }
+                }
+            }
+            return options;
+        }
+
+        private static String required(String name, String value) {
+            if (value == null || value.isEmpty()) {
+                throw new IllegalArgumentException(name + " に値を指定してください");
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.todo.server;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 仮想スレッド (Java 21 以降) の Executor を、Java 11 向けにコンパイルしたコードから作成する。
+ *
+ * <p>{@code Thread.ofVirtual()} などの API はリフレクション ({@link MethodHandles}) で呼び出し、
+ * 実行環境が仮想スレッドに対応していない場合 (Java 20 以前、またはプレビュー機能が無効な場合) は
+ * {@code null} を返します。呼び出し側はその場合にプラットフォームスレッドのプールを使います。</p>
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * タスクごとに仮想スレッドを作成する Executor を作成する。
+     *
+     * @param namePrefix スレッド名の接頭辞 (スレッドダンプで識別するため。後ろに連番が付く)
+     * @return Executor。仮想スレッドに対応していない場合は {@code null}
+     */
+    static ExecutorService newPerTaskExecutor(String namePrefix) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Class<?> virtualBuilderType = Class.forName("java.lang.Thread$Builder$OfVirtual");
+
+            MethodHandle ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(virtualBuilderType));
+            MethodHandle name = lookup.findVirtual(virtualBuilderType, "name",
+                    MethodType.methodType(virtualBuilderType, String.class, long.class));
+            MethodHandle factory = lookup.findVirtual(builderType, "factory", MethodType.methodType(ThreadFactory.class));
+            MethodHandle newExecutor = lookup.findStatic(Executors.class, "newThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+
+            Object builder = name.invoke(ofVirtual.invoke(), namePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) factory.invoke(builder);
+            return (ExecutorService) newExecutor.invoke(threadFactory);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException
+                 | UnsupportedOperationException e) {
+            // Java 20 以前 (API がない)、または Java 19/20 でプレビュー機能が無効
+            return null;
+        } catch (Throwable e) {
+            throw new IllegalStateException("仮想スレッドの Executor を作成できません", e);
+        }
+    }
+
+    /**
+     * 現在のスレッドが仮想スレッドかどうか ({@code Thread#isVirtual()}, Java 20 以前は常に {@code false})。
+     */
+    static boolean isCurrentThreadVirtual() {
+        try {
+            MethodHandle isVirtual = MethodHandles.publicLookup()
+                    .findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+            return (boolean) isVirtual.invoke(Thread.currentThread());
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return false;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.todo.web;
+
+import javax.faces.component.FacesComponent;
+import javax.faces.component.UIPanel;
+import javax.faces.context.FacesContext;
+import javax.faces.context.ResponseWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * 子コンポーネントの描画結果を {@link FragmentCache} に保存し、キーが変わるまで再利用するコンポーネント。
+ *
+ * <pre>
+ * &lt;todo:cachedFragment cache="#{todoBean.rowCache}"
+ *                      key="#{todo.id}:#{todo.version}:#{todoBean.selected[todo.id]}"&gt;
+ *     ... 行の内容 ...
+ * &lt;/todo:cachedFragment&gt;
+ * </pre>
+ *
+ * <p>キーが保存時と同じであれば子コンポーネントを描画せず (子の EL 式を評価せず)、
+ * 保存した HTML をそのまま出力します。キーには描画結果を決める値をすべて含めてください。
+ * 断片はクライアント ID ごとに保存するため、{@code ui:repeat} の中では行の位置ごとに保存されます
+ * (ボタンの name や ajax のスクリプトに含まれるクライアント ID も一致します)。</p>
+ *
+ * <p>描画を省略するのはレスポンスの出力だけで、コンポーネントツリーはそのまま残るため、
+ * ポストバック時のボタンやチェックボックスのデコードには影響しません。
+ * {@code cache} または {@code key} が {@code null} の場合は通常どおり描画します。</p>
+ */
+@FacesComponent(value = CachedFragment.COMPONENT_TYPE, createTag = true,
+        tagName = "cachedFragment", namespace = CachedFragment.NAMESPACE)
+public class CachedFragment extends UIPanel {
+
+    public static final String COMPONENT_TYPE = "com.example.todo.CachedFragment";
+
+    /** Facelets のタグの名前空間 */
+    public static final String NAMESPACE = "http://example.com/todo";
+
+    enum PropertyKeys {
+        cache, key
+    }
+
+    public FragmentCache getCache() {
+        return (FragmentCache) getStateHelper().eval(PropertyKeys.cache);
+    }
+
+    public void setCache(FragmentCache cache) {
+        getStateHelper().put(PropertyKeys.cache, cache);
+    }
+
+    public Object getKey() {
+        return getStateHelper().eval(PropertyKeys.key);
+    }
+
+    public void setKey(Object key) {
+        getStateHelper().put(PropertyKeys.key, key);
+    }
+
+    @Override
+    public void encodeAll(FacesContext context) throws IOException {
+        if (!isRendered()) {
+            return;
+        }
+        FragmentCache cache = getCache();
+        Object key = getKey();
+        if (cache == null || key == null) {
+            super.encodeAll(context);
+            return;
+        }
+        String clientId = getClientId(context);
+        ResponseWriter writer = context.getResponseWriter();
+        String html = cache.get(clientId, key);
+        if (html == null) {
+            html = render(context, writer);
+            cache.put(clientId, key, html);
+        }
+        writer.write(html);
+    }
+
+    /**
+     * 子コンポーネントを文字列に描画する。描画中はレスポンスの代わりにバッファへ書き込む。
+     */
+    private String render(FacesContext context, ResponseWriter writer) throws IOException {
+        StringWriter buffer = new StringWriter();
+        ResponseWriter bufferWriter = writer.cloneWithWriter(buffer);
+        context.setResponseWriter(bufferWriter);
+        try {
+            super.encodeAll(context);
+            bufferWriter.flush();
+        } finally {
+            context.setResponseWriter(writer);
+        }
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,494 @@
+package com.example.todo.web;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Faces Servlet の応答 (一覧ページなど) を gzip で圧縮しながら送り出すフィルター。
+ *
+ * <p>一覧ページの HTML は行ごとにほぼ同じマークアップの繰り返しのため、圧縮で大きく小さくなります。
+ * ページ全体を溜めてから圧縮するのではなく、Facelets が書き出した内容をそのまま圧縮ストリームに渡し、
+ * 圧縮前で {@value #FLUSH_BYTES} バイトごとに圧縮済みの内容を送り出します (SYNC_FLUSH)。
+ * そのため、大きいページでも応答全体をメモリに保持せず、ブラウザは受信した分から描画を始められます。</p>
+ *
+ * <ul>
+ *   <li>リクエストの {@code Accept-Encoding} が gzip を受け付ける場合だけ圧縮する (brotli は JDK に圧縮の実装がないため対象外)</li>
+ *   <li>最初の {@value #PARAM_MIN_BYTES} バイト (既定 {@value #DEFAULT_MIN_BYTES}) までは溜めておき、
+ *       応答がそれを超えずに終わった場合は圧縮せずに送る (f:ajax の部分描画の小さい応答など)</li>
+ *   <li>Content-Type が画像などの場合、アプリが {@code Content-Encoding} を設定した場合
+ *       ({@link FingerprintResourceHandler} の圧縮済みのリソース)、204・206・304 の場合は圧縮しない</li>
+ *   <li>アプリが非同期の書き出し ({@code setWriteListener}) を使う場合は圧縮しない</li>
+ *   <li>圧縮レベルは {@value #PARAM_LEVEL} (1〜9、0 の場合はフィルターを無効にする)</li>
+ * </ul>
+ */
+public class CompressionFilter implements Filter {
+
+    public static final String PARAM_MIN_BYTES = "com.example.todo.COMPRESSION_MIN_BYTES";
+    public static final String PARAM_LEVEL = "com.example.todo.COMPRESSION_LEVEL";
+
+    /** 圧縮する応答の最小サイズの既定値 (バイト数) */
+    static final int DEFAULT_MIN_BYTES = 2048;
+
+    /**
+     * 圧縮レベルの既定値。一覧ページでは 1〜3 (zlib の高速な方式) でも元の約 5% まで小さくなり、
+     * 4 以上は CPU 時間が約 1.5 倍になる一方で減るのは元のサイズの 1% 程度のため、高速な方式で最も小さくなる 3 とする
+     * (CompressionBenchmark)。
+     */
+    static final int DEFAULT_LEVEL = 3;
+
+    /** 圧縮済みの内容を送り出す間隔 (圧縮前のバイト数) */
+    static final int FLUSH_BYTES = 16 * 1024;
+
+    private static final Logger LOGGER = Logger.getLogger(CompressionFilter.class.getName());
+
+    private volatile int minBytes = DEFAULT_MIN_BYTES;
+    private volatile int level = DEFAULT_LEVEL;
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+        minBytes = parse(filterConfig.getServletContext().getInitParameter(PARAM_MIN_BYTES),
+                DEFAULT_MIN_BYTES, 0, Integer.MAX_VALUE);
+        level = parse(filterConfig.getServletContext().getInitParameter(PARAM_LEVEL),
+                DEFAULT_LEVEL, Deflater.NO_COMPRESSION, Deflater.BEST_COMPRESSION);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (level == Deflater.NO_COMPRESSION
+                || !(request instanceof HttpServletRequest) || !(response instanceof HttpServletResponse)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        // 圧縮しない場合も、キャッシュが Accept-Encoding ごとに応答を区別できるようにする
+        httpResponse.addHeader("Vary", "Accept-Encoding");
+        String acceptEncoding = ((HttpServletRequest) request).getHeader("Accept-Encoding");
+        if (!StaticResource.accepts(acceptEncoding, StaticResource.GZIP)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        CompressingResponse compressing = new CompressingResponse(httpResponse, minBytes, level);
+        try {
+            chain.doFilter(request, compressing);
+        } finally {
+            compressing.finish();
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    private static int parse(String value, int defaultValue, int min, int max) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // 下で警告する
+        }
+        LOGGER.warning("範囲外または数値ではない設定値を無視します: " + value);
+        return defaultValue;
+    }
+
+    /**
+     * 書き出された内容を、閾値を超えた時点で gzip の圧縮に切り替える応答。
+     *
+     * <p>閾値を超えるまでは内容を溜めるだけで元の応答には書き出さない (ヘッダーが確定しない) ため、
+     * 圧縮するかどうかを決めた時点で {@code Content-Encoding}・{@code Content-Length} を設定できます。
+     * 閾値に達する前の {@code flush} では送り出しません。</p>
+     */
+    static final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private enum State {
+            /** 閾値に達するまで溜めている */
+            BUFFERING,
+            /** gzip で圧縮して書き出している */
+            COMPRESSING,
+            /** 圧縮せずにそのまま書き出している */
+            PASS_THROUGH
+        }
+
+        private final int minBytes;
+        private final int level;
+
+        private State state = State.BUFFERING;
+        private byte[] buffer;
+        private int count;
+        /** アプリが設定した Content-Length (設定されていない場合は -1) */
+        private long contentLength = -1;
+        /** アプリが Content-Encoding を設定したか (圧縮済みの内容) */
+        private boolean encoded;
+
+        private LeveledGzipStream gzip;
+        /** 前回送り出してから圧縮した圧縮前のバイト数 */
+        private int unflushed;
+
+        private CompressingStream stream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, int minBytes, int level) {
+            super(response);
+            this.minBytes = minBytes;
+            this.level = level;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() は呼び出し済みです");
+            }
+            if (stream == null) {
+                stream = new CompressingStream();
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() は呼び出し済みです");
+                }
+                stream = new CompressingStream();
+                writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            if (state == State.PASS_THROUGH) {
+                super.setContentLengthLong(length);
+            } else if (state == State.BUFFERING) {
+                // 圧縮すると長さが変わるため、圧縮するかどうかを決めるまで保留する
+                contentLength = length;
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (interceptHeader(name, value)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (interceptHeader(name, value)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            if (interceptHeader(name, String.valueOf(value))) {
+                super.setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            if (interceptHeader(name, String.valueOf(value))) {
+                super.addIntHeader(name, value);
+            }
+        }
+
+        /**
+         * Content-Length・Content-Encoding の設定を記録する。
+         *
+         * @return 元の応答にそのまま設定してよい場合は {@code true}
+         */
+        private boolean interceptHeader(String name, String value) {
+            if ("Content-Length".equalsIgnoreCase(name)) {
+                if (state == State.PASS_THROUGH) {
+                    return true;
+                }
+                try {
+                    setContentLengthLong(Long.parseLong(value.trim()));
+                } catch (NumberFormatException | NullPointerException e) {
+                    contentLength = -1;
+                }
+                return false;
+            }
+            if ("Content-Encoding".equalsIgnoreCase(name) && state != State.COMPRESSING) {
+                encoded = true;
+            }
+            return true;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (stream != null) {
+                stream.flush();
+            }
+            if (state != State.BUFFERING) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            count = 0;
+            if (state == State.COMPRESSING) {
+                // Content-Encoding は設定済みのため、新しい gzip のストリームで書き直す
+                releaseGzip();
+                unflushed = 0;
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            state = State.BUFFERING;
+            count = 0;
+            contentLength = -1;
+            encoded = false;
+            releaseGzip();
+            unflushed = 0;
+            super.addHeader("Vary", "Accept-Encoding");
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            discardForError();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            discardForError();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            discardForError();
+            super.sendRedirect(location);
+        }
+
+        /** エラー・リダイレクトの応答は溜めた内容を捨て、圧縮せずにコンテナに任せる */
+        private void discardForError() {
+            state = State.PASS_THROUGH;
+            count = 0;
+            releaseGzip();
+        }
+
+        /**
+         * アプリの処理の後に呼び出し、溜めている内容や圧縮ストリームの残りを書き出す。
+         */
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            switch (state) {
+                case BUFFERING:
+                    if (count > 0 || contentLength >= 0) {
+                        // 閾値より小さいまま終わった (長さが分かっているので Content-Length を付ける)
+                        if (contentLength < 0) {
+                            contentLength = count;
+                        }
+                        passThrough();
+                    }
+                    break;
+                case COMPRESSING:
+                    gzip().finish();
+                    releaseGzip();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void write(byte[] b, int off, int len) throws IOException {
+            switch (state) {
+                case BUFFERING:
+                    if (count + len <= minBytes) {
+                        if (buffer == null) {
+                            buffer = new byte[minBytes];
+                        }
+                        System.arraycopy(b, off, buffer, count, len);
+                        count += len;
+                        return;
+                    }
+                    if (isCompressible()) {
+                        startCompressing();
+                    } else {
+                        passThrough();
+                    }
+                    write(b, off, len);
+                    break;
+                case COMPRESSING:
+                    gzip().write(b, off, len);
+                    unflushed += len;
+                    if (unflushed >= FLUSH_BYTES) {
+                        // ここまでの圧縮済みの内容をクライアントへ送り出す
+                        gzip.flush();
+                        unflushed = 0;
+                    }
+                    break;
+                default:
+                    super.getOutputStream().write(b, off, len);
+                    break;
+            }
+        }
+
+        private void flush() throws IOException {
+            if (state == State.COMPRESSING) {
+                gzip().flush();
+                unflushed = 0;
+            } else if (state == State.PASS_THROUGH) {
+                super.getOutputStream().flush();
+            }
+        }
+
+        private boolean isCompressible() {
+            int status = getStatus();
+            return !encoded
+                    && StaticResource.isCompressible(getContentType())
+                    && status != SC_NO_CONTENT && status != SC_PARTIAL_CONTENT && status != SC_NOT_MODIFIED
+                    && (contentLength < 0 || contentLength > minBytes);
+        }
+
+        private void startCompressing() throws IOException {
+            state = State.COMPRESSING;
+            super.setHeader("Content-Encoding", StaticResource.GZIP);
+            if (count > 0) {
+                gzip().write(buffer, 0, count);
+                unflushed = count;
+                count = 0;
+            }
+        }
+
+        private void passThrough() throws IOException {
+            state = State.PASS_THROUGH;
+            if (contentLength >= 0) {
+                super.setContentLengthLong(contentLength);
+            }
+            if (count > 0) {
+                super.getOutputStream().write(buffer, 0, count);
+                count = 0;
+            }
+        }
+
+        private GZIPOutputStream gzip() throws IOException {
+            if (gzip == null) {
+                gzip = new LeveledGzipStream(super.getOutputStream(), level);
+            }
+            return gzip;
+        }
+
+        /** 圧縮の作業領域 (ネイティブのメモリ) をすぐに解放する (元の応答のストリームは閉じない) */
+        private void releaseGzip() {
+            if (gzip != null) {
+                gzip.end();
+                gzip = null;
+            }
+        }
+
+        /**
+         * アプリが書き出す出力ストリーム (応答の状態に応じて溜める・圧縮する・そのまま書き出す)。
+         */
+        private final class CompressingStream extends ServletOutputStream {
+
+            private final byte[] single = new byte[1];
+
+            @Override
+            public void write(int b) throws IOException {
+                single[0] = (byte) b;
+                CompressingResponse.this.write(single, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                CompressingResponse.this.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                CompressingResponse.this.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+                getResponse().getOutputStream().close();
+            }
+
+            @Override
+            public boolean isReady() {
+                try {
+                    return state != State.PASS_THROUGH || CompressingResponse.super.getOutputStream().isReady();
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+
+            /**
+             * 非同期の書き出しでは圧縮せず、溜めていた内容を書き出してから元の応答のストリームに登録する
+             * (以降の書き出しと {@link #isReady()} は元の応答のストリームにそのまま委ねる)。
+             *
+             * @throws IllegalStateException 既に圧縮を始めている場合
+             */
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                if (state == State.COMPRESSING) {
+                    throw new IllegalStateException("圧縮を始めた応答は非同期の書き出しに切り替えられません");
+                }
+                try {
+                    if (state == State.BUFFERING) {
+                        passThrough();
+                    }
+                    CompressingResponse.super.getOutputStream().setWriteListener(writeListener);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("非同期の書き出しに切り替えられません", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 圧縮レベルを指定でき、{@code flush} で圧縮済みの内容を送り出す (SYNC_FLUSH) gzip のストリーム。
+     */
+    private static final class LeveledGzipStream extends GZIPOutputStream {
+
+        LeveledGzipStream(OutputStream out, int level) throws IOException {
+            super(out, 8192, true);
+            def.setLevel(level);
+        }
+
+        void end() {
+            def.end();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.todo.web;
+
+import javax.faces.application.ProjectStage;
+import javax.faces.application.Resource;
+import javax.faces.application.ResourceHandler;
+import javax.faces.application.ResourceHandlerWrapper;
+import javax.faces.application.ResourceWrapper;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Web アプリの {@code resources/} 配下のリソース ({@code todo.css}, {@code todo.js}) を、
+ * 内容のハッシュを含む URL で配信する ResourceHandler (faces-config.xml で登録)。
+ *
+ * <p>{@code h:outputStylesheet} などが出力する URL に版 ({@code &v=内容のハッシュ}) を付け、
+ * その URL へのリクエストには {@code Cache-Control: immutable} (1 年) を付けて応答します。
+ * 内容が変わると URL が変わるため、ブラウザや CDN は再検証せずにキャッシュを使い続けられます。</p>
+ *
+ * <p>内容と圧縮済みの表現はリソースごとに 1 回だけ読み込んでメモリに保持し、リクエストの {@code Accept-Encoding} に応じて
+ * brotli ({@code .br})・gzip ({@code .gz})・圧縮なしのバイト列をそのまま書き出します (リクエストごとの圧縮はしない)。
+ * 圧縮済みの表現はビルド時に {@link PrecompressResources} で作成した同名のファイル ({@code todo.css.gz} など) を使い、
+ * gzip のファイルがない場合 ({@code mvn tomcat7:run} など) は最初の読み込み時に圧縮します。</p>
+ *
+ * <p>版のない URL や古い版の URL、{@code resources/} にないリソース (JSF の {@code jsf.js} など) は、
+ * 既定の ResourceHandler で処理します。開発時 ({@code PROJECT_STAGE=Development}) はファイルの更新日時を確認して読み込み直します。</p>
+ */
+public class FingerprintResourceHandler extends ResourceHandlerWrapper {
+
+    /** 版を渡すリクエストパラメータ */
+    static final String VERSION_PARAMETER = "v";
+
+    /** 版付きの URL への応答のキャッシュの指定 (1 年, 再検証しない) */
+    static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    /** リソースのディレクトリ (JSF の既定の {@code javax.faces.WEBAPP_RESOURCES_DIRECTORY}) */
+    static final String RESOURCES_DIRECTORY = "/resources/";
+
+    /** ライブラリ名/リソース名 → 読み込んだリソース (Web アプリにない場合は空) */
+    private final Map<String, Optional<StaticResource>> cache = new ConcurrentHashMap<>();
+
+    public FingerprintResourceHandler(ResourceHandler wrapped) {
+        super(wrapped);
+    }
+
+    @Override
+    public Resource createResource(String resourceName) {
+        return fingerprint(super.createResource(resourceName));
+    }
+
+    @Override
+    public Resource createResource(String resourceName, String libraryName) {
+        return fingerprint(super.createResource(resourceName, libraryName));
+    }
+
+    @Override
+    public Resource createResource(String resourceName, String libraryName, String contentType) {
+        return fingerprint(super.createResource(resourceName, libraryName, contentType));
+    }
+
+    @Override
+    public void handleResourceRequest(FacesContext context) throws IOException {
+        ExternalContext externalContext = context.getExternalContext();
+        Map<String, String> parameters = externalContext.getRequestParameterMap();
+        String version = parameters.get(VERSION_PARAMETER);
+        String resourceName = version != null ? resourceName(externalContext) : null;
+        StaticResource resource = resourceName != null
+                ? lookup(context, resourceName, parameters.get("ln"), false) : null;
+        if (resource == null || !resource.getVersion().equals(version)) {
+            // 版のない URL・古い版 (デプロイ中に古いページから参照された場合など) は既定の処理 (短いキャッシュ)
+            super.handleResourceRequest(context);
+            return;
+        }
+
+        StaticResource.Variant variant =
+                resource.select(externalContext.getRequestHeaderMap().get("Accept-Encoding"));
+        String etag = variant.getEtag(resource.getVersion());
+        externalContext.setResponseHeader("Cache-Control", CACHE_CONTROL);
+        externalContext.setResponseHeader("Vary", "Accept-Encoding");
+        externalContext.setResponseHeader("ETag", etag);
+        String ifNoneMatch = externalContext.getRequestHeaderMap().get("If-None-Match");
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            externalContext.setResponseStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        } else {
+            externalContext.setResponseContentType(resource.getContentType());
+            if (variant.getEncoding() != null) {
+                externalContext.setResponseHeader("Content-Encoding", variant.getEncoding());
+            }
+            byte[] bytes = variant.getBytes();
+            externalContext.setResponseContentLength(bytes.length);
+            OutputStream out = externalContext.getResponseOutputStream();
+            out.write(bytes);
+            out.flush();
+        }
+        context.responseComplete();
+    }
+
+    /**
+     * Web アプリの {@code resources/} にあるリソースであれば、URL に版を付けたリソースを返す。
+     */
+    private Resource fingerprint(Resource resource) {
+        if (resource == null) {
+            return null;
+        }
+        FacesContext context = FacesContext.getCurrentInstance();
+        StaticResource loaded = context != null
+                ? lookup(context, resource.getResourceName(), resource.getLibraryName(), true) : null;
+        if (loaded == null) {
+            return resource;
+        }
+        String query = VERSION_PARAMETER + "=" + loaded.getVersion();
+        return new ResourceWrapper(resource) {
+            @Override
+            public String getRequestPath() {
+                String path = getWrapped().getRequestPath();
+                return path + (path.indexOf('?') < 0 ? '?' : '&') + query;
+            }
+        };
+    }
+
+    /**
+     * リソースを読み込む (2 回目以降はメモリに保持したもの)。
+     *
+     * @param cacheMissing Web アプリにないことも記録するか (ページが参照するリソースの場合。
+     *                     リクエストの任意の名前で記録が増え続けないよう、リソースのリクエストでは記録しない)
+     * @return Web アプリの {@code resources/} にない場合や、名前が不正な場合は {@code null}
+     */
+    StaticResource lookup(FacesContext context, String resourceName, String libraryName, boolean cacheMissing) {
+        if (!isValidName(resourceName) || (libraryName != null && !isValidName(libraryName))) {
+            return null;
+        }
+        String path = RESOURCES_DIRECTORY + (libraryName != null ? libraryName + "/" : "") + resourceName;
+        ExternalContext externalContext = context.getExternalContext();
+        Optional<StaticResource> cached = cache.get(path);
+        if (cached != null && cached.isPresent() && context.isProjectStage(ProjectStage.Development)
+                && lastModified(externalContext, path) != cached.get().getLastModified()) {
+            cached = null;
+        }
+        if (cached == null) {
+            cached = Optional.ofNullable(load(externalContext, path, resourceName));
+            if (cached.isPresent() || cacheMissing) {
+                cache.put(path, cached);
+            }
+        }
+        return cached.orElse(null);
+    }
+
+    private static StaticResource load(ExternalContext externalContext, String path, String resourceName) {
+        try {
+            byte[] content = read(externalContext, path);
+            if (content == null) {
+                return null;
+            }
+            String contentType = externalContext.getMimeType(resourceName);
+            if (contentType == null) {
+                contentType = "application/octet-stream";
+            }
+            byte[] gzip = null;
+            byte[] brotli = null;
+            if (StaticResource.isCompressible(contentType)) {
+                gzip = read(externalContext, path + PrecompressResources.GZIP_SUFFIX);
+                if (gzip == null) {
+                    gzip = StaticResource.gzip(content);
+                }
+                brotli = read(externalContext, path + PrecompressResources.BROTLI_SUFFIX);
+            }
+            return new StaticResource(contentType, content, gzip, brotli, lastModified(externalContext, path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(path + " を読み込めません", e);
+        }
+    }
+
+    private static byte[] read(ExternalContext externalContext, String path) throws IOException {
+        try (InputStream in = externalContext.getResourceAsStream(path)) {
+            return in != null ? in.readAllBytes() : null;
+        }
+    }
+
+    private static long lastModified(ExternalContext externalContext, String path) {
+        try {
+            URL url = externalContext.getResource(path);
+            if (url == null) {
+                return 0;
+            }
+            URLConnection connection = url.openConnection();
+            connection.setUseCaches(false);
+            return connection.getLastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * リソースのリクエストのパスからリソース名を取り出す
+     * ({@code /javax.faces.resource/todo.css.xhtml} → {@code todo.css}, プレフィックスのマッピングでは拡張子を除かない)。
+     */
+    static String resourceName(ExternalContext externalContext) {
+        String pathInfo = externalContext.getRequestPathInfo();
+        String servletPath = externalContext.getRequestServletPath();
+        String prefix = ResourceHandler.RESOURCE_IDENTIFIER + "/";
+        if (pathInfo != null && pathInfo.startsWith(prefix)) {
+            return pathInfo.substring(prefix.length());
+        }
+        if (servletPath != null && servletPath.startsWith(prefix)) {
+            String name = servletPath.substring(prefix.length());
+            int extension = name.lastIndexOf('.');
+            // 拡張子のマッピング (*.xhtml) で付けた拡張子を除く
+            return extension > 0 ? name.substring(0, extension) : null;
+        }
+        return null;
+    }
+
+    /** ディレクトリの外を参照する名前を拒否する */
+    private static boolean isValidName(String name) {
+        return name != null && !name.isEmpty() && !name.startsWith("/") && !name.contains("..")
+                && !name.contains("\\") && !name.contains(":");
+    }
+}
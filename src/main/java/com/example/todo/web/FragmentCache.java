@@ -0,0 +1,93 @@
+package com.example.todo.web;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 描画済みの HTML 断片のキャッシュ ({@link CachedFragment} が使用する)。
+ *
+ * <p>断片はコンポーネントのクライアント ID (一覧では行の位置) ごとに 1 件だけ保持し、
+ * 描画時のキーが保存時のキーと一致した場合だけ返します。キーには断片の内容を決める値
+ * (Todo の ID と版数など) を含めるため、Todo が変更されると次の描画でその行だけが描き直され、
+ * 古い断片は置き換えられます。</p>
+ *
+ * <p>保持する件数は表示したことのある行の位置の数 (一覧では最大のページサイズ) 程度です。
+ * 想定外に増えた場合 ({@value #MAX_ENTRIES} 件超) はすべて破棄します。</p>
+ */
+public final class FragmentCache {
+
+    /** 保持する断片の上限 */
+    static final int MAX_ENTRIES = 1024;
+
+    /** クライアント ID → 断片 */
+    private final Map<String, Fragment> fragments = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * 保存した断片を返す。
+     *
+     * @param clientId 断片を描画するコンポーネントのクライアント ID
+     * @param key      現在の内容のキー
+     * @return キーが一致する断片。ない場合 (またはキーが変わった場合) は {@code null}
+     */
+    public String get(String clientId, Object key) {
+        Fragment fragment = fragments.get(clientId);
+        if (fragment != null && fragment.key.equals(key)) {
+            hits.incrementAndGet();
+            return fragment.html;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 描画した断片を保存する。同じクライアント ID の以前の断片は置き換えられる。
+     *
+     * @param clientId 断片を描画したコンポーネントのクライアント ID
+     * @param key      描画した内容のキー
+     * @param html     描画結果
+     */
+    public void put(String clientId, Object key, String html) {
+        if (fragments.size() >= MAX_ENTRIES && !fragments.containsKey(clientId)) {
+            fragments.clear();
+        }
+        fragments.put(clientId, new Fragment(key, html));
+    }
+
+    /** すべての断片を破棄する。 */
+    public void clear() {
+        fragments.clear();
+    }
+
+    /** 保持している断片の数。 */
+    public int size() {
+        return fragments.size();
+    }
+
+    /** 保存した断片を返した回数。 */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /** 断片がなかった (描画が必要だった) 回数。 */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * キーと描画結果の組。
+     */
+    private static final class Fragment {
+
+        private final Object key;
+        private final String html;
+
+        Fragment(Object key, String html) {
+            this.key = key;
+            this.html = html;
+        }
+    }
+}
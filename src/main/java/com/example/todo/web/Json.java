@@ -0,0 +1,297 @@
+package com.example.todo.web;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST API 用の最小限の JSON 読み書き。
+ *
+ * <p>外部ライブラリを追加しないため、API が扱う範囲 (オブジェクト・配列・文字列・数値・
+ * 真偽値・{@code null}) だけを実装しています。書き込みは {@link Writer} へ直接行い、
+ * 文字列全体を組み立てないため、一覧をストリーミングで出力できます。</p>
+ */
+final class Json {
+
+    /** 入れ子の深さの上限 (不正な入力でスタックを使い切らないため) */
+    private static final int MAX_DEPTH = 32;
+
+    private Json() {
+    }
+
+    // ---- 書き込み ----
+
+    /**
+     * 文字列を JSON の文字列リテラルとして書き込む ({@code null} は {@code null})。
+     */
+    static void writeString(Writer out, String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = escape(c);
+            if (escape != null) {
+                out.write(value, start, i - start);
+                out.write(escape);
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    private static String escape(char c) {
+        switch (c) {
+            case '"':
+                return "\\\"";
+            case '\\':
+                return "\\\\";
+            case '\n':
+                return "\\n";
+            case '\r':
+                return "\\r";
+            case '\t':
+                return "\\t";
+            case '\u2028':
+            case '\u2029':
+                // LINE / PARAGRAPH SEPARATOR は古い JavaScript の文字列リテラルでは改行として扱われるため
+                return String.format("\\u%04x", (int) c);
+            default:
+                return c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+        }
+    }
+
+    // ---- 読み込み ----
+
+    /**
+     * JSON のオブジェクトを読み込む。
+     *
+     * @param in 入力 (オブジェクト 1 つだけを含むこと)
+     * @return キー → 値 ({@link String} / {@link Double} / {@link Long} / {@link Boolean} /
+     * {@link Map} / {@link List} / {@code null})
+     * @throws IOException 入力を読めない場合
+     * @throws IllegalArgumentException JSON として不正な場合、またはオブジェクトでない場合
+     */
+    static Map<String, Object> parseObject(Reader in) throws IOException {
+        Parser parser = new Parser(in);
+        Object value = parser.parseValue(0);
+        parser.skipWhitespace();
+        if (parser.peek() != -1) {
+            throw new IllegalArgumentException("unexpected trailing data");
+        }
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("JSON object expected");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> object = (Map<String, Object>) value;
+        return object;
+    }
+
+    /**
+     * 1 文字先読みする再帰下降パーサー。
+     */
+    private static final class Parser {
+
+        private final Reader in;
+        private int next = -2;
+
+        Parser(Reader in) {
+            this.in = in;
+        }
+
+        int peek() throws IOException {
+            if (next == -2) {
+                next = in.read();
+            }
+            return next;
+        }
+
+        int read() throws IOException {
+            int c = peek();
+            next = -2;
+            return c;
+        }
+
+        void skipWhitespace() throws IOException {
+            while (peek() == ' ' || peek() == '\t' || peek() == '\n' || peek() == '\r') {
+                read();
+            }
+        }
+
+        void expect(char expected) throws IOException {
+            int c = read();
+            if (c != expected) {
+                throw new IllegalArgumentException("'" + expected + "' expected");
+            }
+        }
+
+        Object parseValue(int depth) throws IOException {
+            if (depth > MAX_DEPTH) {
+                throw new IllegalArgumentException("nesting too deep");
+            }
+            skipWhitespace();
+            int c = peek();
+            switch (c) {
+                case '{':
+                    return parseObject(depth);
+                case '[':
+                    return parseArray(depth);
+                case '"':
+                    return parseString();
+                case 't':
+                    parseLiteral("true");
+                    return Boolean.TRUE;
+                case 'f':
+                    parseLiteral("false");
+                    return Boolean.FALSE;
+                case 'n':
+                    parseLiteral("null");
+                    return null;
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        return parseNumber();
+                    }
+                    throw new IllegalArgumentException(c == -1 ? "unexpected end of input" : "unexpected character");
+            }
+        }
+
+        private Map<String, Object> parseObject(int depth) throws IOException {
+            expect('{');
+            Map<String, Object> object = new LinkedHashMap<>();
+            skipWhitespace();
+            if (peek() == '}') {
+                read();
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw new IllegalArgumentException("object key expected");
+                }
+                String key = parseString();
+                skipWhitespace();
+                expect(':');
+                object.put(key, parseValue(depth + 1));
+                skipWhitespace();
+                int c = read();
+                if (c == '}') {
+                    return object;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("',' or '}' expected");
+                }
+            }
+        }
+
+        private List<Object> parseArray(int depth) throws IOException {
+            expect('[');
+            List<Object> array = new ArrayList<>();
+            skipWhitespace();
+            if (peek() == ']') {
+                read();
+                return array;
+            }
+            while (true) {
+                array.add(parseValue(depth + 1));
+                skipWhitespace();
+                int c = read();
+                if (c == ']') {
+                    return array;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("',' or ']' expected");
+                }
+            }
+        }
+
+        private String parseString() throws IOException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                int c = read();
+                if (c == -1) {
+                    throw new IllegalArgumentException("unterminated string");
+                }
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c < 0x20) {
+                    throw new IllegalArgumentException("control character in string");
+                }
+                if (c != '\\') {
+                    value.append((char) c);
+                    continue;
+                }
+                int e = read();
+                switch (e) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        value.append((char) e);
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit < 0) {
+                                throw new IllegalArgumentException("invalid unicode escape");
+                            }
+                            code = (code << 4) | digit;
+                        }
+                        value.append((char) code);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("invalid escape");
+                }
+            }
+        }
+
+        private Object parseNumber() throws IOException {
+            StringBuilder text = new StringBuilder();
+            while (peek() == '-' || peek() == '+' || peek() == '.' || peek() == 'e' || peek() == 'E'
+                    || (peek() >= '0' && peek() <= '9')) {
+                text.append((char) read());
+            }
+            String number = text.toString();
+            try {
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    return Long.parseLong(number);
+                }
+                return Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid number: " + number);
+            }
+        }
+
+        private void parseLiteral(String literal) throws IOException {
+            for (int i = 0; i < literal.length(); i++) {
+                if (read() != literal.charAt(i)) {
+                    throw new IllegalArgumentException("invalid literal");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.todo.web;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ビルド時に {@code resources/} 配下のテキストのリソースを圧縮し、{@link FingerprintResourceHandler} が配信する
+ * 圧縮済みのファイル ({@code todo.css.gz}, {@code todo.css.br}) を作成するツール (pom.xml の {@code prepare-package})。
+ *
+ * <p>gzip は JDK で最大の圧縮率で作成します。brotli は JDK に圧縮の実装がないため、
+ * {@code brotli} コマンドがある場合だけ品質 11 で作成します (ない場合は gzip だけを配信します)。</p>
+ *
+ * <pre>
+ * java com.example.todo.web.PrecompressResources src/main/webapp/resources target/precompressed/resources
+ * </pre>
+ */
+public final class PrecompressResources {
+
+    static final String GZIP_SUFFIX = ".gz";
+    static final String BROTLI_SUFFIX = ".br";
+
+    /** 圧縮するファイルの拡張子 */
+    private static final List<String> EXTENSIONS = List.of(".css", ".js", ".svg", ".json", ".html", ".txt", ".xml");
+
+    private PrecompressResources() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length != 2) {
+            System.err.println("使い方: PrecompressResources <リソースのディレクトリ> <出力先のディレクトリ>");
+            System.exit(2);
+            return;
+        }
+        Path source = Paths.get(args[0]);
+        Path target = Paths.get(args[1]);
+        boolean brotli = brotliAvailable();
+        if (!brotli) {
+            System.out.println("brotli コマンドがないため、brotli の圧縮済みファイルは作成しません");
+        }
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(source)) {
+            files = walk.filter(Files::isRegularFile).filter(PrecompressResources::isCompressible).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            Path output = target.resolve(source.relativize(file).toString());
+            Files.createDirectories(output.getParent());
+            byte[] content = Files.readAllBytes(file);
+            byte[] gzip = StaticResource.gzip(content);
+            Files.write(Paths.get(output + GZIP_SUFFIX), gzip);
+            String summary = String.format("%s: %d -> gzip %d", source.relativize(file), content.length, gzip.length);
+            if (brotli) {
+                Path br = Paths.get(output + BROTLI_SUFFIX);
+                String[] command = {"brotli", "--quality=11", "--force", "--output=" + br, file.toString()};
+                int exit = run(command);
+                if (exit != 0) {
+                    throw new IOException(String.join(" ", command) + " が失敗しました (" + exit + ")");
+                }
+                summary += " / br " + Files.size(br);
+            }
+            System.out.println(summary + " バイト");
+        }
+    }
+
+    static boolean isCompressible(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            return run("brotli", "--version") == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** コマンドを実行して終了コードを返す (出力は捨てる) */
+    private static int run(String... command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (!process.waitFor(60, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IOException(String.join(" ", command) + " がタイムアウトしました");
+        }
+        return process.exitValue();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.todo.web;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * レディネス (トラフィックを受け付けてよいか) を返すエンドポイント ({@code /health/ready})。
+ *
+ * <p>最初のアクセス (ロードバランサーや Kubernetes の readinessProbe) で {@link Warmup} をバックグラウンドで開始し、
+ * 完了するまでは {@code 503 Service Unavailable}、完了後は {@code 200 OK} を返します。
+ * デプロイ直後の利用者が Facelets のコンパイルや EL 式の解決、JIT コンパイル前の遅い処理を負担しないよう、
+ * 振り分け先に加えるのはウォームアップの完了後にします。ウォームアップが失敗した場合はログに出力し、
+ * 起動を妨げないよう準備完了として扱います。</p>
+ *
+ * <p>{@code POST} ではウォームアップを再度実行します (準備完了の状態は変わりません)。
+ * 外部から繰り返し実行されると負荷をかけられるため、ウォームアップのトークン (ヘッダー {@value Warmup#TOKEN_HEADER}) が
+ * 一致しない {@code POST} は {@code 403 Forbidden} とします。トークンは起動ごとに発行してアプリケーション属性にだけ置くため、
+ * 再実行できるのは同じプロセス内の処理 (組み込み Tomcat の起動処理など) に限られます。</p>
+ *
+ * <p>web.xml のコンテキストパラメータで設定します。</p>
+ * <ul>
+ *   <li>{@value #PARAM_ITERATIONS}: 画面遷移を繰り返す回数 (既定 {@value #DEFAULT_ITERATIONS}, 0 はウォームアップしない)</li>
+ * </ul>
+ */
+public class ReadinessServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String PARAM_ITERATIONS = "com.example.todo.WARMUP_ITERATIONS";
+
+    static final int DEFAULT_ITERATIONS = 20;
+
+    private static final Logger LOGGER = Logger.getLogger(ReadinessServlet.class.getName());
+
+    /** ウォームアップの処理 (単体テストで差し替える) */
+    @FunctionalInterface
+    interface Runner {
+        /**
+         * @param base       アプリの URL (末尾の {@code /} を含む)
+         * @param endSession このエンドポイントの URL (使い捨てのセッションの破棄に使う)
+         * @param token      ウォームアップのリクエストを識別するトークン
+         * @param iterations 画面遷移を繰り返す回数
+         */
+        void run(URI base, URI endSession, String token, int iterations) throws Exception;
+    }
+
+    private transient Runner runner = (base, endSession, token, iterations) ->
+            new Warmup(base, endSession, token).run(iterations);
+
+    private int iterations = DEFAULT_ITERATIONS;
+    private String token;
+
+    private volatile boolean ready;
+    private transient Thread running;
+
+    @Override
+    public void init() {
+        iterations = parseIterations(getServletContext().getInitParameter(PARAM_ITERATIONS));
+        token = UUID.randomUUID().toString();
+        getServletContext().setAttribute(Warmup.TOKEN_ATTRIBUTE, token);
+        ready = iterations == 0;
+    }
+
+    @Override
+    public void destroy() {
+        Thread thread;
+        synchronized (this) {
+            thread = running;
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+        getServletContext().removeAttribute(Warmup.TOKEN_ATTRIBUTE);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("text/plain; charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        if (Warmup.isWarmupRequest(request)) {
+            // ウォームアップの終了: 使い捨てのセッションを破棄する
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                session.invalidate();
+            }
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            return;
+        }
+        if (ready) {
+            response.getWriter().println("ready");
+            return;
+        }
+        startWarmup(request);
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", "1");
+        response.getWriter().println("warming up");
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("text/plain; charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        if (!Warmup.isWarmupRequest(request)) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "warmup token required");
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_ACCEPTED);
+        response.getWriter().println(startWarmup(request) ? "warmup started" : "warmup already running");
+    }
+
+    /** 準備完了かどうか (ウォームアップが完了・失敗した、またはウォームアップしない設定) */
+    boolean isReady() {
+        return ready;
+    }
+
+    /** 実行中のウォームアップが終わるまで待つ (単体テスト用)。 */
+    void awaitWarmup(long timeout, TimeUnit unit) throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = running;
+        }
+        if (thread != null) {
+            thread.join(unit.toMillis(timeout));
+        }
+    }
+
+    /** ウォームアップの処理を設定する (単体テスト用)。 */
+    void setRunner(Runner runner) {
+        this.runner = runner;
+    }
+
+    /**
+     * ウォームアップを実行中でなければ開始する。
+     *
+     * @return 開始した場合は {@code true}
+     */
+    private synchronized boolean startWarmup(HttpServletRequest request) {
+        if (running != null || iterations == 0) {
+            return false;
+        }
+        URI base;
+        URI endSession;
+        try {
+            // リクエストを受けたコネクターのアドレスに接続する (外部のロードバランサーを経由しない)
+            String contextPath = request.getContextPath();
+            base = new URI(request.getScheme(), null, request.getLocalAddr(), request.getLocalPort(),
+                    contextPath + "/", null, null);
+            endSession = base.resolve(request.getServletPath().substring(1));
+        } catch (URISyntaxException e) {
+            LOGGER.log(Level.WARNING, "ウォームアップの URL を組み立てられないため、ウォームアップせずに準備完了とします", e);
+            ready = true;
+            return false;
+        }
+        Thread thread = new Thread(() -> runWarmup(base, endSession), "todo-warmup");
+        thread.setDaemon(true);
+        running = thread;
+        thread.start();
+        return true;
+    }
+
+    private static int parseIterations(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT_ITERATIONS;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            LOGGER.warning("数値ではない設定値を無視します: " + value);
+            return DEFAULT_ITERATIONS;
+        }
+    }
+
+    private void runWarmup(URI base, URI endSession) {
+        long start = System.nanoTime();
+        try {
+            runner.run(base, endSession, token, iterations);
+            LOGGER.info(String.format("ウォームアップが完了しました (%d 回, %d ms)",
+                    iterations, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "ウォームアップに失敗しました。準備完了として扱います: " + base, e);
+        } finally {
+            ready = true;
+            synchronized (this) {
+                running = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.todo.web;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * リクエストの処理後にセッションのサイズを計測してログに出力する診断用フィルター。
+ *
+ * <p>セッション属性ごとにシリアライズ後のバイト数を計測します。
+ * JSF のサーバー側状態保存 ({@code com.sun.faces.renderkit.ServerSideStateHelper.LogicalViewMap})
+ * もセッション属性のため、ビューの状態がセッションをどれだけ占めているかを比較できます。
+ * シリアライズ後のサイズはヒープ上のサイズとは一致しませんが、
+ * セッションの永続化・レプリケーションで転送される量であり、設定間の比較に使えます。</p>
+ *
+ * <p>計測のたびにセッション全体をシリアライズするため、
+ * web.xml の {@value #PARAM_ENABLED} が {@code true} の場合だけ動作します (既定は無効)。</p>
+ */
+public class SessionSizeFilter implements Filter {
+
+    public static final String PARAM_ENABLED = "com.example.todo.SESSION_SIZE_LOG";
+
+    private static final Logger LOGGER = Logger.getLogger(SessionSizeFilter.class.getName());
+
+    private volatile boolean enabled;
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+        enabled = Boolean.parseBoolean(filterConfig.getServletContext().getInitParameter(PARAM_ENABLED));
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        chain.doFilter(request, response);
+        if (!enabled || !(request instanceof HttpServletRequest)) {
+            return;
+        }
+        HttpSession session = ((HttpServletRequest) request).getSession(false);
+        if (session == null) {
+            return;
+        }
+        Map<String, Long> sizes = measure(session);
+        long total = 0;
+        for (long size : sizes.values()) {
+            total += Math.max(0, size);
+        }
+        // セッション ID そのものはログに残さない
+        LOGGER.info(String.format("session=%08x uri=%s total=%d bytes %s",
+                session.getId().hashCode(), ((HttpServletRequest) request).getRequestURI(), total, sizes));
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    /**
+     * セッション属性ごとのシリアライズ後のバイト数を返す。
+     *
+     * @param session 計測するセッション
+     * @return 属性名 → バイト数 (シリアライズできない属性は -1)
+     */
+    static Map<String, Long> measure(HttpSession session) {
+        Map<String, Long> sizes = new TreeMap<>();
+        Enumeration<String> names;
+        try {
+            names = session.getAttributeNames();
+        } catch (IllegalStateException e) {
+            // 計測前にセッションが無効化された
+            return sizes;
+        }
+        for (String name : Collections.list(names)) {
+            sizes.put(name, serializedSize(session.getAttribute(name)));
+        }
+        return sizes;
+    }
+
+    /**
+     * オブジェクトをシリアライズしたときのバイト数を返す。バイト列は保持しない。
+     *
+     * @param value 対象のオブジェクト
+     * @return バイト数 (シリアライズできない場合は -1)
+     */
+    static long serializedSize(Object value) {
+        CountingOutputStream counter = new CountingOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(value);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+        return counter.count;
+    }
+
+    /**
+     * 書き込まれたバイト数だけを数える出力ストリーム。
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
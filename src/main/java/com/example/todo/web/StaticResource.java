@@ -0,0 +1,185 @@
+package com.example.todo.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 配信する静的リソースの内容と、その版 (内容のハッシュ)・圧縮済みの表現 (gzip / brotli)。
+ *
+ * <p>{@link FingerprintResourceHandler} がリソースごとに 1 つ作成してメモリに保持し、
+ * リクエストの {@code Accept-Encoding} に応じて {@link #select(String)} で選んだ表現のバイト列をそのまま書き出します。
+ * 圧縮済みの表現は元の内容より小さい場合だけ保持します。</p>
+ */
+final class StaticResource {
+
+    static final String GZIP = "gzip";
+    static final String BROTLI = "br";
+
+    /** 版として使うハッシュの長さ (バイト数。URL には 16 進で埋め込む) */
+    private static final int VERSION_BYTES = 8;
+
+    private final String contentType;
+    private final String version;
+    private final long lastModified;
+    private final Variant identity;
+    private final Variant gzip;
+    private final Variant brotli;
+
+    /**
+     * @param contentType  Content-Type
+     * @param content      元の内容
+     * @param gzip         gzip で圧縮した内容 ({@code null} 可)
+     * @param brotli       brotli で圧縮した内容 ({@code null} 可)
+     * @param lastModified 元の内容の更新日時 (開発時の再読み込みの判定に使う)
+     */
+    StaticResource(String contentType, byte[] content, byte[] gzip, byte[] brotli, long lastModified) {
+        this.contentType = contentType;
+        this.version = version(content);
+        this.lastModified = lastModified;
+        this.identity = new Variant(null, content);
+        this.gzip = gzip != null && gzip.length < content.length ? new Variant(GZIP, gzip) : null;
+        this.brotli = brotli != null && brotli.length < content.length ? new Variant(BROTLI, brotli) : null;
+    }
+
+    String getContentType() {
+        return contentType;
+    }
+
+    /** 内容のハッシュ (SHA-256 の先頭 {@value #VERSION_BYTES} バイトの 16 進)。内容が変わると変わる */
+    String getVersion() {
+        return version;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * クライアントが受け付ける表現のうち、最も小さいものを選ぶ (brotli → gzip → 圧縮なし)。
+     *
+     * @param acceptEncoding リクエストの {@code Accept-Encoding} ({@code null} 可)
+     */
+    Variant select(String acceptEncoding) {
+        if (brotli != null && accepts(acceptEncoding, BROTLI)) {
+            return brotli;
+        }
+        if (gzip != null && accepts(acceptEncoding, GZIP)) {
+            return gzip;
+        }
+        return identity;
+    }
+
+    /**
+     * {@code Accept-Encoding} が指定したコーディングを受け付けるかどうか ({@code q=0} は拒否、{@code *} は残りすべて)。
+     */
+    static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double wildcard = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] parameters = part.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals(coding)) {
+                return quality > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        return wildcard > 0;
+    }
+
+    /**
+     * 内容のハッシュを版の文字列にする。
+     */
+    static String version(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(VERSION_BYTES * 2);
+            for (int i = 0; i < VERSION_BYTES; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 最大の圧縮率で gzip 圧縮する (ビルド時の圧縮と、圧縮済みのファイルがない場合の実行時の圧縮で共通)。
+     */
+    static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 圧縮の効果があるテキスト形式の Content-Type かどうか (画像などは圧縮しない)。
+     */
+    static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/")
+                || type.contains("javascript")
+                || type.contains("json")
+                || type.contains("xml")
+                || type.startsWith("image/svg");
+    }
+
+    /**
+     * リソースの 1 つの表現 ({@code Content-Encoding} とバイト列)。
+     */
+    static final class Variant {
+
+        private final String encoding;
+        private final byte[] bytes;
+
+        Variant(String encoding, byte[] bytes) {
+            this.encoding = encoding;
+            this.bytes = bytes;
+        }
+
+        /** {@code Content-Encoding} (圧縮なしの場合は {@code null}) */
+        String getEncoding() {
+            return encoding;
+        }
+
+        byte[] getBytes() {
+            return bytes;
+        }
+
+        /** 版と表現ごとの ETag (同じ版でも表現ごとに異なる値にする) */
+        String getEtag(String version) {
+            return "\"" + version + (encoding != null ? "-" + encoding : "") + "\"";
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.todo.web;
+
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.event.PhaseListener;
+import java.util.regex.Pattern;
+
+/**
+ * 一覧ページのフォームから送られたタブの ID ({@value #PARAM}) を、アクションの処理中だけスレッドに保持するフェーズリスナー
+ * (faces-config.xml で登録)。
+ *
+ * <p>{@code todo.js} がページの表示ごとに ID を決め、フォームの hidden 項目に設定します。
+ * ストアの変更通知はアクションと同じスレッドで呼ばれるため、{@link TodoEventBroadcaster} は {@link #current()} で
+ * 変更したタブを知り、イベントに付けます。タブは自身の変更のイベントを別のタブの変更として扱いません。</p>
+ *
+ * <p>リクエストの値の適用からアクションの呼び出しまでの各フェーズの開始時に設定し、終了時に必ず取り除きます
+ * (フェーズの終了はフェーズの処理が例外で終わった場合も呼ばれるため、別のリクエストに値が残りません)。
+ * ID は英数字とハイフンの 64 文字までに限り、それ以外の値は無視します。</p>
+ */
+public class TabOriginListener implements PhaseListener {
+
+    private static final long serialVersionUID = 1L;
+
+    /** タブの ID を送るリクエストパラメータ名 */
+    public static final String PARAM = "todoTab";
+
+    private static final Pattern TAB_ID = Pattern.compile("[A-Za-z0-9-]{1,64}");
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 処理中のリクエストを送ったタブの ID。アクションの処理中でない場合・送られていない場合は {@code null}。
+     */
+    static String current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public PhaseId getPhaseId() {
+        return PhaseId.ANY_PHASE;
+    }
+
+    @Override
+    public void beforePhase(PhaseEvent event) {
+        PhaseId phase = event.getPhaseId();
+        if (phase == PhaseId.RESTORE_VIEW || phase == PhaseId.RENDER_RESPONSE) {
+            return;
+        }
+        FacesContext context = event.getFacesContext();
+        String tab = context.getExternalContext().getRequestParameterMap().get(PARAM);
+        if (tab != null && TAB_ID.matcher(tab).matches()) {
+            CURRENT.set(tab);
+        }
+    }
+
+    @Override
+    public void afterPhase(PhaseEvent event) {
+        CURRENT.remove();
+    }
+}
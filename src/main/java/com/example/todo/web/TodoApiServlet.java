@@ -0,0 +1,410 @@
+package com.example.todo.web;
+
+import com.example.todo.bean.TodoBean;
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+import com.example.todo.persistence.TodoJournalManager;
+
+import javax.enterprise.inject.spi.CDI;
+import javax.inject.Inject;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Todo の REST API ({@code /api/todos})。
+ *
+ * <p>画面 ({@code todos.xhtml}) と同じセッションスコープの {@link TodoBean} を通じて、
+ * 同じストアを操作します。永続化が有効な場合は画面と同じ Cookie ({@value TodoBean#LIST_COOKIE})
+ * でリストを識別するため、Cookie を共有するクライアントは画面と同じリストを参照します。</p>
+ *
+ * <table>
+ *   <caption>エンドポイント</caption>
+ *   <tr><th>メソッド</th><th>パス</th><th>内容</th></tr>
+ *   <tr><td>GET</td><td>/api/todos[?q=検索語]</td><td>一覧 (JSON 配列または NDJSON)</td></tr>
+ *   <tr><td>GET</td><td>/api/todos/{id}</td><td>1 件取得</td></tr>
+ *   <tr><td>POST</td><td>/api/todos</td><td>作成 ({@code {"title", "description"}}) → 201</td></tr>
+ *   <tr><td>PUT</td><td>/api/todos/{id}</td><td>指定した項目だけ更新 ({@code title}, {@code description}, {@code completed})</td></tr>
+ *   <tr><td>DELETE</td><td>/api/todos/{id}</td><td>削除 → 204</td></tr>
+ * </table>
+ *
+ * <p><strong>ストリーミング:</strong><br>
+ * 一覧はストアの不変スナップショットを走査しながらレスポンスに 1 件ずつ書き込みます。
+ * JSON 文字列全体やコピーしたリストをメモリ上に組み立てないため、件数が多くても
+ * 使用するメモリはレスポンスのバッファ分に収まります。
+ * {@code Accept: application/x-ndjson} または {@code ?format=ndjson} の場合は
+ * 1 行 1 件の NDJSON で返します。</p>
+ *
+ * <p><strong>CSRF 対策:</strong><br>
+ * 変更系 (POST / PUT / DELETE) は、{@code Origin} ヘッダーが付いている場合にリクエスト先と
+ * 同じオリジンであることを確認し (違えば 403)、ボディを受け取る POST / PUT は
+ * {@code Content-Type: application/json} だけを受け付けます (それ以外は 415)。
+ * HTML フォームは {@code application/json} を送れず、別オリジンのスクリプトからの
+ * 送信はプリフライトで止まるため、Cookie のセッションを使った他サイトからの変更を防げます。</p>
+ */
+public class TodoApiServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String JSON = "application/json";
+    static final String NDJSON = "application/x-ndjson";
+
+    /** リクエストボディの最大文字数 */
+    static final int MAX_BODY_CHARS = 64 * 1024;
+
+    /** リクエストごとのセッションに解決されるプロキシ */
+    @Inject
+    private transient TodoBean todoBean;
+
+    @Override
+    public void init() {
+        if (todoBean == null) {
+            // コンテナがサーブレットへのインジェクションに対応していない場合
+            todoBean = CDI.current().select(TodoBean.class).get();
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        TodoBean bean = bean(request, response);
+        Long id = parseId(request);
+        if (id == null) {
+            if (isRoot(request)) {
+                writeList(request, response, bean.searchTodos(request.getParameter("q")));
+            } else {
+                writeError(response, HttpServletResponse.SC_NOT_FOUND, "not found");
+            }
+            return;
+        }
+        TodoItem item = bean.findTodo(id);
+        if (item == null) {
+            writeError(response, HttpServletResponse.SC_NOT_FOUND, "todo not found: " + id);
+            return;
+        }
+        writeItem(response, HttpServletResponse.SC_OK, item);
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!checkOrigin(request, response) || !checkJsonBody(request, response)) {
+            return;
+        }
+        TodoBean bean = bean(request, response);
+        if (!isRoot(request)) {
+            writeError(response, HttpServletResponse.SC_METHOD_NOT_ALLOWED, "POST is only allowed on the collection");
+            return;
+        }
+        Map<String, Object> body = readBody(request, response);
+        if (body == null) {
+            return;
+        }
+        try {
+            String title = requireTitle(body.get("title"));
+            String description = optionalString(body, "description");
+            TodoItem item = bean.createTodo(title, description);
+            response.setHeader("Location",
+                    request.getContextPath() + request.getServletPath() + "/" + item.getId());
+            writeItem(response, HttpServletResponse.SC_CREATED, item);
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Override
+    protected void doPut(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!checkOrigin(request, response) || !checkJsonBody(request, response)) {
+            return;
+        }
+        TodoBean bean = bean(request, response);
+        if (isRoot(request)) {
+            writeError(response, HttpServletResponse.SC_METHOD_NOT_ALLOWED, "PUT requires a todo id");
+            return;
+        }
+        Long id = parseId(request);
+        TodoItem item = id != null ? bean.findTodo(id) : null;
+        if (item == null) {
+            writeError(response, HttpServletResponse.SC_NOT_FOUND, "todo not found: " + request.getPathInfo().substring(1));
+            return;
+        }
+        Map<String, Object> body = readBody(request, response);
+        if (body == null) {
+            return;
+        }
+        try {
+            // 検証をすべて済ませてから変更する (一部の項目だけが更新されないように)
+            String title = body.containsKey("title") ? requireTitle(body.get("title")) : null;
+            String description = optionalString(body, "description");
+            Object completed = body.get("completed");
+            if (completed != null && !(completed instanceof Boolean)) {
+                throw new IllegalArgumentException("completed must be a boolean");
+            }
+            if (title != null || description != null) {
+                item.edit(title != null ? title : item.getTitle(),
+                        description != null ? description.trim() : item.getDescription());
+            }
+            if (completed != null) {
+                item.setCompleted((Boolean) completed);
+            }
+            writeItem(response, HttpServletResponse.SC_OK, item);
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Override
+    protected void doDelete(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!checkOrigin(request, response)) {
+            return;
+        }
+        TodoBean bean = bean(request, response);
+        if (isRoot(request)) {
+            writeError(response, HttpServletResponse.SC_METHOD_NOT_ALLOWED, "DELETE requires a todo id");
+            return;
+        }
+        Long id = parseId(request);
+        if (id == null || bean.removeTodo(id) == null) {
+            writeError(response, HttpServletResponse.SC_NOT_FOUND, "todo not found: " + request.getPathInfo().substring(1));
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+    }
+
+    /** CDI 管理外 (単体テストなど) で操作対象の Bean を設定する。 */
+    void setTodoBean(TodoBean todoBean) {
+        this.todoBean = todoBean;
+    }
+
+    // ---- リストの解決 ----
+
+    private TodoBean bean(HttpServletRequest request, HttpServletResponse response) {
+        return selectList(todoBean, request, response);
+    }
+
+    /**
+     * 永続化が有効な場合、画面と同じ Cookie のリスト ID でストアを選択する。
+     * Cookie がない (または不正な) 場合は新しいリスト ID を発行する。
+     * JSF 以外のサーブレット ({@link TodoEventServlet} を含む) から呼ぶ。
+     *
+     * @return {@code todoBean}
+     */
+    static TodoBean selectList(TodoBean todoBean, HttpServletRequest request, HttpServletResponse response) {
+        if (!todoBean.isJournalEnabled()) {
+            return todoBean;
+        }
+        String id = null;
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (TodoBean.LIST_COOKIE.equals(cookie.getName())) {
+                    id = cookie.getValue();
+                }
+            }
+        }
+        if (!TodoJournalManager.isValidListId(id)) {
+            id = UUID.randomUUID().toString();
+            Cookie cookie = new Cookie(TodoBean.LIST_COOKIE, id);
+            cookie.setMaxAge(TodoBean.LIST_COOKIE_MAX_AGE);
+            cookie.setHttpOnly(true);
+            cookie.setPath(request.getContextPath() + "/");
+            response.addCookie(cookie);
+        }
+        TodoStore previous = todoBean.getStore();
+        todoBean.useList(id);
+        if (todoBean.getStore() != previous) {
+            // 切り替える前のリストを購読していたこのセッションの接続を閉じ、新しいリストへ再接続させる
+            HttpSession session = request.getSession(false);
+            if (session != null) {
+                TodoEventBroadcaster.detach(previous, session.getId());
+            }
+        }
+        return todoBean;
+    }
+
+    // ---- CSRF 対策 ----
+
+    /**
+     * {@code Origin} ヘッダーが付いている場合、リクエスト先と同じオリジンか確認する。
+     * 違う場合は 403 を書き込んで {@code false} を返す。
+     * ヘッダーのない (ブラウザー以外の) クライアントは通す。
+     */
+    private boolean checkOrigin(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String origin = request.getHeader("Origin");
+        if (origin == null || origin.equalsIgnoreCase(ownOrigin(request))) {
+            return true;
+        }
+        writeError(response, HttpServletResponse.SC_FORBIDDEN, "cross-origin request rejected: " + origin);
+        return false;
+    }
+
+    /** リクエスト先のオリジン ({@code scheme://host[:port]}、既定のポートは省略)。 */
+    private static String ownOrigin(HttpServletRequest request) {
+        String scheme = request.getScheme();
+        int port = request.getServerPort();
+        boolean defaultPort = port <= 0
+                || ("http".equalsIgnoreCase(scheme) && port == 80)
+                || ("https".equalsIgnoreCase(scheme) && port == 443);
+        return scheme + "://" + request.getServerName() + (defaultPort ? "" : ":" + port);
+    }
+
+    /**
+     * ボディの {@code Content-Type} が {@value #JSON} か確認する (パラメータ {@code charset} は問わない)。
+     * 違う場合は 415 を書き込んで {@code false} を返す。
+     */
+    private boolean checkJsonBody(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String contentType = request.getContentType();
+        if (contentType != null) {
+            int semicolon = contentType.indexOf(';');
+            String mimeType = (semicolon >= 0 ? contentType.substring(0, semicolon) : contentType).trim();
+            if (JSON.equalsIgnoreCase(mimeType)) {
+                return true;
+            }
+        }
+        writeError(response, HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Content-Type must be " + JSON);
+        return false;
+    }
+
+    // ---- 書き込み ----
+
+    /**
+     * 一覧を 1 件ずつ書き込む。レスポンスのバッファが一杯になるたびにクライアントへ送られる。
+     */
+    private void writeList(HttpServletRequest request, HttpServletResponse response, List<TodoItem> items)
+            throws IOException {
+        boolean ndjson = wantsNdjson(request);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(ndjson ? NDJSON : JSON);
+        response.setCharacterEncoding("UTF-8");
+        Writer out = response.getWriter();
+        if (!ndjson) {
+            out.write('[');
+        }
+        boolean first = true;
+        for (TodoItem item : items) {
+            if (!ndjson && !first) {
+                out.write(',');
+            }
+            writeTodo(out, item);
+            if (ndjson) {
+                out.write('\n');
+            }
+            first = false;
+        }
+        if (!ndjson) {
+            out.write(']');
+        }
+    }
+
+    private void writeItem(HttpServletResponse response, int status, TodoItem item) throws IOException {
+        response.setStatus(status);
+        response.setContentType(JSON);
+        response.setCharacterEncoding("UTF-8");
+        writeTodo(response.getWriter(), item);
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType(JSON);
+        response.setCharacterEncoding("UTF-8");
+        Writer out = response.getWriter();
+        out.write("{\"error\":");
+        Json.writeString(out, message);
+        out.write('}');
+    }
+
+    /**
+     * Todo 1 件を JSON オブジェクトとして書き込む。
+     */
+    static void writeTodo(Writer out, TodoItem item) throws IOException {
+        out.write("{\"id\":");
+        out.write(String.valueOf(item.getId()));
+        out.write(",\"title\":");
+        Json.writeString(out, item.getTitle());
+        out.write(",\"description\":");
+        Json.writeString(out, item.getDescription());
+        out.write(",\"completed\":");
+        out.write(item.isCompleted() ? "true" : "false");
+        out.write(",\"createdAt\":");
+        Json.writeString(out, item.getCreatedAt() != null ? item.getCreatedAt().toString() : null);
+        out.write('}');
+    }
+
+    // ---- 読み込み ----
+
+    /**
+     * リクエストボディを JSON オブジェクトとして読む。
+     * 読めない場合はエラーレスポンスを書き込んで {@code null} を返す。
+     */
+    private Map<String, Object> readBody(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding("UTF-8");
+        }
+        StringBuilder body = new StringBuilder();
+        char[] buffer = new char[4096];
+        Reader in = request.getReader();
+        for (int n; (n = in.read(buffer)) != -1; ) {
+            body.append(buffer, 0, n);
+            if (body.length() > MAX_BODY_CHARS) {
+                writeError(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "request body too large");
+                return null;
+            }
+        }
+        try {
+            return Json.parseObject(new StringReader(body.toString()));
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "invalid JSON: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String requireTitle(Object value) {
+        if (!(value instanceof String) || ((String) value).trim().isEmpty()) {
+            throw new IllegalArgumentException("title is required");
+        }
+        return ((String) value).trim();
+    }
+
+    private static String optionalString(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException(name + " must be a string");
+        }
+        return (String) value;
+    }
+
+    /** パスが {@code /api/todos} または {@code /api/todos/} か。 */
+    private static boolean isRoot(HttpServletRequest request) {
+        String path = request.getPathInfo();
+        return path == null || path.equals("/");
+    }
+
+    /** パス {@code /{id}} の ID。ルートまたは数値でない場合は {@code null}。 */
+    private static Long parseId(HttpServletRequest request) {
+        String path = request.getPathInfo();
+        if (path == null || path.length() < 2) {
+            return null;
+        }
+        try {
+            return Long.valueOf(path.substring(1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean wantsNdjson(HttpServletRequest request) {
+        if ("ndjson".equals(request.getParameter("format"))) {
+            return true;
+        }
+        String accept = request.getHeader("Accept");
+        return accept != null && accept.contains(NDJSON);
+    }
+}
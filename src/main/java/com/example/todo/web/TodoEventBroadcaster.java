@@ -0,0 +1,322 @@
+package com.example.todo.web;
+
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+import com.example.todo.model.TodoStoreListener;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 1 つのストアの変更を Server-Sent Events として接続中のクライアントへ配信する。
+ *
+ * <p>{@link TodoStoreListener} としてストアに登録され、追加・削除・完了切り替え・編集のたびに
+ * {@code added} / {@code removed} / {@code toggled} / {@code edited} のイベントを送ります。
+ * データは Todo と統計 ({@code {"todo": {...}, "stats": {"total", "completed", "pending"}}}) の JSON です。
+ * 一覧ページのフォームから送られた変更には、変更したタブの ID ({@code "tab"}, {@link TabOriginListener}) を付け、
+ * そのタブが自身の変更を別のタブの変更と区別できるようにします。</p>
+ *
+ * <p>通知はストアのロック内で呼ばれるため、ここではイベントを各接続のキューに積むだけで、
+ * レスポンスへの書き込みはコンテナのスレッド ({@link AsyncContext#start(Runnable)}) で行います。
+ * 書き込みが追いつかない接続 (未送信が {@value #MAX_PENDING} 件を超えた接続) は切断し、
+ * クライアントの再接続に任せます。</p>
+ *
+ * <p>イベント ID は {@code <エポック>-<連番>} の形式です。エポックは配信元ごとに無作為に決めるため、
+ * ストアを開き直した場合 (ジャーナルの再生・リストの切り替え・再起動) は別の配信元の ID と区別できます。
+ * 直近 {@value #HISTORY_SIZE} 件のイベントを保持し、再接続時の {@code Last-Event-ID} より後の
+ * イベントを再送します。エポックが異なる場合や保持している範囲より古い場合は {@code reset} イベントを送り、
+ * クライアントに再読み込みを促します。</p>
+ *
+ * <p>セッションが別のリストに切り替えた場合 ({@link #detach(TodoStore, String)})、
+ * そのセッションの接続を閉じ、新しいリストの配信元への再接続 ({@code reset}) を促します。</p>
+ */
+final class TodoEventBroadcaster implements TodoStoreListener {
+
+    /** 再送用に保持するイベント数 */
+    static final int HISTORY_SIZE = 256;
+
+    /** 1 接続あたりの未送信イベントの上限 */
+    static final int MAX_PENDING = 1024;
+
+    /** ストア → 配信元。ストアが参照されなくなると取り除かれる */
+    private static final Map<TodoStore, TodoEventBroadcaster> BROADCASTERS = new WeakHashMap<>();
+
+    /** 統計の取得用 (配信元からストアへの強い参照を持たない) */
+    private final WeakReference<TodoStore> store;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    /** 直近のイベント (イベント ID % HISTORY_SIZE の位置) */
+    private final String[] history = new String[HISTORY_SIZE];
+
+    /** イベント ID の接頭辞 (配信元ごとに異なる) */
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    /** 最後に発行したイベントの連番 */
+    private long lastEventId;
+
+    TodoEventBroadcaster(TodoStore store) {
+        this.store = new WeakReference<>(store);
+    }
+
+    /**
+     * ストアの配信元を返す。初回はストアのリスナーとして登録する。
+     */
+    static synchronized TodoEventBroadcaster of(TodoStore store) {
+        return BROADCASTERS.computeIfAbsent(store, key -> {
+            TodoEventBroadcaster broadcaster = new TodoEventBroadcaster(key);
+            key.addListener(broadcaster);
+            return broadcaster;
+        });
+    }
+
+    /**
+     * セッションがストアを使わなくなった (別のリストに切り替えた) 場合に、そのセッションの接続を閉じる。
+     *
+     * <p>クライアントは再接続時に新しいストアの配信元からエポックの異なる {@code reset} を受け取り、再読み込みを促します。</p>
+     *
+     * @param store     使わなくなったストア
+     * @param sessionId セッション ID
+     */
+    static void detach(TodoStore store, String sessionId) {
+        TodoEventBroadcaster broadcaster;
+        synchronized (TodoEventBroadcaster.class) {
+            broadcaster = BROADCASTERS.get(store);
+        }
+        if (broadcaster == null) {
+            return;
+        }
+        for (Subscriber subscriber : broadcaster.subscribers) {
+            if (sessionId.equals(subscriber.sessionId)) {
+                subscriber.close();
+            }
+        }
+    }
+
+    @Override
+    public void todoAdded(TodoItem item) {
+        publish("added", item);
+    }
+
+    @Override
+    public void todoRemoved(TodoItem item) {
+        publish("removed", item);
+    }
+
+    @Override
+    public void completedChanged(TodoItem item) {
+        publish("toggled", item);
+    }
+
+    @Override
+    public void textChanged(TodoItem item) {
+        publish("edited", item);
+    }
+
+    /**
+     * 接続を購読者に加える。
+     *
+     * @param context     非同期処理を開始したリクエストのコンテキスト
+     * @param lastEventId クライアントが最後に受け取ったイベント ID (初回接続は {@code null})
+     */
+    synchronized void subscribe(AsyncContext context, String lastEventId) {
+        Subscriber subscriber = new Subscriber(this, context);
+        context.addListener(subscriber);
+        // 先に登録する (再送中に書き込みエラーで閉じた場合は close() で取り除かれる)
+        subscribers.add(subscriber);
+        if (lastEventId == null) {
+            // 以降の再接続で Last-Event-ID を送らせるため、現在の ID だけを通知する
+            subscriber.send("id: " + eventId(this.lastEventId) + "\n\n");
+            return;
+        }
+        long received = sequence(lastEventId);
+        if (received < 0 || received > this.lastEventId || received < this.lastEventId - HISTORY_SIZE) {
+            // 開き直したストアや再起動前の配信元の ID の場合、または再送できる範囲を過ぎた場合
+            subscriber.send(frame(eventId(this.lastEventId), "reset", "{}"));
+        } else {
+            for (long id = received + 1; id <= this.lastEventId; id++) {
+                subscriber.send(history[(int) (id % HISTORY_SIZE)]);
+            }
+        }
+    }
+
+    /** 連番に対応するイベント ID。 */
+    String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * イベント ID の連番。この配信元の ID でない場合 (エポックが異なる・形式が不正) は {@code -1}。
+     */
+    private long sequence(String eventId) {
+        String prefix = epoch + "-";
+        if (!eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** 接続中の購読者数 (テスト・診断用)。 */
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    private synchronized void publish(String type, TodoItem item) {
+        long id = ++lastEventId;
+        String frame = frame(eventId(id), type, data(item, TabOriginListener.current()));
+        history[(int) (id % HISTORY_SIZE)] = frame;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.send(frame);
+        }
+    }
+
+    private String data(TodoItem item, String tab) {
+        StringWriter out = new StringWriter();
+        try {
+            out.write("{\"todo\":");
+            TodoApiServlet.writeTodo(out, item);
+            if (tab != null) {
+                // タブの ID は TabOriginListener が英数字とハイフンだけに限定している
+                out.write(",\"tab\":\"" + tab + "\"");
+            }
+            TodoStore current = store.get();
+            if (current != null) {
+                out.write(",\"stats\":{\"total\":" + current.size()
+                        + ",\"completed\":" + current.getCompletedCount()
+                        + ",\"pending\":" + current.getPendingCount() + "}");
+            }
+            out.write('}');
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * SSE のイベント 1 件 (データは 1 行の JSON)。
+     */
+    static String frame(String id, String type, String data) {
+        return "id: " + id + "\nevent: " + type + "\ndata: " + data + "\n\n";
+    }
+
+    /**
+     * 1 つの接続。イベントをキューに積み、書き込みは同時に 1 スレッドだけが行う。
+     */
+    private static final class Subscriber implements AsyncListener {
+
+        private final TodoEventBroadcaster broadcaster;
+        private final AsyncContext context;
+
+        /** 接続したセッションの ID (セッションがない場合は {@code null}) */
+        private final String sessionId;
+        private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(TodoEventBroadcaster broadcaster, AsyncContext context) {
+            this.broadcaster = broadcaster;
+            this.context = context;
+            ServletRequest request = context.getRequest();
+            HttpSession session = request instanceof HttpServletRequest
+                    ? ((HttpServletRequest) request).getSession(false) : null;
+            this.sessionId = session != null ? session.getId() : null;
+        }
+
+        void send(String frame) {
+            if (closed) {
+                return;
+            }
+            if (pending.incrementAndGet() > MAX_PENDING) {
+                close();
+                return;
+            }
+            queue.add(frame);
+            if (draining.compareAndSet(false, true)) {
+                context.start(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                PrintWriter out = context.getResponse().getWriter();
+                while (true) {
+                    for (String frame; (frame = queue.poll()) != null; ) {
+                        pending.decrementAndGet();
+                        out.write(frame);
+                    }
+                    out.flush();
+                    if (out.checkError()) {
+                        close();
+                        return;
+                    }
+                    draining.set(false);
+                    // 解除した直後に積まれたイベントを取りこぼさないよう、もう一度確認する
+                    if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            broadcaster.unsubscribe(this);
+            try {
+                context.complete();
+            } catch (IllegalStateException e) {
+                // 既に完了している
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            closed = true;
+            broadcaster.unsubscribe(this);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.todo.web;
+
+import com.example.todo.bean.TodoBean;
+
+import javax.enterprise.inject.spi.CDI;
+import javax.inject.Inject;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Todo の変更を Server-Sent Events で配信するエンドポイント ({@code /api/todos/events})。
+ *
+ * <p>一覧ページ ({@code todos.xhtml}) の {@code todoApp.connectEvents} が接続し、
+ * 別のタブや詳細ページでの追加・削除・完了切り替え・編集を、ページを再読み込みせずに該当する行へ反映します。
+ * 対象は {@link TodoApiServlet} と同じく、セッションの {@link TodoBean} が使用しているリストです。</p>
+ *
+ * <p>接続は非同期処理 ({@link AsyncContext}) で保持し、リクエストスレッドを占有しません。
+ * {@value #TIMEOUT_MILLIS} ミリ秒で接続を閉じ、クライアント ({@code EventSource}) の再接続時に
+ * {@code Last-Event-ID} より後のイベントを再送します。</p>
+ */
+public class TodoEventServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String EVENT_STREAM = "text/event-stream";
+
+    /** 1 回の接続を保持する時間 */
+    static final long TIMEOUT_MILLIS = 5 * 60 * 1000L;
+
+    /** クライアントが再接続するまでの待ち時間 */
+    static final int RETRY_MILLIS = 3000;
+
+    /** リクエストごとのセッションに解決されるプロキシ */
+    @Inject
+    private transient TodoBean todoBean;
+
+    @Override
+    public void init() {
+        if (todoBean == null) {
+            // コンテナがサーブレットへのインジェクションに対応していない場合
+            todoBean = CDI.current().select(TodoBean.class).get();
+        }
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        TodoBean bean = TodoApiServlet.selectList(todoBean, request, response);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(EVENT_STREAM);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        // リバースプロキシ (nginx) にバッファリングさせない
+        response.setHeader("X-Accel-Buffering", "no");
+        response.getWriter().write("retry: " + RETRY_MILLIS + "\n\n");
+        response.flushBuffer();
+
+        AsyncContext context = request.startAsync();
+        context.setTimeout(TIMEOUT_MILLIS);
+        TodoEventBroadcaster.of(bean.getStore()).subscribe(context, lastEventId(request));
+    }
+
+    /**
+     * 再接続時の {@code Last-Event-ID} ヘッダー (前後の空白を除く)。ない場合・空の場合は {@code null}。
+     * 形式の検証は配信元が行う (ほかの配信元の ID と同じく {@code reset} になる)。
+     */
+    static String lastEventId(HttpServletRequest request) {
+        String header = request.getHeader("Last-Event-ID");
+        if (header == null || header.trim().isEmpty()) {
+            return null;
+        }
+        return header.trim();
+    }
+
+    /** CDI 管理外 (単体テストなど) で操作対象の Bean を設定する。 */
+    void setTodoBean(TodoBean todoBean) {
+        this.todoBean = todoBean;
+    }
+}
@@ -0,0 +1,377 @@
+package com.example.todo.web;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 起動直後のウォームアップ。アプリ自身に HTTP でアクセスし、利用者と同じ画面遷移を使い捨てのセッションで実行する。
+ *
+ * <pre>
+ * 一覧 (GET todos.xhtml) → 追加 (todoBean.addTodo) → 詳細 (GET detail.xhtml?id=N)
+ *   → 保存 (todoDetailBean.save → リダイレクト → 一覧) → 完了切り替え (todoBean.toggleComplete, f:ajax)
+ *   → 削除 (todoBean.deleteTodo, f:ajax)
+ * </pre>
+ *
+ * <p>実際のコネクター・FacesServlet・フィルターを通るため、両方のビューの Facelets のコンパイル、
+ * アクションや値の EL 式の解決、部分描画と PRG の処理が最初の利用者より先に行われ、
+ * 繰り返すことで JIT コンパイルも進みます。追加した Todo は毎回削除し、最後にセッションを破棄します。</p>
+ *
+ * <p>ウォームアップのリクエストにはヘッダー {@value #TOKEN_HEADER} でトークンを付けます。
+ * {@link #isWarmupRequest(HttpServletRequest)} で判定し、永続化が有効な場合もジャーナルには記録しません。</p>
+ */
+public final class Warmup {
+
+    /** ウォームアップのリクエストに付けるヘッダー */
+    public static final String TOKEN_HEADER = "X-Todo-Warmup";
+
+    /** トークンを保持するアプリケーション属性 */
+    static final String TOKEN_ATTRIBUTE = Warmup.class.getName() + ".token";
+
+    /** ビューの状態を保持する hidden フィールドの名前 */
+    static final String VIEW_STATE = "javax.faces.ViewState";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+    private static final int MAX_REDIRECTS = 5;
+
+    private static final Pattern ATTRIBUTE = Pattern.compile("([\\w:.-]+)\\s*=\\s*\"([^\"]*)\"");
+    private static final Pattern INPUT = Pattern.compile("<input\\b([^>]*)>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TEXTAREA =
+            Pattern.compile("<textarea\\b([^>]*)>(.*?)</textarea>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern TODO_ID = Pattern.compile("data-todo-id=\"(\\d+)\"");
+
+    /** f:ajax のボタンの onclick から execute / render を取り出す (mojarra.ab(this,event,'action',execute,render,...)) */
+    private static final Pattern AJAX_BUTTON =
+            Pattern.compile("mojarra\\.ab\\(this,event,'action',(0|'[^']*'),(0|'[^']*')");
+
+    /** 部分描画の応答に含まれるビューの状態の更新 */
+    private static final Pattern VIEW_STATE_UPDATE = Pattern.compile(
+            "<update id=\"[^\"]*" + Pattern.quote(VIEW_STATE) + "[^\"]*\"><!\\[CDATA\\[(.*?)]]></update>",
+            Pattern.DOTALL);
+
+    private final HttpClient http;
+    private final URI base;
+    private final URI endSession;
+    private final String token;
+    private final Map<String, String> cookies = new LinkedHashMap<>();
+
+    /**
+     * @param base       アプリの URL (末尾の {@code /} を含む)
+     * @param endSession 使い捨てのセッションを破棄する URL ({@link ReadinessServlet})
+     * @param token      ウォームアップのリクエストを識別するトークン
+     */
+    Warmup(URI base, URI endSession, String token) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(TIMEOUT)
+                .build();
+        this.base = base;
+        this.endSession = endSession;
+        this.token = token;
+    }
+
+    /**
+     * リクエストがウォームアップによるものかどうか (トークンが一致するかどうか)。
+     */
+    public static boolean isWarmupRequest(HttpServletRequest request) {
+        String header = request.getHeader(TOKEN_HEADER);
+        if (header == null) {
+            return false;
+        }
+        ServletContext context = request.getServletContext();
+        Object token = context != null ? context.getAttribute(TOKEN_ATTRIBUTE) : null;
+        return header.equals(token);
+    }
+
+    /**
+     * 画面遷移を指定した回数繰り返し、最後にセッションを破棄する。
+     *
+     * @throws IOException 応答がエラーの場合や、期待するフォーム・行がない場合
+     */
+    void run(int iterations) throws IOException, InterruptedException {
+        try {
+            for (int i = 1; i <= iterations; i++) {
+                runOnce("warmup-" + i);
+            }
+        } finally {
+            if (!cookies.isEmpty()) {
+                send(HttpRequest.newBuilder(endSession).GET());
+            }
+        }
+    }
+
+    private void runOnce(String title) throws IOException, InterruptedException {
+        String list = get("todos.xhtml");
+
+        Form add = Form.parse(list, "addForm");
+        add.fields.put("addForm:newTitle", title);
+        add.fields.put("addForm:newDesc", "ウォームアップで追加した Todo");
+        String added = submit(add, add.button("btn-primary"));
+        long id = findTodoId(added, title);
+        if (id < 0) {
+            throw new IOException("追加した Todo (" + title + ") が一覧にありません");
+        }
+
+        String detail = get("detail.xhtml?id=" + id);
+
+        Form edit = Form.parse(detail, "editForm");
+        edit.fields.put("editForm:editTitle", title + "-edited");
+        edit.fields.put("editForm:editDesc", "ウォームアップで編集した Todo");
+        String saved = submit(edit, edit.button("btn-primary"));
+
+        Form listForm = Form.parse(saved, "listForm");
+        ajax(listForm, rowButton(saved, id, "btn-toggle"));
+        ajax(listForm, rowButton(saved, id, "btn-danger"));
+    }
+
+    private String get(String path) throws IOException, InterruptedException {
+        return follow(send(HttpRequest.newBuilder(base.resolve(path)).GET()));
+    }
+
+    private String submit(Form form, Map<String, String> button) throws IOException, InterruptedException {
+        Map<String, String> fields = new LinkedHashMap<>(form.fields);
+        fields.put(button.get("name"), button.getOrDefault("value", ""));
+        return follow(send(post(form, fields)));
+    }
+
+    /**
+     * f:ajax のボタンを押した場合と同じ部分描画のリクエストを送信し、フォームのビューの状態を更新する。
+     */
+    private void ajax(Form form, Map<String, String> button) throws IOException, InterruptedException {
+        String source = button.get("id");
+        Matcher matcher = AJAX_BUTTON.matcher(button.getOrDefault("onclick", "").replace("\\'", "'"));
+        if (source == null || !matcher.find()) {
+            throw new IOException("f:ajax のボタンではありません: " + button);
+        }
+        Map<String, String> fields = new LinkedHashMap<>(form.fields);
+        fields.put("javax.faces.source", source);
+        fields.put("javax.faces.partial.event", "click");
+        fields.put("javax.faces.partial.execute", ajaxTargets(matcher.group(1), source));
+        fields.put("javax.faces.partial.render", ajaxTargets(matcher.group(2), ""));
+        fields.put("javax.faces.behavior.event", "action");
+        fields.put("javax.faces.partial.ajax", "true");
+
+        HttpResponse<String> response = send(post(form, fields).header("Faces-Request", "partial/ajax"));
+        String body = response.body();
+        if (response.statusCode() != 200 || !body.contains("<partial-response") || body.contains("<error>")) {
+            throw new IOException("部分描画の応答がエラーです (" + response.statusCode() + ")");
+        }
+        Matcher viewState = VIEW_STATE_UPDATE.matcher(body);
+        if (viewState.find()) {
+            form.fields.put(VIEW_STATE, viewState.group(1));
+        }
+    }
+
+    private HttpRequest.Builder post(Form form, Map<String, String> fields) {
+        StringBuilder body = new StringBuilder();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (body.length() > 0) {
+                body.append('&');
+            }
+            body.append(URLEncoder.encode(field.getKey(), StandardCharsets.UTF_8))
+                    .append('=')
+                    .append(URLEncoder.encode(field.getValue(), StandardCharsets.UTF_8));
+        }
+        return HttpRequest.newBuilder(base.resolve(form.action))
+                .header("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        request.timeout(TIMEOUT).header(TOKEN_HEADER, token);
+        if (!cookies.isEmpty()) {
+            StringBuilder header = new StringBuilder();
+            for (Map.Entry<String, String> cookie : cookies.entrySet()) {
+                if (header.length() > 0) {
+                    header.append("; ");
+                }
+                header.append(cookie.getKey()).append('=').append(cookie.getValue());
+            }
+            request.header("Cookie", header.toString());
+        }
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        for (String setCookie : response.headers().allValues("Set-Cookie")) {
+            storeCookie(setCookie);
+        }
+        return response;
+    }
+
+    private String follow(HttpResponse<String> response) throws IOException, InterruptedException {
+        for (int redirects = 0; isRedirect(response.statusCode()); redirects++) {
+            String location = response.headers().firstValue("Location").orElse(null);
+            if (location == null || redirects == MAX_REDIRECTS) {
+                throw new IOException("リダイレクトを辿れません: " + response.uri());
+            }
+            response = send(HttpRequest.newBuilder(response.uri().resolve(location)).GET());
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException(response.uri() + " がエラーを返しました (" + response.statusCode() + ")");
+        }
+        return response.body();
+    }
+
+    private static boolean isRedirect(int status) {
+        return status == 301 || status == 302 || status == 303;
+    }
+
+    /** Set-Cookie を保持する (Max-Age=0 による削除だけを扱う。Flash の Cookie は読み込み後に削除される)。 */
+    private void storeCookie(String setCookie) {
+        String[] parts = setCookie.split(";");
+        int equals = parts[0].indexOf('=');
+        if (equals <= 0) {
+            return;
+        }
+        String name = parts[0].substring(0, equals).trim();
+        boolean expired = false;
+        for (int i = 1; i < parts.length; i++) {
+            expired |= parts[i].trim().equalsIgnoreCase("Max-Age=0");
+        }
+        if (expired) {
+            cookies.remove(name);
+        } else {
+            cookies.put(name, parts[0].substring(equals + 1).trim());
+        }
+    }
+
+    /**
+     * 一覧ページの {@code data-todo-id} の行のうち、{@code text} を含む行の Todo ID を返す。
+     *
+     * @return Todo ID。見つからない場合は {@code -1}
+     */
+    static long findTodoId(String html, String text) {
+        int position = html.indexOf(text);
+        long id = -1;
+        Matcher matcher = TODO_ID.matcher(html);
+        while (position >= 0 && matcher.find() && matcher.start() < position) {
+            id = Long.parseLong(matcher.group(1));
+        }
+        return id;
+    }
+
+    /**
+     * 一覧ページの指定した Todo の行にあるボタンのうち、指定したクラスを持つものを返す。
+     */
+    static Map<String, String> rowButton(String html, long todoId, String styleClass) throws IOException {
+        int start = html.indexOf("data-todo-id=\"" + todoId + "\"");
+        if (start >= 0) {
+            int end = html.indexOf("data-todo-id=\"", start + 1);
+            for (Map<String, String> input : inputs(html.substring(start, end >= 0 ? end : html.length()))) {
+                if ("submit".equalsIgnoreCase(input.get("type")) && hasClass(input, styleClass)) {
+                    return input;
+                }
+            }
+        }
+        throw new IOException("Todo " + todoId + " の行にボタン (" + styleClass + ") がありません");
+    }
+
+    private static List<Map<String, String>> inputs(String html) {
+        List<Map<String, String>> inputs = new ArrayList<>();
+        Matcher matcher = INPUT.matcher(html);
+        while (matcher.find()) {
+            inputs.add(attributes(matcher.group(1)));
+        }
+        return inputs;
+    }
+
+    private static Map<String, String> attributes(String tag) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        Matcher matcher = ATTRIBUTE.matcher(tag);
+        while (matcher.find()) {
+            attributes.put(matcher.group(1).toLowerCase(), unescape(matcher.group(2)));
+        }
+        return attributes;
+    }
+
+    private static boolean hasClass(Map<String, String> attributes, String styleClass) {
+        return (" " + attributes.getOrDefault("class", "") + " ").contains(" " + styleClass + " ");
+    }
+
+    /** 属性値の文字参照を戻す (ウォームアップで参照する値に含まれるものだけ) */
+    private static String unescape(String text) {
+        return text.replace("&#39;", "'")
+                .replace("&quot;", "\"")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&amp;", "&");
+    }
+
+    /** mojarra.ab の execute / render 引数 (0 は既定値) を送信する値に変換する。 */
+    private static String ajaxTargets(String argument, String defaultValue) {
+        return argument.equals("0") ? defaultValue : argument.substring(1, argument.length() - 1);
+    }
+
+    /**
+     * ページから取り出したフォーム (送信するフィールドと送信ボタン)。
+     */
+    static final class Form {
+
+        final String action;
+        final Map<String, String> fields = new LinkedHashMap<>();
+        final List<Map<String, String>> buttons = new ArrayList<>();
+
+        private Form(String action) {
+            this.action = action;
+        }
+
+        /**
+         * 指定した ID の {@code form} 要素から、hidden フィールド (フォーム ID・ビューの状態)・入力欄・送信ボタンを取り出す。
+         *
+         * @throws IOException フォームがない場合 (エラーページや想定外のページ)
+         */
+        static Form parse(String html, String id) throws IOException {
+            Matcher matcher = Pattern.compile("<form\\b([^>]*\\bid=\"" + Pattern.quote(id) + "\"[^>]*)>(.*?)</form>",
+                    Pattern.CASE_INSENSITIVE | Pattern.DOTALL).matcher(html);
+            if (!matcher.find()) {
+                throw new IOException("フォーム " + id + " がありません");
+            }
+            Form form = new Form(attributes(matcher.group(1)).getOrDefault("action", ""));
+            String body = matcher.group(2);
+            for (Map<String, String> input : inputs(body)) {
+                String type = input.getOrDefault("type", "text").toLowerCase();
+                String name = input.get("name");
+                if (name == null || type.equals("checkbox") || type.equals("radio")) {
+                    continue;
+                }
+                if (type.equals("submit")) {
+                    form.buttons.add(input);
+                } else {
+                    form.fields.put(name, input.getOrDefault("value", ""));
+                }
+            }
+            Matcher textarea = TEXTAREA.matcher(body);
+            while (textarea.find()) {
+                String name = attributes(textarea.group(1)).get("name");
+                if (name != null) {
+                    form.fields.put(name, unescape(textarea.group(2)));
+                }
+            }
+            return form;
+        }
+
+        /**
+         * 指定したクラスを持つ最初の送信ボタンの属性を返す。
+         */
+        Map<String, String> button(String styleClass) throws IOException {
+            for (Map<String, String> button : buttons) {
+                if (hasClass(button, styleClass)) {
+                    return button;
+                }
+            }
+            throw new IOException("フォーム " + action + " にボタン (" + styleClass + ") がありません");
+        }
+    }
+}
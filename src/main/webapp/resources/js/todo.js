@@ -0,0 +1,120 @@
+/*
+ * todos.xhtml のクライアント処理。
+ *
+ * 行の要素は DOM から取り除かない。一覧の行のクライアント ID は行番号で決まるため、
+ * クライアント側で行を取り除くと、後ろの行のボタンがサーバーの別の行番号を指してしまう。
+ * 削除ボタンは f:ajax で一覧 (フォーム全体) を部分描画する。
+ */
+var todoApp = todoApp || {};
+
+/**
+ * このタブ (ページの表示) の ID。フォームの hidden 項目 (.todo-tab) で送り、
+ * 変更のイベントの tab と一致すれば自身の変更として扱う。
+ */
+todoApp.tabId = Date.now().toString(36) + '-' + Math.random().toString(36).slice(2, 10);
+
+/**
+ * フォームの hidden 項目にタブの ID を設定する。f:ajax でフォームが描き直されると
+ * 項目も描き直されるため、部分描画の完了ごとに設定し直す。
+ */
+todoApp.markForms = function () {
+    var inputs = document.querySelectorAll('input.todo-tab');
+    for (var i = 0; i < inputs.length; i++) {
+        inputs[i].value = todoApp.tabId;
+    }
+};
+
+/**
+ * 変更の配信 (Server-Sent Events) に接続する。
+ *
+ * 別のタブや詳細ページで完了切り替え・編集された Todo を、表示中の行
+ * (data-todo-id 属性) と統計バッジへ反映する。追加された Todo は行の描画に
+ * JSF のコンポーネントが必要なため、削除された Todo は行を取り除くと後ろの行の
+ * クライアント ID がずれるため、どちらも再読み込みを促す通知を表示する。
+ * このタブ自身の追加・削除 (イベントの tab が一致) は応答でページが描き直されるため通知しない。
+ * 切断時は EventSource が Last-Event-ID を付けて自動で再接続する。
+ *
+ * @param url 配信のエンドポイント (/api/todos/events)
+ */
+todoApp.connectEvents = function (url) {
+    todoApp.markForms();
+    if (typeof jsf !== 'undefined') {
+        jsf.ajax.addOnEvent(function (data) {
+            if (data.status === 'success') {
+                todoApp.markForms();
+            }
+        });
+    }
+    if (typeof EventSource === 'undefined') {
+        return;
+    }
+    var source = new EventSource(url);
+    ['added', 'removed', 'toggled', 'edited', 'reset'].forEach(function (type) {
+        source.addEventListener(type, function (event) {
+            todoApp.applyEvent(type, JSON.parse(event.data));
+        });
+    });
+};
+
+/**
+ * 1 件のイベントをページへ反映する。
+ *
+ * @param type イベントの種類 (added / removed / toggled / edited / reset)
+ * @param data {todo: {...}, stats: {total, completed, pending}, tab: 変更したタブの ID (ある場合)}
+ */
+todoApp.applyEvent = function (type, data) {
+    if (data.stats) {
+        todoApp.setStat('total', data.stats.total);
+        todoApp.setStat('completed', data.stats.completed);
+        todoApp.setStat('pending', data.stats.pending);
+    }
+    if (type === 'reset') {
+        document.getElementById('liveNotice').hidden = false;
+        return;
+    }
+    if (type === 'added' || type === 'removed') {
+        if (data.tab !== todoApp.tabId) {
+            document.getElementById('liveNotice').hidden = false;
+        }
+        return;
+    }
+    var row = document.querySelector('.todo-item[data-todo-id="' + data.todo.id + '"]');
+    if (!row) {
+        return;
+    }
+    if (type === 'toggled') {
+        var completed = data.todo.completed;
+        row.classList.toggle('item-completed', completed);
+        row.classList.toggle('item-pending', !completed);
+        var button = row.querySelector('.btn-toggle');
+        button.value = completed ? '✓' : '○';
+        button.classList.toggle('toggle-done', completed);
+        button.classList.toggle('toggle-open', !completed);
+        row.querySelector('.todo-title').classList.toggle('strikethrough', completed);
+    } else if (type === 'edited') {
+        row.querySelector('.todo-title').textContent = data.todo.title;
+        var desc = row.querySelector('.todo-desc');
+        if (!data.todo.description) {
+            if (desc) {
+                desc.parentNode.removeChild(desc);
+            }
+        } else {
+            if (!desc) {
+                desc = document.createElement('p');
+                desc.className = 'todo-desc';
+                row.appendChild(desc);
+            }
+            desc.textContent = data.todo.description;
+        }
+    }
+};
+
+/**
+ * 統計バッジの件数 (末尾の数値) を置き換える。
+ */
+todoApp.setStat = function (name, count) {
+    var badge = document.querySelector('#stats .' + name);
+    if (badge) {
+        badge.textContent = badge.textContent.replace(/\d+$/, count);
+    }
+};
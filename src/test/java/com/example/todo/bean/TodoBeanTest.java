@@ -1,6 +1,7 @@
 package com.example.todo.bean;
 
 import com.example.todo.model.TodoItem;
+import com.example.todo.web.FragmentCache;
 import org.junit.jupiter.api.*;
 import org.mockito.MockedStatic;
 
@@ -8,7 +9,10 @@ import javax.faces.application.FacesMessage;
 import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
 import javax.faces.context.Flash;
+import javax.faces.event.PhaseId;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,8 +26,12 @@ import static org.mockito.Mockito.*;
  *   <li>{@code addTodo}: 正常・バリデーションエラー・トリム処理</li>
  *   <li>{@code deleteTodo}: 存在 ID / 非存在 ID</li>
  *   <li>{@code toggleComplete}: 完了⇔未完了の切り替え</li>
- *   <li>{@code viewDetail}: FlashContainer への格納とナビゲーション</li>
+ *   <li>{@code completeSelected} / {@code deleteSelected} / {@code clearCompleted}: 一括操作</li>
+ *   <li>{@code findTodo}: ID インデックスによる検索</li>
+ *   <li>{@code viewDetail}: Todo ID を含むナビゲーション結果 (Flash を使用しないこと)</li>
  *   <li>{@code getCompletedCount} / {@code getPendingCount}: 件数集計</li>
+ *   <li>ページング: ページ番号・ページサイズ・{@link TodoPageModel}</li>
+ *   <li>検索: 検索語による絞り込みと追加・削除・編集の反映</li>
  * </ul>
  *
  * <p>{@link FacesContext#getCurrentInstance()} は static メソッドのため
@@ -385,6 +393,40 @@ class TodoBeanTest {
                         msg.getSeverity() == FacesMessage.SEVERITY_INFO
                     ));
         }
+
+        @Test
+        @DisplayName("正常系: 行の Todo と異なる todoId が送信されたとき、送信された ID の Todo が削除されること")
+        void deleteTodo_requestedIdDiffers_deletesRequestedTodo() {
+            // Given: 表示中のページの行の並びが古く、行番号からは 1 件目が選ばれる
+            Long rowId = bean.getTodoList().get(0).getId();
+            Long clickedId = bean.getTodoList().get(1).getId();
+            when(mockExtCtx.getRequestParameterMap())
+                    .thenReturn(Map.of(TodoBean.TODO_ID_PARAM, String.valueOf(clickedId)));
+
+            // When
+            bean.deleteTodo(rowId);
+
+            // Then
+            assertNull(bean.findTodo(clickedId), "ボタンを押した行の Todo が削除されること");
+            assertNotNull(bean.findTodo(rowId), "行番号から選ばれた Todo は削除されないこと");
+        }
+
+        @Test
+        @DisplayName("異常系: 既に削除された Todo の削除ボタンを押したとき、WARN メッセージが追加されること")
+        void deleteTodo_alreadyDeleted_addsWarnMessage() {
+            // Given
+            Long targetId = bean.getTodoList().get(0).getId();
+            bean.removeTodo(targetId);
+
+            // When
+            bean.deleteTodo(targetId);
+
+            // Then
+            verify(mockContext, times(1))
+                    .addMessage(isNull(), argThat(msg ->
+                        msg.getSeverity() == FacesMessage.SEVERITY_WARN
+                    ));
+        }
     }
 
     // =========================================================================
@@ -454,67 +496,118 @@ class TodoBeanTest {
             assertEquals(originalState, item.isCompleted(),
                     "toggleComplete を 2 回実行すると元の状態に戻ること");
         }
+
+        @Test
+        @DisplayName("正常系: 行の Todo と異なる todoId が送信されたとき、送信された ID の Todo が切り替わること")
+        void toggleComplete_requestedIdDiffers_togglesRequestedTodo() {
+            // Given: 表示中のページの行の並びが古く、行番号からは 1 件目が選ばれる
+            TodoItem rowItem = bean.getTodoList().get(0);
+            TodoItem clicked = bean.getTodoList().get(1);
+            when(mockExtCtx.getRequestParameterMap())
+                    .thenReturn(Map.of(TodoBean.TODO_ID_PARAM, String.valueOf(clicked.getId())));
+
+            // When
+            bean.toggleComplete(rowItem);
+
+            // Then
+            assertTrue(clicked.isCompleted(), "ボタンを押した行の Todo が完了になること");
+            assertFalse(rowItem.isCompleted(), "行番号から選ばれた Todo は変わらないこと");
+        }
     }
 
     // =========================================================================
-    // viewDetail
+    // findTodo
     // =========================================================================
 
     @Nested
-    @DisplayName("viewDetail のテスト")
-    class ViewDetailTest {
+    @DisplayName("findTodo のテスト")
+    class FindTodoTest {
 
         @Test
-        @DisplayName("正常系: viewDetail は 'detail?faces-redirect=true' を返すこと")
-        void viewDetail_returnsDetailRedirect() {
-            // Given: Todo を 1 件用意する
-            TodoItem todo = new TodoItem(1L, "タスク", "説明");
+        @DisplayName("正常系: 存在する ID を指定したとき、該当 Todo が返ること")
+        void findTodo_existingId_returnsItem() {
+            // Given
+            TodoItem first = bean.getTodoList().get(0);
 
             // When
-            String result = bean.viewDetail(todo);
+            TodoItem found = bean.findTodo(first.getId());
 
             // Then
-            assertEquals("detail?faces-redirect=true", result,
-                    "viewDetail は 'detail?faces-redirect=true' を返すこと");
+            assertSame(first, found,
+                    "存在する ID を指定した場合、リスト内の同一 Todo が返ること");
+        }
+
+        @Test
+        @DisplayName("正常系: 存在しない ID を指定したとき、null が返ること")
+        void findTodo_nonExistingId_returnsNull() {
+            // Given / When / Then
+            assertNull(bean.findTodo(9999L),
+                    "存在しない ID を指定した場合、null が返ること");
         }
 
         @Test
-        @DisplayName("正常系: viewDetail 後、Flash に 'selectedTodo' が格納されること")
-        void viewDetail_putsSelectedTodoInFlash() {
+        @DisplayName("正常系: リスト内の Todo を toggleComplete すると、ストア上の Todo が切り替わること")
+        void toggleComplete_storedItem_togglesStoredItem() {
             // Given
-            TodoItem todo = new TodoItem(1L, "タスク", "説明");
+            TodoItem first = bean.getTodoList().get(0);
 
             // When
-            bean.viewDetail(todo);
+            bean.toggleComplete(first);
 
-            // Then: flash.put("selectedTodo", todo) が呼ばれること
-            verify(mockFlash).put("selectedTodo", todo);
+            // Then
+            assertTrue(bean.findTodo(first.getId()).isCompleted(),
+                    "ストアに登録済みの Todo が完了状態になること");
         }
+    }
+
+    // =========================================================================
+    // viewDetail
+    // =========================================================================
+
+    @Nested
+    @DisplayName("viewDetail のテスト")
+    class ViewDetailTest {
 
         @Test
-        @DisplayName("正常系: viewDetail 後、Flash に 'selectedTodoId' が格納されること")
-        void viewDetail_putsSelectedTodoIdInFlash() {
-            // Given
+        @DisplayName("正常系: viewDetail は Todo ID をクエリに含む 'detail?faces-redirect=true&id=N' を返すこと")
+        void viewDetail_returnsDetailRedirectWithId() {
+            // Given: Todo を 1 件用意する
             TodoItem todo = new TodoItem(42L, "タスク", "説明");
 
             // When
-            bean.viewDetail(todo);
+            String result = bean.viewDetail(todo);
 
             // Then
-            verify(mockFlash).put("selectedTodoId", 42L);
+            assertEquals("detail?faces-redirect=true&id=42", result,
+                    "viewDetail は 'detail?faces-redirect=true&id=42' を返すこと");
         }
 
         @Test
-        @DisplayName("正常系: viewDetail 後、Flash の setKeepMessages(true) が呼ばれること")
-        void viewDetail_setsKeepMessagesTrue() {
+        @DisplayName("正常系: viewDetail は Flash を使用しないこと")
+        void viewDetail_doesNotUseFlash() {
             // Given
             TodoItem todo = new TodoItem(1L, "タスク", "説明");
 
             // When
             bean.viewDetail(todo);
 
+            // Then: Flash への格納 (セッションへの書き込み) が行われないこと
+            verifyNoInteractions(mockFlash);
+        }
+
+        @Test
+        @DisplayName("正常系: viewDetail の遷移先 ID で findTodo すると同じ Todo が取得できること")
+        void viewDetail_idResolvesToSameTodo() {
+            // Given: ストアに登録済みの Todo
+            TodoItem todo = bean.getTodoList().get(1);
+
+            // When
+            String result = bean.viewDetail(todo);
+            Long id = Long.valueOf(result.substring(result.indexOf("id=") + 3));
+
             // Then
-            verify(mockFlash).setKeepMessages(true);
+            assertSame(todo, bean.findTodo(id),
+                    "遷移先の ID からストアの同じ Todo が取得できること");
         }
     }
 
@@ -576,6 +669,361 @@ class TodoBeanTest {
             assertEquals((long) bean.getTodoList().size(), total,
                     "completedCount + pendingCount は getTodoList().size() と等しいこと");
         }
+
+        @Test
+        @DisplayName("正常系: 追加・切り替え・削除を繰り返しても件数が全件走査の結果と一致すること")
+        void count_consistentAfterMutations() {
+            // Given: 2 件追加し、1 件完了にする
+            bean.setNewTitle("タスクA");
+            bean.addTodo();
+            bean.setNewTitle("タスクB");
+            bean.addTodo();
+            TodoItem first = bean.getTodoList().get(0);
+            bean.toggleComplete(first);
+
+            // When: 完了済みの Todo を削除する
+            bean.deleteTodo(first.getId());
+
+            // Then
+            assertEquals(0L, bean.getCompletedCount(), "completedCount は 0 であること");
+            assertEquals(4L, bean.getPendingCount(), "pendingCount は 4 であること");
+            assertEquals(4, bean.getTotalCount(), "totalCount は 4 であること");
+            assertTrue(bean.verifyCounts(),
+                    "差分更新した件数が全件走査の結果と一致すること");
+        }
+    }
+
+    // =========================================================================
+    // ページング
+    // =========================================================================
+
+    @Nested
+    @DisplayName("ページングのテスト")
+    class PagingTest {
+
+        @Test
+        @DisplayName("初期状態: 1 ページ目・既定のページサイズであること")
+        void paging_defaults() {
+            // Given / When / Then
+            assertEquals(1, bean.getPage(), "初期状態のページは 1 であること");
+            assertEquals(TodoBean.DEFAULT_PAGE_SIZE, bean.getPageSize(),
+                    "初期状態のページサイズは既定値であること");
+            assertEquals(3, bean.getPageModel().getRowCount(),
+                    "初期データ 3 件が 1 ページ目に表示されること");
+        }
+
+        @Test
+        @DisplayName("正常系: ページサイズを指定すると、表示範囲がその件数に制限されること")
+        void setPageSize_limitsRows() {
+            // Given / When
+            bean.setPageSize(2);
+            bean.setPage(2);
+
+            // Then
+            TodoPageModel model = bean.getPageModel();
+            assertEquals(2, model.getPageCount(), "ページ数は 2 であること");
+            assertEquals(1, model.getRowCount(), "2 ページ目の行数は 1 であること");
+        }
+
+        @Test
+        @DisplayName("正常系: ページサイズは最大値に丸められること")
+        void setPageSize_clampedToMax() {
+            // Given / When
+            bean.setPageSize(10_000);
+
+            // Then
+            assertEquals(TodoBean.MAX_PAGE_SIZE, bean.getPageSize(),
+                    "ページサイズは MAX_PAGE_SIZE に丸められること");
+        }
+
+        @Test
+        @DisplayName("正常系: null を指定したとき、ページとページサイズが維持されること")
+        void setNull_keepsCurrentValues() {
+            // Given
+            bean.setPage(2);
+            bean.setPageSize(2);
+
+            // When: f:viewParam のパラメータが省略された場合
+            bean.setPage(null);
+            bean.setPageSize(null);
+
+            // Then
+            assertEquals(2, bean.getPage(), "ページが維持されること");
+            assertEquals(2, bean.getPageSize(), "ページサイズが維持されること");
+        }
+
+        @Test
+        @DisplayName("正常系: ページモデルの行位置がリクエスト間で共有されないこと")
+        void getPageModel_rowIndexNotShared() {
+            // Given: 一方のリクエストのモデルの行位置を進める
+            when(mockContext.getAttributes()).thenReturn(new HashMap<>());
+            TodoPageModel first = bean.getPageModel();
+            first.setRowIndex(2);
+
+            // When: 同じセッションの別のリクエスト
+            when(mockContext.getAttributes()).thenReturn(new HashMap<>());
+            TodoPageModel second = bean.getPageModel();
+
+            // Then
+            assertEquals(-1, second.getRowIndex(),
+                    "同時リクエストで行位置が干渉しないよう、別のモデルが返ること");
+        }
+
+        @Test
+        @DisplayName("正常系: 同じリクエストの中では同じページモデルが再利用されること")
+        void getPageModel_sameRequest_reused() {
+            // Given
+            when(mockContext.getAttributes()).thenReturn(new HashMap<>());
+            bean.setSearchQuery("レポート");
+
+            // When
+            TodoPageModel first = bean.getPageModel();
+            TodoPageModel second = bean.getPageModel();
+
+            // Then
+            assertSame(first, second, "検索と表示範囲の取得が参照ごとに繰り返されないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: ページ・検索語・ストアの内容が変わると、同じリクエストでもページモデルが作り直されること")
+        void getPageModel_inputsChanged_rebuilt() {
+            // Given
+            when(mockContext.getAttributes()).thenReturn(new HashMap<>());
+            bean.setPageSize(2);
+            TodoPageModel initial = bean.getPageModel();
+
+            // When / Then
+            bean.setPage(2);
+            TodoPageModel paged = bean.getPageModel();
+            assertNotSame(initial, paged, "ページの変更で作り直されること");
+            assertEquals(2, paged.getPage(), "変更後のページが反映されること");
+
+            bean.setSearchQuery("運動");
+            TodoPageModel searched = bean.getPageModel();
+            assertNotSame(paged, searched, "検索語の変更で作り直されること");
+            assertEquals(1, searched.getTotalCount(), "検索語が反映されること");
+
+            bean.setSearchQuery(null);
+            bean.setNewTitle("運動の記録をつける");
+            bean.addTodo();
+            TodoPageModel added = bean.getPageModel();
+            assertEquals(4, added.getTotalCount(), "アクションで追加した Todo が同じリクエストの描画に反映されること");
+        }
+
+        @Test
+        @DisplayName("境界値: 描画の開始後は、別のリクエストがストアを変更しても同じページモデルが返ること")
+        void getPageModel_rendering_notRebuiltOnConcurrentChange() {
+            // Given: 描画中に一度参照する
+            when(mockContext.getAttributes()).thenReturn(new HashMap<>());
+            when(mockContext.getCurrentPhaseId()).thenReturn(PhaseId.RENDER_RESPONSE);
+            TodoPageModel rows = bean.getPageModel();
+
+            // When: 別のリクエスト (別のタブ) が同じストアに追加する
+            bean.setNewTitle("別のタブの追加");
+            bean.addTodo();
+            TodoPageModel pager = bean.getPageModel();
+
+            // Then
+            assertSame(rows, pager, "行とページ送りが同じモデルから描画されること");
+            assertEquals(3, pager.getTotalCount(), "描画の開始時点の件数のままであること");
+        }
+
+        @Test
+        @DisplayName("正常系: addTodo 後、追加した Todo を含む末尾ページへ移動すること")
+        void addTodo_movesToLastPage() {
+            // Given
+            bean.setPageSize(2);
+            bean.setNewTitle("新規タスク");
+
+            // When
+            bean.addTodo();
+
+            // Then
+            TodoPageModel model = bean.getPageModel();
+            assertEquals(2, model.getPage(), "末尾ページ (2) に移動すること");
+            model.setRowIndex(model.getRowCount() - 1);
+            assertEquals("新規タスク", model.getRowData().getTitle(),
+                    "末尾ページの最終行が追加した Todo であること");
+        }
+    }
+
+    // =========================================================================
+    // 検索
+    // =========================================================================
+
+    @Nested
+    @DisplayName("検索のテスト")
+    class SearchTest {
+
+        @Test
+        @DisplayName("正常系: 検索語を設定すると、一致した Todo だけがページに表示されること")
+        void setSearchQuery_filtersPageModel() {
+            // Given / When
+            bean.setSearchQuery(" レポート ");
+
+            // Then
+            TodoPageModel model = bean.getPageModel();
+            assertTrue(bean.isSearching(), "検索中であること");
+            assertEquals("レポート", bean.getSearchQuery(), "前後の空白が除かれること");
+            assertEquals(1, model.getTotalCount(), "一致した 1 件だけが対象であること");
+            model.setRowIndex(0);
+            assertEquals("レポートを書く", model.getRowData().getTitle(), "一致した Todo が表示されること");
+        }
+
+        @Test
+        @DisplayName("正常系: 空文字列で検索を解除し、null では検索語を維持すること")
+        void setSearchQuery_emptyClears_nullKeeps() {
+            // Given
+            bean.setSearchQuery("運動");
+
+            // When: f:viewParam のパラメータが省略された場合
+            bean.setSearchQuery(null);
+
+            // Then
+            assertEquals("運動", bean.getSearchQuery(), "null では検索語が維持されること");
+
+            // When: 検索フォームを空で送信した場合
+            bean.setSearchQuery("");
+
+            // Then
+            assertFalse(bean.isSearching(), "空文字列では検索が解除されること");
+            assertEquals(3, bean.getPageModel().getTotalCount(), "全件が対象に戻ること");
+        }
+
+        @Test
+        @DisplayName("正常系: パラメータ q が空の場合は検索を解除し、q がない場合は検索語を維持すること")
+        void applySearchParameter_distinguishesEmptyAndAbsent() {
+            // Given
+            Map<String, String> parameters = new HashMap<>();
+            when(mockExtCtx.getRequestParameterMap()).thenReturn(parameters);
+            parameters.put("q", "運動");
+            bean.applySearchParameter();
+
+            // When: q のないリンク (ページ送りなど) で表示した場合
+            parameters.clear();
+            bean.applySearchParameter();
+
+            // Then
+            assertEquals("運動", bean.getSearchQuery(), "q がない場合は検索語が維持されること");
+
+            // When: 空の q (空文字列が null として扱われた場合を含む) で表示した場合
+            parameters.put("q", null);
+            bean.applySearchParameter();
+
+            // Then
+            assertFalse(bean.isSearching(), "q が空の場合は検索が解除されること");
+        }
+
+        @Test
+        @DisplayName("正常系: 削除・編集が検索結果に反映されること")
+        void search_reflectsDeleteAndEdit() {
+            // Given
+            bean.setSearchQuery("する");
+            assertEquals(2, bean.getPageModel().getTotalCount(), "初期状態では 2 件が一致すること");
+
+            // When
+            bean.deleteTodo(1L);
+            bean.findTodo(2L).edit("レポートを提出する", "");
+
+            // Then
+            TodoPageModel model = bean.getPageModel();
+            assertEquals(2, model.getTotalCount(), "削除した Todo が除かれ、編集した Todo が加わること");
+            model.setRowIndex(0);
+            assertEquals(2L, model.getRowData().getId(), "挿入順で先頭は ID 2 であること");
+        }
+
+        @Test
+        @DisplayName("正常系: addTodo 後は検索が解除され、追加した Todo が表示されること")
+        void addTodo_clearsSearch() {
+            // Given
+            bean.setSearchQuery("運動");
+            bean.setNewTitle("新規タスク");
+
+            // When
+            bean.addTodo();
+
+            // Then
+            assertFalse(bean.isSearching(), "検索が解除されること");
+            assertEquals(4, bean.getPageModel().getTotalCount(), "全件が対象になること");
+        }
+    }
+
+    // =========================================================================
+    // 一括操作
+    // =========================================================================
+
+    @Nested
+    @DisplayName("一括操作のテスト")
+    class BulkTest {
+
+        @Test
+        @DisplayName("正常系: completeSelected で選択した Todo だけが完了になり、選択が解除されること")
+        void completeSelected_completesSelectedItems() {
+            // Given
+            bean.getSelected().put(1L, true);
+            bean.getSelected().put(2L, false);
+            bean.getSelected().put(3L, true);
+
+            // When
+            bean.completeSelected();
+
+            // Then
+            assertTrue(bean.findTodo(1L).isCompleted(), "選択した ID 1 が完了になること");
+            assertFalse(bean.findTodo(2L).isCompleted(), "選択を外した ID 2 は変わらないこと");
+            assertTrue(bean.findTodo(3L).isCompleted(), "選択した ID 3 が完了になること");
+            assertTrue(bean.getSelectedIds().isEmpty(), "選択が解除されること");
+            verify(mockContext).addMessage(isNull(), argThat(msg ->
+                    msg.getSeverity() == FacesMessage.SEVERITY_INFO
+                            && msg.getDetail().startsWith("2 件")));
+        }
+
+        @Test
+        @DisplayName("正常系: deleteSelected で選択した Todo がまとめて削除されること")
+        void deleteSelected_removesSelectedItems() {
+            // Given
+            bean.getSelected().put(1L, true);
+            bean.getSelected().put(3L, true);
+
+            // When
+            bean.deleteSelected();
+
+            // Then
+            assertEquals(1, bean.getTotalCount(), "残りは 1 件であること");
+            assertNotNull(bean.findTodo(2L), "選択していない ID 2 が残ること");
+            assertTrue(bean.getSelectedIds().isEmpty(), "選択が解除されること");
+        }
+
+        @Test
+        @DisplayName("異常系: 選択がない場合、警告メッセージを表示して何も変更しないこと")
+        void bulkAction_nothingSelected_warns() {
+            // Given: 選択なし
+            // When
+            bean.completeSelected();
+            bean.deleteSelected();
+
+            // Then
+            assertEquals(3, bean.getTotalCount(), "件数が変わらないこと");
+            assertEquals(0, bean.getCompletedCount(), "完了件数が変わらないこと");
+            verify(mockContext, times(2)).addMessage(isNull(), argThat(msg ->
+                    msg.getSeverity() == FacesMessage.SEVERITY_WARN));
+        }
+
+        @Test
+        @DisplayName("正常系: clearCompleted で完了済みの Todo だけが削除され、その選択状態も取り除かれること")
+        void clearCompleted_removesCompletedItems() {
+            // Given
+            bean.findTodo(2L).setCompleted(true);
+            bean.getSelected().put(2L, true);
+            bean.getSelected().put(3L, true);
+
+            // When
+            bean.clearCompleted();
+
+            // Then
+            assertEquals(2, bean.getTotalCount(), "完了済みの 1 件が削除されること");
+            assertNull(bean.findTodo(2L), "完了済みの ID 2 が削除されること");
+            assertEquals(List.of(3L), bean.getSelectedIds(), "残っている Todo の選択は維持されること");
+        }
     }
 
     // =========================================================================
@@ -613,5 +1061,17 @@ class TodoBeanTest {
             assertEquals(expected, bean.getNewDescription(),
                     "setNewDescription で設定した値が getNewDescription で取得できること");
         }
+
+        @Test
+        @DisplayName("getRowCache: 同じセッションでは同じキャッシュが返されること")
+        void getRowCache_sameInstance() {
+            // When
+            FragmentCache first = bean.getRowCache();
+            FragmentCache second = bean.getRowCache();
+
+            // Then
+            assertNotNull(first, "キャッシュが生成されること");
+            assertSame(first, second, "同じキャッシュが返されること");
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.example.todo.bean;
 
 import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
 import org.junit.jupiter.api.*;
 import org.mockito.MockedStatic;
 
@@ -17,8 +18,9 @@ import static org.mockito.Mockito.*;
  *
  * <p>テスト観点:</p>
  * <ul>
- *   <li>{@code init}: Flash コンテナからの {@link TodoItem} 取得と編集フィールド初期化</li>
+ *   <li>{@code load}: ID による {@link TodoItem} の取得と編集フィールド初期化</li>
  *   <li>{@code save}: バリデーション・フィールド更新・ナビゲーション・FlashMessage</li>
+ *   <li>{@code save}: 表示後の別の変更・削除の検出 (楽観的排他制御)</li>
  *   <li>{@code cancel}: ナビゲーション結果</li>
  *   <li>各 Getter / Setter の入出力</li>
  * </ul>
@@ -35,6 +37,9 @@ class TodoDetailBeanTest {
     private ExternalContext mockExtCtx;
     private Flash mockFlash;
 
+    /** Todo の検索先 (セッションスコープの TodoBean) */
+    private TodoBean mockTodoBean;
+
     /** テスト対象 */
     private TodoDetailBean bean;
 
@@ -49,7 +54,10 @@ class TodoDetailBeanTest {
         when(mockContext.getExternalContext()).thenReturn(mockExtCtx);
         when(mockExtCtx.getFlash()).thenReturn(mockFlash);
 
+        mockTodoBean = mock(TodoBean.class);
+
         bean = new TodoDetailBean();
+        bean.setTodoBean(mockTodoBean);
     }
 
     @AfterEach
@@ -58,95 +66,117 @@ class TodoDetailBeanTest {
     }
 
     /**
-     * Flash コンテナに指定した {@link TodoItem} を格納して {@code bean.init()} を呼び出す
+     * 指定した {@link TodoItem} をストアに存在する状態にし、その ID で {@code bean.load()} を呼び出す
      * ヘルパーメソッド。
      */
-    private void initBeanWithTodo(TodoItem todo) {
-        when(mockFlash.get("selectedTodo")).thenReturn(todo);
-        bean.init();
+    private void loadBeanWithTodo(TodoItem todo) {
+        when(mockTodoBean.findTodo(todo.getId())).thenReturn(todo);
+        bean.setId(todo.getId());
+        bean.load();
     }
 
     // =========================================================================
-    // init
+    // load
     // =========================================================================
 
     @Nested
-    @DisplayName("init のテスト (FlashContainer からのデータ取得)")
-    class InitTest {
+    @DisplayName("load のテスト (ID による Todo の取得)")
+    class LoadTest {
 
         @Test
-        @DisplayName("正常系: Flash に TodoItem が存在するとき、selectedTodo が設定されること")
-        void init_flashHasTodo_selectedTodoIsSet() {
-            // Given: Flash に TodoItem を格納する
+        @DisplayName("正常系: ストアに存在する ID を指定したとき、selectedTodo が設定されること")
+        void load_existingId_selectedTodoIsSet() {
+            // Given: ID 1 の TodoItem がストアに存在する
             TodoItem todo = new TodoItem(1L, "タスク", "説明");
 
             // When
-            initBeanWithTodo(todo);
+            loadBeanWithTodo(todo);
 
             // Then
             assertNotNull(bean.getSelectedTodo(),
-                    "Flash に TodoItem がある場合、init 後に selectedTodo が設定されること");
-            assertEquals(1L, bean.getSelectedTodo().getId(),
-                    "Flash から取得した TodoItem の id が一致すること");
+                    "ストアに存在する ID の場合、load 後に selectedTodo が設定されること");
+            assertSame(todo, bean.getSelectedTodo(),
+                    "ストアが保持する TodoItem と同一のオブジェクトであること");
         }
 
         @Test
-        @DisplayName("正常系: Flash に TodoItem が存在するとき、editTitle が selectedTodo のタイトルで初期化されること")
-        void init_flashHasTodo_editTitleInitialized() {
+        @DisplayName("正常系: ストアに存在する ID を指定したとき、editTitle が selectedTodo のタイトルで初期化されること")
+        void load_existingId_editTitleInitialized() {
             // Given
             TodoItem todo = new TodoItem(1L, "買い物をする", "スーパーへ");
 
             // When
-            initBeanWithTodo(todo);
+            loadBeanWithTodo(todo);
 
             // Then
             assertEquals("買い物をする", bean.getEditTitle(),
-                    "init 後に editTitle が selectedTodo のタイトルで初期化されること");
+                    "load 後に editTitle が selectedTodo のタイトルで初期化されること");
         }
 
         @Test
-        @DisplayName("正常系: Flash に TodoItem が存在するとき、editDescription が selectedTodo の説明で初期化されること")
-        void init_flashHasTodo_editDescriptionInitialized() {
+        @DisplayName("正常系: ストアに存在する ID を指定したとき、editDescription が selectedTodo の説明で初期化されること")
+        void load_existingId_editDescriptionInitialized() {
             // Given
             TodoItem todo = new TodoItem(1L, "タスク", "詳細説明テキスト");
 
             // When
-            initBeanWithTodo(todo);
+            loadBeanWithTodo(todo);
 
             // Then
             assertEquals("詳細説明テキスト", bean.getEditDescription(),
-                    "init 後に editDescription が selectedTodo の説明で初期化されること");
+                    "load 後に editDescription が selectedTodo の説明で初期化されること");
         }
 
         @Test
-        @DisplayName("異常系: Flash が null を返すとき、selectedTodo が null のままであること")
-        void init_flashReturnsNull_selectedTodoIsNull() {
-            // Given: Flash の "selectedTodo" キーに null が格納されている
-            when(mockFlash.get("selectedTodo")).thenReturn(null);
+        @DisplayName("正常系: 同じ ID で再度 load したとき (再読み込み)、同じ Todo が表示されること")
+        void load_reload_sameTodo() {
+            // Given
+            TodoItem todo = new TodoItem(5L, "タスク", "説明");
+            loadBeanWithTodo(todo);
 
-            // When
-            bean.init();
+            // When: 新しいビュー (再読み込み) で同じ ID を指定する
+            TodoDetailBean reloaded = new TodoDetailBean();
+            reloaded.setTodoBean(mockTodoBean);
+            reloaded.setId(5L);
+            reloaded.load();
 
             // Then
-            assertNull(bean.getSelectedTodo(),
-                    "Flash が null を返す場合、selectedTodo は null のままであること");
+            assertSame(todo, reloaded.getSelectedTodo(),
+                    "再読み込みしても同じ TodoItem が取得されること");
+            verifyNoInteractions(mockFlash);
         }
 
         @Test
-        @DisplayName("異常系: Flash が null を返すとき、editTitle / editDescription が null のままであること")
-        void init_flashReturnsNull_editFieldsAreNull() {
-            // Given
-            when(mockFlash.get("selectedTodo")).thenReturn(null);
+        @DisplayName("異常系: ストアに存在しない ID を指定したとき、selectedTodo / 編集フィールドが null のままであること")
+        void load_unknownId_selectedTodoIsNull() {
+            // Given: ストアに ID 99 の Todo は存在しない
+            when(mockTodoBean.findTodo(99L)).thenReturn(null);
+            bean.setId(99L);
 
             // When
-            bean.init();
+            bean.load();
 
             // Then
+            assertNull(bean.getSelectedTodo(),
+                    "存在しない ID の場合、selectedTodo は null のままであること");
             assertNull(bean.getEditTitle(),
                     "selectedTodo が null の場合、editTitle は null のままであること");
             assertNull(bean.getEditDescription(),
                     "selectedTodo が null の場合、editDescription は null のままであること");
         }
+
+        @Test
+        @DisplayName("異常系: ID が指定されていないとき、ストアを検索せず selectedTodo が null のままであること")
+        void load_noId_selectedTodoIsNull() {
+            // Given: id パラメータなし
+            // When
+            bean.load();
+
+            // Then
+            assertNull(bean.getSelectedTodo(),
+                    "ID がない場合、selectedTodo は null のままであること");
+            verify(mockTodoBean, never()).findTodo(any());
+        }
     }
 
     // =========================================================================
@@ -160,7 +190,7 @@ class TodoDetailBeanTest {
         @Test
         @DisplayName("境界値: selectedTodo が null のとき、'todos?faces-redirect=true' を返すこと")
         void save_selectedTodoIsNull_returnsRedirect() {
-            // Given: init を呼ばず selectedTodo = null のまま
+            // Given: load を呼ばず selectedTodo = null のまま
             // When
             String result = bean.save();
 
@@ -184,7 +214,7 @@ class TodoDetailBeanTest {
         @DisplayName("異常系: editTitle が null のとき、null が返ること (ページ留まり)")
         void save_nullEditTitle_returnsNull() {
             // Given: selectedTodo を設定し、editTitle を null にする
-            initBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
+            loadBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
             bean.setEditTitle(null);
 
             // When
@@ -199,7 +229,7 @@ class TodoDetailBeanTest {
         @DisplayName("異常系: editTitle が空文字のとき、null が返ること")
         void save_emptyEditTitle_returnsNull() {
             // Given
-            initBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
+            loadBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
             bean.setEditTitle("");
 
             // When
@@ -214,7 +244,7 @@ class TodoDetailBeanTest {
         @DisplayName("異常系: editTitle が空白のみのとき、null が返ること")
         void save_blankEditTitle_returnsNull() {
             // Given
-            initBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
+            loadBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
             bean.setEditTitle("   ");
 
             // When
@@ -229,7 +259,7 @@ class TodoDetailBeanTest {
         @DisplayName("異常系: editTitle が空のとき、WARN メッセージが追加されること")
         void save_emptyEditTitle_addsWarnMessage() {
             // Given
-            initBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
+            loadBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
             bean.setEditTitle("");
 
             // When
@@ -247,7 +277,7 @@ class TodoDetailBeanTest {
         void save_validInput_updatesTodoTitle() {
             // Given
             TodoItem todo = new TodoItem(1L, "古いタイトル", "説明");
-            initBeanWithTodo(todo);
+            loadBeanWithTodo(todo);
             bean.setEditTitle("新しいタイトル");
             bean.setEditDescription("新しい説明");
 
@@ -264,7 +294,7 @@ class TodoDetailBeanTest {
         void save_validInput_updatesTodoDescription() {
             // Given
             TodoItem todo = new TodoItem(1L, "タスク", "古い説明");
-            initBeanWithTodo(todo);
+            loadBeanWithTodo(todo);
             bean.setEditTitle("タスク");
             bean.setEditDescription("新しい説明テキスト");
 
@@ -280,7 +310,7 @@ class TodoDetailBeanTest {
         @DisplayName("正常系: 有効な入力のとき、'todos?faces-redirect=true' が返ること")
         void save_validInput_returnsTodosRedirect() {
             // Given
-            initBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
+            loadBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
             bean.setEditTitle("更新タイトル");
             bean.setEditDescription("更新説明");
 
@@ -296,7 +326,7 @@ class TodoDetailBeanTest {
         @DisplayName("正常系: 有効な入力のとき、INFO メッセージが追加されること")
         void save_validInput_addsInfoMessage() {
             // Given
-            initBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
+            loadBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
             bean.setEditTitle("更新タイトル");
 
             // When
@@ -314,7 +344,7 @@ class TodoDetailBeanTest {
         void save_nullEditDescription_savedAsEmpty() {
             // Given
             TodoItem todo = new TodoItem(1L, "タスク", "説明");
-            initBeanWithTodo(todo);
+            loadBeanWithTodo(todo);
             bean.setEditTitle("タスク");
             bean.setEditDescription(null);
 
@@ -331,7 +361,7 @@ class TodoDetailBeanTest {
         void save_titleWithSpaces_isTrimmed() {
             // Given
             TodoItem todo = new TodoItem(1L, "旧タイトル", "説明");
-            initBeanWithTodo(todo);
+            loadBeanWithTodo(todo);
             bean.setEditTitle("  新タイトル  ");
             bean.setEditDescription("説明");
 
@@ -347,7 +377,7 @@ class TodoDetailBeanTest {
         @DisplayName("正常系: save 後、Flash の setKeepMessages(true) が呼ばれること")
         void save_validInput_setsKeepMessages() {
             // Given
-            initBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
+            loadBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
             bean.setEditTitle("更新タイトル");
 
             // When
@@ -356,6 +386,86 @@ class TodoDetailBeanTest {
             // Then
             verify(mockFlash).setKeepMessages(true);
         }
+
+        @Test
+        @DisplayName("異常系: 表示後に別の画面で変更されていた場合、上書きせず null を返し競合の警告を表示すること")
+        void save_changedAfterLoad_reportsConflict() {
+            // Given: 表示した後に別の画面でタイトルが変更される
+            TodoItem todo = new TodoItem(1L, "タスク", "説明");
+            loadBeanWithTodo(todo);
+            todo.setTitle("別の画面での変更");
+            bean.setEditTitle("この画面での変更");
+
+            // When
+            String result = bean.save();
+
+            // Then
+            assertNull(result, "競合した場合はページに留まること");
+            assertEquals("別の画面での変更", todo.getTitle(), "別の画面での変更が上書きされないこと");
+            assertTrue(bean.isConflict(), "競合として表示されること");
+            assertEquals("この画面での変更", bean.getEditTitle(), "入力内容が残っていること");
+            verify(mockContext).addMessage(isNull(), argThat(msg ->
+                    msg.getSeverity() == FacesMessage.SEVERITY_WARN));
+            verify(mockFlash, never()).setKeepMessages(true);
+        }
+
+        @Test
+        @DisplayName("正常系: 表示後に別の画面で完了状態だけが切り替えられた場合は競合とせず保存すること")
+        void save_toggledAfterLoad_saves() {
+            // Given: 表示した後に別のタブで完了にされる
+            TodoStore store = new TodoStore();
+            TodoItem todo = new TodoItem(store.nextId(), "タスク", "説明");
+            store.add(todo);
+            loadBeanWithTodo(todo);
+            store.toggle(todo.getId());
+            bean.setEditTitle("この画面での変更");
+
+            // When
+            String result = bean.save();
+
+            // Then
+            assertEquals("todos?faces-redirect=true", result, "一覧へリダイレクトすること");
+            assertEquals("この画面での変更", todo.getTitle(), "入力内容で更新されること");
+            assertTrue(todo.isCompleted(), "別の画面での完了切り替えが残ること");
+            assertFalse(bean.isConflict(), "競合として扱わないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: 競合を表示した後にもう一度保存すると、現在の内容に対する変更として保存されること")
+        void save_afterConflict_overwrites() {
+            // Given
+            TodoItem todo = new TodoItem(1L, "タスク", "説明");
+            loadBeanWithTodo(todo);
+            todo.setTitle("別の画面での変更");
+            bean.setEditTitle("この画面での変更");
+            bean.save();
+
+            // When
+            String result = bean.save();
+
+            // Then
+            assertEquals("todos?faces-redirect=true", result, "2 回目の保存は一覧へリダイレクトすること");
+            assertEquals("この画面での変更", todo.getTitle(), "入力内容で更新されること");
+            assertFalse(bean.isConflict(), "保存できた後は競合の表示が消えること");
+        }
+
+        @Test
+        @DisplayName("異常系: 表示後に別の画面で削除されていた場合、null を返しエラーメッセージを表示すること")
+        void save_deletedAfterLoad_reportsError() {
+            // Given: 表示した後にストアから削除される
+            loadBeanWithTodo(new TodoItem(1L, "タスク", "説明"));
+            when(mockTodoBean.findTodo(1L)).thenReturn(null);
+            bean.setEditTitle("この画面での変更");
+
+            // When
+            String result = bean.save();
+
+            // Then
+            assertNull(result, "削除されていた場合はページに留まること");
+            assertFalse(bean.isConflict(), "削除は競合 (現在の内容の表示) として扱わないこと");
+            verify(mockContext).addMessage(isNull(), argThat(msg ->
+                    msg.getSeverity() == FacesMessage.SEVERITY_ERROR));
+        }
     }
 
     // =========================================================================
@@ -392,7 +502,7 @@ class TodoDetailBeanTest {
         void cancel_doesNotModifySelectedTodo() {
             // Given: selectedTodo を設定する
             TodoItem todo = new TodoItem(1L, "タスク", "説明");
-            initBeanWithTodo(todo);
+            loadBeanWithTodo(todo);
             String originalTitle = todo.getTitle();
 
             // When
@@ -441,20 +551,20 @@ class TodoDetailBeanTest {
         }
 
         @Test
-        @DisplayName("getSelectedTodo: init で設定された TodoItem が取得できること")
+        @DisplayName("getSelectedTodo: load で設定された TodoItem が取得できること")
         void getSelectedTodo_afterInit_returnsExpectedTodo() {
             // Given
             TodoItem expected = new TodoItem(99L, "テストタスク", "テスト説明");
-            initBeanWithTodo(expected);
+            loadBeanWithTodo(expected);
 
             // When
             TodoItem actual = bean.getSelectedTodo();
 
             // Then
             assertNotNull(actual,
-                    "init 後に getSelectedTodo は null でないこと");
+                    "load 後に getSelectedTodo は null でないこと");
             assertEquals(99L, actual.getId(),
-                    "getSelectedTodo は init で Flash から取得した TodoItem を返すこと");
+                    "getSelectedTodo は load で ID から取得した TodoItem を返すこと");
         }
     }
 }
@@ -0,0 +1,219 @@
+package com.example.todo.bean;
+
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TodoPageModel} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>ページ情報: ページ数・範囲外ページの丸め・表示範囲の件数番号</li>
+ *   <li>{@code DataModel} としての行アクセス・{@code setWrappedData(null)} による切り離し</li>
+ *   <li>リスト (検索結果) の分割</li>
+ * </ul>
+ */
+@DisplayName("TodoPageModel のテスト")
+class TodoPageModelTest {
+
+    /** 25 件の Todo を保持するストア */
+    private TodoStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new TodoStore();
+        for (long id = 1; id <= 25; id++) {
+            store.add(new TodoItem(id, "タスク" + id, ""));
+        }
+    }
+
+    // =========================================================================
+    // ページ情報
+    // =========================================================================
+
+    @Nested
+    @DisplayName("ページ情報のテスト")
+    class PageInfoTest {
+
+        @Test
+        @DisplayName("正常系: 25 件をページサイズ 10 で表示すると 3 ページになること")
+        void pageCount_isCeilOfTotalDividedByPageSize() {
+            // Given / When
+            TodoPageModel model = new TodoPageModel(store, 1, 10);
+
+            // Then
+            assertEquals(3, model.getPageCount(), "ページ数は 3 であること");
+            assertEquals(25, model.getTotalCount(), "全件数は 25 であること");
+        }
+
+        @Test
+        @DisplayName("正常系: 最終ページの表示範囲が 21〜25 件目であること")
+        void lastPage_rowNumbers() {
+            // Given / When
+            TodoPageModel model = new TodoPageModel(store, 3, 10);
+
+            // Then
+            assertEquals(21, model.getFirstRowNumber(), "先頭は 21 件目であること");
+            assertEquals(25, model.getLastRowNumber(), "末尾は 25 件目であること");
+            assertTrue(model.isLastPage(), "最終ページであること");
+            assertFalse(model.isFirstPage(), "先頭ページではないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: ページ数を超えるページを指定したとき、最終ページに丸められること")
+        void pageBeyondLast_clampedToLastPage() {
+            // Given / When
+            TodoPageModel model = new TodoPageModel(store, 99, 10);
+
+            // Then
+            assertEquals(3, model.getPage(), "最終ページ (3) に丸められること");
+            assertEquals(5, model.getRowCount(), "最終ページの行数は 5 であること");
+        }
+
+        @Test
+        @DisplayName("正常系: 0 以下のページを指定したとき、先頭ページに丸められること")
+        void pageBelowFirst_clampedToFirstPage() {
+            // Given / When
+            TodoPageModel model = new TodoPageModel(store, 0, 10);
+
+            // Then
+            assertEquals(1, model.getPage(), "先頭ページ (1) に丸められること");
+            assertEquals(1, model.getPreviousPage(), "前ページも 1 であること");
+            assertEquals(2, model.getNextPage(), "次ページは 2 であること");
+        }
+
+        @Test
+        @DisplayName("正常系: ストアが空のとき、1 ページで表示範囲が 0 件であること")
+        void emptyStore_singleEmptyPage() {
+            // Given / When
+            TodoPageModel model = new TodoPageModel(new TodoStore(), 1, 10);
+
+            // Then
+            assertEquals(1, model.getPageCount(), "空の場合もページ数は 1 であること");
+            assertEquals(0, model.getFirstRowNumber(), "先頭の件数番号は 0 であること");
+            assertEquals(0, model.getRowCount(), "行数は 0 であること");
+        }
+    }
+
+    // =========================================================================
+    // DataModel
+    // =========================================================================
+
+    @Nested
+    @DisplayName("DataModel のテスト")
+    class DataModelTest {
+
+        @Test
+        @DisplayName("正常系: 2 ページ目の先頭行が 11 件目の Todo であること")
+        void rowData_secondPage_firstRow() {
+            // Given
+            TodoPageModel model = new TodoPageModel(store, 2, 10);
+
+            // When
+            model.setRowIndex(0);
+
+            // Then
+            assertTrue(model.isRowAvailable(), "行が存在すること");
+            assertEquals(11L, model.getRowData().getId(), "先頭行は ID 11 であること");
+            assertEquals(10, model.getRowCount(), "行数はページサイズと等しいこと");
+        }
+
+        @Test
+        @DisplayName("正常系: 行番号がページの範囲外のとき、isRowAvailable が false であること")
+        void rowIndexOutOfPage_notAvailable() {
+            // Given
+            TodoPageModel model = new TodoPageModel(store, 1, 10);
+
+            // When
+            model.setRowIndex(10);
+
+            // Then
+            assertFalse(model.isRowAvailable(), "ページ外の行は存在しないこと");
+            assertThrows(IllegalArgumentException.class, model::getRowData,
+                    "ページ外の行データは取得できないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: setWrappedData(null) で取得元から切り離されること")
+        void setWrappedDataNull_detaches() {
+            // Given
+            TodoPageModel model = new TodoPageModel(store, 1, 10);
+            model.setRowIndex(3);
+
+            // When
+            model.setWrappedData(null);
+
+            // Then
+            assertNull(model.getWrappedData(), "ラップしたデータは null であること");
+            assertEquals(-1, model.getRowCount(), "行数は不明 (-1) であること");
+            assertEquals(-1, model.getRowIndex(), "行位置は解除されること");
+            model.setRowIndex(0);
+            assertFalse(model.isRowAvailable(), "行は存在しないこと");
+        }
+
+        @Test
+        @DisplayName("異常系: setWrappedData に null 以外を渡すと UnsupportedOperationException が発生すること")
+        void setWrappedDataNonNull_unsupported() {
+            // Given
+            TodoPageModel model = new TodoPageModel(store, 1, 10);
+
+            // When / Then
+            assertThrows(UnsupportedOperationException.class, () -> model.setWrappedData(List.of()),
+                    "別のデータへの差し替えはサポートしないこと");
+        }
+    }
+
+    // =========================================================================
+    // リストの分割
+    // =========================================================================
+
+    @Nested
+    @DisplayName("リストの分割のテスト")
+    class ListSourceTest {
+
+        @Test
+        @DisplayName("正常系: 検索結果のリストをページに分割できること")
+        void listSource_pagedLikeStore() {
+            // Given: 25 件のうち 12 件の検索結果
+            TodoPageModel model = new TodoPageModel(store.asList().subList(3, 15), 2, 10);
+
+            // When
+            model.setRowIndex(0);
+
+            // Then
+            assertEquals(12, model.getTotalCount(), "全件数はリストの件数であること");
+            assertEquals(2, model.getPageCount(), "ページ数は 2 であること");
+            assertEquals(2, model.getRowCount(), "2 ページ目の行数は 2 であること");
+            assertEquals(14L, model.getRowData().getId(), "2 ページ目の先頭はリストの 11 件目であること");
+        }
+
+        @Test
+        @DisplayName("正常系: 空のリストのとき、1 ページで表示範囲が 0 件であること")
+        void emptyList_singleEmptyPage() {
+            // Given / When
+            TodoPageModel model = new TodoPageModel(List.of(), 3, 10);
+
+            // Then
+            assertEquals(1, model.getPage(), "先頭ページに丸められること");
+            assertEquals(0, model.getRowCount(), "行数は 0 であること");
+        }
+
+        @Test
+        @DisplayName("境界値: ページサイズが int の最大値でも、リストの全件が表示範囲になること")
+        void maxPageSize_noOverflow() {
+            // Given / When
+            TodoPageModel model = new TodoPageModel(store.asList().subList(3, 15), 1, Integer.MAX_VALUE);
+
+            // Then
+            assertEquals(12, model.getRowCount(), "行数はリストの件数であること");
+        }
+    }
+}
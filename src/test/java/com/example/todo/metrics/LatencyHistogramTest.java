@@ -0,0 +1,109 @@
+package com.example.todo.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link LatencyHistogram} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>件数・合計時間の記録</li>
+ *   <li>バケットの境界 (上限値ちょうどはそのバケットに入ること)</li>
+ *   <li>Prometheus のテキスト形式 (累積件数・+Inf・_sum・_count)</li>
+ * </ul>
+ */
+@DisplayName("LatencyHistogram のテスト")
+class LatencyHistogramTest {
+
+    /** テスト対象 */
+    private LatencyHistogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    private String exposition(String labels) throws IOException {
+        StringWriter out = new StringWriter();
+        histogram.writeTo(out, "test_seconds", labels);
+        return out.toString();
+    }
+
+    @Nested
+    @DisplayName("observe のテスト")
+    class ObserveTest {
+
+        @Test
+        @DisplayName("件数と合計時間が記録されること")
+        void countAndSum() {
+            // When
+            histogram.observe(1_000_000);
+            histogram.observe(3_000_000);
+
+            // Then
+            assertEquals(2, histogram.getCount(), "記録した件数であること");
+            assertEquals(4_000_000, histogram.getSumNanos(), "記録した時間の合計であること");
+        }
+
+        @Test
+        @DisplayName("負の値は 0 として記録されること")
+        void negativeAsZero() {
+            // When
+            histogram.observe(-5);
+
+            // Then
+            assertEquals(0, histogram.getSumNanos(), "合計に負の値が加算されないこと");
+            assertEquals(1, histogram.getCount(), "件数は数えられること");
+        }
+    }
+
+    @Nested
+    @DisplayName("writeTo のテスト")
+    class WriteToTest {
+
+        @Test
+        @DisplayName("バケットの件数が累積で出力され、上限値ちょうどはそのバケットに入ること")
+        void cumulativeBuckets() throws IOException {
+            // Given: 1ms ちょうど・3ms・20 秒
+            histogram.observe(1_000_000);
+            histogram.observe(3_000_000);
+            histogram.observe(20_000_000_000L);
+
+            // When
+            String text = exposition("view=\"/todos.xhtml\"");
+
+            // Then
+            assertTrue(text.contains("test_seconds_bucket{view=\"/todos.xhtml\",le=\"0.0005\"} 0\n"),
+                    "0.5ms 以下は 0 件であること: " + text);
+            assertTrue(text.contains("test_seconds_bucket{view=\"/todos.xhtml\",le=\"0.001\"} 1\n"),
+                    "上限値ちょうどの 1ms は 0.001 のバケットに入ること: " + text);
+            assertTrue(text.contains("test_seconds_bucket{view=\"/todos.xhtml\",le=\"0.005\"} 2\n"),
+                    "5ms 以下は累積で 2 件であること: " + text);
+            assertTrue(text.contains("test_seconds_bucket{view=\"/todos.xhtml\",le=\"10\"} 2\n"),
+                    "10 秒以下は 2 件であること: " + text);
+            assertTrue(text.contains("test_seconds_bucket{view=\"/todos.xhtml\",le=\"+Inf\"} 3\n"),
+                    "+Inf はすべての件数であること: " + text);
+            assertTrue(text.contains("test_seconds_count{view=\"/todos.xhtml\"} 3\n"), "_count が出力されること: " + text);
+            assertTrue(text.contains("test_seconds_sum{view=\"/todos.xhtml\"} 20.004\n"), "_sum が秒で出力されること: " + text);
+        }
+
+        @Test
+        @DisplayName("ラベルがない場合は波括弧なしで _sum / _count が出力されること")
+        void withoutLabels() throws IOException {
+            // When
+            String text = exposition("");
+
+            // Then
+            assertTrue(text.contains("test_seconds_bucket{le=\"0.0001\"} 0\n"), "le だけのラベルであること: " + text);
+            assertTrue(text.contains("test_seconds_count 0\n"), "_count にラベルが付かないこと: " + text);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.todo.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link LifecycleMetrics} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>フェーズ・リクエスト・アクションごとのヒストグラムの出力</li>
+ *   <li>ラベルの値のエスケープ</li>
+ *   <li>ラベルの組み合わせの上限</li>
+ * </ul>
+ */
+@DisplayName("LifecycleMetrics のテスト")
+class LifecycleMetricsTest {
+
+    /** テスト対象 */
+    private LifecycleMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new LifecycleMetrics();
+    }
+
+    private String exposition() throws IOException {
+        StringWriter out = new StringWriter();
+        metrics.writeTo(out);
+        return out.toString();
+    }
+
+    @Nested
+    @DisplayName("記録と出力のテスト")
+    class RecordTest {
+
+        @Test
+        @DisplayName("HELP / TYPE とビュー・フェーズ・アクションのラベルが出力されること")
+        void writesAllMetrics() throws IOException {
+            // Given
+            metrics.recordPhase("/todos.xhtml", "render_response", 2_000_000);
+            metrics.recordRequest("/todos.xhtml", 3_000_000);
+            metrics.recordAction("/todos.xhtml", "todoBean.addTodo", 500_000);
+
+            // When
+            String text = exposition();
+
+            // Then
+            assertTrue(text.contains("# TYPE jsf_phase_duration_seconds histogram\n"), "TYPE 行が出力されること: " + text);
+            assertTrue(text.contains("jsf_phase_duration_seconds_count{view=\"/todos.xhtml\",phase=\"render_response\"} 1\n"),
+                    "ビュー・フェーズごとに出力されること: " + text);
+            assertTrue(text.contains("jsf_request_duration_seconds_count{view=\"/todos.xhtml\"} 1\n"),
+                    "リクエスト全体がビューごとに出力されること: " + text);
+            assertTrue(text.contains("jsf_action_duration_seconds_count{view=\"/todos.xhtml\",action=\"todoBean.addTodo\"} 1\n"),
+                    "アクションごとに出力されること: " + text);
+        }
+
+        @Test
+        @DisplayName("同じラベルの記録は 1 つのヒストグラムに集計されること")
+        void sameLabelsAggregated() throws IOException {
+            // When
+            metrics.recordPhase("/detail.xhtml", "invoke_application", 1_000);
+            metrics.recordPhase("/detail.xhtml", "invoke_application", 2_000);
+
+            // Then
+            assertTrue(exposition().contains(
+                            "jsf_phase_duration_seconds_count{view=\"/detail.xhtml\",phase=\"invoke_application\"} 2\n"),
+                    "2 件が集計されること");
+        }
+
+        @Test
+        @DisplayName("ラベルの値のダブルクォート・バックスラッシュ・改行がエスケープされること")
+        void escapesLabelValues() {
+            // When / Then
+            assertEquals("a\\\"b\\\\c\\n", LifecycleMetrics.escape("a\"b\\c\n"), "Prometheus の形式でエスケープされること");
+            assertEquals("", LifecycleMetrics.escape(null), "null は空文字列であること");
+        }
+    }
+
+    @Nested
+    @DisplayName("上限のテスト")
+    class LimitTest {
+
+        @Test
+        @DisplayName("組み合わせが上限に達した後の新しいビューは other にまとめられること")
+        void overflowToOther() throws IOException {
+            // Given
+            for (int i = 0; i < LifecycleMetrics.MAX_SERIES; i++) {
+                metrics.recordRequest("/page" + i + ".xhtml", 1_000);
+            }
+
+            // When
+            metrics.recordRequest("/new.xhtml", 1_000);
+            metrics.recordRequest("/page0.xhtml", 1_000);
+
+            // Then
+            String text = exposition();
+            assertFalse(text.contains("/new.xhtml"), "上限後の新しいビューは出力されないこと");
+            assertTrue(text.contains("jsf_request_duration_seconds_count{view=\"other\"} 1\n"), "other に集計されること");
+            assertTrue(text.contains("jsf_request_duration_seconds_count{view=\"/page0.xhtml\"} 2\n"),
+                    "既存のビューには引き続き記録されること");
+        }
+    }
+}
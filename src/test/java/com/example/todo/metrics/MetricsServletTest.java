@@ -0,0 +1,59 @@
+package com.example.todo.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link MetricsServlet} の単体テスト。
+ *
+ * <p>テスト観点: Prometheus のテキスト形式の Content-Type と、記録したメトリクスの出力</p>
+ */
+@DisplayName("MetricsServlet のテスト")
+class MetricsServletTest {
+
+    private HttpServletRequest mockRequest;
+    private HttpServletResponse mockResponse;
+    private StringWriter body;
+
+    private LifecycleMetrics metrics;
+
+    /** テスト対象 */
+    private MetricsServlet servlet;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockRequest = mock(HttpServletRequest.class);
+        mockResponse = mock(HttpServletResponse.class);
+        body = new StringWriter();
+        when(mockResponse.getWriter()).thenReturn(new PrintWriter(body));
+
+        metrics = new LifecycleMetrics();
+        servlet = new MetricsServlet();
+        servlet.setMetrics(metrics);
+    }
+
+    @Test
+    @DisplayName("Prometheus のテキスト形式で記録したメトリクスが返されること")
+    void writesExposition() throws IOException {
+        // Given
+        metrics.recordRequest("/todos.xhtml", 1_000_000);
+
+        // When
+        servlet.doGet(mockRequest, mockResponse);
+
+        // Then
+        verify(mockResponse).setContentType(MetricsServlet.CONTENT_TYPE);
+        assertTrue(body.toString().contains("jsf_request_duration_seconds_count{view=\"/todos.xhtml\"} 1\n"),
+                "記録したメトリクスが出力されること: " + body);
+    }
+}
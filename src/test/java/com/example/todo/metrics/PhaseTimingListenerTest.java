@@ -0,0 +1,122 @@
+package com.example.todo.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.lifecycle.Lifecycle;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link PhaseTimingListener} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>フェーズごとの処理時間がビュー ID・フェーズ名で記録されること</li>
+ *   <li>描画の終了時・レスポンスの完了時 (リダイレクト) にリクエスト全体が 1 回だけ記録されること</li>
+ *   <li>ビューがない場合のラベル</li>
+ * </ul>
+ */
+@DisplayName("PhaseTimingListener のテスト")
+class PhaseTimingListenerTest {
+
+    private FacesContext mockContext;
+    private LifecycleMetrics mockMetrics;
+    private Map<Object, Object> attributes;
+
+    /** テスト対象 */
+    private PhaseTimingListener listener;
+
+    @BeforeEach
+    void setUp() {
+        mockContext = mock(FacesContext.class);
+        mockMetrics = mock(LifecycleMetrics.class);
+        attributes = new HashMap<>();
+        when(mockContext.getAttributes()).thenReturn(attributes);
+        UIViewRoot root = mock(UIViewRoot.class);
+        when(root.getViewId()).thenReturn("/todos.xhtml");
+        when(mockContext.getViewRoot()).thenReturn(root);
+
+        listener = new PhaseTimingListener(mockMetrics);
+    }
+
+    private void runPhase(PhaseId phase) {
+        PhaseEvent event = new PhaseEvent(mockContext, phase, mock(Lifecycle.class));
+        listener.beforePhase(event);
+        listener.afterPhase(event);
+    }
+
+    @Nested
+    @DisplayName("記録のテスト")
+    class RecordTest {
+
+        @Test
+        @DisplayName("すべてのフェーズを対象とすること")
+        void anyPhase() {
+            // When / Then
+            assertEquals(PhaseId.ANY_PHASE, listener.getPhaseId(), "すべてのフェーズで呼ばれること");
+        }
+
+        @Test
+        @DisplayName("各フェーズの処理時間がビュー ID と小文字のフェーズ名で記録されること")
+        void recordsEachPhase() {
+            // When
+            runPhase(PhaseId.RESTORE_VIEW);
+            runPhase(PhaseId.APPLY_REQUEST_VALUES);
+
+            // Then
+            verify(mockMetrics).recordPhase(eq("/todos.xhtml"), eq("restore_view"), anyLong());
+            verify(mockMetrics).recordPhase(eq("/todos.xhtml"), eq("apply_request_values"), anyLong());
+            verify(mockMetrics, never()).recordRequest(anyString(), anyLong());
+        }
+
+        @Test
+        @DisplayName("描画の終了時にリクエスト全体が記録され、開始時刻が破棄されること")
+        void recordsRequestAfterRender() {
+            // When
+            runPhase(PhaseId.RESTORE_VIEW);
+            runPhase(PhaseId.RENDER_RESPONSE);
+
+            // Then
+            verify(mockMetrics).recordRequest(eq("/todos.xhtml"), anyLong());
+            assertFalse(attributes.containsKey(PhaseTimingListener.STARTS), "開始時刻が破棄されること");
+        }
+
+        @Test
+        @DisplayName("アクションでレスポンスが完了した場合 (リダイレクト) はその時点でリクエスト全体が記録されること")
+        void recordsRequestOnResponseComplete() {
+            // Given
+            runPhase(PhaseId.RESTORE_VIEW);
+            when(mockContext.getResponseComplete()).thenReturn(true);
+
+            // When
+            runPhase(PhaseId.INVOKE_APPLICATION);
+
+            // Then
+            verify(mockMetrics).recordPhase(eq("/todos.xhtml"), eq("invoke_application"), anyLong());
+            verify(mockMetrics, times(1)).recordRequest(eq("/todos.xhtml"), anyLong());
+        }
+
+        @Test
+        @DisplayName("ビューがない場合は unknown として記録されること")
+        void unknownView() {
+            // Given
+            when(mockContext.getViewRoot()).thenReturn(null);
+
+            // When
+            runPhase(PhaseId.RESTORE_VIEW);
+
+            // Then
+            verify(mockMetrics).recordPhase(eq(PhaseTimingListener.UNKNOWN_VIEW), eq("restore_view"), anyLong());
+        }
+    }
+}
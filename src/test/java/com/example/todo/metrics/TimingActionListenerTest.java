@@ -0,0 +1,122 @@
+package com.example.todo.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.el.MethodExpression;
+import javax.faces.component.UICommand;
+import javax.faces.component.UIComponent;
+import javax.faces.component.UIViewRoot;
+import javax.faces.context.FacesContext;
+import javax.faces.event.ActionEvent;
+import javax.faces.event.ActionListener;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link TimingActionListener} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>既定の ActionListener に処理を委譲し、処理時間を記録すること</li>
+ *   <li>アクションが例外を投げた場合も記録すること</li>
+ *   <li>アクションの式から名前を作ること</li>
+ * </ul>
+ */
+@DisplayName("TimingActionListener のテスト")
+class TimingActionListenerTest {
+
+    private ActionListener mockDefault;
+    private LifecycleMetrics mockMetrics;
+    private FacesContext mockContext;
+    private UICommand mockButton;
+    private ActionEvent mockEvent;
+
+    /** テスト対象 */
+    private TimingActionListener listener;
+
+    @BeforeEach
+    void setUp() {
+        mockDefault = mock(ActionListener.class);
+        mockMetrics = mock(LifecycleMetrics.class);
+        mockContext = mock(FacesContext.class);
+        UIViewRoot root = mock(UIViewRoot.class);
+        when(root.getViewId()).thenReturn("/detail.xhtml");
+        when(mockContext.getViewRoot()).thenReturn(root);
+        mockButton = mock(UICommand.class);
+        mockEvent = mock(ActionEvent.class);
+        when(mockEvent.getComponent()).thenReturn(mockButton);
+        when(mockEvent.getFacesContext()).thenReturn(mockContext);
+
+        listener = new TimingActionListener(mockDefault, mockMetrics);
+    }
+
+    private void action(String expression) {
+        MethodExpression method = mock(MethodExpression.class);
+        when(method.getExpressionString()).thenReturn(expression);
+        when(mockButton.getActionExpression()).thenReturn(method);
+    }
+
+    @Nested
+    @DisplayName("processAction のテスト")
+    class ProcessActionTest {
+
+        @Test
+        @DisplayName("既定の処理を呼び出し、ビューとアクションの名前で記録すること")
+        void delegatesAndRecords() {
+            // Given
+            action("#{todoDetailBean.save}");
+
+            // When
+            listener.processAction(mockEvent);
+
+            // Then
+            verify(mockDefault).processAction(mockEvent);
+            verify(mockMetrics).recordAction(eq("/detail.xhtml"), eq("todoDetailBean.save"), anyLong());
+        }
+
+        @Test
+        @DisplayName("アクションが例外を投げた場合も記録し、例外はそのまま伝わること")
+        void recordsOnException() {
+            // Given
+            action("#{todoBean.addTodo}");
+            doThrow(new IllegalStateException("失敗")).when(mockDefault).processAction(mockEvent);
+
+            // When / Then
+            assertThrows(IllegalStateException.class, () -> listener.processAction(mockEvent),
+                    "例外がそのまま伝わること");
+            verify(mockMetrics).recordAction(eq("/detail.xhtml"), eq("todoBean.addTodo"), anyLong());
+        }
+    }
+
+    @Nested
+    @DisplayName("actionName のテスト")
+    class ActionNameTest {
+
+        @Test
+        @DisplayName("引数付きのメソッド式は引数を除いた名前になること")
+        void stripsArguments() {
+            // Given
+            action("#{todoBean.deleteTodo(todo.id)}");
+
+            // When / Then
+            assertEquals("todoBean.deleteTodo", TimingActionListener.actionName(mockButton), "引数が除かれること");
+        }
+
+        @Test
+        @DisplayName("アクションの式がないコンポーネントは unknown になること")
+        void unknownWithoutExpression() {
+            // Given
+            UIComponent plain = mock(UIComponent.class);
+
+            // When / Then
+            assertEquals(TimingActionListener.UNKNOWN_ACTION, TimingActionListener.actionName(plain),
+                    "ActionSource2 でない場合は unknown であること");
+            assertEquals(TimingActionListener.UNKNOWN_ACTION, TimingActionListener.actionName(mockButton),
+                    "アクションの式が null の場合は unknown であること");
+        }
+    }
+}
@@ -4,6 +4,10 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -16,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.*;
  *   <li>コンストラクタによる初期化の正確性</li>
  *   <li>各 Getter / Setter の入出力</li>
  *   <li>{@code getFormattedCreatedAt} のフォーマット仕様</li>
+ *   <li>シリアライズ (Flash への格納) による復元</li>
  * </ul>
  */
 @DisplayName("TodoItem モデルクラスのテスト")
@@ -286,5 +291,218 @@ class TodoItemTest {
             assertEquals("2025/01/05 09:05", formatted,
                     "月・日・時・分が 1 桁の場合もゼロ埋めされること");
         }
+
+        @Test
+        @DisplayName("正常系: 作成日時が変わらない間は同じ文字列インスタンスが返ること")
+        void formattedCreatedAt_cached() {
+            // Given
+            TodoItem item = new TodoItem();
+            item.setCreatedAt(LocalDateTime.of(2025, 6, 15, 10, 30));
+
+            // When
+            String first = item.getFormattedCreatedAt();
+            String second = item.getFormattedCreatedAt();
+
+            // Then
+            assertSame(first, second, "2 回目以降はフォーマットせずに保持した文字列を返すこと");
+        }
+
+        @Test
+        @DisplayName("正常系: setCreatedAt の後は新しい作成日時で返ること")
+        void formattedCreatedAt_invalidatedBySetCreatedAt() {
+            // Given
+            TodoItem item = new TodoItem();
+            item.setCreatedAt(LocalDateTime.of(2025, 6, 15, 10, 30));
+            item.getFormattedCreatedAt();
+
+            // When
+            item.setCreatedAt(LocalDateTime.of(2026, 1, 2, 3, 4));
+
+            // Then
+            assertEquals("2026/01/02 03:04", item.getFormattedCreatedAt(),
+                    "変更後の作成日時でフォーマットされること");
+            item.setCreatedAt(null);
+            assertEquals("", item.getFormattedCreatedAt(), "null に変更した後は空文字を返すこと");
+        }
+    }
+
+    // =========================================================================
+    // getVersion
+    // =========================================================================
+
+    @Nested
+    @DisplayName("getVersion のテスト")
+    class VersionTest {
+
+        @Test
+        @DisplayName("正常系: ストアに登録していない Todo の変更ごとに版数が増えること")
+        void version_incrementsOnEachChange() {
+            // Given
+            TodoItem item = new TodoItem(1L, "タイトル", "説明");
+            long initial = item.getVersion();
+
+            // When / Then
+            item.setTitle("変更後");
+            assertEquals(initial + 1, item.getVersion(), "タイトルの変更で版数が増えること");
+            item.setDescription("変更後の説明");
+            assertEquals(initial + 2, item.getVersion(), "説明の変更で版数が増えること");
+            item.setCompleted(true);
+            assertEquals(initial + 3, item.getVersion(), "完了状態の変更で版数が増えること");
+            item.edit("タイトル", "説明");
+            assertEquals(initial + 4, item.getVersion(), "edit で版数が増えること");
+        }
+
+        @Test
+        @DisplayName("正常系: ストアに登録した Todo の変更で版数が増え、同じ値の完了状態では増えないこと")
+        void version_incrementsThroughStore() {
+            // Given
+            TodoStore store = new TodoStore();
+            TodoItem item = new TodoItem(store.nextId(), "タイトル", "説明");
+            store.add(item);
+            long initial = item.getVersion();
+
+            // When
+            store.toggle(item.getId());
+            item.edit("編集後", "説明");
+            item.setCompleted(true);
+
+            // Then
+            assertEquals(initial + 2, item.getVersion(),
+                    "完了切り替えと編集で 1 ずつ増え、変化のない setCompleted では増えないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: edit(版数, ...) は版数が一致する場合だけ変更し、変更後は古い版数で失敗すること")
+        void editIfVersion_comparesVersion() {
+            // Given
+            TodoItem item = new TodoItem(1L, "タイトル", "説明");
+            long loaded = item.getVersion();
+
+            // When
+            boolean first = item.edit(loaded, "1 回目", "説明");
+            boolean second = item.edit(loaded, "2 回目", "説明");
+
+            // Then
+            assertTrue(first, "版数が一致する場合は変更されること");
+            assertFalse(second, "変更後に古い版数で編集すると失敗すること");
+            assertEquals("1 回目", item.getTitle(), "失敗した編集で上書きされないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: ストアに登録した Todo は完了切り替えの後も edit(表示時の版数, ...) が成功し、別の編集の後は失敗すること")
+        void editIfVersion_throughStore() {
+            // Given
+            TodoStore store = new TodoStore();
+            TodoItem item = new TodoItem(store.nextId(), "タイトル", "説明");
+            store.add(item);
+            long loaded = item.getTextVersion();
+
+            // When / Then
+            store.toggle(item.getId());
+            assertTrue(item.edit(loaded, "別のタブで完了にした後の編集", "説明"),
+                    "完了切り替えはタイトル・説明の編集と競合しないこと");
+            assertTrue(item.isCompleted(), "完了切り替えの結果が残ること");
+            assertFalse(item.edit(loaded, "上書き", "説明"), "タイトル・説明の変更の後は古い版数で失敗すること");
+            assertTrue(item.edit(item.getTextVersion(), "最新に対する編集", "説明"), "最新の版数では成功すること");
+            assertEquals("最新に対する編集", store.find(item.getId()).getTitle(), "ストアの Todo に反映されること");
+        }
+
+        @Test
+        @DisplayName("正常系: タイトル・説明の版数は完了状態・作成日時の変更では変わらず、表示用の版数だけが増えること")
+        void textVersion_unchangedByToggle() {
+            // Given
+            TodoStore store = new TodoStore();
+            TodoItem item = new TodoItem(store.nextId(), "タイトル", "説明");
+            store.add(item);
+            long textVersion = item.getTextVersion();
+            long version = item.getVersion();
+
+            // When
+            item.setCompleted(true);
+            item.setCreatedAt(LocalDateTime.of(2025, 6, 15, 10, 30));
+
+            // Then
+            assertEquals(textVersion, item.getTextVersion(), "タイトル・説明の版数は変わらないこと");
+            assertTrue(item.getVersion() > version, "描画のキャッシュに使う版数は増えること");
+
+            // When
+            item.setDescription("説明を変更");
+
+            // Then
+            assertEquals(item.getVersion(), item.getTextVersion(), "説明の変更で両方の版数が同じ新しい値になること");
+        }
+
+        @Test
+        @DisplayName("正常系: 値を読み取るだけでは版数が変わらないこと")
+        void version_unchangedByReads() {
+            // Given
+            TodoItem item = new TodoItem(1L, "タイトル", "説明");
+            long initial = item.getVersion();
+
+            // When
+            item.getTitle();
+            item.getFormattedCreatedAt();
+            item.isCompleted();
+
+            // Then
+            assertEquals(initial, item.getVersion(), "読み取りでは版数が変わらないこと");
+        }
+    }
+
+    // =========================================================================
+    // シリアライズ
+    // =========================================================================
+
+    @Nested
+    @DisplayName("シリアライズのテスト")
+    class SerializationTest {
+
+        @Test
+        @DisplayName("正常系: すべてのフィールドが復元されること")
+        void roundTrip_allFields() throws Exception {
+            // Given
+            TodoItem item = new TodoItem(300L, "タイトル😀", "説明");
+            item.setCompleted(true);
+            item.setCreatedAt(LocalDateTime.of(2025, 3, 4, 5, 6, 7, 890));
+
+            // When
+            TodoItem restored = roundTrip(item);
+
+            // Then
+            assertEquals(300L, restored.getId(), "ID が復元されること");
+            assertEquals("タイトル😀", restored.getTitle(), "タイトルが復元されること");
+            assertEquals("説明", restored.getDescription(), "説明が復元されること");
+            assertTrue(restored.isCompleted(), "完了状態が復元されること");
+            assertEquals(LocalDateTime.of(2025, 3, 4, 5, 6, 7, 890), restored.getCreatedAt(),
+                    "作成日時がナノ秒まで復元されること");
+        }
+
+        @Test
+        @DisplayName("境界値: id・作成日時・文字列が null の場合も null のまま復元されること")
+        void roundTrip_nullFields() throws Exception {
+            // Given
+            TodoItem item = new TodoItem();
+            item.setCreatedAt(null);
+
+            // When
+            TodoItem restored = roundTrip(item);
+
+            // Then
+            assertNull(restored.getId(), "ID は null であること");
+            assertNull(restored.getCreatedAt(), "作成日時は null であること");
+            assertNull(restored.getTitle(), "タイトルは null であること");
+            assertNull(restored.getDescription(), "説明は null であること");
+            assertFalse(restored.isCompleted(), "未完了であること");
+        }
+
+        private TodoItem roundTrip(TodoItem item) throws Exception {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(item);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (TodoItem) in.readObject();
+            }
+        }
     }
 }
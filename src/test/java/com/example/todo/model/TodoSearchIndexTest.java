@@ -0,0 +1,174 @@
+package com.example.todo.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TodoSearchIndex} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>{@code search}: 部分一致・1 文字の検索語・AND 検索・正規化・ID 昇順の結果</li>
+ *   <li>変更通知による差分更新 (追加・削除・テキスト変更)</li>
+ * </ul>
+ */
+@DisplayName("TodoSearchIndex のテスト")
+class TodoSearchIndexTest {
+
+    /** テスト対象 */
+    private TodoSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TodoSearchIndex(List.of(
+                new TodoItem(1L, "買い物をする", "スーパーで食材を購入する"),
+                new TodoItem(2L, "レポートを書く", "プロジェクトの進捗レポートを完成させる"),
+                new TodoItem(3L, "Run 5km", "ＪＯＧＧＩＮＧ 30分")));
+    }
+
+    // =========================================================================
+    // search
+    // =========================================================================
+
+    @Nested
+    @DisplayName("search のテスト")
+    class SearchTest {
+
+        @Test
+        @DisplayName("正常系: 単語の区切りがない日本語の部分文字列で一致すること")
+        void search_japaneseSubstring() {
+            // Given / When / Then
+            assertEquals(List.of(1L), ids(index.search("食材")), "説明の部分文字列で一致すること");
+            assertEquals(List.of(2L), ids(index.search("進捗レポ")), "説明の途中から始まる部分文字列で一致すること");
+        }
+
+        @Test
+        @DisplayName("正常系: 1 文字の検索語で一致すること")
+        void search_singleCharacter() {
+            // Given / When
+            List<Long> result = ids(index.search("書"));
+
+            // Then
+            assertEquals(List.of(2L), result, "1 文字の検索語は uni-gram で検索されること");
+        }
+
+        @Test
+        @DisplayName("正常系: bi-gram がすべて含まれていても連続していない場合は一致しないこと")
+        void search_gramsNotContiguous_noMatch() {
+            // Given: 「ab」「ba」はどちらも含むが「aba」は含まない
+            index.todoAdded(new TodoItem(4L, "abxba", ""));
+
+            // When
+            List<TodoItem> result = index.search("aba");
+
+            // Then
+            assertTrue(result.isEmpty(), "部分一致を確認して誤検出を除くこと");
+        }
+
+        @Test
+        @DisplayName("正常系: 空白区切りの検索語はすべてを含む Todo だけに一致すること (AND)")
+        void search_multipleTerms_and() {
+            // Given / When / Then
+            assertEquals(List.of(2L), ids(index.search("レポート 完成")), "両方の語を含む Todo に一致すること");
+            assertTrue(index.search("レポート 食材").isEmpty(), "片方しか含まない Todo には一致しないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: 全角・半角、大文字・小文字を区別しないこと")
+        void search_normalized() {
+            // Given / When / Then
+            assertEquals(List.of(3L), ids(index.search("jogging")), "全角大文字の英字に半角小文字で一致すること");
+            assertEquals(List.of(3L), ids(index.search("ＲＵＮ")), "半角の英字に全角大文字で一致すること");
+        }
+
+        @Test
+        @DisplayName("境界値: 空の検索語・一致しない検索語の場合、空リストが返ること")
+        void search_emptyOrUnknown_returnsEmpty() {
+            // Given / When / Then
+            assertTrue(index.search("").isEmpty(), "空文字列では空リストであること");
+            assertTrue(index.search("   ").isEmpty(), "空白のみでは空リストであること");
+            assertTrue(index.search("存在しない").isEmpty(), "一致しない検索語では空リストであること");
+        }
+    }
+
+    // =========================================================================
+    // 差分更新
+    // =========================================================================
+
+    @Nested
+    @DisplayName("差分更新のテスト")
+    class UpdateTest {
+
+        @Test
+        @DisplayName("正常系: 追加した Todo が検索できること")
+        void todoAdded_indexed() {
+            // Given
+            TodoItem item = new TodoItem(4L, "食材の在庫を確認する", "");
+
+            // When
+            index.todoAdded(item);
+
+            // Then
+            assertEquals(List.of(1L, 4L), ids(index.search("食材")), "追加した Todo も一致すること");
+        }
+
+        @Test
+        @DisplayName("正常系: ID の降順に追加しても、結果は ID 昇順で返ること")
+        void todoAdded_outOfOrder_sortedById() {
+            // Given
+            index.todoAdded(new TodoItem(10L, "共通の語", ""));
+            index.todoAdded(new TodoItem(5L, "共通の語", ""));
+
+            // When
+            List<Long> result = ids(index.search("共通"));
+
+            // Then
+            assertEquals(List.of(5L, 10L), result, "ポスティングリストは ID 昇順に保たれること");
+        }
+
+        @Test
+        @DisplayName("正常系: 削除した Todo が検索されず、不要になった N-gram が取り除かれること")
+        void todoRemoved_unindexed() {
+            // Given
+            TodoItem item = new TodoItem(4L, "固有語彙", "");
+            int before = index.gramCount();
+            index.todoAdded(item);
+
+            // When
+            index.todoRemoved(item);
+
+            // Then
+            assertTrue(index.search("固有").isEmpty(), "削除した Todo は一致しないこと");
+            assertEquals(before, index.gramCount(), "削除した Todo だけが持つ N-gram は取り除かれること");
+        }
+
+        @Test
+        @DisplayName("正常系: テキストの変更後は新しいテキストだけで一致すること")
+        void textChanged_reindexed() {
+            // Given
+            TodoItem item = new TodoItem(1L, "週末の予定", "");
+
+            // When
+            index.textChanged(item);
+
+            // Then
+            assertTrue(index.search("食材").isEmpty(), "変更前のテキストでは一致しないこと");
+            assertEquals(List.of(1L), ids(index.search("週末")), "変更後のテキストで一致すること");
+        }
+    }
+
+    private static List<Long> ids(List<TodoItem> items) {
+        List<Long> ids = new ArrayList<>();
+        for (TodoItem item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+}
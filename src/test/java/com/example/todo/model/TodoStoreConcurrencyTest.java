@@ -0,0 +1,214 @@
+package com.example.todo.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TodoStore} の並行アクセスに対するストレステスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>複数スレッドからの追加・削除・切り替えと描画 (スナップショット走査) の同時実行</li>
+ *   <li>同一 Todo への同時切り替えで更新が失われないこと</li>
+ *   <li>版数を確認する編集 (楽観的排他制御) を同時に行っても更新が失われないこと</li>
+ * </ul>
+ */
+@DisplayName("TodoStore の並行アクセスのテスト")
+class TodoStoreConcurrencyTest {
+
+    private static final int WRITERS = 8;
+    private static final int READERS = 4;
+    private static final int OPERATIONS_PER_WRITER = 20_000;
+
+    @Test
+    @Timeout(60)
+    @DisplayName("正常系: 追加・削除・切り替えを多数のスレッドから同時に行っても、例外が発生せず件数が整合すること")
+    void mixedOperations_fromManyThreads_keepStoreConsistent() throws Exception {
+        // Given: 初期データ 1,000 件と、各スレッドが共有する ID 採番・削除候補
+        TodoStore store = new TodoStore();
+        AtomicLong idGenerator = new AtomicLong(1);
+        Queue<Long> liveIds = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < 1_000; i++) {
+            long id = idGenerator.getAndIncrement();
+            store.add(new TodoItem(id, "初期" + id, ""));
+            liveIds.add(id);
+        }
+        AtomicLong added = new AtomicLong(1_000);
+        AtomicLong removed = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                    int operation = random.nextInt(3);
+                    if (operation == 0) {
+                        long id = idGenerator.getAndIncrement();
+                        store.add(new TodoItem(id, "追加" + id, ""));
+                        liveIds.add(id);
+                        added.incrementAndGet();
+                    } else if (operation == 1) {
+                        Long id = liveIds.poll();
+                        if (id != null && store.remove(id) != null) {
+                            removed.incrementAndGet();
+                        }
+                    } else {
+                        Long id = liveIds.peek();
+                        TodoItem item = store.find(id);
+                        if (item != null && random.nextBoolean()) {
+                            store.toggle(id);
+                        } else if (item != null) {
+                            // 画面から直接 setCompleted された場合も件数が整合すること
+                            item.setCompleted(random.nextBoolean());
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+
+        // 描画を模して、スナップショットの走査とページ取得を繰り返す
+        for (int r = 0; r < READERS; r++) {
+            readers.add(executor.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    long completed = 0;
+                    for (TodoItem item : store.asList()) {
+                        if (item.isCompleted()) {
+                            completed++;
+                        }
+                    }
+                    assertTrue(completed >= 0);
+                    store.window(store.size() / 2, 20).forEach(TodoItem::getTitle);
+                    store.getPendingCount();
+                }
+                return null;
+            }));
+        }
+
+        // When
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        for (Future<?> reader : readers) {
+            reader.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(added.get() - removed.get(), store.size(),
+                "件数が追加数 - 削除数と一致すること");
+        assertEquals(store.size(), store.asList().size(),
+                "スナップショットの件数がストアの件数と一致すること");
+        assertTrue(store.verifyCounts(),
+                "差分更新した完了件数が全件走査の結果と一致すること");
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("正常系: 同じ Todo を多数のスレッドから偶数回切り替えると、元の状態に戻ること (更新が失われない)")
+    void toggleSameItem_fromManyThreads_noLostUpdates() throws Exception {
+        // Given
+        TodoStore store = new TodoStore();
+        TodoItem item = new TodoItem(1L, "共有タスク", "");
+        store.add(item);
+        int threads = 8;
+        int togglesPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < togglesPerThread; i++) {
+                    store.toggle(1L);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then: 切り替え回数の合計は偶数のため未完了に戻る
+        assertFalse(item.isCompleted(),
+                "偶数回の切り替え後、更新が失われていなければ未完了に戻ること");
+        assertEquals(0, store.getCompletedCount(),
+                "completedCount は 0 であること");
+        assertTrue(store.verifyCounts(),
+                "差分更新した完了件数が全件走査の結果と一致すること");
+    }
+
+    @Test
+    @Timeout(60)
+    @DisplayName("正常系: 版数を確認する編集を多数のスレッドから同時に行うと、成功した編集だけが反映されること (更新が失われない)")
+    void editIfVersion_fromManyThreads_noLostUpdates() throws Exception {
+        // Given: タイトルを数値のカウンターとして使う
+        TodoStore store = new TodoStore();
+        TodoItem item = new TodoItem(1L, "0", "");
+        store.add(item);
+        int threads = 8;
+        int attemptsPerThread = 10_000;
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong conflicted = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When: 版数 → タイトルの順に読み、読んだ値 + 1 を書き込む
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    long version = item.getTextVersion();
+                    long counter = Long.parseLong(item.getTitle());
+                    if (item.edit(version, String.valueOf(counter + 1), "")) {
+                        succeeded.incrementAndGet();
+                    } else {
+                        conflicted.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(succeeded.get(), Long.parseLong(item.getTitle()),
+                "成功した編集の回数だけカウンターが増えていること (上書きによる消失がないこと)");
+        assertEquals((long) threads * attemptsPerThread, succeeded.get() + conflicted.get(),
+                "すべての編集が成功または競合のどちらかになること");
+    }
+}
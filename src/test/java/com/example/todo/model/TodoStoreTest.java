@@ -0,0 +1,865 @@
+package com.example.todo.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TodoStore} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>{@code add} / {@code find}: ID インデックスによる登録・検索</li>
+ *   <li>{@code remove}: 存在 ID / 非存在 ID</li>
+ *   <li>{@code toggle}: 完了⇔未完了の切り替え</li>
+ *   <li>{@code removeAll} / {@code removeCompleted} / {@code setCompleted}: 一括操作</li>
+ *   <li>{@code asList}: 挿入順の保持とキャッシュ</li>
+ *   <li>{@code window} / {@code after} / {@code indexOf}: オフセット・キーセットによる部分取得</li>
+ *   <li>{@code getCompletedCount} / {@code getPendingCount}: 差分更新される件数と {@code verifyCounts}</li>
+ *   <li>{@code nextId} / {@link TodoStoreListener}: ID の採番と変更通知</li>
+ *   <li>{@code search}: 全文検索インデックスによる検索と差分更新</li>
+ *   <li>シリアライズ: 独自形式での復元とサイズ</li>
+ * </ul>
+ */
+@DisplayName("TodoStore のテスト")
+class TodoStoreTest {
+
+    /** テスト対象 */
+    private TodoStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new TodoStore();
+        store.add(new TodoItem(1L, "タスク1", "説明1"));
+        store.add(new TodoItem(2L, "タスク2", "説明2"));
+        store.add(new TodoItem(3L, "タスク3", "説明3"));
+    }
+
+    // =========================================================================
+    // add / find
+    // =========================================================================
+
+    @Nested
+    @DisplayName("add / find のテスト")
+    class AddFindTest {
+
+        @Test
+        @DisplayName("正常系: 追加した Todo を ID で取得できること")
+        void find_existingId_returnsItem() {
+            // Given / When
+            TodoItem found = store.find(2L);
+
+            // Then
+            assertNotNull(found, "登録済みの ID で Todo が取得できること");
+            assertEquals("タスク2", found.getTitle(),
+                    "取得した Todo のタイトルが一致すること");
+        }
+
+        @Test
+        @DisplayName("正常系: 存在しない ID を指定したとき、null が返ること")
+        void find_nonExistingId_returnsNull() {
+            // Given / When / Then
+            assertNull(store.find(9999L),
+                    "存在しない ID を指定した場合、null が返ること");
+        }
+
+        @Test
+        @DisplayName("正常系: ID が null のとき、null が返ること")
+        void find_nullId_returnsNull() {
+            // Given / When / Then
+            assertNull(store.find(null),
+                    "ID が null の場合、null が返ること");
+        }
+
+        @Test
+        @DisplayName("正常系: 同じ ID で追加したとき、件数が増えず置き換えられること")
+        void add_duplicateId_replacesItem() {
+            // Given
+            TodoItem replacement = new TodoItem(2L, "置き換え", "");
+
+            // When
+            store.add(replacement);
+
+            // Then
+            assertEquals(3, store.size(),
+                    "同じ ID で追加した場合、件数が変化しないこと");
+            assertSame(replacement, store.find(2L),
+                    "同じ ID で追加した場合、新しい Todo に置き換えられること");
+        }
+
+        @Test
+        @DisplayName("異常系: ID が null の Todo を追加したとき、NullPointerException が発生すること")
+        void add_nullId_throwsException() {
+            // Given
+            TodoItem item = new TodoItem();
+
+            // When / Then
+            assertThrows(NullPointerException.class, () -> store.add(item),
+                    "ID が null の Todo は追加できないこと");
+        }
+    }
+
+    // =========================================================================
+    // remove
+    // =========================================================================
+
+    @Nested
+    @DisplayName("remove のテスト")
+    class RemoveTest {
+
+        @Test
+        @DisplayName("正常系: 存在する ID を指定したとき、該当 Todo が削除されること")
+        void remove_existingId_removesItem() {
+            // Given / When
+            TodoItem removed = store.remove(2L);
+
+            // Then
+            assertNotNull(removed, "削除した Todo が返ること");
+            assertEquals(2, store.size(), "削除後、件数が 1 減ること");
+            assertNull(store.find(2L), "削除した ID の Todo が取得できないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: 存在しない ID を指定したとき、null が返り件数が変化しないこと")
+        void remove_nonExistingId_returnsNull() {
+            // Given / When
+            TodoItem removed = store.remove(9999L);
+
+            // Then
+            assertNull(removed, "存在しない ID の場合、null が返ること");
+            assertEquals(3, store.size(), "存在しない ID の場合、件数が変化しないこと");
+        }
+    }
+
+    // =========================================================================
+    // toggle
+    // =========================================================================
+
+    @Nested
+    @DisplayName("toggle のテスト")
+    class ToggleTest {
+
+        @Test
+        @DisplayName("正常系: 未完了の Todo を切り替えると完了になること")
+        void toggle_pending_becomesCompleted() {
+            // Given / When
+            TodoItem toggled = store.toggle(1L);
+
+            // Then
+            assertTrue(toggled.isCompleted(),
+                    "toggle 後、未完了の Todo が完了状態になること");
+        }
+
+        @Test
+        @DisplayName("正常系: 2 回切り替えると元の状態に戻ること")
+        void toggle_twice_restoresOriginalState() {
+            // Given / When
+            store.toggle(1L);
+            store.toggle(1L);
+
+            // Then
+            assertFalse(store.find(1L).isCompleted(),
+                    "toggle を 2 回実行すると元の状態に戻ること");
+        }
+
+        @Test
+        @DisplayName("正常系: 存在しない ID を指定したとき、null が返ること")
+        void toggle_nonExistingId_returnsNull() {
+            // Given / When / Then
+            assertNull(store.toggle(9999L),
+                    "存在しない ID の場合、null が返ること");
+        }
+    }
+
+    // =========================================================================
+    // 一括操作
+    // =========================================================================
+
+    @Nested
+    @DisplayName("removeAll / removeCompleted / setCompleted のテスト")
+    class BulkTest {
+
+        @Test
+        @DisplayName("正常系: removeAll で指定した ID の Todo だけが削除されること")
+        void removeAll_removesGivenIds() {
+            // Given
+            store.find(1L).setCompleted(true);
+
+            // When
+            int removed = store.removeAll(List.of(1L, 3L, 99L));
+
+            // Then
+            assertEquals(2, removed, "存在する 2 件が削除されること");
+            assertEquals(1, store.size(), "残りは 1 件であること");
+            assertEquals(2L, store.asList().get(0).getId(), "ID 2 が残ること");
+            assertTrue(store.verifyCounts(), "件数が全件走査の結果と一致すること");
+        }
+
+        @Test
+        @DisplayName("正常系: removeCompleted で完了済みの Todo だけが挿入順を保って削除されること")
+        void removeCompleted_removesOnlyCompleted() {
+            // Given
+            store.add(new TodoItem(4L, "タスク4", ""));
+            store.find(1L).setCompleted(true);
+            store.find(3L).setCompleted(true);
+
+            // When
+            int removed = store.removeCompleted();
+
+            // Then
+            assertEquals(2, removed, "完了済みの 2 件が削除されること");
+            assertEquals(List.of(2L, 4L), List.of(store.asList().get(0).getId(), store.asList().get(1).getId()),
+                    "未完了の Todo が挿入順のまま残ること");
+            assertEquals(0, store.getCompletedCount(), "完了件数は 0 になること");
+            assertTrue(store.verifyCounts(), "件数が全件走査の結果と一致すること");
+        }
+
+        @Test
+        @DisplayName("境界値: 完了済みがない場合、removeCompleted は何も削除しないこと")
+        void removeCompleted_noneCompleted_noop() {
+            // Given
+            List<TodoItem> before = store.asList();
+
+            // When
+            int removed = store.removeCompleted();
+
+            // Then
+            assertEquals(0, removed, "削除件数は 0 であること");
+            assertSame(before, store.asList(), "スナップショットが破棄されないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: setCompleted で状態が変わった件数だけが返ること")
+        void setCompleted_returnsChangedCount() {
+            // Given
+            store.find(2L).setCompleted(true);
+
+            // When
+            int changed = store.setCompleted(List.of(1L, 2L, 99L), true);
+
+            // Then
+            assertEquals(1, changed, "未完了だった ID 1 だけが変更されること");
+            assertEquals(2, store.getCompletedCount(), "完了件数は 2 であること");
+            assertTrue(store.verifyCounts(), "件数が全件走査の結果と一致すること");
+        }
+
+        @Test
+        @DisplayName("正常系: 一括削除でも削除した Todo ごとに通知されること")
+        void removeAll_notifiesEachItem() {
+            // Given
+            List<Long> removedIds = new ArrayList<>();
+            store.addListener(new TodoStoreListener() {
+                @Override
+                public void todoRemoved(TodoItem item) {
+                    removedIds.add(item.getId());
+                }
+            });
+            store.find(2L).setCompleted(true);
+
+            // When
+            store.removeAll(List.of(1L));
+            store.removeCompleted();
+
+            // Then
+            assertEquals(List.of(1L, 2L), removedIds, "削除した Todo ごとに順に通知されること");
+        }
+    }
+
+    // =========================================================================
+    // asList
+    // =========================================================================
+
+    @Nested
+    @DisplayName("asList のテスト")
+    class AsListTest {
+
+        @Test
+        @DisplayName("正常系: 挿入順に並んだリストが返ること")
+        void asList_keepsInsertionOrder() {
+            // Given: 中間の Todo を削除してから追加する
+            store.remove(2L);
+            store.add(new TodoItem(4L, "タスク4", ""));
+
+            // When
+            List<TodoItem> list = store.asList();
+
+            // Then
+            assertEquals(3, list.size(), "リストの件数が一致すること");
+            assertEquals(1L, list.get(0).getId(), "先頭は ID 1 であること");
+            assertEquals(3L, list.get(1).getId(), "2 番目は ID 3 であること");
+            assertEquals(4L, list.get(2).getId(), "末尾は追加した ID 4 であること");
+        }
+
+        @Test
+        @DisplayName("正常系: 変更がなければ同一インスタンスが返ること")
+        void asList_unchanged_returnsSameInstance() {
+            // Given / When
+            List<TodoItem> first = store.asList();
+            List<TodoItem> second = store.asList();
+
+            // Then
+            assertSame(first, second,
+                    "変更がない場合、キャッシュされた同一リストが返ること");
+        }
+
+        @Test
+        @DisplayName("正常系: 変更後は新しいリストが返ること")
+        void asList_afterRemove_returnsNewInstance() {
+            // Given
+            List<TodoItem> before = store.asList();
+
+            // When
+            store.remove(1L);
+
+            // Then
+            assertNotSame(before, store.asList(),
+                    "変更後は再構築されたリストが返ること");
+            assertEquals(3, before.size(),
+                    "変更前に取得したリストは影響を受けないこと");
+        }
+
+        @Test
+        @DisplayName("異常系: 返されたリストは変更できないこと")
+        void asList_isUnmodifiable() {
+            // Given
+            List<TodoItem> list = store.asList();
+
+            // When / Then
+            assertThrows(UnsupportedOperationException.class,
+                    () -> list.add(new TodoItem(5L, "x", "")),
+                    "asList が返すリストは読み取り専用であること");
+        }
+    }
+
+    // =========================================================================
+    // window / after / indexOf
+    // =========================================================================
+
+    @Nested
+    @DisplayName("window / after / indexOf のテスト")
+    class PagingTest {
+
+        @Test
+        @DisplayName("正常系: オフセットと件数を指定すると、該当範囲の Todo が返ること")
+        void window_returnsRange() {
+            // Given / When
+            List<TodoItem> window = store.window(1, 5);
+
+            // Then
+            assertEquals(2, window.size(), "範囲内の 2 件が返ること");
+            assertEquals(2L, window.get(0).getId(), "先頭は ID 2 であること");
+        }
+
+        @Test
+        @DisplayName("正常系: オフセットが件数を超えるとき、空のリストが返ること")
+        void window_offsetBeyondSize_returnsEmpty() {
+            // Given / When / Then
+            assertTrue(store.window(10, 5).isEmpty(),
+                    "範囲外のオフセットでは空のリストが返ること");
+        }
+
+        @Test
+        @DisplayName("境界値: 件数が int の最大値でも、オフセット以降の全件が返ること")
+        void window_maxLimit_noOverflow() {
+            // Given / When
+            List<TodoItem> window = store.window(1, Integer.MAX_VALUE);
+            List<TodoItem> after = store.after(1L, Integer.MAX_VALUE);
+
+            // Then
+            assertEquals(2, window.size(), "オフセット以降の 2 件が返ること");
+            assertEquals(2, after.size(), "キーセット指定でも ID 1 の次からの 2 件が返ること");
+        }
+
+        @Test
+        @DisplayName("正常系: キーセット指定で、指定 ID の次から Todo が返ること")
+        void after_returnsItemsAfterId() {
+            // Given / When
+            List<TodoItem> page = store.after(1L, 1);
+
+            // Then
+            assertEquals(1, page.size(), "件数は 1 件であること");
+            assertEquals(2L, page.get(0).getId(), "ID 1 の次の ID 2 が返ること");
+        }
+
+        @Test
+        @DisplayName("正常系: キーセットの ID が削除済みでも、その次の ID から返ること")
+        void after_removedId_continuesFromNext() {
+            // Given
+            store.remove(2L);
+
+            // When
+            List<TodoItem> page = store.after(2L, 10);
+
+            // Then
+            assertEquals(1, page.size(), "件数は 1 件であること");
+            assertEquals(3L, page.get(0).getId(), "削除済み ID 2 の次の ID 3 が返ること");
+        }
+
+        @Test
+        @DisplayName("正常系: キーセットの ID が null のとき、先頭から返ること")
+        void after_nullId_startsFromFirst() {
+            // Given / When / Then
+            assertEquals(1L, store.after(null, 1).get(0).getId(),
+                    "先頭の ID 1 が返ること");
+        }
+
+        @Test
+        @DisplayName("正常系: ID 昇順でない順序で追加されていても、キーセット取得できること")
+        void after_notAscending_usesInsertionOrder() {
+            // Given: ID 昇順でない Todo を追加する
+            store.add(new TodoItem(0L, "タスク0", ""));
+
+            // When
+            List<TodoItem> page = store.after(3L, 10);
+
+            // Then
+            assertEquals(1, page.size(), "件数は 1 件であること");
+            assertEquals(0L, page.get(0).getId(), "挿入順で ID 3 の次の ID 0 が返ること");
+            assertEquals(3, store.indexOf(0L), "ID 0 の位置は 3 であること");
+        }
+
+        @Test
+        @DisplayName("正常系: indexOf が挿入順での位置を返し、存在しない ID は -1 であること")
+        void indexOf_returnsPosition() {
+            // Given / When / Then
+            assertEquals(2, store.indexOf(3L), "ID 3 の位置は 2 であること");
+            assertEquals(-1, store.indexOf(9999L), "存在しない ID は -1 であること");
+        }
+    }
+
+    // =========================================================================
+    // getCompletedCount / getPendingCount
+    // =========================================================================
+
+    @Nested
+    @DisplayName("getCompletedCount / getPendingCount のテスト")
+    class CountTest {
+
+        @Test
+        @DisplayName("正常系: 初期状態では completedCount=0 かつ pendingCount=3 であること")
+        void count_initial() {
+            // Given / When / Then
+            assertEquals(0, store.getCompletedCount(), "初期状態の completedCount は 0 であること");
+            assertEquals(3, store.getPendingCount(), "初期状態の pendingCount は 3 であること");
+            assertTrue(store.verifyCounts(), "件数が全件走査の結果と一致すること");
+        }
+
+        @Test
+        @DisplayName("正常系: toggle したとき、件数が差分更新されること")
+        void count_afterToggle() {
+            // Given / When
+            store.toggle(1L);
+
+            // Then
+            assertEquals(1, store.getCompletedCount(), "toggle 後の completedCount は 1 であること");
+            assertEquals(2, store.getPendingCount(), "toggle 後の pendingCount は 2 であること");
+            assertTrue(store.verifyCounts(), "件数が全件走査の結果と一致すること");
+        }
+
+        @Test
+        @DisplayName("正常系: TodoItem#setCompleted を直接呼んだとき、件数に反映されること")
+        void count_afterDirectSetCompleted() {
+            // Given / When
+            store.asList().forEach(t -> t.setCompleted(true));
+
+            // Then
+            assertEquals(3, store.getCompletedCount(), "全件完了時の completedCount は 3 であること");
+            assertEquals(0, store.getPendingCount(), "全件完了時の pendingCount は 0 であること");
+            assertTrue(store.verifyCounts(), "件数が全件走査の結果と一致すること");
+        }
+
+        @Test
+        @DisplayName("正常系: 同じ値で setCompleted を繰り返しても件数が変化しないこと")
+        void count_repeatedSetCompleted_countedOnce() {
+            // Given / When
+            store.find(1L).setCompleted(true);
+            store.find(1L).setCompleted(true);
+
+            // Then
+            assertEquals(1, store.getCompletedCount(), "同じ値の再設定では件数が増えないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: 完了済みの Todo を削除したとき、completedCount が減ること")
+        void count_afterRemoveCompleted() {
+            // Given
+            store.toggle(2L);
+
+            // When
+            TodoItem removed = store.remove(2L);
+
+            // Then
+            assertEquals(0, store.getCompletedCount(), "削除後の completedCount は 0 であること");
+            assertEquals(2, store.getPendingCount(), "削除後の pendingCount は 2 であること");
+
+            // 削除済みの Todo を変更してもストアの件数に影響しないこと
+            removed.setCompleted(false);
+            assertTrue(store.verifyCounts(), "件数が全件走査の結果と一致すること");
+        }
+
+        @Test
+        @DisplayName("正常系: 完了済みの Todo を追加したとき、completedCount が増えること")
+        void count_afterAddCompleted() {
+            // Given
+            TodoItem item = new TodoItem(4L, "完了済み", "");
+            item.setCompleted(true);
+
+            // When
+            store.add(item);
+
+            // Then
+            assertEquals(1, store.getCompletedCount(), "追加後の completedCount は 1 であること");
+            assertTrue(store.verifyCounts(), "件数が全件走査の結果と一致すること");
+        }
+
+        @Test
+        @DisplayName("正常系: 完了済みの Todo を同じ ID で置き換えたとき、件数が正しく更新されること")
+        void count_afterReplace() {
+            // Given
+            store.toggle(1L);
+
+            // When: 未完了の Todo で置き換える
+            store.add(new TodoItem(1L, "置き換え", ""));
+
+            // Then
+            assertEquals(0, store.getCompletedCount(), "置き換え後の completedCount は 0 であること");
+            assertTrue(store.verifyCounts(), "件数が全件走査の結果と一致すること");
+        }
+
+        @Test
+        @DisplayName("正常系: シリアライズ後に復元したストアでも件数が差分更新されること")
+        void count_afterDeserialize() throws Exception {
+            // Given: 1 件完了にしてシリアライズ・復元する
+            store.toggle(1L);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(store);
+            }
+            TodoStore restored;
+            try (ObjectInputStream in = new ObjectInputStream(
+                    new ByteArrayInputStream(bytes.toByteArray()))) {
+                restored = (TodoStore) in.readObject();
+            }
+
+            // When
+            restored.find(2L).setCompleted(true);
+
+            // Then
+            assertEquals(2, restored.getCompletedCount(), "復元後の completedCount は 2 であること");
+            assertTrue(restored.verifyCounts(), "件数が全件走査の結果と一致すること");
+        }
+    }
+
+    // =========================================================================
+    // nextId / 変更通知
+    // =========================================================================
+
+    @Nested
+    @DisplayName("nextId / 変更通知のテスト")
+    class ListenerTest {
+
+        /** 受け取った通知を "種別:ID" の形式で記録する */
+        private final List<String> events = new ArrayList<>();
+
+        @BeforeEach
+        void subscribe() {
+            store.addListener(new TodoStoreListener() {
+                @Override
+                public void todoAdded(TodoItem item) {
+                    events.add("added:" + item.getId());
+                }
+
+                @Override
+                public void todoRemoved(TodoItem item) {
+                    events.add("removed:" + item.getId());
+                }
+
+                @Override
+                public void completedChanged(TodoItem item) {
+                    events.add("completed:" + item.getId());
+                }
+
+                @Override
+                public void textChanged(TodoItem item) {
+                    events.add("text:" + item.getId());
+                }
+            });
+        }
+
+        @Test
+        @DisplayName("正常系: nextId は登録済みの最大 ID より大きい ID を返すこと")
+        void nextId_greaterThanAddedIds() {
+            // Given
+            store.add(new TodoItem(10L, "タスク10", ""));
+
+            // When
+            long next = store.nextId();
+
+            // Then
+            assertEquals(11L, next, "最大 ID 10 の次の 11 が採番されること");
+            assertEquals(12L, store.nextId(), "採番のたびに ID が増えること");
+        }
+
+        @Test
+        @DisplayName("正常系: 追加・完了切り替え・削除が順に通知されること")
+        void mutations_notifiedInOrder() {
+            // Given / When
+            store.add(new TodoItem(4L, "タスク4", ""));
+            store.toggle(4L);
+            store.find(1L).setCompleted(true);
+            store.remove(4L);
+
+            // Then
+            assertEquals(List.of("added:4", "completed:4", "completed:1", "removed:4"), events,
+                    "変更と同じ順序で通知されること");
+        }
+
+        @Test
+        @DisplayName("正常系: edit でタイトルと説明を変更したとき、通知が 1 回にまとめられること")
+        void edit_notifiedOnce() {
+            // Given
+            TodoItem item = store.find(2L);
+
+            // When
+            item.edit("変更後", "変更後の説明");
+
+            // Then
+            assertEquals(List.of("text:2"), events, "テキスト変更の通知が 1 回だけであること");
+            assertEquals("変更後", item.getTitle(), "タイトルが変更されること");
+            assertEquals("変更後の説明", item.getDescription(), "説明が変更されること");
+        }
+
+        @Test
+        @DisplayName("正常系: 削除済みの Todo を変更しても通知されないこと")
+        void detachedItem_notNotified() {
+            // Given
+            TodoItem removed = store.remove(3L);
+            events.clear();
+
+            // When
+            removed.setTitle("変更後");
+            removed.setCompleted(true);
+
+            // Then
+            assertTrue(events.isEmpty(), "ストアから外れた Todo の変更は通知されないこと");
+            assertEquals("変更後", removed.getTitle(), "Todo 自体は変更されること");
+        }
+    }
+
+    // =========================================================================
+    // search
+    // =========================================================================
+
+    @Nested
+    @DisplayName("search のテスト")
+    class SearchTest {
+
+        @Test
+        @DisplayName("正常系: 検索語を含む Todo が挿入順で返ること")
+        void search_returnsMatchesInInsertionOrder() {
+            // Given
+            store.add(new TodoItem(4L, "買い物", "スーパーで食材を購入する"));
+            store.add(new TodoItem(5L, "レポート", "食材の原価をまとめる"));
+
+            // When
+            List<TodoItem> result = store.search("食材");
+
+            // Then
+            assertEquals(List.of(4L, 5L), ids(result), "説明に「食材」を含む Todo が挿入順で返ること");
+        }
+
+        @Test
+        @DisplayName("正常系: 検索語が空の場合、全件が返ること")
+        void search_blankQuery_returnsAll() {
+            // Given / When / Then
+            assertSame(store.asList(), store.search("  "), "空の検索語では asList と同じリストが返ること");
+            assertSame(store.asList(), store.search(null), "null の検索語では asList と同じリストが返ること");
+        }
+
+        @Test
+        @DisplayName("正常系: 検索後の追加・削除・編集がインデックスに反映されること")
+        void search_reflectsMutationsAfterIndexCreated() {
+            // Given: 最初の検索でインデックスが作成される
+            assertTrue(store.search("買い物").isEmpty(), "初期状態では一致しないこと");
+
+            // When
+            store.add(new TodoItem(4L, "買い物をする", ""));
+            store.find(1L).edit("週末の買い物", "");
+            store.remove(4L);
+
+            // Then
+            assertEquals(List.of(1L), ids(store.search("買い物")),
+                    "追加・編集・削除の結果だけが検索に反映されること");
+            assertTrue(store.search("タスク1").isEmpty(), "編集前のタイトルでは一致しないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: 同じ検索語の結果は変更まで同一インスタンスが返ること")
+        void search_sameQuery_cachedUntilChanged() {
+            // Given
+            List<TodoItem> first = store.search("タスク");
+
+            // When
+            List<TodoItem> second = store.search("タスク");
+            store.find(2L).setTitle("完了済み");
+            List<TodoItem> third = store.search("タスク");
+
+            // Then
+            assertSame(first, second, "変更がなければキャッシュされた結果が返ること");
+            assertEquals(List.of(1L, 3L), ids(third), "テキストの変更後は再検索されること");
+        }
+
+        @Test
+        @DisplayName("正常系: 挿入順が ID 昇順でない場合も挿入順で返ること")
+        void search_nonAscendingIds_keepsInsertionOrder() {
+            // Given
+            store.add(new TodoItem(10L, "共通", ""));
+            store.add(new TodoItem(5L, "共通", ""));
+
+            // When
+            List<TodoItem> result = store.search("共通");
+
+            // Then
+            assertEquals(List.of(10L, 5L), ids(result), "ID の大小ではなく挿入順で返ること");
+        }
+
+        private List<Long> ids(List<TodoItem> items) {
+            List<Long> ids = new ArrayList<>();
+            for (TodoItem item : items) {
+                ids.add(item.getId());
+            }
+            return ids;
+        }
+    }
+
+    // =========================================================================
+    // シリアライズ
+    // =========================================================================
+
+    @Nested
+    @DisplayName("シリアライズのテスト")
+    class SerializationTest {
+
+        @Test
+        @DisplayName("正常系: 復元したストアで挿入順・完了状態・作成日時・テキストが維持されること")
+        void roundTrip_preservesItems() throws Exception {
+            // Given
+            store.toggle(2L);
+            store.find(3L).setCreatedAt(LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123456789));
+            store.find(1L).edit("日本語😀", null);
+
+            // When
+            TodoStore restored = roundTrip(store);
+
+            // Then
+            List<TodoItem> items = restored.asList();
+            assertEquals(3, items.size(), "件数が維持されること");
+            assertEquals(List.of(1L, 2L, 3L),
+                    List.of(items.get(0).getId(), items.get(1).getId(), items.get(2).getId()),
+                    "挿入順が維持されること");
+            assertTrue(restored.find(2L).isCompleted(), "完了状態が維持されること");
+            assertFalse(restored.find(1L).isCompleted(), "未完了状態が維持されること");
+            assertEquals(LocalDateTime.of(2024, 5, 6, 7, 8, 9, 123456789), restored.find(3L).getCreatedAt(),
+                    "作成日時がナノ秒まで維持されること");
+            assertEquals("日本語😀", restored.find(1L).getTitle(), "タイトルが維持されること");
+            assertNull(restored.find(1L).getDescription(), "null の説明が維持されること");
+            assertEquals(1, restored.getCompletedCount(), "完了件数が維持されること");
+        }
+
+        @Test
+        @DisplayName("正常系: 採番済みの ID は削除済みでも復元後に再利用されないこと")
+        void roundTrip_preservesIdSequence() throws Exception {
+            // Given: ID 4 を採番だけし、ID 5 を追加してから削除する
+            store.nextId();
+            store.add(new TodoItem(store.nextId(), "タスク5", ""));
+            store.remove(5L);
+
+            // When
+            TodoStore restored = roundTrip(store);
+
+            // Then
+            assertEquals(6L, restored.nextId(), "削除済みの ID 5 の次から採番されること");
+        }
+
+        @Test
+        @DisplayName("正常系: 復元した Todo には復元前のどの版数よりも大きい版数が割り当てられ、復元前の版数での編集は競合すること")
+        void roundTrip_versionsNotReused() throws Exception {
+            // Given: 復元前に割り当てた版数を記録する
+            store.toggle(2L);
+            store.find(1L).edit("編集後", "");
+            long loadedTextVersion = store.find(1L).getTextVersion();
+            long maxVersion = 0;
+            for (TodoItem item : store.asList()) {
+                maxVersion = Math.max(maxVersion, item.getVersion());
+            }
+
+            // When
+            TodoStore restored = roundTrip(store);
+
+            // Then
+            for (TodoItem item : restored.asList()) {
+                assertTrue(item.getVersion() > maxVersion,
+                        "復元前に割り当てた版数が再び使われないこと (ID " + item.getId() + ")");
+            }
+            assertFalse(restored.find(1L).edit(loadedTextVersion, "上書き", ""),
+                    "復元前に読み込んだ版数での編集は競合として扱われること");
+            TodoItem item = restored.find(1L);
+            assertTrue(item.edit(item.getTextVersion(), "最新に対する編集", ""), "復元後の版数では成功すること");
+        }
+
+        @Test
+        @DisplayName("正常系: ID が昇順でない挿入順も復元され、キーセット取得が機能すること")
+        void roundTrip_nonAscendingOrder() throws Exception {
+            // Given
+            store.add(new TodoItem(0L, "先頭より小さい ID", ""));
+
+            // When
+            TodoStore restored = roundTrip(store);
+
+            // Then
+            assertEquals(0L, restored.asList().get(3).getId(), "末尾に ID 0 が維持されること");
+            assertEquals(1, restored.after(3L, 10).size(), "ID 3 の次の 1 件が取得できること");
+        }
+
+        @Test
+        @DisplayName("正常系: 1 件あたりのサイズが 40 バイト未満であること")
+        void serializedSize_isCompact() throws Exception {
+            // Given
+            TodoStore large = new TodoStore();
+            for (int i = 0; i < 1000; i++) {
+                large.add(new TodoItem(large.nextId(), "タスク" + i, ""));
+            }
+
+            // When
+            int bytes = serialize(large).length;
+
+            // Then
+            assertTrue(bytes < 1000 * 40, "1000 件で 40000 バイト未満であること (実際: " + bytes + ")");
+        }
+
+        private byte[] serialize(TodoStore target) throws Exception {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(target);
+            }
+            return bytes.toByteArray();
+        }
+
+        private TodoStore roundTrip(TodoStore target) throws Exception {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(target)))) {
+                return (TodoStore) in.readObject();
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.todo.persistence;
+
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TodoJournalManager} の単体テスト。
+ *
+ * <p>定期フラッシュと使われなくなったジャーナルの回収は、スケジューラを待たずに
+ * {@code flushAll} と {@code evictIdle} を直接呼び出して確認します
+ * (スケジューラが動かないよう、間隔は十分に長く設定します)。</p>
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>同じリスト ID は同じストアを共有すること・無効な場合は初期状態のストアを返すこと</li>
+ *   <li>破損したジャーナルも例外にならず、有効なレコードまでを復元して開くこと</li>
+ *   <li>変更のあったジャーナルだけをフラッシュすること</li>
+ *   <li>利用者がいなくなってから一定時間後に閉じ、次に開いたときにディスクから再生すること</li>
+ * </ul>
+ */
+@DisplayName("TodoJournalManager のテスト")
+class TodoJournalManagerTest {
+
+    private static final String LIST_A = "00000000-0000-4000-8000-00000000000a";
+    private static final String LIST_B = "00000000-0000-4000-8000-00000000000b";
+    private static final long IDLE_MINUTES = 10;
+
+    @TempDir
+    Path directory;
+
+    private TodoJournalManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new TodoJournalManager();
+        manager.configure(directory, TimeUnit.HOURS.toMillis(1), TodoJournalManager.DEFAULT_COMPACT_BYTES, IDLE_MINUTES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    private static TodoStore seed() {
+        TodoStore store = new TodoStore();
+        store.add(new TodoItem(store.nextId(), "タスク1", "説明1"));
+        return store;
+    }
+
+    private static long afterIdle() {
+        return System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(IDLE_MINUTES) + 1;
+    }
+
+    // =========================================================================
+    // open
+    // =========================================================================
+
+    @Nested
+    @DisplayName("open のテスト")
+    class OpenTest {
+
+        @Test
+        @DisplayName("正常系: 同じリスト ID は同じストアを返し、ジャーナルを 1 つだけ開くこと")
+        void open_sameList_sharesStore() {
+            // When
+            TodoStore first = manager.open(LIST_A, seed());
+            TodoStore second = manager.open(LIST_A, seed());
+
+            // Then
+            assertSame(first, second, "同じリストのセッションはストアを共有すること");
+            assertEquals(1, manager.openCount(), "ジャーナルは 1 つだけ開かれること");
+        }
+
+        @Test
+        @DisplayName("異常系: リスト ID が不正な場合・永続化が無効な場合は初期状態のストアをそのまま返すこと")
+        void open_invalidOrDisabled_returnsSeed() {
+            // Given
+            TodoStore seed = seed();
+            TodoJournalManager disabled = new TodoJournalManager();
+
+            // When / Then
+            assertSame(seed, manager.open("../etc", seed), "不正なリスト ID では初期状態のストアを返すこと");
+            assertSame(seed, disabled.open(LIST_A, seed), "永続化が無効な場合は初期状態のストアを返すこと");
+            assertEquals(0, manager.openCount(), "ジャーナルは開かれないこと");
+        }
+
+        @Test
+        @DisplayName("異常系: ジャーナルの途中のレコードが破損していても例外にならず、直前のレコードまでを復元して開くこと")
+        void open_corruptRecord_restoresValidPrefix() throws IOException {
+            // Given: 2 件の追加を記録したログの 1 件目を書き換える
+            TodoStore store = manager.open(LIST_A, seed());
+            store.add(new TodoItem(store.nextId(), "タスク2", "説明2"));
+            store.add(new TodoItem(store.nextId(), "タスク3", "説明3"));
+            manager.release(LIST_A);
+            manager.evictIdle(afterIdle());
+            Path log = directory.resolve(LIST_A).resolve("log-1.bin");
+            byte[] bytes = Files.readAllBytes(log);
+            bytes[JournalCodec.HEADER_BYTES + 1] ^= 0x7F;
+            Files.write(log, bytes);
+
+            // When
+            TodoStore reopened = assertDoesNotThrow(() -> manager.open(LIST_A, new TodoStore()),
+                    "破損したジャーナルでも例外にならないこと");
+
+            // Then
+            assertEquals(1, reopened.size(), "破損したレコードより前 (スナップショットの 1 件) が復元されること");
+            assertEquals(1, manager.openCount(), "ジャーナルが開かれること");
+            try (Stream<Path> files = Files.list(directory.resolve(LIST_A))) {
+                assertTrue(files.anyMatch(path -> path.getFileName().toString().startsWith("log-1.bin.corrupt-")),
+                        "破損したファイルが別名で残ること");
+            }
+        }
+    }
+
+    // =========================================================================
+    // flushAll
+    // =========================================================================
+
+    @Nested
+    @DisplayName("flushAll のテスト")
+    class FlushAllTest {
+
+        @Test
+        @DisplayName("正常系: 変更のあったジャーナルだけがフラッシュされること")
+        void flushAll_onlyChangedJournals() throws IOException {
+            // Given
+            TodoStore a = manager.open(LIST_A, seed());
+            manager.open(LIST_B, seed());
+            a.toggle(1L);
+
+            // When
+            manager.flushAll();
+
+            // Then
+            assertTrue(Files.size(directory.resolve(LIST_A).resolve("log-1.bin")) > 0,
+                    "変更のあったリストのログが書き込まれること");
+            assertEquals(0, Files.size(directory.resolve(LIST_B).resolve("log-1.bin")),
+                    "変更のないリストのログには書き込まれないこと");
+        }
+    }
+
+    // =========================================================================
+    // evictIdle
+    // =========================================================================
+
+    @Nested
+    @DisplayName("evictIdle のテスト")
+    class EvictIdleTest {
+
+        @Test
+        @DisplayName("正常系: 利用者がいる間は、時間が経過しても閉じないこと")
+        void evictIdle_inUse_kept() {
+            // Given
+            manager.open(LIST_A, seed());
+            manager.open(LIST_A, seed());
+            manager.release(LIST_A);
+
+            // When
+            int evicted = manager.evictIdle(afterIdle());
+
+            // Then
+            assertEquals(0, evicted, "まだ利用者がいるジャーナルは閉じないこと");
+            assertEquals(1, manager.openCount(), "ジャーナルが開いたままであること");
+        }
+
+        @Test
+        @DisplayName("境界値: 最後の利用者が手放してから一定時間が経過するまでは閉じないこと")
+        void evictIdle_beforeIdleTime_kept() {
+            // Given
+            manager.open(LIST_A, seed());
+            manager.release(LIST_A);
+
+            // When
+            int evicted = manager.evictIdle(System.currentTimeMillis());
+
+            // Then
+            assertEquals(0, evicted, "手放した直後は閉じないこと");
+            assertEquals(1, manager.openCount(), "ジャーナルが開いたままであること");
+        }
+
+        @Test
+        @DisplayName("正常系: 使われなくなったジャーナルは未フラッシュの変更を書き込んで閉じ、次に開くとディスクから再生されること")
+        void evictIdle_released_closedAndReopened() {
+            // Given
+            TodoStore store = manager.open(LIST_A, seed());
+            store.add(new TodoItem(store.nextId(), "タスク2", "説明2"));
+            manager.release(LIST_A);
+
+            // When
+            int evicted = manager.evictIdle(afterIdle());
+            TodoStore reopened = manager.open(LIST_A, new TodoStore());
+
+            // Then
+            assertEquals(1, evicted, "使われなくなったジャーナルが閉じられること");
+            assertNotSame(store, reopened, "閉じた後は新しいストアとして開かれること");
+            assertEquals(2, reopened.size(), "閉じる前の変更がディスクから再生されること");
+            assertEquals("タスク2", reopened.find(2L).getTitle(), "未フラッシュだった変更も復元されること");
+        }
+    }
+}
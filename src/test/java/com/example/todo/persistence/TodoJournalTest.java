@@ -0,0 +1,387 @@
+package com.example.todo.persistence;
+
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TodoJournal} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>再生: 追加・削除・完了切り替え・編集が再オープン後に復元されること</li>
+ *   <li>グループコミット: フラッシュ前の変更はファイルに書かれないこと</li>
+ *   <li>コンパクション: 古い世代のファイルが削除され、内容が維持されること</li>
+ *   <li>破損: 書き込み途中の末尾を読み飛ばすこと・途中の破損で再生を止め、ファイルを別名で残すこと</li>
+ * </ul>
+ *
+ * <p>プロセスの異常終了は、ジャーナルを閉じずに同じディレクトリを開き直すことで再現します。</p>
+ */
+@DisplayName("TodoJournal のテスト")
+class TodoJournalTest {
+
+    @TempDir
+    Path directory;
+
+    /** テスト対象 (初期状態: タスク1〜3) */
+    private TodoJournal journal;
+    private TodoStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TodoStore seed = new TodoStore();
+        seed.add(new TodoItem(1L, "タスク1", "説明1"));
+        seed.add(new TodoItem(2L, "タスク2", "説明2"));
+        seed.add(new TodoItem(3L, "タスク3", "説明3"));
+        journal = TodoJournal.open(directory, seed);
+        store = journal.getStore();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    // =========================================================================
+    // 再生
+    // =========================================================================
+
+    @Nested
+    @DisplayName("再生のテスト")
+    class ReplayTest {
+
+        @Test
+        @DisplayName("正常系: 空のディレクトリを開いたとき、初期状態のストアがそのまま使われること")
+        void open_emptyDirectory_usesSeed() throws IOException {
+            // Given / When
+            TodoStore restored = reopen();
+
+            // Then
+            assertEquals(List.of("タスク1", "タスク2", "タスク3"), titles(restored),
+                    "初期状態がスナップショットから復元されること");
+        }
+
+        @Test
+        @DisplayName("正常系: 追加・削除・完了切り替え・編集がフラッシュ後の再オープンで復元されること")
+        void mutations_restoredAfterFlush() throws IOException {
+            // Given
+            store.add(new TodoItem(store.nextId(), "タスク4", "説明4"));
+            store.remove(2L);
+            store.toggle(1L);
+            store.find(3L).edit("編集後", "編集後の説明");
+            journal.flush();
+
+            // When
+            TodoStore restored = reopen();
+
+            // Then
+            assertEquals(List.of("タスク1", "編集後", "タスク4"), titles(restored),
+                    "追加・削除・編集が挿入順のまま復元されること");
+            assertTrue(restored.find(1L).isCompleted(), "完了状態が復元されること");
+            assertEquals("編集後の説明", restored.find(3L).getDescription(), "説明が復元されること");
+            assertEquals(1, restored.getCompletedCount(), "完了件数が復元されること");
+            assertEquals(5L, restored.nextId(), "次の ID が既存の ID と重複しないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: 作成日時が復元されること")
+        void createdAt_restored() throws IOException {
+            // Given
+            TodoItem item = new TodoItem(store.nextId(), "タスク4", "");
+            item.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 600));
+            store.add(item);
+            journal.flush();
+
+            // When
+            TodoStore restored = reopen();
+
+            // Then
+            assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 600), restored.find(4L).getCreatedAt(),
+                    "作成日時がナノ秒まで復元されること");
+        }
+
+        @Test
+        @DisplayName("境界値: 作成日時が null の Todo も記録でき、null のまま復元されること")
+        void createdAt_null_restored() throws IOException {
+            // Given
+            TodoItem item = new TodoItem(store.nextId(), "タスク4", "");
+            item.setCreatedAt(null);
+            store.add(item);
+            journal.flush();
+
+            // When
+            TodoStore restored = reopen();
+
+            // Then
+            assertEquals("タスク4", restored.find(4L).getTitle(), "Todo が復元されること");
+            assertNull(restored.find(4L).getCreatedAt(), "作成日時が null のまま復元されること");
+        }
+
+        @Test
+        @DisplayName("正常系: 日本語や空の説明を含むテキストが復元されること")
+        void text_roundTrip() throws IOException {
+            // Given
+            store.add(new TodoItem(store.nextId(), "絵文字😀と改行\nを含む", null));
+            journal.flush();
+
+            // When
+            TodoStore restored = reopen();
+
+            // Then
+            assertEquals("絵文字😀と改行\nを含む", restored.find(4L).getTitle(), "タイトルが復元されること");
+            assertEquals("", restored.find(4L).getDescription(), "null の説明は空文字として復元されること");
+        }
+    }
+
+    // =========================================================================
+    // グループコミット
+    // =========================================================================
+
+    @Nested
+    @DisplayName("グループコミットのテスト")
+    class GroupCommitTest {
+
+        @Test
+        @DisplayName("正常系: フラッシュ前の変更はファイルに書かれず、フラッシュでまとめて書かれること")
+        void records_writtenOnFlush() throws IOException {
+            // Given
+            long before = logFileSize();
+            store.toggle(1L);
+            store.toggle(2L);
+
+            // When / Then
+            assertEquals(before, logFileSize(), "フラッシュ前はログファイルが変わらないこと");
+            assertTrue(journal.getLogBytes() > 0, "未フラッシュのレコードがログサイズに含まれること");
+            journal.flush();
+            assertEquals(journal.getLogBytes(), logFileSize(), "フラッシュ後はログファイルに書かれること");
+        }
+
+        @Test
+        @DisplayName("正常系: フラッシュ前に異常終了したとき、フラッシュ済みの変更だけが復元されること")
+        void crashBeforeFlush_keepsFlushedRecords() throws IOException {
+            // Given
+            store.toggle(1L);
+            journal.flush();
+            store.toggle(2L);
+
+            // When: フラッシュせずに開き直す
+            TodoStore restored = reopen();
+
+            // Then
+            assertTrue(restored.find(1L).isCompleted(), "フラッシュ済みの変更は復元されること");
+            assertFalse(restored.find(2L).isCompleted(), "フラッシュ前の変更は失われること");
+        }
+
+        @Test
+        @DisplayName("正常系: close で残りのレコードが書き込まれること")
+        void close_flushesPending() throws IOException {
+            // Given
+            store.remove(1L);
+
+            // When
+            journal.close();
+            TodoStore restored = reopen();
+
+            // Then
+            assertNull(restored.find(1L), "close 前の削除が復元されること");
+        }
+    }
+
+    // =========================================================================
+    // コンパクション
+    // =========================================================================
+
+    @Nested
+    @DisplayName("コンパクションのテスト")
+    class CompactTest {
+
+        @Test
+        @DisplayName("正常系: コンパクション後は最新の世代のファイルだけが残り、内容が維持されること")
+        void compact_removesOldGenerations() throws IOException {
+            // Given
+            for (int i = 0; i < 100; i++) {
+                store.toggle(1L);
+            }
+            store.add(new TodoItem(store.nextId(), "タスク4", ""));
+            journal.flush();
+
+            // When
+            journal.compact();
+
+            // Then
+            assertEquals(List.of("log-2.bin", "snapshot-2.bin"), files(),
+                    "新しい世代のスナップショットとログだけが残ること");
+            assertEquals(0, journal.getLogBytes(), "ログサイズが 0 に戻ること");
+            TodoStore restored = reopen();
+            assertEquals(List.of("タスク1", "タスク2", "タスク3", "タスク4"), titles(restored),
+                    "コンパクション前の内容が復元されること");
+        }
+
+        @Test
+        @DisplayName("正常系: コンパクション後の変更が新しい世代のログから復元されること")
+        void mutationsAfterCompact_restored() throws IOException {
+            // Given
+            store.toggle(1L);
+            journal.compact();
+
+            // When
+            store.remove(2L);
+            journal.flush();
+            TodoStore restored = reopen();
+
+            // Then
+            assertTrue(restored.find(1L).isCompleted(), "コンパクション前の変更が復元されること");
+            assertNull(restored.find(2L), "コンパクション後の変更が復元されること");
+        }
+    }
+
+    // =========================================================================
+    // 破損
+    // =========================================================================
+
+    @Nested
+    @DisplayName("破損したログのテスト")
+    class CorruptionTest {
+
+        @Test
+        @DisplayName("異常系: ログの末尾が書き込み途中で切れているとき、それ以前のレコードが復元されること")
+        void tornTail_ignored() throws IOException {
+            // Given: 2 件目のレコードの途中までしか書かれていない状態を作る
+            store.toggle(1L);
+            journal.flush();
+            long valid = logFileSize();
+            store.toggle(2L);
+            journal.flush();
+            truncateLog(valid + 5);
+
+            // When
+            TodoStore restored = reopen();
+
+            // Then
+            assertTrue(restored.find(1L).isCompleted(), "完全に書かれたレコードは復元されること");
+            assertFalse(restored.find(2L).isCompleted(), "途中で切れたレコードは読み飛ばされること");
+        }
+
+        @Test
+        @DisplayName("異常系: CRC が一致しないレコード以降は再生されないこと")
+        void crcMismatch_stopsReplay() throws IOException {
+            // Given: 最後のバイトを書き換える
+            store.find(1L).edit("編集後", "");
+            journal.flush();
+            Path log = directory.resolve("log-1.bin");
+            byte[] bytes = Files.readAllBytes(log);
+            bytes[bytes.length - 1] ^= 0x7F;
+            Files.write(log, bytes);
+
+            // When
+            TodoStore restored = reopen();
+
+            // Then
+            assertEquals("タスク1", restored.find(1L).getTitle(), "破損したレコードは適用されないこと");
+        }
+
+        @Test
+        @DisplayName("異常系: 途中のレコードの CRC が一致しないとき、直前のレコードまでが復元され、ファイルが別名で残ること")
+        void midJournalCrcMismatch_setAsideAndContinue() throws IOException {
+            // Given: 3 件のレコードのうち 2 件目の本体を書き換える
+            store.toggle(1L);
+            journal.flush();
+            long first = logFileSize();
+            store.toggle(2L);
+            journal.flush();
+            store.toggle(3L);
+            journal.flush();
+            Path log = directory.resolve("log-1.bin");
+            byte[] bytes = Files.readAllBytes(log);
+            bytes[(int) first + 9] ^= 0x7F;
+            Files.write(log, bytes);
+
+            // When
+            TodoJournal reopened = TodoJournal.open(directory, new TodoStore());
+            TodoStore restored = reopened.getStore();
+            restored.toggle(1L);
+            reopened.close();
+
+            // Then
+            assertFalse(restored.find(3L).isCompleted(), "破損したレコード以降は適用されないこと");
+            assertFalse(restored.find(2L).isCompleted(), "破損したレコードは適用されないこと");
+            assertTrue(files().stream().anyMatch(name -> name.startsWith("log-1.bin.corrupt-")),
+                    "破損したファイルが別名で残ること: " + files());
+            assertEquals(List.of("log-2.bin", "snapshot-2.bin"),
+                    files().stream().filter(name -> !name.contains("corrupt")).collect(Collectors.toList()),
+                    "新しい世代が始まること");
+            assertFalse(reopen().find(1L).isCompleted(), "新しい世代に記録した変更が復元されること");
+        }
+
+        @Test
+        @DisplayName("異常系: CRC は一致するが種別が不正なレコードのとき、例外にならずそれ以前のレコードが復元されること")
+        void unknownRecordType_stopsWithoutException() throws IOException {
+            // Given: 正しい CRC を持つ未知の種別のレコードを追記する
+            store.toggle(1L);
+            journal.flush();
+            byte[] body = {99, 1};
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            ByteBuffer frame = ByteBuffer.allocate(JournalCodec.HEADER_BYTES + body.length)
+                    .putInt(body.length).putInt((int) crc.getValue()).put(body);
+            Files.write(directory.resolve("log-1.bin"), frame.array(), StandardOpenOption.APPEND);
+
+            // When
+            TodoStore restored = assertDoesNotThrow(TodoJournalTest.this::reopen, "再オープンで例外にならないこと");
+
+            // Then
+            assertTrue(restored.find(1L).isCompleted(), "破損したレコードより前は復元されること");
+            assertTrue(files().stream().anyMatch(name -> name.startsWith("log-1.bin.corrupt-")),
+                    "破損したファイルが別名で残ること: " + files());
+        }
+    }
+
+    // ---- ヘルパー ----
+
+    /** 現在のジャーナルを閉じずに、同じディレクトリを別のジャーナルとして開く */
+    private TodoStore reopen() throws IOException {
+        TodoJournal reopened = TodoJournal.open(directory, new TodoStore());
+        TodoStore restored = reopened.getStore();
+        reopened.close();
+        return restored;
+    }
+
+    private long logFileSize() throws IOException {
+        return Files.size(directory.resolve("log-1.bin"));
+    }
+
+    private void truncateLog(long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve("log-1.bin"), StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> titles(TodoStore store) {
+        return store.asList().stream().map(TodoItem::getTitle).collect(Collectors.toList());
+    }
+}
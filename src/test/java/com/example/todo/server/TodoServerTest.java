@@ -0,0 +1,132 @@
+package com.example.todo.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TodoServer} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>コマンドライン引数 (ポート・学習用の実行・仮想スレッド) の解析と不正な値の拒否</li>
+ *   <li>Web アプリのディレクトリの探索 (JAR と同じディレクトリの webapp → src/main/webapp)</li>
+ *   <li>web.xml のないディレクトリでは起動しないこと</li>
+ * </ul>
+ */
+@DisplayName("TodoServer のテスト")
+class TodoServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Nested
+    @DisplayName("Options.parse")
+    class OptionsTest {
+
+        @Test
+        @DisplayName("正常系: 引数がない場合はポート 8080 で学習用の実行ではないこと")
+        void parse_defaults() {
+            // Given / When
+            TodoServer.Options options = TodoServer.Options.parse(new String[0], null);
+
+            // Then
+            assertEquals(8080, options.port, "既定のポートは 8080 であること");
+            assertFalse(options.training, "既定では学習用の実行ではないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: --port と --training を解析できること")
+        void parse_portAndTraining() {
+            // Given / When
+            TodoServer.Options options = TodoServer.Options.parse(new String[]{"--port=0", "--training"}, null);
+
+            // Then
+            assertEquals(0, options.port, "--port=0 (空いているポート) を指定できること");
+            assertTrue(options.training, "--training を指定できること");
+        }
+
+        @Test
+        @DisplayName("正常系: --virtual-threads を解析できること (既定はスレッドプール)")
+        void parse_virtualThreads() {
+            // Given / When
+            TodoServer.Options defaults = TodoServer.Options.parse(new String[0], null);
+            TodoServer.Options options = TodoServer.Options.parse(new String[]{"--virtual-threads"}, null);
+
+            // Then
+            assertFalse(defaults.virtualThreads, "既定ではスレッドプールで処理すること");
+            assertTrue(options.virtualThreads, "--virtual-threads を指定できること");
+        }
+
+        @Test
+        @DisplayName("異常系: 数値でない・範囲外のポートや不明な引数は IllegalArgumentException になること")
+        void parse_invalidArguments_throw() {
+            // Given / When / Then
+            assertThrows(IllegalArgumentException.class,
+                    () -> TodoServer.Options.parse(new String[]{"--port=abc"}, null), "数値でないポート");
+            assertThrows(IllegalArgumentException.class,
+                    () -> TodoServer.Options.parse(new String[]{"--port=70000"}, null), "範囲外のポート");
+            assertThrows(IllegalArgumentException.class,
+                    () -> TodoServer.Options.parse(new String[]{"--webapp"}, null), "値のない --webapp");
+            assertThrows(IllegalArgumentException.class,
+                    () -> TodoServer.Options.parse(new String[]{"--unknown"}, null), "不明な引数");
+        }
+
+        @Test
+        @DisplayName("正常系: JAR と同じディレクトリに webapp がある場合はそれを使い、WEB-INF/classes を追加しないこと")
+        void parse_packagedWebapp() throws Exception {
+            // Given: server プロファイルの出力と同じ構成
+            Path webapp = Files.createDirectories(tempDir.resolve("webapp"));
+
+            // When
+            TodoServer.Options options = TodoServer.Options.parse(new String[0], tempDir.toFile());
+
+            // Then
+            assertEquals(webapp.toFile(), options.webapp, "JAR と同じディレクトリの webapp を使うこと");
+            assertNull(options.classes, "クラスは webapp/WEB-INF/classes に含まれるため追加しないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: webapp がない場合はプロジェクトの src/main/webapp と target/classes を使うこと")
+        void parse_projectLayout() {
+            // Given: JAR と同じディレクトリに webapp がない (IDE などからの起動)
+            // When
+            TodoServer.Options options = TodoServer.Options.parse(new String[0], tempDir.toFile());
+
+            // Then
+            assertEquals(new File("src/main/webapp"), options.webapp, "src/main/webapp を使うこと");
+            assertEquals(new File("target/classes"), options.classes, "target/classes を WEB-INF/classes とすること");
+        }
+
+        @Test
+        @DisplayName("正常系: --webapp を指定した場合は探索しないこと")
+        void parse_explicitWebapp() throws Exception {
+            // Given
+            Files.createDirectories(tempDir.resolve("webapp"));
+
+            // When
+            TodoServer.Options options =
+                    TodoServer.Options.parse(new String[]{"--webapp=/srv/todo/webapp"}, tempDir.toFile());
+
+            // Then
+            assertEquals(new File("/srv/todo/webapp"), options.webapp, "指定したディレクトリを使うこと");
+            assertNull(options.classes, "WEB-INF/classes は追加しないこと");
+        }
+    }
+
+    @Test
+    @DisplayName("異常系: WEB-INF/web.xml のないディレクトリでは IOException になり、起動しないこと")
+    void start_withoutWebXml_throwsIOException() {
+        // Given / When / Then
+        assertThrows(IOException.class, () -> TodoServer.start(0, tempDir.toFile(), null),
+                "web.xml のないディレクトリでは起動しないこと");
+    }
+}
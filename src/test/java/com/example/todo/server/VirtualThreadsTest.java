@@ -0,0 +1,55 @@
+package com.example.todo.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link VirtualThreads} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>Java 21 以降ではタスクを名前付きの仮想スレッドで実行すること</li>
+ *   <li>仮想スレッドに対応していない実行環境では {@code null} を返すこと (スレッドプールへのフォールバック)</li>
+ * </ul>
+ */
+@DisplayName("VirtualThreads のテスト")
+class VirtualThreadsTest {
+
+    /** 実行環境が仮想スレッドに対応しているかどうか (Java 21 以降) */
+    private static final boolean SUPPORTED = Runtime.version().feature() >= 21;
+
+    @Test
+    @DisplayName("正常系: Java 21 以降ではタスクを仮想スレッドで実行し、それ以前は null を返すこと")
+    void newPerTaskExecutor_runsTasksOnVirtualThreads() throws Exception {
+        // Given / When
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor("test-virtual-");
+
+        // Then
+        if (!SUPPORTED) {
+            assertNull(executor, "仮想スレッドに対応していない実行環境では null を返すこと");
+            return;
+        }
+        assertNotNull(executor, "Java 21 以降では Executor を作成できること");
+        try {
+            Future<Boolean> virtual = executor.submit(VirtualThreads::isCurrentThreadVirtual);
+            Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+            assertTrue(virtual.get(10, TimeUnit.SECONDS), "タスクは仮想スレッドで実行されること");
+            assertTrue(name.get(10, TimeUnit.SECONDS).startsWith("test-virtual-"), "スレッド名に接頭辞が付くこと");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("正常系: プラットフォームスレッドでは isCurrentThreadVirtual が false を返すこと")
+    void isCurrentThreadVirtual_platformThread_returnsFalse() {
+        // Given / When / Then (JUnit はプラットフォームスレッドでテストを実行する)
+        assertFalse(VirtualThreads.isCurrentThreadVirtual(), "プラットフォームスレッドでは false であること");
+    }
+}
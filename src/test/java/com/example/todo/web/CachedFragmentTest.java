@@ -0,0 +1,270 @@
+package com.example.todo.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.faces.application.Application;
+import javax.faces.component.UIComponentBase;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.faces.context.ResponseWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link CachedFragment} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>初回は子コンポーネントを描画し、その結果を出力・保存すること</li>
+ *   <li>キーが同じ間は子コンポーネントを描画せず、保存した結果を出力すること</li>
+ *   <li>キーが変わった場合・キャッシュがない場合は描画すること</li>
+ *   <li>描画後にレスポンスの ResponseWriter が元に戻ること</li>
+ *   <li>キャッシュから出力した行でも f:ajax のボタンが動作すること (ボタンのマークアップと jsf.js の読み込み)</li>
+ * </ul>
+ *
+ * <p>{@link FacesContext} と {@link ResponseWriter} は Mockito でモックし、
+ * 子コンポーネントには描画回数を数えるテスト用のコンポーネントを使う。</p>
+ */
+@DisplayName("CachedFragment のテスト")
+class CachedFragmentTest {
+
+    private FacesContext mockContext;
+    private ResponseWriter responseWriter;
+    private StringWriter response;
+    private AtomicReference<ResponseWriter> currentWriter;
+
+    private FragmentCache cache;
+    private CountingChild child;
+
+    /** テスト対象 */
+    private CachedFragment fragment;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        response = new StringWriter();
+        responseWriter = writerTo(response);
+        currentWriter = new AtomicReference<>(responseWriter);
+
+        mockContext = mock(FacesContext.class);
+        when(mockContext.getApplication()).thenReturn(mock(Application.class));
+        when(mockContext.getExternalContext()).thenReturn(mock(ExternalContext.class));
+        // 描画中のコンポーネントのスタック (pushComponentToEL) はコンテキストの属性に保持される
+        when(mockContext.getAttributes()).thenReturn(new HashMap<>());
+        when(mockContext.getResponseWriter()).thenAnswer(invocation -> currentWriter.get());
+        doAnswer(invocation -> {
+            currentWriter.set(invocation.getArgument(0));
+            return null;
+        }).when(mockContext).setResponseWriter(any());
+
+        cache = new FragmentCache();
+        child = new CountingChild();
+        fragment = new CachedFragment();
+        fragment.setId("row");
+        fragment.getChildren().add(child);
+    }
+
+    /** write(String) の内容を out へ書き込み、cloneWithWriter で同様の ResponseWriter を返すモック */
+    private static ResponseWriter writerTo(Writer out) throws IOException {
+        ResponseWriter writer = mock(ResponseWriter.class);
+        doAnswer(invocation -> {
+            out.write((String) invocation.getArgument(0));
+            return null;
+        }).when(writer).write(anyString());
+        when(writer.cloneWithWriter(any())).thenAnswer(invocation -> writerTo(invocation.getArgument(0)));
+        return writer;
+    }
+
+    /**
+     * 描画のたびに現在のタイトルを出力し、描画回数を数える子コンポーネント。
+     */
+    private static final class CountingChild extends UIComponentBase {
+
+        private String title = "牛乳を買う";
+        private int renders;
+
+        @Override
+        public String getFamily() {
+            return "test";
+        }
+
+        @Override
+        public void encodeAll(FacesContext context) throws IOException {
+            renders++;
+            context.getResponseWriter().write("<span>" + title + "</span>");
+        }
+    }
+
+    /**
+     * f:ajax 付きの h:commandButton と同じ形のボタン (クライアント ID と jsf.js の呼び出し) を出力する子コンポーネント。
+     */
+    private static final class AjaxButtonChild extends UIComponentBase {
+
+        private int renders;
+
+        @Override
+        public String getFamily() {
+            return "test";
+        }
+
+        @Override
+        public void encodeAll(FacesContext context) throws IOException {
+            renders++;
+            String clientId = getClientId(context);
+            context.getResponseWriter().write("<input type=\"submit\" name=\"" + clientId + "\" value=\"&#9675;\""
+                    + " onclick=\"mojarra.ab(this,event,'action',0,'row :stats');return false\"/>");
+        }
+    }
+
+    // =========================================================================
+    // 描画
+    // =========================================================================
+
+    @Nested
+    @DisplayName("描画のテスト")
+    class EncodeTest {
+
+        @Test
+        @DisplayName("初回は子コンポーネントを描画して出力し、結果を保存すること")
+        void firstRenderEncodesChildren() throws IOException {
+            // Given
+            fragment.setCache(cache);
+            fragment.setKey("1:0:");
+
+            // When
+            fragment.encodeAll(mockContext);
+
+            // Then
+            assertEquals("<span>牛乳を買う</span>", response.toString(), "子コンポーネントの描画結果が出力されること");
+            assertEquals(1, child.renders, "子コンポーネントが 1 回描画されること");
+            assertEquals("<span>牛乳を買う</span>", cache.get("row", "1:0:"), "描画結果がクライアント ID ごとに保存されること");
+            assertSame(responseWriter, currentWriter.get(), "描画後はレスポンスの ResponseWriter に戻ること");
+        }
+
+        @Test
+        @DisplayName("キーが同じ間は子コンポーネントを描画せず、保存した結果を出力すること")
+        void sameKeyReusesFragment() throws IOException {
+            // Given
+            fragment.setCache(cache);
+            fragment.setKey("1:0:");
+            fragment.encodeAll(mockContext);
+            child.title = "描画されないはずの値";
+
+            // When
+            fragment.encodeAll(mockContext);
+
+            // Then
+            assertEquals(1, child.renders, "2 回目は子コンポーネントが描画されないこと");
+            assertEquals("<span>牛乳を買う</span><span>牛乳を買う</span>", response.toString(),
+                    "保存した結果が出力されること");
+        }
+
+        @Test
+        @DisplayName("キーが変わった場合は描画し直すこと")
+        void changedKeyRendersAgain() throws IOException {
+            // Given
+            fragment.setCache(cache);
+            fragment.setKey("1:0:");
+            fragment.encodeAll(mockContext);
+
+            // When
+            child.title = "卵を買う";
+            fragment.setKey("1:1:");
+            fragment.encodeAll(mockContext);
+
+            // Then
+            assertEquals(2, child.renders, "キーが変わると子コンポーネントが描画されること");
+            assertTrue(response.toString().endsWith("<span>卵を買う</span>"), "変更後の内容が出力されること");
+            assertEquals("<span>卵を買う</span>", cache.get("row", "1:1:"), "新しい結果が保存されること");
+        }
+
+        @Test
+        @DisplayName("キャッシュが指定されていない場合は毎回描画すること")
+        void noCacheRendersEveryTime() throws IOException {
+            // Given
+            fragment.setKey("1:0:");
+
+            // When
+            fragment.encodeAll(mockContext);
+            fragment.encodeAll(mockContext);
+
+            // Then
+            assertEquals(2, child.renders, "毎回子コンポーネントが描画されること");
+            verify(responseWriter, never()).cloneWithWriter(any());
+        }
+
+        @Test
+        @DisplayName("キーが null の場合は保存せずに描画すること")
+        void nullKeyRendersWithoutCaching() throws IOException {
+            // Given
+            fragment.setCache(cache);
+
+            // When
+            fragment.encodeAll(mockContext);
+
+            // Then
+            assertEquals(1, child.renders, "子コンポーネントが描画されること");
+            assertEquals(0, cache.size(), "結果は保存されないこと");
+        }
+    }
+
+    // =========================================================================
+    // f:ajax のボタン
+    // =========================================================================
+
+    @Nested
+    @DisplayName("f:ajax のボタンのテスト")
+    class AjaxTest {
+
+        @Test
+        @DisplayName("キャッシュから出力した行は、ajax のボタン (name と onclick) が初回の描画と同じであること")
+        void cachedRenderKeepsAjaxButton() throws IOException {
+            // Given
+            AjaxButtonChild button = new AjaxButtonChild();
+            button.setId("toggle");
+            fragment.getChildren().clear();
+            fragment.getChildren().add(button);
+            fragment.setCache(cache);
+            fragment.setKey("1:0:");
+            fragment.encodeAll(mockContext);
+            String firstRender = response.toString();
+
+            // When
+            response.getBuffer().setLength(0);
+            fragment.encodeAll(mockContext);
+
+            // Then
+            assertEquals(1, button.renders, "2 回目はボタンを描画しないこと");
+            assertEquals(firstRender, response.toString(), "キャッシュから初回と同じマークアップが出力されること");
+            assertTrue(response.toString().contains("name=\"toggle\""), "ボタンのクライアント ID (送信時のデコードに使う) が含まれること");
+            assertTrue(response.toString().contains("onclick=\"mojarra.ab("), "jsf.js の ajax 送信の呼び出しが含まれること");
+        }
+
+        @Test
+        @DisplayName("一覧ページは行の描画に関係なく head で jsf.js を読み込むこと")
+        void listPageLoadsJsfJsExplicitly() throws IOException {
+            // Given
+            String page = Files.readString(Path.of("src/main/webapp/todos.xhtml"), StandardCharsets.UTF_8);
+
+            // When
+            int head = page.indexOf("<h:head>");
+            int headEnd = page.indexOf("</h:head>");
+            int script = page.indexOf("<h:outputScript library=\"javax.faces\" name=\"jsf.js\"/>");
+
+            // Then
+            assertTrue(head < script && script < headEnd,
+                    "すべての行がキャッシュから出力されても mojarra.ab が定義されるよう、head で jsf.js を読み込むこと");
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.todo.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link CompressionFilter} の単体テスト。
+ *
+ * <p>フィルターの後続の処理 (Faces Servlet) は、応答の Writer に HTML を書き出す FilterChain に差し替える。</p>
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>{@code Accept-Encoding} の判定・閾値を超えた応答だけを圧縮すること・設定値の解釈</li>
+ *   <li>ページ全体を溜めずに、書き出された分から圧縮済みの内容を送り出すこと</li>
+ *   <li>画像・圧縮済みのリソース・304・非同期の書き出しは圧縮しないこと</li>
+ * </ul>
+ */
+@DisplayName("CompressionFilter のテスト")
+class CompressionFilterTest {
+
+    private static final String ROW = "<div class=\"todo-item item-pending\"><span class=\"todo-title \">タスク</span></div>\n";
+
+    private HttpServletRequest mockRequest;
+    private HttpServletResponse mockResponse;
+    private ServletContext mockContext;
+    private final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+    private final CapturingStream sentStream = new CapturingStream(sent);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockRequest = mock(HttpServletRequest.class);
+        mockResponse = mock(HttpServletResponse.class);
+        mockContext = mock(ServletContext.class);
+        when(mockRequest.getHeader("Accept-Encoding")).thenReturn("gzip, deflate, br");
+        when(mockResponse.getOutputStream()).thenReturn(sentStream);
+        when(mockResponse.getCharacterEncoding()).thenReturn("UTF-8");
+        when(mockResponse.getContentType()).thenReturn("text/html;charset=UTF-8");
+        when(mockResponse.getStatus()).thenReturn(HttpServletResponse.SC_OK);
+    }
+
+    private CompressionFilter createFilter(String minBytes, String level) {
+        FilterConfig config = mock(FilterConfig.class);
+        when(config.getServletContext()).thenReturn(mockContext);
+        when(mockContext.getInitParameter(CompressionFilter.PARAM_MIN_BYTES)).thenReturn(minBytes);
+        when(mockContext.getInitParameter(CompressionFilter.PARAM_LEVEL)).thenReturn(level);
+        CompressionFilter filter = new CompressionFilter();
+        filter.init(config);
+        return filter;
+    }
+
+    /** 応答の Writer に HTML を書き出す後続の処理 */
+    private static FilterChain writing(String html) {
+        return (request, response) -> response.getWriter().write(html);
+    }
+
+    // =========================================================================
+    // 圧縮の判定
+    // =========================================================================
+
+    @Nested
+    @DisplayName("圧縮の判定のテスト")
+    class NegotiationTest {
+
+        @Test
+        @DisplayName("正常系: gzip を受け付け、閾値を超える応答は gzip で圧縮されること")
+        void doFilter_largePage_compressed() throws Exception {
+            // Given
+            String html = ROW.repeat(200);
+
+            // When
+            createFilter(null, null).doFilter(mockRequest, mockResponse, writing(html));
+
+            // Then
+            verify(mockResponse).addHeader("Vary", "Accept-Encoding");
+            verify(mockResponse).setHeader("Content-Encoding", "gzip");
+            verify(mockResponse, never()).setContentLengthLong(anyLong());
+            assertEquals(html, gunzip(sent.toByteArray()), "展開すると元の HTML に戻ること");
+            assertTrue(sent.size() < html.getBytes(StandardCharsets.UTF_8).length / 10,
+                    "繰り返しの多い行のマークアップは 1/10 未満になること: " + sent.size());
+        }
+
+        @Test
+        @DisplayName("境界値: 閾値以下の応答は圧縮せず Content-Length を付けて送ること")
+        void doFilter_smallPage_notCompressed() throws Exception {
+            // Given
+            String html = ROW.repeat(3);
+            int length = html.getBytes(StandardCharsets.UTF_8).length;
+
+            // When
+            createFilter(String.valueOf(length), null).doFilter(mockRequest, mockResponse, writing(html));
+
+            // Then
+            verify(mockResponse, never()).setHeader(eq("Content-Encoding"), anyString());
+            verify(mockResponse).setContentLengthLong(length);
+            assertEquals(html, sent.toString(StandardCharsets.UTF_8), "そのままの内容を送ること");
+        }
+
+        @Test
+        @DisplayName("異常系: gzip を受け付けない場合は元の応答のまま後続の処理を呼ぶこと")
+        void doFilter_gzipNotAccepted_passesOriginalResponse() throws Exception {
+            // Given
+            when(mockRequest.getHeader("Accept-Encoding")).thenReturn("gzip;q=0, identity");
+            FilterChain chain = mock(FilterChain.class);
+
+            // When
+            createFilter(null, null).doFilter(mockRequest, mockResponse, chain);
+
+            // Then
+            verify(chain).doFilter(mockRequest, mockResponse);
+            verify(mockResponse).addHeader("Vary", "Accept-Encoding");
+        }
+
+        @Test
+        @DisplayName("正常系: 圧縮レベル 0 ではフィルターを無効にし、不正な設定値は既定値とすること")
+        void init_levelParameter() throws Exception {
+            // Given
+            FilterChain chain = mock(FilterChain.class);
+
+            // When
+            createFilter(null, "0").doFilter(mockRequest, mockResponse, chain);
+
+            // Then
+            verify(chain).doFilter(mockRequest, mockResponse);
+            verify(mockResponse, never()).addHeader(anyString(), anyString());
+
+            // When (範囲外・数値ではない設定値)
+            String html = ROW.repeat(200);
+            createFilter("abc", "10").doFilter(mockRequest, mockResponse, writing(html));
+
+            // Then
+            verify(mockResponse).setHeader("Content-Encoding", "gzip");
+            assertEquals(html, gunzip(sent.toByteArray()), "既定の設定で圧縮されること");
+        }
+    }
+
+    // =========================================================================
+    // ストリーミング
+    // =========================================================================
+
+    @Nested
+    @DisplayName("ストリーミングのテスト")
+    class StreamingTest {
+
+        @Test
+        @DisplayName("正常系: ページの途中でも、書き出された分の圧縮済みの内容が送り出されていること")
+        void doFilter_flushesCompressedChunksWhileRendering() throws Exception {
+            // Given
+            String first = ROW.repeat(CompressionFilter.FLUSH_BYTES / ROW.length() * 3);
+            String rest = ROW.repeat(100);
+            int[] sentBeforeFlush = new int[1];
+            byte[][] sentWhileRendering = new byte[1][];
+            FilterChain chain = (request, response) -> {
+                PrintWriter writer = response.getWriter();
+                writer.write(first);
+                sentBeforeFlush[0] = sent.size();
+                writer.flush();
+                sentWhileRendering[0] = sent.toByteArray();
+                writer.write(rest);
+            };
+
+            // When
+            createFilter(null, null).doFilter(mockRequest, mockResponse, chain);
+
+            // Then
+            assertTrue(sentBeforeFlush[0] > 0, "flush を呼ばなくても、一定量ごとに圧縮済みの内容が送られていること");
+            assertEquals(first, inflatePartial(sentWhileRendering[0]),
+                    "描画の途中で、それまでに書き出した内容を展開できるだけの圧縮済みの内容が送られていること");
+            assertEquals(first + rest, gunzip(sent.toByteArray()), "最後まで展開すると元の HTML に戻ること");
+        }
+    }
+
+    // =========================================================================
+    // 圧縮しない応答
+    // =========================================================================
+
+    @Nested
+    @DisplayName("圧縮しない応答のテスト")
+    class PassThroughTest {
+
+        @Test
+        @DisplayName("正常系: 画像の応答は大きくても圧縮しないこと")
+        void doFilter_image_notCompressed() throws Exception {
+            // Given
+            when(mockResponse.getContentType()).thenReturn("image/png");
+            byte[] image = new byte[10_000];
+            Arrays.fill(image, (byte) 7);
+
+            // When
+            createFilter(null, null).doFilter(mockRequest, mockResponse,
+                    (request, response) -> response.getOutputStream().write(image));
+
+            // Then
+            verify(mockResponse, never()).setHeader(eq("Content-Encoding"), anyString());
+            assertArrayEquals(image, sent.toByteArray(), "そのままの内容を送ること");
+        }
+
+        @Test
+        @DisplayName("正常系: アプリが Content-Encoding を設定した応答 (圧縮済みのリソース) は重ねて圧縮しないこと")
+        void doFilter_alreadyEncoded_passesThrough() throws Exception {
+            // Given
+            byte[] precompressed = StaticResource.gzip(ROW.repeat(200).getBytes(StandardCharsets.UTF_8));
+            byte[] body = Arrays.copyOf(precompressed, 4000);
+
+            // When
+            createFilter(null, null).doFilter(mockRequest, mockResponse, (request, response) -> {
+                HttpServletResponse http = (HttpServletResponse) response;
+                http.setHeader("Content-Encoding", "gzip");
+                http.setContentLength(body.length);
+                http.getOutputStream().write(body);
+            });
+
+            // Then
+            verify(mockResponse).setHeader("Content-Encoding", "gzip");
+            verify(mockResponse).setContentLengthLong(body.length);
+            assertArrayEquals(body, sent.toByteArray(), "設定した内容と長さのまま送ること");
+        }
+
+        @Test
+        @DisplayName("異常系: 304 の応答は圧縮しないこと")
+        void doFilter_notModified_notCompressed() throws Exception {
+            // Given
+            when(mockResponse.getStatus()).thenReturn(HttpServletResponse.SC_NOT_MODIFIED);
+            String html = ROW.repeat(200);
+
+            // When
+            createFilter(null, null).doFilter(mockRequest, mockResponse, writing(html));
+
+            // Then
+            verify(mockResponse, never()).setHeader(eq("Content-Encoding"), anyString());
+            assertEquals(html, sent.toString(StandardCharsets.UTF_8), "そのままの内容を送ること");
+        }
+
+        @Test
+        @DisplayName("正常系: 非同期の書き出しでは圧縮せず、元の応答のストリームに WriteListener を登録すること")
+        void setWriteListener_passesThroughAndDelegates() throws Exception {
+            // Given
+            String head = ROW.repeat(3);
+            String html = ROW.repeat(200);
+            WriteListener listener = mock(WriteListener.class);
+
+            // When: 閾値に達する前に非同期の書き出しへ切り替える
+            createFilter(null, null).doFilter(mockRequest, mockResponse, (request, response) -> {
+                ServletOutputStream out = response.getOutputStream();
+                out.write(head.getBytes(StandardCharsets.UTF_8));
+                out.setWriteListener(listener);
+                assertTrue(out.isReady(), "元の応答のストリームの状態を返すこと");
+                out.write(html.getBytes(StandardCharsets.UTF_8));
+            });
+
+            // Then
+            assertSame(listener, sentStream.listener, "元の応答のストリームに登録されること");
+            verify(mockResponse, never()).setHeader(eq("Content-Encoding"), anyString());
+            assertEquals(head + html, sent.toString(StandardCharsets.UTF_8), "溜めた内容に続けてそのままの内容を送ること");
+        }
+
+        @Test
+        @DisplayName("異常系: 圧縮を始めた後に WriteListener を設定すると IllegalStateException が発生すること")
+        void setWriteListener_afterCompressing_throws() throws Exception {
+            // Given
+            String html = ROW.repeat(200);
+
+            // When / Then
+            createFilter(null, null).doFilter(mockRequest, mockResponse, (request, response) -> {
+                ServletOutputStream out = response.getOutputStream();
+                out.write(html.getBytes(StandardCharsets.UTF_8));
+                assertThrows(IllegalStateException.class, () -> out.setWriteListener(mock(WriteListener.class)),
+                        "圧縮の途中で非同期の書き出しに切り替えられないこと");
+            });
+            assertNull(sentStream.listener, "元の応答のストリームには登録されないこと");
+            assertEquals(html, gunzip(sent.toByteArray()), "圧縮した応答はそのまま完了すること");
+        }
+    }
+
+    // =========================================================================
+    // ヘルパー
+    // =========================================================================
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /** 途中までの gzip (ヘッダー 10 バイト + SYNC_FLUSH 済みの deflate) を展開する */
+    private static String inflatePartial(byte[] bytes) throws DataFormatException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(bytes, 10, bytes.length - 10);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int n;
+            while ((n = inflater.inflate(chunk)) > 0) {
+                out.write(chunk, 0, n);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /** 書き出された内容を記録する出力ストリーム (ソケットの代わり) */
+    private static final class CapturingStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream out;
+        /** 登録された WriteListener */
+        private WriteListener listener;
+
+        CapturingStream(ByteArrayOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            listener = writeListener;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.todo.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.faces.application.ResourceHandler;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link FingerprintResourceHandler} の単体テスト。
+ *
+ * <p>Web アプリのリソース ({@code /resources/css/todo.css} と圧縮済みの {@code .gz}) は ExternalContext のモックで用意する。</p>
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>{@code resourceName}: リソースのリクエストのパスからリソース名を取り出すこと</li>
+ *   <li>{@code lookup}: 読み込んだリソースを保持すること、ディレクトリの外を参照する名前を拒否すること</li>
+ *   <li>{@code handleResourceRequest}: 版が一致する場合だけメモリから圧縮済みの表現を返すこと、304、既定の処理への委譲</li>
+ * </ul>
+ */
+@DisplayName("FingerprintResourceHandler のテスト")
+class FingerprintResourceHandlerTest {
+
+    private static final String CSS_PATH = "/resources/css/todo.css";
+    private static final byte[] CSS = ".todo-item { color: #333; }\n".repeat(50).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CSS_GZIP = StaticResource.gzip(CSS);
+
+    private ResourceHandler mockWrapped;
+    private FacesContext mockContext;
+    private ExternalContext mockExternal;
+    private final Map<String, String> parameters = new HashMap<>();
+    private final Map<String, String> headers = new HashMap<>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    /** テスト対象 */
+    private FingerprintResourceHandler handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockWrapped = mock(ResourceHandler.class);
+        mockContext = mock(FacesContext.class);
+        mockExternal = mock(ExternalContext.class);
+        when(mockContext.getExternalContext()).thenReturn(mockExternal);
+        when(mockExternal.getRequestParameterMap()).thenReturn(parameters);
+        when(mockExternal.getRequestHeaderMap()).thenReturn(headers);
+        when(mockExternal.getResponseOutputStream()).thenReturn(body);
+        when(mockExternal.getMimeType("todo.css")).thenReturn("text/css");
+        when(mockExternal.getResourceAsStream(CSS_PATH)).thenAnswer(invocation -> new ByteArrayInputStream(CSS));
+        when(mockExternal.getResourceAsStream(CSS_PATH + ".gz"))
+                .thenAnswer(invocation -> new ByteArrayInputStream(CSS_GZIP));
+        when(mockExternal.getRequestServletPath()).thenReturn("/javax.faces.resource/todo.css.xhtml");
+        handler = new FingerprintResourceHandler(mockWrapped);
+    }
+
+    // =========================================================================
+    // resourceName
+    // =========================================================================
+
+    @Nested
+    @DisplayName("resourceName のテスト")
+    class ResourceNameTest {
+
+        @Test
+        @DisplayName("正常系: 拡張子のマッピングでは付けた拡張子を除いたリソース名を返すこと")
+        void resourceName_extensionMapping_stripsExtension() {
+            // Given (setUp の /javax.faces.resource/todo.css.xhtml)
+
+            // When
+            String name = FingerprintResourceHandler.resourceName(mockExternal);
+
+            // Then
+            assertEquals("todo.css", name, "マッピングの拡張子 .xhtml を除くこと");
+        }
+
+        @Test
+        @DisplayName("正常系: プレフィックスのマッピングではパス情報をそのまま返すこと")
+        void resourceName_prefixMapping_returnsPathInfo() {
+            // Given
+            when(mockExternal.getRequestServletPath()).thenReturn("/faces");
+            when(mockExternal.getRequestPathInfo()).thenReturn("/javax.faces.resource/todo.css");
+
+            // When
+            String name = FingerprintResourceHandler.resourceName(mockExternal);
+
+            // Then
+            assertEquals("todo.css", name, "パス情報からリソース名を取り出すこと");
+        }
+
+        @Test
+        @DisplayName("異常系: リソースのリクエストでない場合は null を返すこと")
+        void resourceName_notResourceRequest_returnsNull() {
+            // Given
+            when(mockExternal.getRequestServletPath()).thenReturn("/todos.xhtml");
+
+            // When / Then
+            assertNull(FingerprintResourceHandler.resourceName(mockExternal), "リソース名はないこと");
+        }
+    }
+
+    // =========================================================================
+    // lookup
+    // =========================================================================
+
+    @Nested
+    @DisplayName("lookup のテスト")
+    class LookupTest {
+
+        @Test
+        @DisplayName("正常系: 圧縮済みのファイルを使い、2 回目以降は読み込み直さないこと")
+        void lookup_loadsOnceWithPrecompressed() throws Exception {
+            // Given / When
+            StaticResource first = handler.lookup(mockContext, "todo.css", "css", true);
+            StaticResource second = handler.lookup(mockContext, "todo.css", "css", true);
+
+            // Then
+            assertSame(first, second, "読み込んだリソースを保持すること");
+            assertEquals(StaticResource.version(CSS), first.getVersion(), "版は内容のハッシュであること");
+            assertArrayEquals(CSS_GZIP, first.select("gzip").getBytes(), "圧縮済みのファイルをそのまま使うこと");
+            verify(mockExternal, times(1)).getResourceAsStream(CSS_PATH);
+        }
+
+        @Test
+        @DisplayName("異常系: ディレクトリの外を参照する名前や Web アプリにないリソースは null を返すこと")
+        void lookup_invalidOrMissing_returnsNull() {
+            // Given / When / Then
+            assertNull(handler.lookup(mockContext, "../WEB-INF/web.xml", "css", false), ".. を含む名前は拒否すること");
+            assertNull(handler.lookup(mockContext, "todo.css", "/etc", false), "絶対パスのライブラリ名は拒否すること");
+            assertNull(handler.lookup(mockContext, "jsf.js", "javax.faces", false), "Web アプリにないリソースは null であること");
+        }
+    }
+
+    // =========================================================================
+    // handleResourceRequest
+    // =========================================================================
+
+    @Nested
+    @DisplayName("handleResourceRequest のテスト")
+    class HandleResourceRequestTest {
+
+        @BeforeEach
+        void setUpRequest() {
+            parameters.put("ln", "css");
+            parameters.put(FingerprintResourceHandler.VERSION_PARAMETER, StaticResource.version(CSS));
+        }
+
+        @Test
+        @DisplayName("正常系: 版が一致する場合は immutable のキャッシュ指定で gzip の表現をそのまま返すこと")
+        void handle_currentVersion_servesPrecompressed() throws Exception {
+            // Given
+            headers.put("Accept-Encoding", "gzip, deflate");
+
+            // When
+            handler.handleResourceRequest(mockContext);
+
+            // Then
+            verify(mockExternal).setResponseHeader("Cache-Control", FingerprintResourceHandler.CACHE_CONTROL);
+            verify(mockExternal).setResponseHeader("Vary", "Accept-Encoding");
+            verify(mockExternal).setResponseHeader("Content-Encoding", "gzip");
+            verify(mockExternal).setResponseContentType("text/css");
+            verify(mockExternal).setResponseContentLength(CSS_GZIP.length);
+            verify(mockContext).responseComplete();
+            verify(mockWrapped, never()).handleResourceRequest(any());
+            assertArrayEquals(CSS_GZIP, body.toByteArray(), "圧縮済みのバイト列をそのまま書き出すこと");
+        }
+
+        @Test
+        @DisplayName("正常系: If-None-Match が ETag と一致する場合は本文なしで 304 を返すこと")
+        void handle_matchingEtag_returnsNotModified() throws Exception {
+            // Given
+            headers.put("If-None-Match", "\"" + StaticResource.version(CSS) + "\"");
+
+            // When
+            handler.handleResourceRequest(mockContext);
+
+            // Then
+            verify(mockExternal).setResponseStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            verify(mockContext).responseComplete();
+            assertEquals(0, body.size(), "本文は書き出さないこと");
+        }
+
+        @Test
+        @DisplayName("異常系: 古い版や版のない URL は既定の ResourceHandler に委譲すること")
+        void handle_staleOrMissingVersion_delegates() throws Exception {
+            // Given
+            parameters.put(FingerprintResourceHandler.VERSION_PARAMETER, "0000000000000000");
+
+            // When
+            handler.handleResourceRequest(mockContext);
+            parameters.remove(FingerprintResourceHandler.VERSION_PARAMETER);
+            handler.handleResourceRequest(mockContext);
+
+            // Then
+            verify(mockWrapped, times(2)).handleResourceRequest(mockContext);
+            verify(mockExternal, never()).setResponseHeader(eq("Cache-Control"), anyString());
+            assertEquals(0, body.size(), "自身では書き出さないこと");
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.todo.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link FragmentCache} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>キーが一致する場合だけ保存した断片が返されること</li>
+ *   <li>同じクライアント ID の断片が置き換えられること</li>
+ *   <li>件数の上限とヒット数・ミス数</li>
+ * </ul>
+ */
+@DisplayName("FragmentCache のテスト")
+class FragmentCacheTest {
+
+    /** テスト対象 */
+    private FragmentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new FragmentCache();
+    }
+
+    @Nested
+    @DisplayName("get / put のテスト")
+    class GetPutTest {
+
+        @Test
+        @DisplayName("保存したキーと同じキーでは保存した断片が返されること")
+        void hitWithSameKey() {
+            // Given
+            cache.put("items:0:row", "1:0:", "<div>1</div>");
+
+            // When
+            String html = cache.get("items:0:row", "1:0:");
+
+            // Then
+            assertEquals("<div>1</div>", html, "保存した断片が返されること");
+            assertEquals(1, cache.getHitCount(), "ヒット数が数えられること");
+        }
+
+        @Test
+        @DisplayName("キーが変わった場合 (Todo の変更後) は null が返されること")
+        void missWhenKeyChanged() {
+            // Given
+            cache.put("items:0:row", "1:0:", "<div>1</div>");
+
+            // When
+            String html = cache.get("items:0:row", "1:1:");
+
+            // Then
+            assertNull(html, "古い断片は返されないこと");
+            assertEquals(1, cache.getMissCount(), "ミス数が数えられること");
+        }
+
+        @Test
+        @DisplayName("別のクライアント ID の断片は返されないこと")
+        void missForOtherClientId() {
+            // Given
+            cache.put("items:0:row", "1:0:", "<div>1</div>");
+
+            // When / Then
+            assertNull(cache.get("items:1:row", "1:0:"), "行の位置が違う場合は返されないこと");
+        }
+
+        @Test
+        @DisplayName("同じクライアント ID に保存すると以前の断片が置き換えられること")
+        void putReplacesPreviousFragment() {
+            // Given
+            cache.put("items:0:row", "1:0:", "<div>古い</div>");
+
+            // When
+            cache.put("items:0:row", "1:1:", "<div>新しい</div>");
+
+            // Then
+            assertEquals(1, cache.size(), "クライアント ID ごとに 1 件だけ保持すること");
+            assertNull(cache.get("items:0:row", "1:0:"), "以前のキーでは返されないこと");
+            assertEquals("<div>新しい</div>", cache.get("items:0:row", "1:1:"), "新しい断片が返されること");
+        }
+    }
+
+    @Nested
+    @DisplayName("上限と破棄のテスト")
+    class LimitTest {
+
+        @Test
+        @DisplayName("上限を超える場合はすべて破棄してから保存すること")
+        void clearsWhenFull() {
+            // Given
+            for (int i = 0; i < FragmentCache.MAX_ENTRIES; i++) {
+                cache.put("row" + i, i, "<div/>");
+            }
+
+            // When
+            cache.put("extra", 0, "<p/>");
+
+            // Then
+            assertEquals(1, cache.size(), "破棄した後に新しい断片だけが保持されること");
+            assertEquals("<p/>", cache.get("extra", 0), "新しい断片が返されること");
+        }
+
+        @Test
+        @DisplayName("clear ですべての断片が破棄されること")
+        void clear() {
+            // Given
+            cache.put("items:0:row", "1:0:", "<div>1</div>");
+
+            // When
+            cache.clear();
+
+            // Then
+            assertEquals(0, cache.size(), "断片が残っていないこと");
+            assertNull(cache.get("items:0:row", "1:0:"), "破棄後は返されないこと");
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.todo.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link Json} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>{@code writeString}: エスケープ・{@code null}</li>
+ *   <li>{@code parseObject}: 各型の値・エスケープの復元・不正な入力</li>
+ * </ul>
+ */
+@DisplayName("Json のテスト")
+class JsonTest {
+
+    // =========================================================================
+    // writeString
+    // =========================================================================
+
+    @Nested
+    @DisplayName("writeString のテスト")
+    class WriteStringTest {
+
+        @Test
+        @DisplayName("正常系: 引用符・バックスラッシュ・改行・制御文字がエスケープされること")
+        void writeString_escapes() throws IOException {
+            // Given / When
+            String json = write("a\"b\\c\nd\te\u0001f\u2028");
+
+            // Then
+            assertEquals("\"a\\\"b\\\\c\\nd\\te\\u0001f\\u2028\"", json, "特殊文字がエスケープされること");
+        }
+
+        @Test
+        @DisplayName("正常系: 日本語はそのまま書き込まれること")
+        void writeString_japanese_unchanged() throws IOException {
+            // Given / When / Then
+            assertEquals("\"買い物をする\"", write("買い物をする"), "エスケープ不要な文字はそのままであること");
+        }
+
+        @Test
+        @DisplayName("境界値: null は null リテラルとして書き込まれること")
+        void writeString_null() throws IOException {
+            // Given / When / Then
+            assertEquals("null", write(null), "null は引用符なしの null であること");
+        }
+
+        private String write(String value) throws IOException {
+            StringWriter out = new StringWriter();
+            Json.writeString(out, value);
+            return out.toString();
+        }
+    }
+
+    // =========================================================================
+    // parseObject
+    // =========================================================================
+
+    @Nested
+    @DisplayName("parseObject のテスト")
+    class ParseObjectTest {
+
+        @Test
+        @DisplayName("正常系: 文字列・数値・真偽値・null・配列・オブジェクトを読み込めること")
+        void parseObject_allTypes() throws IOException {
+            // Given
+            String json = "{ \"s\": \"text\", \"i\": -12, \"d\": 1.5e2, \"t\": true, \"f\": false,"
+                    + " \"n\": null, \"a\": [1, \"x\"], \"o\": {\"k\": \"v\"} }";
+
+            // When
+            Map<String, Object> object = parse(json);
+
+            // Then
+            assertEquals("text", object.get("s"), "文字列であること");
+            assertEquals(-12L, object.get("i"), "整数は Long であること");
+            assertEquals(150.0, object.get("d"), "小数・指数表記は Double であること");
+            assertEquals(Boolean.TRUE, object.get("t"), "true であること");
+            assertEquals(Boolean.FALSE, object.get("f"), "false であること");
+            assertTrue(object.containsKey("n") && object.get("n") == null, "null はキーを持ち値が null であること");
+            assertEquals(List.of(1L, "x"), object.get("a"), "配列は List であること");
+            assertEquals(Map.of("k", "v"), object.get("o"), "オブジェクトは Map であること");
+        }
+
+        @Test
+        @DisplayName("正常系: エスケープが復元されること")
+        void parseObject_unescapes() throws IOException {
+            // Given / When
+            Map<String, Object> object = parse("{\"s\":\"a\\\"b\\\\c\\/d\\n\\u3042\"}");
+
+            // Then
+            assertEquals("a\"b\\c/d\nあ", object.get("s"), "エスケープが元の文字に戻ること");
+        }
+
+        @Test
+        @DisplayName("正常系: 書き込んだ文字列を読み戻すと元の文字列になること")
+        void parseObject_roundTrip() throws IOException {
+            // Given
+            String value = "改行\nタブ\t引用符\"\u0000\u2029";
+            StringWriter out = new StringWriter();
+            out.write("{\"v\":");
+            Json.writeString(out, value);
+            out.write('}');
+
+            // When
+            Map<String, Object> object = parse(out.toString());
+
+            // Then
+            assertEquals(value, object.get("v"), "書き込みと読み込みで値が変わらないこと");
+        }
+
+        @Test
+        @DisplayName("異常系: 不正な JSON は IllegalArgumentException になること")
+        void parseObject_malformed_throws() {
+            // Given / When / Then
+            for (String json : new String[]{"", "{", "{\"a\":}", "{\"a\":1,}", "{a:1}", "{\"a\":tru}",
+                    "{\"a\":\"x}", "{\"a\":1} x", "{\"a\":\"\\q\"}", "{\"a\":1-2}"}) {
+                assertThrows(IllegalArgumentException.class, () -> parse(json), "不正な JSON: " + json);
+            }
+        }
+
+        @Test
+        @DisplayName("異常系: オブジェクト以外は IllegalArgumentException になること")
+        void parseObject_notObject_throws() {
+            // Given / When / Then
+            assertThrows(IllegalArgumentException.class, () -> parse("[1, 2]"), "配列は拒否されること");
+            assertThrows(IllegalArgumentException.class, () -> parse("\"text\""), "文字列は拒否されること");
+        }
+
+        @Test
+        @DisplayName("異常系: 入れ子が深すぎる場合は IllegalArgumentException になること")
+        void parseObject_tooDeep_throws() {
+            // Given
+            String json = "{\"a\":" + "[".repeat(100) + "]".repeat(100) + "}";
+
+            // When / Then
+            assertThrows(IllegalArgumentException.class, () -> parse(json), "深さの上限を超えると拒否されること");
+        }
+
+        private Map<String, Object> parse(String json) throws IOException {
+            return Json.parseObject(new StringReader(json));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.todo.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link PrecompressResources} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>テキストのリソースごとに、展開すると元に戻る {@code .gz} を出力先の同じ相対パスに作成すること</li>
+ *   <li>画像などの圧縮の対象外のファイルは圧縮しないこと</li>
+ * </ul>
+ */
+@DisplayName("PrecompressResources のテスト")
+class PrecompressResourcesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("正常系: テキストのリソースの .gz を同じ相対パスに作成し、対象外のファイルは圧縮しないこと")
+    void main_writesGzipForTextResources() throws Exception {
+        // Given
+        Path source = tempDir.resolve("resources");
+        Path target = tempDir.resolve("precompressed/resources");
+        byte[] css = ".todo-item { color: #333; }\n".repeat(50).getBytes(StandardCharsets.UTF_8);
+        Files.createDirectories(source.resolve("css"));
+        Files.write(source.resolve("css/todo.css"), css);
+        Files.write(source.resolve("css/logo.png"), new byte[]{(byte) 0x89, 'P', 'N', 'G'});
+
+        // When
+        PrecompressResources.main(new String[]{source.toString(), target.toString()});
+
+        // Then
+        Path gzip = target.resolve("css/todo.css.gz");
+        assertTrue(Files.exists(gzip), "todo.css.gz を作成すること");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(gzip))) {
+            assertArrayEquals(css, in.readAllBytes(), "展開すると元の内容に戻ること");
+        }
+        assertFalse(Files.exists(target.resolve("css/logo.png.gz")), "画像は圧縮しないこと");
+        assertFalse(Files.exists(target.resolve("css/todo.css")), "元のファイルはコピーしないこと");
+    }
+}
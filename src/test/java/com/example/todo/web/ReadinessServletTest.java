@@ -0,0 +1,232 @@
+package com.example.todo.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link ReadinessServlet} の単体テスト。
+ *
+ * <p>ウォームアップの処理 ({@link ReadinessServlet.Runner}) は記録だけを行うものに差し替える。</p>
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>最初のアクセスでウォームアップを開始し、完了するまで 503、完了後は 200 を返すこと</li>
+ *   <li>ウォームアップが失敗しても準備完了になること・回数が 0 の場合はすぐに準備完了になること</li>
+ *   <li>ウォームアップのリクエストでは使い捨てのセッションを破棄すること</li>
+ *   <li>POST によるウォームアップの再実行・トークンのない POST は 403 とすること</li>
+ * </ul>
+ */
+@DisplayName("ReadinessServlet のテスト")
+class ReadinessServletTest {
+
+    private ServletContext context;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    /** 実行されたウォームアップ (アプリの URL セッションを破棄する URL 回数) */
+    private final List<String> runs = new CopyOnWriteArrayList<>();
+
+    /** テスト対象 */
+    private ReadinessServlet servlet;
+
+    @BeforeEach
+    void setUp() {
+        context = mock(ServletContext.class);
+        doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(context).setAttribute(anyString(), any());
+        when(context.getAttribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.<String>getArgument(0)));
+
+        servlet = new ReadinessServlet();
+        servlet.setRunner((base, endSession, token, iterations) -> {
+            assertEquals(attributes.get(Warmup.TOKEN_ATTRIBUTE), token, "アプリケーション属性と同じトークンを使うこと");
+            runs.add(base + " " + endSession + " " + iterations);
+        });
+    }
+
+    @Test
+    @DisplayName("正常系: 最初のアクセスでウォームアップを開始して 503 を返し、完了後は 200 を返すこと")
+    void get_startsWarmupThenReportsReady() throws Exception {
+        // Given
+        init(null);
+
+        // When
+        Response first = get(null);
+        servlet.awaitWarmup(10, TimeUnit.SECONDS);
+        Response second = get(null);
+
+        // Then
+        verify(first.mock).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(first.mock).setHeader("Retry-After", "1");
+        assertEquals(List.of("http://127.0.0.1:8080/app/ http://127.0.0.1:8080/app/health/ready "
+                + ReadinessServlet.DEFAULT_ITERATIONS), runs, "リクエストを受けたアドレスのアプリにウォームアップすること");
+        assertTrue(servlet.isReady(), "ウォームアップの完了後は準備完了であること");
+        verify(second.mock, never()).setStatus(anyInt());
+        assertEquals("ready", second.body.toString().trim(), "準備完了後は 200 で ready を返すこと");
+    }
+
+    @Test
+    @DisplayName("異常系: ウォームアップが失敗しても準備完了になること")
+    void get_warmupFails_becomesReady() throws Exception {
+        // Given
+        init("5");
+        servlet.setRunner((base, endSession, token, iterations) -> {
+            throw new IOException("失敗");
+        });
+
+        // When
+        get(null);
+        servlet.awaitWarmup(10, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(servlet.isReady(), "起動を妨げないよう準備完了として扱うこと");
+    }
+
+    @Test
+    @DisplayName("正常系: 回数が 0 の場合はウォームアップせずに準備完了であること")
+    void get_zeroIterations_readyImmediately() throws Exception {
+        // Given
+        init("0");
+
+        // When
+        Response response = get(null);
+
+        // Then
+        assertTrue(servlet.isReady(), "ウォームアップしない設定ではすぐに準備完了であること");
+        assertEquals("ready", response.body.toString().trim(), "200 で ready を返すこと");
+        assertTrue(runs.isEmpty(), "ウォームアップを実行しないこと");
+    }
+
+    @Test
+    @DisplayName("正常系: ウォームアップのリクエストではセッションを破棄して 204 を返し、ウォームアップを開始しないこと")
+    void get_warmupRequest_invalidatesSession() throws Exception {
+        // Given
+        init(null);
+        HttpSession session = mock(HttpSession.class);
+
+        // When
+        Response response = get((String) attributes.get(Warmup.TOKEN_ATTRIBUTE), session);
+
+        // Then
+        verify(session).invalidate();
+        verify(response.mock).setStatus(HttpServletResponse.SC_NO_CONTENT);
+        assertFalse(servlet.isReady(), "準備完了の状態は変わらないこと");
+        servlet.awaitWarmup(10, TimeUnit.SECONDS);
+        assertTrue(runs.isEmpty(), "ウォームアップを開始しないこと");
+    }
+
+    @Test
+    @DisplayName("正常系: POST でウォームアップを再実行し、実行中は重ねて開始しないこと")
+    void post_rerunsWarmupOnce() throws Exception {
+        // Given
+        init("3");
+        CountDownLatch release = new CountDownLatch(1);
+        servlet.setRunner((base, endSession, token, iterations) -> {
+            runs.add("run");
+            release.await(10, TimeUnit.SECONDS);
+        });
+
+        String token = (String) attributes.get(Warmup.TOKEN_ATTRIBUTE);
+
+        // When
+        Response started = post(token);
+        Response running = post(token);
+        release.countDown();
+        servlet.awaitWarmup(10, TimeUnit.SECONDS);
+
+        // Then
+        verify(started.mock).setStatus(HttpServletResponse.SC_ACCEPTED);
+        assertEquals("warmup started", started.body.toString().trim(), "ウォームアップを開始すること");
+        assertEquals("warmup already running", running.body.toString().trim(), "実行中は開始しないこと");
+        assertEquals(List.of("run"), runs, "ウォームアップは 1 回だけ実行されること");
+    }
+
+    @Test
+    @DisplayName("異常系: トークンがない・一致しない POST は 403 とし、ウォームアップを実行しないこと")
+    void post_withoutToken_forbidden() throws Exception {
+        // Given
+        init("3");
+
+        // When
+        Response missing = post(null);
+        Response wrong = post("not-the-token");
+
+        // Then
+        verify(missing.mock).sendError(eq(HttpServletResponse.SC_FORBIDDEN), anyString());
+        verify(wrong.mock).sendError(eq(HttpServletResponse.SC_FORBIDDEN), anyString());
+        verify(missing.mock, never()).setStatus(HttpServletResponse.SC_ACCEPTED);
+        servlet.awaitWarmup(10, TimeUnit.SECONDS);
+        assertTrue(runs.isEmpty(), "ウォームアップを実行しないこと: " + runs);
+        assertFalse(servlet.isReady(), "準備完了の状態は変わらないこと");
+    }
+
+    // =========================================================================
+    // ヘルパー
+    // =========================================================================
+
+    private void init(String iterations) throws ServletException {
+        when(context.getInitParameter(ReadinessServlet.PARAM_ITERATIONS)).thenReturn(iterations);
+        ServletConfig config = mock(ServletConfig.class);
+        when(config.getServletContext()).thenReturn(context);
+        servlet.init(config);
+    }
+
+    private Response get(String token) throws IOException {
+        return get(token, null);
+    }
+
+    private Response get(String token, HttpSession session) throws IOException {
+        Response response = new Response();
+        servlet.doGet(request(token, session), response.mock);
+        return response;
+    }
+
+    private Response post(String token) throws IOException {
+        Response response = new Response();
+        servlet.doPost(request(token, null), response.mock);
+        return response;
+    }
+
+    private HttpServletRequest request(String token, HttpSession session) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getServletContext()).thenReturn(context);
+        when(request.getHeader(Warmup.TOKEN_HEADER)).thenReturn(token);
+        when(request.getSession(false)).thenReturn(session);
+        when(request.getScheme()).thenReturn("http");
+        when(request.getLocalAddr()).thenReturn("127.0.0.1");
+        when(request.getLocalPort()).thenReturn(8080);
+        when(request.getContextPath()).thenReturn("/app");
+        when(request.getServletPath()).thenReturn("/health/ready");
+        return request;
+    }
+
+    /** レスポンスのモックと本文 */
+    private static final class Response {
+
+        final HttpServletResponse mock = mock(HttpServletResponse.class);
+        final StringWriter body = new StringWriter();
+
+        Response() throws IOException {
+            when(mock.getWriter()).thenReturn(new PrintWriter(body, true));
+        }
+    }
+}
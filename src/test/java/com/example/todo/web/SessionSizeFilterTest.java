@@ -0,0 +1,158 @@
+package com.example.todo.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link SessionSizeFilter} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>{@code serializedSize} / {@code measure}: 属性ごとのサイズ計測</li>
+ *   <li>{@code doFilter}: 無効時はセッションに触れないこと、常に後続のフィルターを呼ぶこと</li>
+ * </ul>
+ */
+@DisplayName("SessionSizeFilter のテスト")
+class SessionSizeFilterTest {
+
+    private HttpServletRequest mockRequest;
+    private HttpServletResponse mockResponse;
+    private FilterChain mockChain;
+    private HttpSession mockSession;
+
+    @BeforeEach
+    void setUp() {
+        mockRequest = mock(HttpServletRequest.class);
+        mockResponse = mock(HttpServletResponse.class);
+        mockChain = mock(FilterChain.class);
+        mockSession = mock(HttpSession.class);
+        when(mockRequest.getSession(false)).thenReturn(mockSession);
+        when(mockSession.getId()).thenReturn("session-id");
+    }
+
+    private SessionSizeFilter createFilter(String enabled) {
+        FilterConfig config = mock(FilterConfig.class);
+        ServletContext context = mock(ServletContext.class);
+        when(config.getServletContext()).thenReturn(context);
+        when(context.getInitParameter(SessionSizeFilter.PARAM_ENABLED)).thenReturn(enabled);
+        SessionSizeFilter filter = new SessionSizeFilter();
+        filter.init(config);
+        return filter;
+    }
+
+    // =========================================================================
+    // serializedSize / measure
+    // =========================================================================
+
+    @Nested
+    @DisplayName("計測のテスト")
+    class MeasureTest {
+
+        @Test
+        @DisplayName("正常系: 大きい属性ほどサイズが大きく計測されること")
+        void serializedSize_growsWithContent() {
+            // Given / When
+            long small = SessionSizeFilter.serializedSize("a");
+            long large = SessionSizeFilter.serializedSize("a".repeat(1000));
+
+            // Then
+            assertTrue(small > 0, "サイズは正の値であること");
+            assertTrue(large > small + 900, "1000 文字の文字列は 1 文字より約 1000 バイト大きいこと");
+        }
+
+        @Test
+        @DisplayName("異常系: シリアライズできない属性は -1 として計測されること")
+        void serializedSize_notSerializable_returnsMinusOne() {
+            // Given / When
+            long size = SessionSizeFilter.serializedSize(new Object());
+
+            // Then
+            assertEquals(-1L, size, "シリアライズできない場合は -1 であること");
+        }
+
+        @Test
+        @DisplayName("正常系: セッション属性ごとのサイズが属性名をキーに返ること")
+        void measure_returnsSizePerAttribute() {
+            // Given
+            when(mockSession.getAttributeNames())
+                    .thenReturn(Collections.enumeration(java.util.List.of("todoBean", "other")));
+            when(mockSession.getAttribute("todoBean")).thenReturn("x".repeat(100));
+            when(mockSession.getAttribute("other")).thenReturn(new Object());
+
+            // When
+            Map<String, Long> sizes = SessionSizeFilter.measure(mockSession);
+
+            // Then
+            assertEquals(2, sizes.size(), "属性の数だけ計測されること");
+            assertTrue(sizes.get("todoBean") > 100, "シリアライズ可能な属性のサイズが計測されること");
+            assertEquals(-1L, sizes.get("other"), "シリアライズできない属性は -1 であること");
+        }
+    }
+
+    // =========================================================================
+    // doFilter
+    // =========================================================================
+
+    @Nested
+    @DisplayName("doFilter のテスト")
+    class DoFilterTest {
+
+        @Test
+        @DisplayName("正常系: 無効の場合、後続のフィルターを呼びセッションには触れないこと")
+        void doFilter_disabled_skipsMeasurement() throws Exception {
+            // Given
+            SessionSizeFilter filter = createFilter(null);
+
+            // When
+            filter.doFilter(mockRequest, mockResponse, mockChain);
+
+            // Then
+            verify(mockChain).doFilter(mockRequest, mockResponse);
+            verifyNoInteractions(mockSession);
+        }
+
+        @Test
+        @DisplayName("正常系: 有効の場合、後続のフィルターの後にセッション属性を計測すること")
+        void doFilter_enabled_measuresSession() throws Exception {
+            // Given
+            SessionSizeFilter filter = createFilter("true");
+            when(mockSession.getAttributeNames()).thenReturn(Collections.emptyEnumeration());
+
+            // When
+            filter.doFilter(mockRequest, mockResponse, mockChain);
+
+            // Then
+            verify(mockChain).doFilter(mockRequest, mockResponse);
+            verify(mockSession).getAttributeNames();
+        }
+
+        @Test
+        @DisplayName("正常系: 有効でもセッションがない場合、セッションを作成しないこと")
+        void doFilter_enabled_noSession_doesNotCreate() throws Exception {
+            // Given
+            SessionSizeFilter filter = createFilter("true");
+            when(mockRequest.getSession(false)).thenReturn(null);
+
+            // When
+            filter.doFilter(mockRequest, mockResponse, mockChain);
+
+            // Then
+            verify(mockChain).doFilter(mockRequest, mockResponse);
+            verify(mockRequest, never()).getSession();
+        }
+    }
+}
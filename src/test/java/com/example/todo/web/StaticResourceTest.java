@@ -0,0 +1,162 @@
+package com.example.todo.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link StaticResource} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>{@code accepts}: {@code Accept-Encoding} の解釈 ({@code q=0}, {@code *})</li>
+ *   <li>{@code select}: 受け付ける表現のうち最も小さいものを選ぶこと</li>
+ *   <li>{@code version} / {@code gzip} / {@code isCompressible}</li>
+ * </ul>
+ */
+@DisplayName("StaticResource のテスト")
+class StaticResourceTest {
+
+    private static final byte[] CONTENT = ".todo-item { color: #333; }\n".repeat(50).getBytes(StandardCharsets.UTF_8);
+
+    // =========================================================================
+    // accepts
+    // =========================================================================
+
+    @Nested
+    @DisplayName("accepts のテスト")
+    class AcceptsTest {
+
+        @Test
+        @DisplayName("正常系: 列挙されたコーディングを受け付けること")
+        void accepts_listedCoding_returnsTrue() {
+            // Given / When / Then
+            assertTrue(StaticResource.accepts("gzip, deflate, br", "br"), "br を受け付けること");
+            assertTrue(StaticResource.accepts("GZIP;q=0.5", "gzip"), "大文字・品質付きでも受け付けること");
+        }
+
+        @Test
+        @DisplayName("異常系: q=0 や列挙されていないコーディング、ヘッダーなしは受け付けないこと")
+        void accepts_rejectedCoding_returnsFalse() {
+            // Given / When / Then
+            assertFalse(StaticResource.accepts("gzip;q=0, br", "gzip"), "q=0 は拒否であること");
+            assertFalse(StaticResource.accepts("gzip", "br"), "列挙されていないコーディングは受け付けないこと");
+            assertFalse(StaticResource.accepts(null, "gzip"), "ヘッダーがない場合は受け付けないこと");
+        }
+
+        @Test
+        @DisplayName("境界値: * は列挙されていない残りのコーディングにだけ適用されること")
+        void accepts_wildcard_appliesToUnlisted() {
+            // Given / When / Then
+            assertTrue(StaticResource.accepts("*", "br"), "* はすべてを受け付けること");
+            assertFalse(StaticResource.accepts("br;q=0, *", "br"), "明示した q=0 が * より優先されること");
+            assertFalse(StaticResource.accepts("*;q=0", "gzip"), "*;q=0 はすべて拒否であること");
+        }
+    }
+
+    // =========================================================================
+    // select
+    // =========================================================================
+
+    @Nested
+    @DisplayName("select のテスト")
+    class SelectTest {
+
+        @Test
+        @DisplayName("正常系: brotli → gzip → 圧縮なしの順に受け付ける表現を選ぶこと")
+        void select_prefersBrotliThenGzip() {
+            // Given
+            byte[] gzip = StaticResource.gzip(CONTENT);
+            byte[] brotli = new byte[gzip.length - 1];
+            StaticResource resource = new StaticResource("text/css", CONTENT, gzip, brotli, 0);
+
+            // When / Then
+            assertEquals("br", resource.select("gzip, br").getEncoding(), "両方受け付ける場合は brotli を選ぶこと");
+            assertEquals("gzip", resource.select("gzip").getEncoding(), "gzip だけの場合は gzip を選ぶこと");
+            assertNull(resource.select(null).getEncoding(), "ヘッダーがない場合は圧縮なしを選ぶこと");
+            assertArrayEquals(CONTENT, resource.select("identity").getBytes(), "圧縮なしは元の内容であること");
+        }
+
+        @Test
+        @DisplayName("境界値: 元の内容より小さくならない圧縮済みの表現は使わないこと")
+        void select_largerCompressed_fallsBackToIdentity() {
+            // Given
+            byte[] tiny = "a".getBytes(StandardCharsets.UTF_8);
+            StaticResource resource = new StaticResource("text/plain", tiny, StaticResource.gzip(tiny), null, 0);
+
+            // When
+            StaticResource.Variant variant = resource.select("gzip, br");
+
+            // Then
+            assertNull(variant.getEncoding(), "gzip のヘッダーの分大きくなる場合は圧縮なしを返すこと");
+        }
+
+        @Test
+        @DisplayName("正常系: ETag は版と表現ごとに異なること")
+        void etag_differsPerEncoding() {
+            // Given
+            StaticResource resource = new StaticResource("text/css", CONTENT, StaticResource.gzip(CONTENT), null, 0);
+            String version = resource.getVersion();
+
+            // When / Then
+            assertEquals("\"" + version + "\"", resource.select(null).getEtag(version), "圧縮なしは版だけであること");
+            assertEquals("\"" + version + "-gzip\"", resource.select("gzip").getEtag(version),
+                    "gzip は版にコーディングを付けること");
+        }
+    }
+
+    // =========================================================================
+    // version / gzip / isCompressible
+    // =========================================================================
+
+    @Nested
+    @DisplayName("版・圧縮のテスト")
+    class VersionAndGzipTest {
+
+        @Test
+        @DisplayName("正常系: 版は内容が同じなら同じ、変わると変わる 16 桁の 16 進であること")
+        void version_dependsOnContent() {
+            // Given / When
+            String first = StaticResource.version(CONTENT);
+            String same = StaticResource.version(CONTENT.clone());
+            String changed = StaticResource.version("body {}".getBytes(StandardCharsets.UTF_8));
+
+            // Then
+            assertTrue(first.matches("[0-9a-f]{16}"), "16 桁の 16 進であること: " + first);
+            assertEquals(first, same, "同じ内容なら同じ版であること");
+            assertNotEquals(first, changed, "内容が変わると版が変わること");
+        }
+
+        @Test
+        @DisplayName("正常系: gzip で圧縮した内容を展開すると元の内容に戻ること")
+        void gzip_roundTrips() throws IOException {
+            // Given / When
+            byte[] gzip = StaticResource.gzip(CONTENT);
+
+            // Then
+            assertTrue(gzip.length < CONTENT.length / 4, "繰り返しの多い CSS は 1/4 未満に圧縮されること");
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+                assertArrayEquals(CONTENT, in.readAllBytes(), "展開すると元の内容に戻ること");
+            }
+        }
+
+        @Test
+        @DisplayName("正常系: テキスト形式だけを圧縮の対象とすること")
+        void isCompressible_textTypesOnly() {
+            // Given / When / Then
+            assertTrue(StaticResource.isCompressible("text/css"), "CSS は対象であること");
+            assertTrue(StaticResource.isCompressible("application/javascript"), "JavaScript は対象であること");
+            assertTrue(StaticResource.isCompressible("image/svg+xml"), "SVG は対象であること");
+            assertFalse(StaticResource.isCompressible("image/png"), "PNG は対象外であること");
+            assertFalse(StaticResource.isCompressible(null), "不明な形式は対象外であること");
+        }
+    }
+}
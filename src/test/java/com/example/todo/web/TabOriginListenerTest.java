@@ -0,0 +1,99 @@
+package com.example.todo.web;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.lifecycle.Lifecycle;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link TabOriginListener} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>値の適用からアクションの呼び出しまでのフェーズの間だけタブの ID を保持すること</li>
+ *   <li>ビューの復元・描画のフェーズでは保持しないこと</li>
+ *   <li>形式の不正な ID を無視すること</li>
+ * </ul>
+ */
+@DisplayName("TabOriginListener のテスト")
+class TabOriginListenerTest {
+
+    private final Map<String, String> parameters = new HashMap<>();
+    private FacesContext facesContext;
+
+    /** テスト対象 */
+    private final TabOriginListener listener = new TabOriginListener();
+
+    @BeforeEach
+    void setUp() {
+        facesContext = mock(FacesContext.class);
+        ExternalContext externalContext = mock(ExternalContext.class);
+        when(facesContext.getExternalContext()).thenReturn(externalContext);
+        when(externalContext.getRequestParameterMap()).thenReturn(parameters);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.afterPhase(event(PhaseId.RENDER_RESPONSE));
+    }
+
+    private PhaseEvent event(PhaseId phase) {
+        return new PhaseEvent(facesContext, phase, mock(Lifecycle.class));
+    }
+
+    @Test
+    @DisplayName("正常系: アクションの呼び出しの間だけタブの ID が保持され、フェーズの終了で取り除かれること")
+    void invokeApplication_holdsTabUntilAfterPhase() {
+        // Given
+        parameters.put(TabOriginListener.PARAM, "k2x9-abc123");
+        PhaseEvent event = event(PhaseId.INVOKE_APPLICATION);
+
+        // When
+        listener.beforePhase(event);
+        String during = TabOriginListener.current();
+        listener.afterPhase(event);
+
+        // Then
+        assertEquals("k2x9-abc123", during, "フェーズの処理中はタブの ID を返すこと");
+        assertNull(TabOriginListener.current(), "フェーズの終了後は取り除かれること");
+    }
+
+    @Test
+    @DisplayName("境界値: ビューの復元・描画のフェーズではタブの ID を保持しないこと")
+    void restoreViewAndRender_notHeld() {
+        // Given
+        parameters.put(TabOriginListener.PARAM, "k2x9-abc123");
+
+        // When / Then
+        listener.beforePhase(event(PhaseId.RESTORE_VIEW));
+        assertNull(TabOriginListener.current(), "ビューの復元では保持しないこと");
+        listener.beforePhase(event(PhaseId.RENDER_RESPONSE));
+        assertNull(TabOriginListener.current(), "描画では保持しないこと");
+    }
+
+    @Test
+    @DisplayName("異常系: 英数字とハイフン以外を含む ID・長すぎる ID・空の ID は無視されること")
+    void invalidTab_ignored() {
+        for (String tab : new String[]{"\"},\"x\":\"", "a".repeat(65), ""}) {
+            // Given
+            parameters.put(TabOriginListener.PARAM, tab);
+
+            // When
+            listener.beforePhase(event(PhaseId.APPLY_REQUEST_VALUES));
+
+            // Then
+            assertNull(TabOriginListener.current(), "不正な ID は保持しないこと: " + tab);
+        }
+    }
+}
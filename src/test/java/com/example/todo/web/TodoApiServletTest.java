@@ -0,0 +1,553 @@
+package com.example.todo.web;
+
+import com.example.todo.bean.TodoBean;
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link TodoApiServlet} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>GET: 一覧 (JSON 配列 / NDJSON / 検索)・1 件取得・存在しない ID</li>
+ *   <li>POST: 作成・Location ヘッダー・タイトル必須・不正な JSON・サイズ上限</li>
+ *   <li>PUT: 指定した項目だけの更新・型の検証</li>
+ *   <li>DELETE: 削除・存在しない ID</li>
+ *   <li>CSRF 対策: 別オリジンの変更 (403)・JSON 以外のボディ (415)</li>
+ *   <li>永続化が有効な場合のリスト Cookie の処理</li>
+ * </ul>
+ *
+ * <p>Bean は実物 ({@link TodoBean} の初期サンプルデータ 3 件) を使い、
+ * リクエストとレスポンスを Mockito でモックする。</p>
+ */
+@DisplayName("TodoApiServlet のテスト")
+class TodoApiServletTest {
+
+    private HttpServletRequest mockRequest;
+    private HttpServletResponse mockResponse;
+    private StringWriter body;
+
+    private TodoBean bean;
+
+    /** テスト対象 */
+    private TodoApiServlet servlet;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockRequest = mock(HttpServletRequest.class);
+        mockResponse = mock(HttpServletResponse.class);
+        body = new StringWriter();
+        when(mockResponse.getWriter()).thenReturn(new PrintWriter(body));
+        when(mockRequest.getContextPath()).thenReturn("/app");
+        when(mockRequest.getServletPath()).thenReturn("/api/todos");
+        when(mockRequest.getScheme()).thenReturn("http");
+        when(mockRequest.getServerName()).thenReturn("localhost");
+        when(mockRequest.getServerPort()).thenReturn(8080);
+
+        bean = new TodoBean();
+        servlet = new TodoApiServlet();
+        servlet.setTodoBean(bean);
+    }
+
+    private void request(String pathInfo, String json) throws IOException {
+        when(mockRequest.getPathInfo()).thenReturn(pathInfo);
+        if (json != null) {
+            when(mockRequest.getContentType()).thenReturn("application/json");
+            when(mockRequest.getReader()).thenReturn(new BufferedReader(new StringReader(json)));
+        }
+    }
+
+    private String output() {
+        return body.toString();
+    }
+
+    // =========================================================================
+    // GET
+    // =========================================================================
+
+    @Nested
+    @DisplayName("GET のテスト")
+    class GetTest {
+
+        @Test
+        @DisplayName("正常系: 一覧が JSON 配列で挿入順に返ること")
+        void get_list_jsonArray() throws IOException {
+            // Given
+            request(null, null);
+
+            // When
+            servlet.doGet(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_OK);
+            verify(mockResponse).setContentType(TodoApiServlet.JSON);
+            String json = output();
+            assertTrue(json.startsWith("[{\"id\":1,\"title\":\"買い物をする\""), "先頭は 1 件目の Todo であること: " + json);
+            assertTrue(json.endsWith("}]"), "配列として閉じていること: " + json);
+            assertEquals(3, json.split("\\},\\{").length, "3 件がカンマ区切りで出力されること");
+        }
+
+        @Test
+        @DisplayName("正常系: format=ndjson の場合は 1 行 1 件で返ること")
+        void get_list_ndjson() throws IOException {
+            // Given
+            request("/", null);
+            when(mockRequest.getParameter("format")).thenReturn("ndjson");
+
+            // When
+            servlet.doGet(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setContentType(TodoApiServlet.NDJSON);
+            String[] lines = output().split("\n");
+            assertEquals(3, lines.length, "3 行であること");
+            for (String line : lines) {
+                assertTrue(line.startsWith("{") && line.endsWith("}"), "各行が JSON オブジェクトであること: " + line);
+            }
+        }
+
+        @Test
+        @DisplayName("正常系: Accept ヘッダーで NDJSON を指定できること")
+        void get_list_acceptNdjson() throws IOException {
+            // Given
+            request(null, null);
+            when(mockRequest.getHeader("Accept")).thenReturn("application/x-ndjson");
+
+            // When
+            servlet.doGet(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setContentType(TodoApiServlet.NDJSON);
+        }
+
+        @Test
+        @DisplayName("正常系: q パラメータで検索結果だけが返ること")
+        void get_list_search() throws IOException {
+            // Given
+            request(null, null);
+            when(mockRequest.getParameter("q")).thenReturn("レポート");
+
+            // When
+            servlet.doGet(mockRequest, mockResponse);
+
+            // Then
+            assertTrue(output().startsWith("[{\"id\":2,"), "一致した Todo だけが返ること: " + output());
+            assertFalse(output().contains("\"id\":1,"), "一致しない Todo は含まれないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: ID を指定すると 1 件が返ること")
+        void get_item() throws IOException {
+            // Given
+            request("/2", null);
+
+            // When
+            servlet.doGet(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_OK);
+            assertTrue(output().startsWith("{\"id\":2,\"title\":\"レポートを書く\""), "指定した Todo であること: " + output());
+            assertTrue(output().contains("\"completed\":false"), "完了状態が含まれること");
+            assertTrue(output().contains("\"createdAt\":\""), "作成日時が含まれること");
+        }
+
+        @Test
+        @DisplayName("異常系: 存在しない ID・数値でない ID は 404 になること")
+        void get_item_notFound() throws IOException {
+            // Given / When
+            request("/999", null);
+            servlet.doGet(mockRequest, mockResponse);
+            request("/abc", null);
+            servlet.doGet(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse, times(2)).setStatus(HttpServletResponse.SC_NOT_FOUND);
+            assertTrue(output().contains("{\"error\":"), "エラーは JSON で返ること");
+        }
+    }
+
+    // =========================================================================
+    // POST
+    // =========================================================================
+
+    @Nested
+    @DisplayName("POST のテスト")
+    class PostTest {
+
+        @Test
+        @DisplayName("正常系: Todo が作成され、201 と Location ヘッダーが返ること")
+        void post_created() throws IOException {
+            // Given
+            request(null, "{\"title\":\"  新しいタスク  \",\"description\":\"説明\"}");
+
+            // When
+            servlet.doPost(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_CREATED);
+            verify(mockResponse).setHeader("Location", "/app/api/todos/4");
+            TodoItem item = bean.findTodo(4L);
+            assertNotNull(item, "ストアに追加されること");
+            assertEquals("新しいタスク", item.getTitle(), "タイトルは前後の空白が除かれること");
+            assertEquals("説明", item.getDescription(), "説明が設定されること");
+            assertTrue(output().startsWith("{\"id\":4,"), "作成した Todo が返ること");
+        }
+
+        @Test
+        @DisplayName("異常系: タイトルがない・空の場合は 400 になり、追加されないこと")
+        void post_missingTitle_badRequest() throws IOException {
+            // Given / When
+            request(null, "{\"title\":\"   \"}");
+            servlet.doPost(mockRequest, mockResponse);
+            request(null, "{\"description\":\"説明だけ\"}");
+            servlet.doPost(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse, times(2)).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            assertEquals(3, bean.getTotalCount(), "Todo は追加されないこと");
+        }
+
+        @Test
+        @DisplayName("異常系: 不正な JSON は 400 になること")
+        void post_malformed_badRequest() throws IOException {
+            // Given
+            request(null, "{\"title\":");
+
+            // When
+            servlet.doPost(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            assertTrue(output().contains("invalid JSON"), "エラーメッセージが返ること");
+        }
+
+        @Test
+        @DisplayName("異常系: 上限を超えるボディは 413 になること")
+        void post_tooLarge() throws IOException {
+            // Given
+            request(null, "{\"title\":\"" + "a".repeat(TodoApiServlet.MAX_BODY_CHARS) + "\"}");
+
+            // When
+            servlet.doPost(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            assertEquals(3, bean.getTotalCount(), "Todo は追加されないこと");
+        }
+
+        @Test
+        @DisplayName("異常系: ID を指定した POST は 405 になること")
+        void post_item_methodNotAllowed() throws IOException {
+            // Given
+            request("/1", "{\"title\":\"x\"}");
+
+            // When
+            servlet.doPost(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        }
+    }
+
+    // =========================================================================
+    // PUT
+    // =========================================================================
+
+    @Nested
+    @DisplayName("PUT のテスト")
+    class PutTest {
+
+        @Test
+        @DisplayName("正常系: 指定した項目だけが更新されること")
+        void put_partialUpdate() throws IOException {
+            // Given
+            request("/1", "{\"completed\":true}");
+
+            // When
+            servlet.doPut(mockRequest, mockResponse);
+
+            // Then
+            TodoItem item = bean.findTodo(1L);
+            verify(mockResponse).setStatus(HttpServletResponse.SC_OK);
+            assertTrue(item.isCompleted(), "完了状態が更新されること");
+            assertEquals("買い物をする", item.getTitle(), "指定していないタイトルは変わらないこと");
+            assertEquals("スーパーで食材を購入する", item.getDescription(), "指定していない説明は変わらないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: タイトルを変更すると検索結果にも反映されること")
+        void put_title_reflectedInSearch() throws IOException {
+            // Given
+            request("/1", "{\"title\":\"週末の予定\"}");
+
+            // When
+            servlet.doPut(mockRequest, mockResponse);
+
+            // Then
+            List<TodoItem> result = bean.searchTodos("週末");
+            assertEquals(1, result.size(), "新しいタイトルで 1 件一致すること");
+            assertEquals(1L, result.get(0).getId(), "更新した Todo が一致すること");
+        }
+
+        @Test
+        @DisplayName("異常系: 型が不正な場合は 400 になり、何も更新されないこと")
+        void put_invalidType_badRequest() throws IOException {
+            // Given
+            request("/1", "{\"title\":\"変更後\",\"completed\":\"yes\"}");
+
+            // When
+            servlet.doPut(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            assertEquals("買い物をする", bean.findTodo(1L).getTitle(), "検証に失敗した場合はタイトルも更新されないこと");
+        }
+
+        @Test
+        @DisplayName("異常系: 存在しない ID は 404 になること")
+        void put_notFound() throws IOException {
+            // Given
+            request("/999", "{\"completed\":true}");
+
+            // When
+            servlet.doPut(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+
+        @Test
+        @DisplayName("異常系: 数値でない ID は 404、ID の指定がない場合は 405 になること")
+        void put_invalidId() throws IOException {
+            // Given / When
+            request("/abc", "{\"completed\":true}");
+            servlet.doPut(mockRequest, mockResponse);
+            request("/", "{\"completed\":true}");
+            servlet.doPut(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_NOT_FOUND);
+            verify(mockResponse).setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            assertTrue(output().contains("todo not found: abc"), "指定した ID がメッセージに含まれること: " + output());
+        }
+    }
+
+    // =========================================================================
+    // DELETE
+    // =========================================================================
+
+    @Nested
+    @DisplayName("DELETE のテスト")
+    class DeleteTest {
+
+        @Test
+        @DisplayName("正常系: 削除され、204 が返ること")
+        void delete_noContent() throws IOException {
+            // Given
+            request("/1", null);
+
+            // When
+            servlet.doDelete(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_NO_CONTENT);
+            assertNull(bean.findTodo(1L), "ストアから削除されること");
+            assertEquals("", output(), "ボディは空であること");
+        }
+
+        @Test
+        @DisplayName("異常系: 存在しない ID は 404、ID の指定がない場合は 405 になること")
+        void delete_errors() throws IOException {
+            // Given / When
+            request("/999", null);
+            servlet.doDelete(mockRequest, mockResponse);
+            request(null, null);
+            servlet.doDelete(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_NOT_FOUND);
+            verify(mockResponse).setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            assertEquals(3, bean.getTotalCount(), "Todo は削除されないこと");
+        }
+    }
+
+    // =========================================================================
+    // CSRF 対策
+    // =========================================================================
+
+    @Nested
+    @DisplayName("CSRF 対策のテスト")
+    class CsrfTest {
+
+        @Test
+        @DisplayName("異常系: フォーム形式のボディの POST は 415 になり、追加されないこと")
+        void post_formContentType_unsupported() throws IOException {
+            // Given
+            request(null, "{\"title\":\"x\"}");
+            when(mockRequest.getContentType()).thenReturn("application/x-www-form-urlencoded");
+
+            // When
+            servlet.doPost(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+            assertEquals(3, bean.getTotalCount(), "Todo は追加されないこと");
+            verify(mockRequest, never()).getReader();
+        }
+
+        @Test
+        @DisplayName("異常系: Content-Type のない PUT は 415 になり、更新されないこと")
+        void put_missingContentType_unsupported() throws IOException {
+            // Given
+            request("/1", "{\"completed\":true}");
+            when(mockRequest.getContentType()).thenReturn(null);
+
+            // When
+            servlet.doPut(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+            assertFalse(bean.findTodo(1L).isCompleted(), "完了状態は更新されないこと");
+        }
+
+        @Test
+        @DisplayName("異常系: 別オリジンからの DELETE は 403 になり、削除されないこと")
+        void delete_crossOrigin_forbidden() throws IOException {
+            // Given
+            request("/1", null);
+            when(mockRequest.getHeader("Origin")).thenReturn("https://evil.example");
+
+            // When
+            servlet.doDelete(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_FORBIDDEN);
+            assertNotNull(bean.findTodo(1L), "Todo は削除されないこと");
+        }
+
+        @Test
+        @DisplayName("正常系: 同じオリジン・charset 付きの JSON は受け付けること")
+        void post_sameOrigin_accepted() throws IOException {
+            // Given
+            request(null, "{\"title\":\"同一オリジン\"}");
+            when(mockRequest.getContentType()).thenReturn("Application/JSON; charset=UTF-8");
+            when(mockRequest.getHeader("Origin")).thenReturn("http://localhost:8080");
+
+            // When
+            servlet.doPost(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setStatus(HttpServletResponse.SC_CREATED);
+            assertEquals(4, bean.getTotalCount(), "Todo が追加されること");
+        }
+    }
+
+    // =========================================================================
+    // リスト Cookie
+    // =========================================================================
+
+    @Nested
+    @DisplayName("リスト Cookie のテスト")
+    class ListCookieTest {
+
+        private TodoBean mockBean;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            mockBean = mock(TodoBean.class);
+            when(mockBean.isJournalEnabled()).thenReturn(true);
+            when(mockBean.searchTodos(any())).thenReturn(List.of());
+            servlet.setTodoBean(mockBean);
+            request(null, null);
+        }
+
+        @Test
+        @DisplayName("正常系: Cookie のリスト ID でストアが選択されること")
+        void cookie_existing_used() throws IOException {
+            // Given
+            String id = "0f8fad5b-d9cb-469f-a165-70867728950e";
+            when(mockRequest.getCookies()).thenReturn(new Cookie[]{new Cookie(TodoBean.LIST_COOKIE, id)});
+
+            // When
+            servlet.doGet(mockRequest, mockResponse);
+
+            // Then
+            verify(mockBean).useList(id);
+            verify(mockResponse, never()).addCookie(any());
+        }
+
+        @Test
+        @DisplayName("正常系: Cookie がない場合は新しいリスト ID が発行されること")
+        void cookie_missing_issued() throws IOException {
+            // Given
+            when(mockRequest.getCookies()).thenReturn(null);
+
+            // When
+            servlet.doGet(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).addCookie(argThat(cookie -> TodoBean.LIST_COOKIE.equals(cookie.getName())
+                    && cookie.isHttpOnly() && "/app/".equals(cookie.getPath())));
+            verify(mockBean).useList(argThat(id -> id != null && !id.isEmpty()));
+        }
+
+        @Test
+        @DisplayName("正常系: 別のリストに切り替えた場合、切り替える前のリストを購読していたこのセッションの接続が閉じられること")
+        void cookie_listSwitched_closesEventStream() throws IOException {
+            // Given
+            TodoStore previous = new TodoStore();
+            when(mockBean.getStore()).thenReturn(previous, new TodoStore());
+            HttpSession session = mock(HttpSession.class);
+            when(session.getId()).thenReturn("session-1");
+            when(mockRequest.getSession(false)).thenReturn(session);
+            AsyncContext stream = mock(AsyncContext.class);
+            when(stream.getRequest()).thenReturn(mockRequest);
+            when(stream.getResponse()).thenReturn(mock(ServletResponse.class));
+            TodoEventBroadcaster.of(previous).subscribe(stream, null);
+            when(mockRequest.getCookies()).thenReturn(
+                    new Cookie[]{new Cookie(TodoBean.LIST_COOKIE, "0f8fad5b-d9cb-469f-a165-70867728950e")});
+
+            // When
+            servlet.doGet(mockRequest, mockResponse);
+
+            // Then
+            verify(stream).complete();
+            assertEquals(0, TodoEventBroadcaster.of(previous).subscriberCount(), "購読が解除されること");
+        }
+
+        @Test
+        @DisplayName("境界値: 永続化が無効な場合は Cookie を扱わないこと")
+        void cookie_journalDisabled_ignored() throws IOException {
+            // Given
+            when(mockBean.isJournalEnabled()).thenReturn(false);
+
+            // When
+            servlet.doGet(mockRequest, mockResponse);
+
+            // Then
+            verify(mockBean, never()).useList(any());
+            verify(mockResponse, never()).addCookie(any());
+            verify(mockRequest, never()).getCookies();
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.example.todo.web;
+
+import com.example.todo.model.TodoItem;
+import com.example.todo.model.TodoStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+import javax.faces.event.PhaseEvent;
+import javax.faces.event.PhaseId;
+import javax.faces.lifecycle.Lifecycle;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link TodoEventBroadcaster} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>ストアの追加・削除・完了切り替え・編集がイベントとして配信されること</li>
+ *   <li>Last-Event-ID による再送と、再送できない場合 (エポックが異なる場合を含む) の reset イベント</li>
+ *   <li>変更したタブの ID がイベントに付くこと</li>
+ *   <li>接続の完了・書き込みエラー・リストの切り替えで購読が解除されること</li>
+ * </ul>
+ *
+ * <p>{@link AsyncContext} は Mockito でモックし、{@code start} に渡された処理をその場で実行する。</p>
+ */
+@DisplayName("TodoEventBroadcaster のテスト")
+class TodoEventBroadcasterTest {
+
+    private TodoStore store;
+    private TodoEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        store = new TodoStore();
+        broadcaster = TodoEventBroadcaster.of(store);
+    }
+
+    /** 書き込み先を返し、start の処理を同期的に実行するコンテキスト */
+    private AsyncContext context(StringWriter out) throws IOException {
+        return context(new PrintWriter(out));
+    }
+
+    private AsyncContext context(PrintWriter writer) throws IOException {
+        AsyncContext context = mock(AsyncContext.class);
+        ServletResponse response = mock(ServletResponse.class);
+        when(context.getResponse()).thenReturn(response);
+        when(response.getWriter()).thenReturn(writer);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(context).start(any(Runnable.class));
+        return context;
+    }
+
+    /** セッションのリクエストから開始した接続のコンテキスト */
+    private AsyncContext context(StringWriter out, String sessionId) throws IOException {
+        AsyncContext context = context(new PrintWriter(out));
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpSession session = mock(HttpSession.class);
+        when(session.getId()).thenReturn(sessionId);
+        when(request.getSession(false)).thenReturn(session);
+        when(context.getRequest()).thenReturn(request);
+        return context;
+    }
+
+    private TodoItem add(String title) {
+        TodoItem item = new TodoItem(store.nextId(), title, "");
+        store.add(item);
+        return item;
+    }
+
+    // =========================================================================
+    // 配信
+    // =========================================================================
+
+    @Nested
+    @DisplayName("イベント配信のテスト")
+    class PublishTest {
+
+        @Test
+        @DisplayName("同じストアには同じ配信元が返されること")
+        void sameBroadcasterForStore() {
+            // When / Then
+            assertSame(broadcaster, TodoEventBroadcaster.of(store), "ストアごとに配信元は 1 つであること");
+            assertNotSame(broadcaster, TodoEventBroadcaster.of(new TodoStore()),
+                    "別のストアには別の配信元が返されること");
+        }
+
+        @Test
+        @DisplayName("初回接続では現在のイベント ID だけが送られること")
+        void initialConnectionSendsCurrentId() throws IOException {
+            // Given
+            add("既存");
+            StringWriter out = new StringWriter();
+
+            // When
+            broadcaster.subscribe(context(out), null);
+
+            // Then
+            assertEquals("id: " + broadcaster.eventId(1) + "\n\n", out.toString(),
+                    "既存のイベントは再送されず、ID だけが送られること");
+            assertEquals(1, broadcaster.subscriberCount(), "購読者が登録されること");
+        }
+
+        @Test
+        @DisplayName("追加が added イベントとして Todo と統計付きで配信されること")
+        void addedEvent() throws IOException {
+            // Given
+            StringWriter out = new StringWriter();
+            broadcaster.subscribe(context(out), null);
+
+            // When
+            add("牛乳を買う");
+
+            // Then
+            String stream = out.toString();
+            assertTrue(stream.contains("id: " + broadcaster.eventId(1)
+                            + "\nevent: added\ndata: {\"todo\":{\"id\":1,\"title\":\"牛乳を買う\""),
+                    "added イベントに Todo が含まれること: " + stream);
+            assertTrue(stream.contains("\"stats\":{\"total\":1,\"completed\":0,\"pending\":1}}\n\n"),
+                    "統計が含まれること: " + stream);
+        }
+
+        @Test
+        @DisplayName("完了切り替え・編集・削除がそれぞれのイベントとして配信されること")
+        void toggledEditedRemovedEvents() throws IOException {
+            // Given
+            TodoItem item = add("タスク");
+            StringWriter out = new StringWriter();
+            broadcaster.subscribe(context(out), null);
+
+            // When
+            store.toggle(item.getId());
+            item.edit("編集後", "説明");
+            store.remove(item.getId());
+
+            // Then
+            String stream = out.toString();
+            assertTrue(stream.contains("id: " + broadcaster.eventId(2) + "\nevent: toggled\n"), "完了切り替えが toggled であること: " + stream);
+            assertTrue(stream.contains("\"completed\":true"), "切り替え後の状態が含まれること: " + stream);
+            assertTrue(stream.contains("id: " + broadcaster.eventId(3) + "\nevent: edited\n"), "編集が edited であること: " + stream);
+            assertTrue(stream.contains("\"title\":\"編集後\",\"description\":\"説明\""),
+                    "編集後のタイトルと説明が含まれること: " + stream);
+            assertTrue(stream.contains("id: " + broadcaster.eventId(4) + "\nevent: removed\n"), "削除が removed であること: " + stream);
+            assertTrue(stream.contains("\"stats\":{\"total\":0,\"completed\":0,\"pending\":0}"),
+                    "削除後の統計が含まれること: " + stream);
+            assertFalse(stream.contains("\"tab\""), "アクションの処理中でない変更にはタブの ID が付かないこと: " + stream);
+        }
+
+        @Test
+        @DisplayName("アクションの処理中の変更には送信したタブの ID が付くこと")
+        void eventCarriesTabOfOrigin() throws IOException {
+            // Given
+            StringWriter out = new StringWriter();
+            broadcaster.subscribe(context(out), null);
+            TabOriginListener listener = new TabOriginListener();
+            PhaseEvent event = invokeApplication("k2x9-abc123");
+
+            // When
+            listener.beforePhase(event);
+            try {
+                add("このタブで追加");
+            } finally {
+                listener.afterPhase(event);
+            }
+            add("ほかの処理で追加");
+
+            // Then
+            String stream = out.toString();
+            assertTrue(stream.contains("\"title\":\"このタブで追加\""), "追加が配信されること: " + stream);
+            assertTrue(stream.contains("\"tab\":\"k2x9-abc123\""), "タブの ID が付くこと: " + stream);
+            assertEquals(stream.indexOf("\"tab\""), stream.lastIndexOf("\"tab\""),
+                    "フェーズの終了後の変更にはタブの ID が付かないこと: " + stream);
+        }
+
+        private PhaseEvent invokeApplication(String tab) {
+            FacesContext facesContext = mock(FacesContext.class);
+            ExternalContext externalContext = mock(ExternalContext.class);
+            when(facesContext.getExternalContext()).thenReturn(externalContext);
+            when(externalContext.getRequestParameterMap()).thenReturn(Map.of(TabOriginListener.PARAM, tab));
+            return new PhaseEvent(facesContext, PhaseId.INVOKE_APPLICATION, mock(Lifecycle.class));
+        }
+    }
+
+    // =========================================================================
+    // 再接続
+    // =========================================================================
+
+    @Nested
+    @DisplayName("再接続のテスト")
+    class ReconnectTest {
+
+        @Test
+        @DisplayName("Last-Event-ID より後のイベントだけが再送されること")
+        void replaysEventsAfterLastEventId() throws IOException {
+            // Given
+            add("1 件目");
+            add("2 件目");
+            add("3 件目");
+            StringWriter out = new StringWriter();
+
+            // When
+            broadcaster.subscribe(context(out), broadcaster.eventId(1));
+
+            // Then
+            String stream = out.toString();
+            assertFalse(stream.contains("id: " + broadcaster.eventId(1) + "\n"), "受信済みのイベントは再送されないこと: " + stream);
+            assertTrue(stream.indexOf("id: " + broadcaster.eventId(2) + "\nevent: added")
+                            < stream.indexOf("id: " + broadcaster.eventId(3) + "\nevent: added"),
+                    "未受信のイベントが順に再送されること: " + stream);
+        }
+
+        @Test
+        @DisplayName("最新の ID で再接続した場合は何も送られないこと")
+        void nothingToReplay() throws IOException {
+            // Given
+            add("タスク");
+            StringWriter out = new StringWriter();
+
+            // When
+            broadcaster.subscribe(context(out), broadcaster.eventId(1));
+
+            // Then
+            assertEquals("", out.toString(), "再送するイベントがないこと");
+        }
+
+        @Test
+        @DisplayName("保持している範囲より古い ID では reset イベントが送られること")
+        void resetWhenHistoryExceeded() throws IOException {
+            // Given
+            for (int i = 0; i < TodoEventBroadcaster.HISTORY_SIZE + 2; i++) {
+                add("タスク " + i);
+            }
+            StringWriter out = new StringWriter();
+
+            // When
+            broadcaster.subscribe(context(out), broadcaster.eventId(1));
+
+            // Then
+            assertEquals(TodoEventBroadcaster.frame(broadcaster.eventId(TodoEventBroadcaster.HISTORY_SIZE + 2), "reset", "{}"),
+                    out.toString(), "reset イベントだけが送られること");
+        }
+
+        @Test
+        @DisplayName("配信元の ID より新しい ID・形式の不正な ID では reset イベントが送られること")
+        void resetWhenIdFromAnotherBroadcaster() throws IOException {
+            // Given
+            StringWriter ahead = new StringWriter();
+            StringWriter invalid = new StringWriter();
+
+            // When
+            broadcaster.subscribe(context(ahead), broadcaster.eventId(42));
+            broadcaster.subscribe(context(invalid), "42");
+
+            // Then
+            assertTrue(ahead.toString().contains("event: reset\n"), "新しい ID では reset イベントが送られること");
+            assertTrue(invalid.toString().contains("event: reset\n"), "エポックのない ID では reset イベントが送られること");
+        }
+
+        @Test
+        @DisplayName("開き直したストアの配信元に古い配信元の ID で再接続すると、連番が範囲内でも reset イベントが送られること")
+        void resetWhenEpochDiffers() throws IOException {
+            // Given: 古い配信元で 1 件受け取った後、ストアが開き直されて新しい配信元で 3 件発行された
+            add("古いストアのイベント");
+            String received = broadcaster.eventId(1);
+            store = new TodoStore();
+            TodoEventBroadcaster reopened = TodoEventBroadcaster.of(store);
+            add("1 件目");
+            add("2 件目");
+            add("3 件目");
+            StringWriter out = new StringWriter();
+
+            // When
+            reopened.subscribe(context(out), received);
+
+            // Then
+            assertEquals(TodoEventBroadcaster.frame(reopened.eventId(3), "reset", "{}"), out.toString(),
+                    "連番だけを比べて 2 件目以降を再送せず、reset イベントだけが送られること");
+        }
+    }
+
+    // =========================================================================
+    // 購読の解除
+    // =========================================================================
+
+    @Nested
+    @DisplayName("購読解除のテスト")
+    class UnsubscribeTest {
+
+        @Test
+        @DisplayName("接続が完了すると購読が解除され、以降のイベントが書き込まれないこと")
+        void unsubscribeOnComplete() throws IOException {
+            // Given
+            StringWriter out = new StringWriter();
+            AsyncContext context = context(out);
+            broadcaster.subscribe(context, null);
+            ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+            verify(context).addListener(listener.capture());
+
+            // When
+            listener.getValue().onComplete(new AsyncEvent(context));
+            add("切断後");
+
+            // Then
+            assertEquals(0, broadcaster.subscriberCount(), "購読が解除されること");
+            assertFalse(out.toString().contains("event: added"), "切断後のイベントは書き込まれないこと");
+        }
+
+        @Test
+        @DisplayName("タイムアウトで購読が解除され、接続が完了されること")
+        void completeOnTimeout() throws IOException {
+            // Given
+            AsyncContext context = context(new StringWriter());
+            broadcaster.subscribe(context, null);
+            ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+            verify(context).addListener(listener.capture());
+
+            // When
+            listener.getValue().onTimeout(new AsyncEvent(context));
+
+            // Then
+            assertEquals(0, broadcaster.subscriberCount(), "購読が解除されること");
+            verify(context).complete();
+        }
+
+        @Test
+        @DisplayName("書き込みエラーの接続は購読が解除され、他の接続には配信が続くこと")
+        void writeErrorClosesOnlyThatSubscriber() throws IOException {
+            // Given
+            PrintWriter broken = mock(PrintWriter.class);
+            when(broken.checkError()).thenReturn(true);
+            AsyncContext brokenContext = context(broken);
+            StringWriter out = new StringWriter();
+            broadcaster.subscribe(brokenContext, null);
+            broadcaster.subscribe(context(out), null);
+
+            // When
+            add("タスク");
+
+            // Then
+            verify(brokenContext).complete();
+            assertEquals(1, broadcaster.subscriberCount(), "エラーの接続だけが解除されること");
+            assertTrue(out.toString().contains("event: added"), "他の接続には配信されること");
+        }
+
+        @Test
+        @DisplayName("リストを切り替えたセッションの接続だけが閉じられること")
+        void detachClosesOnlyThatSession() throws IOException {
+            // Given
+            StringWriter switched = new StringWriter();
+            StringWriter other = new StringWriter();
+            AsyncContext switchedContext = context(switched, "session-a");
+            AsyncContext otherContext = context(other, "session-b");
+            broadcaster.subscribe(switchedContext, null);
+            broadcaster.subscribe(otherContext, null);
+
+            // When
+            TodoEventBroadcaster.detach(store, "session-a");
+            add("切り替え後");
+
+            // Then
+            verify(switchedContext).complete();
+            verify(otherContext, never()).complete();
+            assertEquals(1, broadcaster.subscriberCount(), "切り替えたセッションの接続だけが解除されること");
+            assertFalse(switched.toString().contains("event: added"), "閉じた接続には配信されないこと");
+            assertTrue(other.toString().contains("event: added"), "ほかのセッションには配信が続くこと");
+        }
+    }
+}
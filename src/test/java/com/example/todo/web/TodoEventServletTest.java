@@ -0,0 +1,128 @@
+package com.example.todo.web;
+
+import com.example.todo.bean.TodoBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link TodoEventServlet} の単体テスト。
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>イベントストリームのヘッダーと再接続間隔の送信</li>
+ *   <li>非同期処理の開始とタイムアウト、配信元への購読</li>
+ *   <li>Last-Event-ID ヘッダーの取得</li>
+ * </ul>
+ */
+@DisplayName("TodoEventServlet のテスト")
+class TodoEventServletTest {
+
+    private HttpServletRequest mockRequest;
+    private HttpServletResponse mockResponse;
+    private AsyncContext mockContext;
+    private StringWriter body;
+
+    private TodoBean bean;
+
+    /** テスト対象 */
+    private TodoEventServlet servlet;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockRequest = mock(HttpServletRequest.class);
+        mockResponse = mock(HttpServletResponse.class);
+        mockContext = mock(AsyncContext.class);
+        body = new StringWriter();
+        when(mockResponse.getWriter()).thenReturn(new PrintWriter(body));
+        when(mockRequest.startAsync()).thenReturn(mockContext);
+        when(mockContext.getResponse()).thenReturn(mockResponse);
+
+        bean = new TodoBean();
+        servlet = new TodoEventServlet();
+        servlet.setTodoBean(bean);
+    }
+
+    // =========================================================================
+    // GET
+    // =========================================================================
+
+    @Nested
+    @DisplayName("接続のテスト")
+    class ConnectTest {
+
+        @Test
+        @DisplayName("イベントストリームのヘッダーと retry が送られること")
+        void writesStreamHeaders() throws IOException {
+            // When
+            servlet.doGet(mockRequest, mockResponse);
+
+            // Then
+            verify(mockResponse).setContentType(TodoEventServlet.EVENT_STREAM);
+            verify(mockResponse).setHeader("Cache-Control", "no-cache");
+            verify(mockResponse).flushBuffer();
+            assertTrue(body.toString().startsWith("retry: " + TodoEventServlet.RETRY_MILLIS + "\n\n"),
+                    "最初に再接続間隔が送られること: " + body);
+        }
+
+        @Test
+        @DisplayName("非同期処理を開始し、リストの配信元に購読されること")
+        void startsAsyncAndSubscribes() throws IOException {
+            // Given
+            int before = TodoEventBroadcaster.of(bean.getStore()).subscriberCount();
+
+            // When
+            servlet.doGet(mockRequest, mockResponse);
+
+            // Then
+            verify(mockContext).setTimeout(TodoEventServlet.TIMEOUT_MILLIS);
+            verify(mockContext).addListener(any());
+            assertEquals(before + 1, TodoEventBroadcaster.of(bean.getStore()).subscriberCount(),
+                    "セッションのリストの配信元に購読されること");
+        }
+    }
+
+    // =========================================================================
+    // Last-Event-ID
+    // =========================================================================
+
+    @Nested
+    @DisplayName("Last-Event-ID のテスト")
+    class LastEventIdTest {
+
+        @Test
+        @DisplayName("ヘッダーのイベント ID が前後の空白を除いて取得されること")
+        void parsesHeader() {
+            // Given
+            when(mockRequest.getHeader("Last-Event-ID")).thenReturn(" k2x9-42 ");
+
+            // When / Then
+            assertEquals("k2x9-42", TodoEventServlet.lastEventId(mockRequest), "前後の空白を除いて取得されること");
+        }
+
+        @Test
+        @DisplayName("ヘッダーがない場合・空の場合は null になること")
+        void missingOrBlankHeader() {
+            // Given (ヘッダーなし)
+            // When / Then
+            assertNull(TodoEventServlet.lastEventId(mockRequest), "ヘッダーがない場合は null であること");
+
+            // Given
+            when(mockRequest.getHeader("Last-Event-ID")).thenReturn("  ");
+
+            // When / Then
+            assertNull(TodoEventServlet.lastEventId(mockRequest), "空の場合は null であること");
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.todo.web;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * {@link Warmup} の単体テスト。
+ *
+ * <p>Mojarra と同じ形式の HTML・部分描画の応答を返す HTTP サーバー (JDK の {@link HttpServer}) を相手に実行する。</p>
+ *
+ * <p>テスト観点:</p>
+ * <ul>
+ *   <li>一覧 → 追加 → 詳細 → 保存 (PRG) → 完了切り替え → 削除 の順にリクエストすること</li>
+ *   <li>セッションの Cookie・トークンのヘッダー・ビューの状態を送り返し、最後にセッションを破棄すること</li>
+ *   <li>エラーの応答で失敗すること</li>
+ *   <li>トークンによるウォームアップのリクエストの判定</li>
+ * </ul>
+ */
+@DisplayName("Warmup のテスト")
+class WarmupTest {
+
+    private static final String TOKEN = "test-token";
+
+    /** 受け付けたリクエスト (メソッド パス [送信ボタン・ajax の対象]) */
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    /** 受け付けたリクエストの Cookie とトークンのヘッダー */
+    private final List<String> cookies = new CopyOnWriteArrayList<>();
+    private final List<String> tokens = new CopyOnWriteArrayList<>();
+
+    /** 部分描画のリクエストで送られたビューの状態 */
+    private final List<String> ajaxViewStates = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+    private URI base;
+
+    /** 最後に追加された Todo のタイトル */
+    private volatile String title;
+
+    /** 詳細ページを返す代わりにエラーにするかどうか */
+    private volatile boolean failDetail;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/app/", this::handle);
+        server.start();
+        base = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/app/");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    // =========================================================================
+    // run
+    // =========================================================================
+
+    @Nested
+    @DisplayName("run のテスト")
+    class RunTest {
+
+        @Test
+        @DisplayName("正常系: 画面遷移の順にリクエストし、最後にセッションを破棄すること")
+        void run_requestsEveryStepInOrder() throws Exception {
+            // When
+            new Warmup(base, base.resolve("health/ready"), TOKEN).run(1);
+
+            // Then
+            assertEquals(List.of(
+                    "GET /app/todos.xhtml",
+                    "POST /app/todos.xhtml addForm:add",
+                    "GET /app/detail.xhtml?id=7",
+                    "POST /app/detail.xhtml editForm:save",
+                    "GET /app/todos.xhtml",
+                    "POST /app/todos.xhtml ajax listForm:items:0:toggle",
+                    "POST /app/todos.xhtml ajax listForm:items:0:delete",
+                    "GET /app/health/ready"), requests, "画面遷移の順にリクエストし、最後にセッションを破棄すること");
+        }
+
+        @Test
+        @DisplayName("正常系: トークンのヘッダーとセッションの Cookie を送り、部分描画で更新されたビューの状態を使うこと")
+        void run_sendsTokenCookieAndUpdatedViewState() throws Exception {
+            // When
+            new Warmup(base, base.resolve("health/ready"), TOKEN).run(1);
+
+            // Then
+            assertTrue(tokens.stream().allMatch(TOKEN::equals), "すべてのリクエストにトークンを付けること: " + tokens);
+            assertNull(cookies.get(0), "最初のリクエストには Cookie がないこと");
+            assertTrue(cookies.subList(1, cookies.size()).stream().allMatch(c -> c.contains("JSESSIONID=s1")),
+                    "2 番目以降のリクエストでセッションの Cookie を送り返すこと: " + cookies);
+            assertEquals(List.of("list-1", "list-2"), ajaxViewStates,
+                    "2 回目の部分描画は 1 回目の応答で更新されたビューの状態を送ること");
+        }
+
+        @Test
+        @DisplayName("正常系: 指定した回数だけ画面遷移を繰り返すこと")
+        void run_repeatsIterations() throws Exception {
+            // When
+            new Warmup(base, base.resolve("health/ready"), TOKEN).run(3);
+
+            // Then
+            assertEquals(3, requests.stream().filter(r -> r.startsWith("GET /app/detail.xhtml")).count(),
+                    "3 回繰り返すこと");
+            assertEquals(1, requests.stream().filter(r -> r.equals("GET /app/health/ready")).count(),
+                    "セッションの破棄は最後に 1 回だけであること");
+        }
+
+        @Test
+        @DisplayName("異常系: エラーの応答では IOException になり、セッションは破棄すること")
+        void run_errorResponse_throws() {
+            // Given
+            failDetail = true;
+
+            // When / Then
+            IOException e = assertThrows(IOException.class,
+                    () -> new Warmup(base, base.resolve("health/ready"), TOKEN).run(1), "エラーの応答では失敗すること");
+            assertTrue(e.getMessage().contains("500"), "ステータスコードを含むこと: " + e.getMessage());
+            assertEquals("GET /app/health/ready", requests.get(requests.size() - 1), "失敗してもセッションを破棄すること");
+        }
+    }
+
+    // =========================================================================
+    // isWarmupRequest
+    // =========================================================================
+
+    @Nested
+    @DisplayName("isWarmupRequest のテスト")
+    class IsWarmupRequestTest {
+
+        @Test
+        @DisplayName("正常系: ヘッダーがアプリケーション属性のトークンと一致する場合だけ true になること")
+        void isWarmupRequest_matchesToken() {
+            // Given
+            ServletContext context = mock(ServletContext.class);
+            when(context.getAttribute(Warmup.TOKEN_ATTRIBUTE)).thenReturn(TOKEN);
+            HttpServletRequest warmup = request(context, TOKEN);
+            HttpServletRequest forged = request(context, "other");
+            HttpServletRequest normal = request(context, null);
+
+            // When / Then
+            assertTrue(Warmup.isWarmupRequest(warmup), "トークンが一致するリクエスト");
+            assertFalse(Warmup.isWarmupRequest(forged), "トークンが一致しないリクエスト");
+            assertFalse(Warmup.isWarmupRequest(normal), "ヘッダーのないリクエスト");
+        }
+
+        @Test
+        @DisplayName("正常系: トークンが発行されていない場合は false になること")
+        void isWarmupRequest_noToken_returnsFalse() {
+            // Given
+            HttpServletRequest request = request(mock(ServletContext.class), TOKEN);
+
+            // When / Then
+            assertFalse(Warmup.isWarmupRequest(request), "レディネスが初期化されていなければ判定しないこと");
+        }
+
+        private HttpServletRequest request(ServletContext context, String header) {
+            HttpServletRequest request = mock(HttpServletRequest.class);
+            when(request.getServletContext()).thenReturn(context);
+            when(request.getHeader(Warmup.TOKEN_HEADER)).thenReturn(header);
+            return request;
+        }
+    }
+
+    // =========================================================================
+    // 模擬サーバー
+    // =========================================================================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().toString();
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Map<String, String> form = parseForm(body);
+        cookies.add(exchange.getRequestHeaders().getFirst("Cookie"));
+        tokens.add(exchange.getRequestHeaders().getFirst(Warmup.TOKEN_HEADER));
+
+        if (method.equals("GET") && path.equals("/app/todos.xhtml")) {
+            requests.add("GET " + path);
+            if (cookies.size() == 1) {
+                exchange.getResponseHeaders().add("Set-Cookie", "JSESSIONID=s1; Path=/app; HttpOnly");
+                respond(exchange, 200, listPage(null));
+            } else {
+                // PRG のリダイレクト後: Flash の Cookie は読み込み後に削除される
+                exchange.getResponseHeaders().add("Set-Cookie", "csfcfc=1_2; Max-Age=0; Path=/app");
+                respond(exchange, 200, listPage(title));
+            }
+        } else if (method.equals("POST") && "true".equals(form.get("javax.faces.partial.ajax"))) {
+            requests.add("POST " + path + " ajax " + form.get("javax.faces.source"));
+            ajaxViewStates.add(form.get(Warmup.VIEW_STATE));
+            respond(exchange, 200, "<?xml version='1.0' encoding='UTF-8'?>\n<partial-response id=\"j_id1\"><changes>"
+                    + "<update id=\"j_id1:javax.faces.ViewState:0\"><![CDATA[list-" + (ajaxViewStates.size() + 1)
+                    + "]]></update></changes></partial-response>");
+        } else if (method.equals("POST") && form.containsKey("addForm:add")) {
+            requests.add("POST " + path + " addForm:add");
+            title = form.get("addForm:newTitle");
+            respond(exchange, 200, listPage(title));
+        } else if (method.equals("GET") && path.startsWith("/app/detail.xhtml")) {
+            requests.add("GET " + path);
+            if (failDetail) {
+                respond(exchange, 500, "error");
+                return;
+            }
+            respond(exchange, 200, "<html><body><form id=\"editForm\" name=\"editForm\" method=\"post\""
+                    + " action=\"/app/detail.xhtml\">"
+                    + "<input type=\"hidden\" name=\"editForm\" value=\"editForm\" />"
+                    + "<input id=\"editForm:editTitle\" type=\"text\" name=\"editForm:editTitle\" value=\"warmup-1\" />"
+                    + "<textarea id=\"editForm:editDesc\" name=\"editForm:editDesc\">説明</textarea>"
+                    + "<input type=\"submit\" name=\"editForm:save\" value=\"保存\" class=\"btn btn-primary\" />"
+                    + "<input type=\"submit\" name=\"editForm:cancel\" value=\"キャンセル\" class=\"btn btn-secondary\" />"
+                    + "<input type=\"hidden\" name=\"javax.faces.ViewState\" value=\"detail-1\" />"
+                    + "</form></body></html>");
+        } else if (method.equals("POST") && form.containsKey("editForm:save")) {
+            requests.add("POST " + path + " editForm:save");
+            assertEquals("detail-1", form.get(Warmup.VIEW_STATE), "詳細ページのビューの状態を送り返すこと");
+            exchange.getResponseHeaders().add("Set-Cookie", "csfcfc=1_2; Path=/app");
+            exchange.getResponseHeaders().add("Location", "/app/todos.xhtml");
+            respond(exchange, 302, "");
+        } else if (method.equals("GET") && path.equals("/app/health/ready")) {
+            requests.add("GET " + path);
+            respond(exchange, 204, null);
+        } else {
+            requests.add("unexpected " + method + " " + path + " " + form);
+            respond(exchange, 404, "not found");
+        }
+    }
+
+    /** 一覧ページ (追加後は追加された Todo を ID 7 の行として含む) */
+    private static String listPage(String title) {
+        String row = title == null ? "" : "<div id=\"listForm:items:0:row\" data-todo-id=\"7\" class=\"todo-item\">"
+                + "<input type=\"submit\" name=\"listForm:items:0:toggle\" id=\"listForm:items:0:toggle\" value=\"○\""
+                + " class=\"btn-toggle toggle-open\" onclick=\"mojarra.ab(this,event,'action',0,"
+                + "'listForm:items:0:row stats');return false\" />"
+                + "<span class=\"todo-title\">" + title + "</span>"
+                + "<input type=\"submit\" name=\"listForm:items:0:delete\" id=\"listForm:items:0:delete\" value=\"削除\""
+                + " class=\"btn btn-danger\" onclick=\"jsf.util.chain(this,event,'return confirm(\\'削除しますか？\\')',"
+                + "'mojarra.ab(this,event,\\'action\\',0,\\'listForm stats messagesPanel\\')');"
+                + "return false\" /></div>";
+        return "<html><body>"
+                + "<form id=\"addForm\" name=\"addForm\" method=\"post\" action=\"/app/todos.xhtml\">"
+                + "<input type=\"hidden\" name=\"addForm\" value=\"addForm\" />"
+                + "<input id=\"addForm:newTitle\" type=\"text\" name=\"addForm:newTitle\" />"
+                + "<textarea id=\"addForm:newDesc\" name=\"addForm:newDesc\"></textarea>"
+                + "<input type=\"submit\" name=\"addForm:add\" value=\"追加する\" class=\"btn btn-primary\" />"
+                + "<input type=\"hidden\" name=\"javax.faces.ViewState\" value=\"add-1\" />"
+                + "</form>"
+                + "<form id=\"listForm\" name=\"listForm\" method=\"post\" action=\"/app/todos.xhtml\">"
+                + "<input type=\"hidden\" name=\"listForm\" value=\"listForm\" />" + row
+                + "<input type=\"hidden\" name=\"javax.faces.ViewState\" value=\"list-1\" />"
+                + "</form></body></html>";
+    }
+
+    private static Map<String, String> parseForm(String body) {
+        Map<String, String> form = new LinkedHashMap<>();
+        for (String pair : body.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                form.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return form;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        exchange.sendResponseHeaders(status, body == null ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
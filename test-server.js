@@ -152,7 +152,7 @@ function detailPage(todo, flash) {
 <div class="container">
   <header><h1>📋 Todo 詳細・編集</h1></header>
   <section class="card error-section">
-    <p>⚠ Todoが見つかりません。セッションが切れた可能性があります。</p>
+    <p>⚠ Todoが見つかりません。削除されたか、IDが正しくない可能性があります。</p>
     <a href="/todos" class="btn btn-secondary">← 一覧に戻る</a>
   </section>
 </div>`);
@@ -163,7 +163,7 @@ function detailPage(todo, flash) {
   <header><h1>📋 Todo 詳細・編集</h1></header>
   ${msg}
   <section class="card">
-    <h3>📄 基本情報 (Flashから取得)</h3>
+    <h3>📄 基本情報</h3>
     <table class="info-table">
       <tr><th>ID</th><td>${todo.id}</td></tr>
       <tr><th>ステータス</th><td>